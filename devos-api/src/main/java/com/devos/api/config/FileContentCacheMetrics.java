@@ -0,0 +1,37 @@
+package com.devos.api.config;
+
+import com.devos.core.cache.WeightedLruCache;
+import com.devos.core.filesystem.FileContentCache;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+public class FileContentCacheMetrics implements MeterBinder {
+
+    private final FileContentCache fileContentCache;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        WeightedLruCache<?, ?> cache = fileContentCache.getCache();
+        FunctionCounter.builder("devos.file.content.cache.requests", cache, WeightedLruCache::getHits)
+                .tag("result", "hit")
+                .description("File reads that found a cached entry")
+                .register(registry);
+        FunctionCounter.builder("devos.file.content.cache.requests", cache, WeightedLruCache::getMisses)
+                .tag("result", "miss")
+                .description("File reads that found no cached entry")
+                .register(registry);
+        FunctionCounter.builder("devos.file.content.cache.evictions", cache, WeightedLruCache::getEvictions)
+                .register(registry);
+        Gauge.builder("devos.file.content.cache.size", cache, WeightedLruCache::size)
+                .register(registry);
+        Gauge.builder("devos.file.content.cache.weight", cache, WeightedLruCache::weight)
+                .baseUnit("bytes")
+                .register(registry);
+    }
+}
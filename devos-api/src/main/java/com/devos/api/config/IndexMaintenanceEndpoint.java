@@ -0,0 +1,35 @@
+package com.devos.api.config;
+
+import com.devos.core.indexing.IndexMaintenance;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Index health at /actuator/indexes: per-index segment, deleted-document and disk size stats,
+ * largest first.
+ */
+@Component
+@Endpoint(id = "indexes")
+@RequiredArgsConstructor
+public class IndexMaintenanceEndpoint {
+
+    private final IndexMaintenance indexMaintenance;
+
+    @ReadOperation
+    public Map<String, Object> indexes() {
+        List<IndexMaintenance.IndexStats> stats = indexMaintenance.getStats();
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("count", stats.size());
+        response.put("totalSizeInBytes", stats.stream().mapToLong(IndexMaintenance.IndexStats::sizeInBytes).sum());
+        response.put("maxSegments", stats.stream().mapToInt(IndexMaintenance.IndexStats::segments).max().orElse(0));
+        response.put("maxDeletedRatio", stats.stream().mapToDouble(IndexMaintenance.IndexStats::deletedRatio).max().orElse(0));
+        response.put("indexes", stats);
+        return response;
+    }
+}
@@ -0,0 +1,33 @@
+package com.devos.api.config;
+
+import com.devos.core.indexing.IndexMaintenance;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+// Aggregates over all indexes, enough to alert on bloat; /actuator/indexes has the breakdown
+@Component
+@RequiredArgsConstructor
+public class IndexMaintenanceMetrics implements MeterBinder {
+
+    private final IndexMaintenance indexMaintenance;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("devos.index.size", indexMaintenance,
+                        m -> m.getStats().stream().mapToLong(IndexMaintenance.IndexStats::sizeInBytes).sum())
+                .baseUnit("bytes")
+                .description("Disk size of all measured indexes")
+                .register(registry);
+        Gauge.builder("devos.index.segments.max", indexMaintenance,
+                        m -> m.getStats().stream().mapToInt(IndexMaintenance.IndexStats::segments).max().orElse(0))
+                .description("Segment count of the most fragmented index")
+                .register(registry);
+        Gauge.builder("devos.index.deleted.ratio.max", indexMaintenance,
+                        m -> m.getStats().stream().mapToDouble(IndexMaintenance.IndexStats::deletedRatio).max().orElse(0))
+                .description("Share of deleted documents in the most bloated index")
+                .register(registry);
+    }
+}
@@ -0,0 +1,37 @@
+package com.devos.api.config;
+
+import com.devos.core.cache.WeightedLruCache;
+import com.devos.core.indexing.SearchResultCache;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+public class SearchCacheMetrics implements MeterBinder {
+
+    private final SearchResultCache searchResultCache;
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        WeightedLruCache<?, ?> cache = searchResultCache.getCache();
+        FunctionCounter.builder("devos.search.cache.requests", cache, WeightedLruCache::getHits)
+                .tag("result", "hit")
+                .description("Search requests answered from the cache")
+                .register(registry);
+        FunctionCounter.builder("devos.search.cache.requests", cache, WeightedLruCache::getMisses)
+                .tag("result", "miss")
+                .description("Search requests that had to query the index")
+                .register(registry);
+        FunctionCounter.builder("devos.search.cache.evictions", cache, WeightedLruCache::getEvictions)
+                .register(registry);
+        Gauge.builder("devos.search.cache.size", cache, WeightedLruCache::size)
+                .register(registry);
+        Gauge.builder("devos.search.cache.weight", cache, WeightedLruCache::weight)
+                .baseUnit("bytes")
+                .register(registry);
+    }
+}
@@ -1,16 +1,41 @@
 package com.devos.api.controller;
 
+import com.devos.core.service.FileIndexingService;
 import com.devos.core.service.FileService;
 import com.devos.core.service.DiffService;
+import com.devos.core.service.ProjectService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.util.StreamUtils;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.List;
 import java.util.Map;
+import java.util.zip.GZIPOutputStream;
 
 @RestController
 @RequestMapping("/api/files")
@@ -19,12 +44,22 @@ public class FileController {
 
     private final FileService fileService;
     private final DiffService diffService;
+    private final FileIndexingService fileIndexingService;
+    private final ProjectService projectService;
+
+    // Smaller files are not worth the gzip framing
+    @Value("${devos.file.raw-gzip-min-bytes:1024}")
+    private long rawGzipMinBytes = 1024;
 
     public FileController(
             @Qualifier("coreFileServiceImpl") FileService fileService,
-            @Qualifier("coreDiffServiceImpl") DiffService diffService) {
+            @Qualifier("coreDiffServiceImpl") DiffService diffService,
+            FileIndexingService fileIndexingService,
+            ProjectService projectService) {
         this.fileService = fileService;
         this.diffService = diffService;
+        this.fileIndexingService = fileIndexingService;
+        this.projectService = projectService;
     }
 
     @GetMapping("/{projectId}/content")
@@ -37,6 +72,80 @@ public class FileController {
         return ResponseEntity.ok(content);
     }
 
+    /**
+     * Streams a file's bytes from disk, so memory use does not grow with the file. Supports a
+     * single byte range, conditional requests on an ETag built from modification time and
+     * size, and gzip for text when the client accepts it and no range was asked for.
+     */
+    @GetMapping("/{projectId}/content/raw")
+    @PreAuthorize("hasRole('DEVELOPER') or hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> streamFileContent(
+            @PathVariable("projectId") Long projectId,
+            @RequestParam("filePath") String filePath,
+            @RequestHeader HttpHeaders headers,
+            ServletWebRequest webRequest) throws IOException {
+
+        projectService.getProject(projectId); // Ownership check
+        Path file = fileService.resolveFilePath(projectId, filePath);
+        BasicFileAttributes attrs = Files.readAttributes(file, BasicFileAttributes.class);
+        long size = attrs.size();
+        long lastModified = attrs.lastModifiedTime().toMillis();
+        MediaType mediaType = MediaTypeFactory.getMediaType(file.getFileName().toString())
+                .orElse(MediaType.APPLICATION_OCTET_STREAM);
+
+        String range = headers.getFirst(HttpHeaders.RANGE);
+        boolean gzip = range == null && size >= rawGzipMinBytes && isCompressible(mediaType) && acceptsGzip(headers);
+        String eTag = "\"" + Long.toHexString(lastModified) + "-" + Long.toHexString(size) + (gzip ? "-gzip" : "") + "\"";
+        // Answers If-None-Match / If-Modified-Since with 304, otherwise sets ETag and Last-Modified
+        if (webRequest.checkNotModified(eTag, lastModified)) {
+            return null;
+        }
+
+        HttpHeaders responseHeaders = new HttpHeaders();
+        responseHeaders.set(HttpHeaders.ACCEPT_RANGES, "bytes");
+        responseHeaders.set(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        responseHeaders.setContentType(mediaType);
+
+        if (range != null && ifRangeMatches(headers.getFirst(HttpHeaders.IF_RANGE), eTag, lastModified)) {
+            List<HttpRange> ranges;
+            try {
+                ranges = HttpRange.parseRanges(range);
+            } catch (IllegalArgumentException e) {
+                ranges = List.of(); // Malformed ranges are ignored
+            }
+            // Multiple ranges get the whole file, which the client has to accept
+            if (ranges.size() == 1) {
+                long start = ranges.get(0).getRangeStart(size);
+                long end = ranges.get(0).getRangeEnd(size);
+                if (start >= size || end < start) {
+                    return ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE)
+                            .header(HttpHeaders.CONTENT_RANGE, "bytes */" + size)
+                            .build();
+                }
+                return ResponseEntity.status(HttpStatus.PARTIAL_CONTENT)
+                        .headers(responseHeaders)
+                        .header(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + size)
+                        .contentLength(end - start + 1)
+                        .body(out -> transfer(file, start, end - start + 1, out));
+            }
+        }
+
+        if (gzip) {
+            return ResponseEntity.ok()
+                    .headers(responseHeaders)
+                    .header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                    .body(out -> {
+                        try (GZIPOutputStream gzipOut = new GZIPOutputStream(StreamUtils.nonClosing(out), 8192)) {
+                            Files.copy(file, gzipOut);
+                        }
+                    });
+        }
+        return ResponseEntity.ok()
+                .headers(responseHeaders)
+                .contentLength(size)
+                .body(out -> transfer(file, 0, size, out));
+    }
+
     @PostMapping("/{projectId}/content")
     @PreAuthorize("hasRole('DEVELOPER') or hasRole('ADMIN')")
     public ResponseEntity<Void> setFileContent(
@@ -149,4 +258,88 @@ public class FileController {
         
         return ResponseEntity.ok(results);
     }
+
+    @GetMapping("/{projectId}/find")
+    @PreAuthorize("hasRole('DEVELOPER') or hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> findFiles(
+            @PathVariable("projectId") Long projectId,
+            @RequestParam(name = "query", defaultValue = "") String query,
+            @RequestParam(name = "limit", defaultValue = "50") int limit) {
+
+        projectService.getProject(projectId); // Ownership check
+        return ResponseEntity.ok(fileService.findFiles(projectId, query, limit));
+    }
+
+    @GetMapping("/{projectId}/suggest")
+    @PreAuthorize("hasRole('DEVELOPER') or hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> suggest(
+            @PathVariable("projectId") Long projectId,
+            @RequestParam("query") String query,
+            @RequestParam(name = "limit", defaultValue = "10") int limit,
+            @RequestParam(name = "type", required = false) List<String> types) {
+
+        projectService.getProject(projectId); // Ownership check
+        return ResponseEntity.ok(fileIndexingService.suggest(projectId, query, limit, types));
+    }
+
+    @GetMapping("/{projectId}/grep")
+    @PreAuthorize("hasRole('DEVELOPER') or hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> grep(
+            @PathVariable("projectId") Long projectId,
+            @RequestParam("pattern") String pattern,
+            @RequestParam(name = "regex", defaultValue = "false") boolean regex,
+            @RequestParam(name = "caseSensitive", defaultValue = "true") boolean caseSensitive,
+            @RequestParam(name = "filePattern", required = false) String filePattern,
+            @RequestParam(name = "maxResults", defaultValue = "500") int maxResults) {
+
+        projectService.getProject(projectId); // Ownership check
+        Map<String, Object> results = fileIndexingService.grep(projectId, pattern, regex, caseSensitive, filePattern, maxResults);
+
+        return ResponseEntity.ok(results);
+    }
+
+    // Copies through the channel in chunks; the response stream is left open for the container
+    private static void transfer(Path file, long position, long count, OutputStream out) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            WritableByteChannel target = Channels.newChannel(out);
+            long sent = 0;
+            while (sent < count) {
+                long n = channel.transferTo(position + sent, count - sent, target);
+                if (n <= 0) break; // The file shrank since its size was read
+                sent += n;
+            }
+        }
+    }
+
+    // An If-Range that no longer matches means the client's partial copy is stale: send it all
+    private static boolean ifRangeMatches(String ifRange, String eTag, long lastModified) {
+        if (ifRange == null) return true;
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) return ifRange.equals(eTag);
+        try {
+            ZonedDateTime date = ZonedDateTime.parse(ifRange, DateTimeFormatter.RFC_1123_DATE_TIME);
+            return date.toEpochSecond() == lastModified / 1000;
+        } catch (DateTimeParseException e) {
+            return false;
+        }
+    }
+
+    private static boolean isCompressible(MediaType mediaType) {
+        String subtype = mediaType.getSubtype();
+        return "text".equals(mediaType.getType())
+                || subtype.equals("json") || subtype.endsWith("+json")
+                || subtype.equals("xml") || subtype.endsWith("+xml")
+                || subtype.equals("javascript");
+    }
+
+    private static boolean acceptsGzip(HttpHeaders headers) {
+        for (String value : headers.getOrEmpty(HttpHeaders.ACCEPT_ENCODING)) {
+            for (String coding : value.split(",")) {
+                String[] parts = coding.trim().split(";");
+                if (parts[0].trim().equalsIgnoreCase("gzip")) {
+                    return parts.length < 2 || !parts[1].replace(" ", "").equals("q=0");
+                }
+            }
+        }
+        return false;
+    }
 }
@@ -2,8 +2,14 @@ package com.devos.api.controller;
 
 import com.devos.api.dto.ProjectDto;
 import com.devos.core.domain.entity.Project;
+import com.devos.core.filesystem.FileTree;
+import com.devos.core.indexing.IndexSnapshots;
+import com.devos.core.indexing.IndexingJob;
+import com.devos.core.indexing.SearchFacets;
 import com.devos.core.service.ProjectService;
 import com.devos.core.service.FileIndexingService;
+import com.devos.core.service.IndexingJobService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -11,11 +17,21 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 @RestController
@@ -26,6 +42,9 @@ public class ProjectController {
 
     private final ProjectService projectService;
     private final FileIndexingService fileIndexingService;
+    private final IndexingJobService indexingJobService;
+    private final IndexSnapshots indexSnapshots;
+    private final ObjectMapper objectMapper;
 
     @GetMapping
     @PreAuthorize("isAuthenticated()")
@@ -86,21 +105,236 @@ public class ProjectController {
     @PreAuthorize("isAuthenticated()")
     public ResponseEntity<Object> getFileTree(
             @PathVariable("id") Long id,
-            @RequestParam(name = "includeContent", defaultValue = "false") boolean includeContent) {
-        
-        Object fileTree = projectService.getFileTree(id, includeContent);
-        
-        return ResponseEntity.ok(fileTree);
+            @RequestParam(name = "includeContent", defaultValue = "false") boolean includeContent,
+            @RequestParam(name = "lazy", defaultValue = "false") boolean lazy,
+            @RequestParam(name = "path", defaultValue = "") String path,
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "limit", defaultValue = "200") int limit) {
+
+        if (lazy) {
+            // One directory level at a time; entries say whether a directory has anything to expand
+            Map<String, Object> level = projectService.getFileTreeLevel(id, path, cursor, limit);
+            return ResponseEntity.ok()
+                    .eTag("\"" + level.get("generation") + "\"")
+                    .body(level);
+        }
+
+        // Clients revalidate with If-None-Match and get a 304 while the tree is unchanged
+        FileTree.View fileTree = projectService.getFileTreeView(id);
+
+        return ResponseEntity.ok()
+                .eTag("\"" + fileTree.generation() + "\"")
+                .body(fileTree.nodes());
+    }
+
+    /**
+     * Lazy listing as NDJSON: one entry per line, followed by a line with the generation,
+     * total and nextCursor of the page, so clients can render entries as they arrive.
+     */
+    @GetMapping(value = "/{id}/file-tree", params = "format=ndjson")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<StreamingResponseBody> streamFileTreeLevel(
+            @PathVariable("id") Long id,
+            @RequestParam(name = "path", defaultValue = "") String path,
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "limit", defaultValue = "200") int limit) {
+
+        Map<String, Object> level = new LinkedHashMap<>(projectService.getFileTreeLevel(id, path, cursor, limit));
+        @SuppressWarnings("unchecked")
+        List<Map<String, Object>> entries = (List<Map<String, Object>>) level.remove("entries");
+        StreamingResponseBody body = out -> {
+            for (Map<String, Object> entry : entries) {
+                // writeValue(OutputStream) would close the response stream after the first line
+                out.write(objectMapper.writeValueAsBytes(entry));
+                out.write('\n');
+            }
+            out.write(objectMapper.writeValueAsBytes(level));
+            out.write('\n');
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .eTag("\"" + level.get("generation") + "\"")
+                .body(body);
+    }
+
+    @GetMapping("/{id}/file-tree/changes")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<Map<String, Object>> getFileTreeChanges(
+            @PathVariable("id") Long id,
+            @RequestParam(name = "since") long since) {
+
+        return ResponseEntity.ok(projectService.getFileTreeChanges(id, since));
     }
 
     @PostMapping("/{id}/index")
     @PreAuthorize("hasRole('DEVELOPER') or hasRole('ADMIN')")
-    public ResponseEntity<Void> indexProject(@PathVariable("id") Long id) {
-        // fileIndexingService should also be refactored or handles internally
-        fileIndexingService.indexProject(id);
-        
-        log.info("Project indexing started for ID: {}", id);
-        return ResponseEntity.accepted().build();
+    public ResponseEntity<Map<String, Object>> indexProject(
+            @PathVariable("id") Long id,
+            @RequestParam(name = "type", defaultValue = "full") String type,
+            @RequestParam(name = "priority", defaultValue = "normal") String priority) {
+
+        IndexingJob.Type jobType;
+        IndexingJob.Priority jobPriority;
+        try {
+            jobType = IndexingJob.Type.valueOf(type.toUpperCase(Locale.ROOT));
+            jobPriority = IndexingJob.Priority.valueOf(priority.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error",
+                    "type must be one of full, incremental, git_sync and priority one of low, normal, high"));
+        }
+
+        projectService.getProject(id); // Ownership check
+        IndexingJob job = indexingJobService.submit(id, jobType, jobPriority);
+        log.info("Project indexing queued for ID: {} as job {}", id, job.getId());
+        return ResponseEntity.accepted().body(job.toMap());
+    }
+
+    @GetMapping("/{id}/index/jobs")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<List<Map<String, Object>>> getIndexingJobs(@PathVariable("id") Long id) {
+        projectService.getProject(id);
+        return ResponseEntity.ok(indexingJobService.getProjectJobs(id).stream().map(IndexingJob::toMap).toList());
+    }
+
+    @GetMapping("/{id}/index/jobs/{jobId}")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<Map<String, Object>> getIndexingJob(
+            @PathVariable("id") Long id,
+            @PathVariable("jobId") String jobId) {
+
+        projectService.getProject(id);
+        return indexingJobService.getJob(jobId)
+                .filter(job -> job.getProjectId().equals(id))
+                .map(job -> ResponseEntity.ok(job.toMap()))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @DeleteMapping("/{id}/index/jobs/{jobId}")
+    @PreAuthorize("hasRole('DEVELOPER') or hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> cancelIndexingJob(
+            @PathVariable("id") Long id,
+            @PathVariable("jobId") String jobId) {
+
+        projectService.getProject(id);
+        Optional<IndexingJob> job = indexingJobService.getJob(jobId).filter(j -> j.getProjectId().equals(id));
+        if (job.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        if (!indexingJobService.cancel(jobId)) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(job.get().toMap());
+        }
+        return ResponseEntity.accepted().body(job.get().toMap());
+    }
+
+    @GetMapping("/{id}/index/snapshot")
+    @PreAuthorize("hasRole('DEVELOPER') or hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> exportIndexSnapshot(@PathVariable("id") Long id) {
+        projectService.getProject(id);
+        StreamingResponseBody body = out -> indexSnapshots.export(id, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/zip"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"project-" + id + "-index.zip\"")
+                .body(body);
+    }
+
+    /**
+     * Replaces the project's indexes with an exported snapshot, then queues an incremental job
+     * that re-indexes whatever changed on disk since the snapshot was taken.
+     */
+    @PostMapping(value = "/{id}/index/snapshot", consumes = "application/zip")
+    @PreAuthorize("hasRole('DEVELOPER') or hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> restoreIndexSnapshot(
+            @PathVariable("id") Long id,
+            InputStream archive) throws IOException {
+
+        projectService.getProject(id);
+        Map<String, Object> response = new LinkedHashMap<>();
+        try {
+            response.put("restored", indexSnapshots.restore(id, archive));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (IllegalStateException e) {
+            // An indexing job or watcher update is writing; the swap waits for no one
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+        }
+        IndexingJob job = indexingJobService.submit(id, IndexingJob.Type.INCREMENTAL, IndexingJob.Priority.HIGH);
+        log.info("Restored index snapshot for project ID: {}, catch-up job {}", id, job.getId());
+        response.put("job", job.toMap());
+        return ResponseEntity.accepted().body(response);
+    }
+
+    @GetMapping("/{id}/search")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<Map<String, Object>> searchInProject(
+            @PathVariable("id") Long id,
+            @RequestParam("query") String query,
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "pageSize", defaultValue = "20") int pageSize,
+            @RequestParam(name = "facet", required = false) List<String> facets) {
+
+        projectService.getProject(id); // Ownership check
+        Map<String, List<String>> facetFilters;
+        try {
+            facetFilters = SearchFacets.parseFilters(facets);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage(), "results", List.of()));
+        }
+        return ResponseEntity.ok(fileIndexingService.searchInProject(id, query, cursor, pageSize, facetFilters));
+    }
+
+    @GetMapping("/{id}/search/semantic")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<Map<String, Object>> semanticSearch(
+            @PathVariable("id") Long id,
+            @RequestParam("query") String query,
+            @RequestParam(name = "k", defaultValue = "10") int k) {
+
+        projectService.getProject(id); // Ownership check
+        return ResponseEntity.ok(fileIndexingService.semanticSearch(id, query, k));
+    }
+
+    @GetMapping("/{id}/search/hybrid")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<Map<String, Object>> hybridSearch(
+            @PathVariable("id") Long id,
+            @RequestParam("query") String query,
+            @RequestParam(name = "k", defaultValue = "20") int k,
+            @RequestParam(name = "lexicalWeight", defaultValue = "1.0") double lexicalWeight,
+            @RequestParam(name = "semanticWeight", defaultValue = "1.0") double semanticWeight,
+            @RequestParam(name = "budgetMs", defaultValue = "0") long budgetMs) {
+
+        projectService.getProject(id); // Ownership check
+        return ResponseEntity.ok(fileIndexingService.hybridSearch(id, query, k, lexicalWeight, semanticWeight, budgetMs));
+    }
+
+    @GetMapping("/search/code")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<Map<String, Object>> searchAcrossProjects(
+            @RequestParam("query") String query,
+            @RequestParam(name = "k", defaultValue = "20") int k) {
+
+        List<Long> projectIds = projectService.getUserIndexedProjects().stream().map(Project::getId).toList();
+        return ResponseEntity.ok(fileIndexingService.searchAcrossProjects(projectIds, query, k));
+    }
+
+    @GetMapping("/{id}/symbols/definition")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<Map<String, Object>> findDefinition(
+            @PathVariable("id") Long id,
+            @RequestParam("name") String name) {
+
+        projectService.getProject(id); // Ownership check
+        return ResponseEntity.ok(fileIndexingService.findDefinition(id, name));
+    }
+
+    @GetMapping("/{id}/symbols/references")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<Map<String, Object>> findReferences(
+            @PathVariable("id") Long id,
+            @RequestParam("name") String name) {
+
+        projectService.getProject(id); // Ownership check
+        return ResponseEntity.ok(fileIndexingService.findReferences(id, name));
     }
 
     @GetMapping("/search")
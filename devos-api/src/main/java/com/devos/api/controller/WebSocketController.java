@@ -1,9 +1,11 @@
 package com.devos.api.controller;
 
 import com.devos.ai.service.AIChatService;
+import com.devos.core.event.IndexingJobEvent;
 import com.devos.core.service.ActionPlanService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
 import org.springframework.messaging.handler.annotation.DestinationVariable;
 import org.springframework.messaging.handler.annotation.MessageMapping;
 import org.springframework.messaging.handler.annotation.Payload;
@@ -149,6 +151,16 @@ public class WebSocketController {
         messagingTemplate.convertAndSend("/topic/project/" + projectId, update);
     }
 
+    // Relays indexing job state and progress to the project topic
+    @EventListener
+    public void onIndexingJobEvent(IndexingJobEvent event) {
+        sendProjectUpdate(event.projectId(), Map.of(
+                "type", "indexing_job",
+                "job", event.job(),
+                "timestamp", System.currentTimeMillis()
+        ));
+    }
+
     // Method to send user-specific notifications
     public void sendUserNotification(String username, Object notification) {
         messagingTemplate.convertAndSendToUser(username, "/queue/notifications", notification);
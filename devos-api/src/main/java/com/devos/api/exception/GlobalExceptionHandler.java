@@ -130,9 +130,10 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(errorResponse);
     }
 
-    @ExceptionHandler(AccessDeniedException.class)
+    // Services throw SecurityException when the current user does not own the project
+    @ExceptionHandler({AccessDeniedException.class, SecurityException.class})
     public ResponseEntity<ErrorResponse> handleAccessDenied(
-            AccessDeniedException ex, WebRequest request) {
+            RuntimeException ex, WebRequest request) {
         
         log.warn("Access denied: {}", ex.getMessage());
         
@@ -0,0 +1,186 @@
+package com.devos.api.controller;
+
+import com.devos.api.exception.GlobalExceptionHandler;
+import com.devos.core.service.DiffService;
+import com.devos.core.service.FileIndexingService;
+import com.devos.core.service.FileService;
+import com.devos.core.service.ProjectService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ExtendWith(MockitoExtension.class)
+class FileControllerTest {
+
+    @TempDir
+    Path tmp;
+
+    @Mock
+    private FileService fileService;
+    @Mock
+    private DiffService diffService;
+    @Mock
+    private FileIndexingService fileIndexingService;
+    @Mock
+    private ProjectService projectService;
+
+    private MockMvc mvc;
+    private String content;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        content = "0123456789abcdef".repeat(128);
+        Path file = Files.writeString(tmp.resolve("notes.txt"), content);
+        lenient().when(fileService.resolveFilePath(1L, "notes.txt")).thenReturn(file);
+        // Project 2 belongs to someone else
+        lenient().when(projectService.getProject(2L)).thenThrow(new SecurityException("Access denied"));
+
+        FileController controller = new FileController(fileService, diffService, fileIndexingService, projectService);
+        mvc = MockMvcBuilders.standaloneSetup(controller)
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+    }
+
+    @Test
+    void streamsTheWholeFile() throws Exception {
+        MockHttpServletResponse response = stream(raw());
+
+        assertEquals(200, response.getStatus());
+        assertEquals(content, response.getContentAsString());
+        assertEquals(content.length(), response.getContentLengthLong());
+        assertEquals("bytes", response.getHeader(HttpHeaders.ACCEPT_RANGES));
+        assertNotNull(response.getHeader(HttpHeaders.ETAG));
+        assertNotNull(response.getHeader(HttpHeaders.LAST_MODIFIED));
+        assertNull(response.getHeader(HttpHeaders.CONTENT_ENCODING));
+    }
+
+    @Test
+    void servesSingleByteRanges() throws Exception {
+        MockHttpServletResponse range = stream(raw().header(HttpHeaders.RANGE, "bytes=10-19"));
+        assertEquals(206, range.getStatus());
+        assertEquals("bytes 10-19/2048", range.getHeader(HttpHeaders.CONTENT_RANGE));
+        assertEquals(content.substring(10, 20), range.getContentAsString());
+
+        MockHttpServletResponse suffix = stream(raw().header(HttpHeaders.RANGE, "bytes=-5"));
+        assertEquals(206, suffix.getStatus());
+        assertEquals("bytes 2043-2047/2048", suffix.getHeader(HttpHeaders.CONTENT_RANGE));
+        assertEquals(content.substring(2043), suffix.getContentAsString());
+
+        // Several ranges are answered with the whole file
+        MockHttpServletResponse multiple = stream(raw().header(HttpHeaders.RANGE, "bytes=0-1,5-6"));
+        assertEquals(200, multiple.getStatus());
+        assertEquals(content, multiple.getContentAsString());
+    }
+
+    @Test
+    void rejectsRangesPastTheEnd() throws Exception {
+        mvc.perform(raw().header(HttpHeaders.RANGE, "bytes=5000-"))
+                .andExpect(status().isRequestedRangeNotSatisfiable())
+                .andExpect(result -> assertEquals("bytes */2048",
+                        result.getResponse().getHeader(HttpHeaders.CONTENT_RANGE)));
+    }
+
+    @Test
+    void gzipsTextOnlyWithoutARange() throws Exception {
+        MockHttpServletResponse gzipped = stream(raw().header(HttpHeaders.ACCEPT_ENCODING, "br, gzip"));
+        assertEquals(200, gzipped.getStatus());
+        assertEquals("gzip", gzipped.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertTrue(gzipped.getHeader(HttpHeaders.ETAG).endsWith("-gzip\""));
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(gzipped.getContentAsByteArray()))) {
+            assertEquals(content, new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+
+        MockHttpServletResponse refused = stream(raw().header(HttpHeaders.ACCEPT_ENCODING, "gzip;q=0"));
+        assertNull(refused.getHeader(HttpHeaders.CONTENT_ENCODING));
+
+        MockHttpServletResponse range = stream(raw()
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+                .header(HttpHeaders.RANGE, "bytes=0-3"));
+        assertEquals(206, range.getStatus());
+        assertNull(range.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertEquals("0123", range.getContentAsString());
+    }
+
+    @Test
+    void answersConditionalRequests() throws Exception {
+        String eTag = stream(raw()).getHeader(HttpHeaders.ETAG);
+
+        mvc.perform(raw().header(HttpHeaders.IF_NONE_MATCH, eTag))
+                .andExpect(status().isNotModified());
+
+        MockHttpServletResponse current = stream(raw()
+                .header(HttpHeaders.RANGE, "bytes=0-3")
+                .header(HttpHeaders.IF_RANGE, eTag));
+        assertEquals(206, current.getStatus());
+
+        // A stale If-Range gets the whole file instead of a piece of the new one
+        MockHttpServletResponse stale = stream(raw()
+                .header(HttpHeaders.RANGE, "bytes=0-3")
+                .header(HttpHeaders.IF_RANGE, "\"0-0\""));
+        assertEquals(200, stale.getStatus());
+        assertEquals(content, stale.getContentAsString());
+    }
+
+    @Test
+    void streamingIsForbiddenInOtherUsersProjects() throws Exception {
+        mvc.perform(get("/api/files/2/content/raw").param("filePath", "notes.txt"))
+                .andExpect(status().isForbidden());
+        verify(fileService, never()).resolveFilePath(any(), any());
+    }
+
+    @Test
+    void grepIsForbiddenInOtherUsersProjects() throws Exception {
+        mvc.perform(get("/api/files/2/grep").param("pattern", "password"))
+                .andExpect(status().isForbidden());
+        verifyNoInteractions(fileIndexingService);
+    }
+
+    @Test
+    void suggestionsAreForbiddenInOtherUsersProjects() throws Exception {
+        mvc.perform(get("/api/files/2/suggest").param("query", "Us"))
+                .andExpect(status().isForbidden());
+        verifyNoInteractions(fileIndexingService);
+    }
+
+    @Test
+    void findingFilesIsForbiddenInOtherUsersProjects() throws Exception {
+        mvc.perform(get("/api/files/2/find").param("query", "secret"))
+                .andExpect(status().isForbidden());
+        verifyNoInteractions(fileService);
+    }
+
+    private static MockHttpServletRequestBuilder raw() {
+        return get("/api/files/1/content/raw").param("filePath", "notes.txt");
+    }
+
+    // Streaming bodies are written after an async dispatch
+    private MockHttpServletResponse stream(MockHttpServletRequestBuilder builder) throws Exception {
+        MvcResult started = mvc.perform(builder)
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return mvc.perform(asyncDispatch(started)).andReturn().getResponse();
+    }
+}
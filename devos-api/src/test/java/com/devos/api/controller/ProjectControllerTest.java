@@ -0,0 +1,87 @@
+package com.devos.api.controller;
+
+import com.devos.api.exception.GlobalExceptionHandler;
+import com.devos.core.domain.entity.Project;
+import com.devos.core.domain.entity.User;
+import com.devos.core.repository.ProjectRepository;
+import com.devos.core.service.AuthService;
+import com.devos.core.service.FileIndexingService;
+import com.devos.core.service.IndexingJobService;
+import com.devos.core.service.impl.ProjectServiceImpl;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.Optional;
+
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ExtendWith(MockitoExtension.class)
+class ProjectControllerTest {
+
+    @Mock
+    private ProjectRepository projectRepository;
+    @Mock
+    private AuthService authService;
+    @Mock
+    private FileIndexingService fileIndexingService;
+    @Mock
+    private IndexingJobService indexingJobService;
+
+    @InjectMocks
+    private ProjectServiceImpl projectService;
+
+    private MockMvc mvc;
+
+    @BeforeEach
+    void setUp() {
+        // Project 10 belongs to user 1; the requests come from user 2
+        Project project = Project.builder().id(10L).user(User.builder().id(1L).build()).build();
+        when(projectRepository.findById(10L)).thenReturn(Optional.of(project));
+        when(authService.getCurrentUser()).thenReturn(User.builder().id(2L).build());
+
+        ProjectController controller = new ProjectController(projectService, fileIndexingService, indexingJobService,
+                null, new ObjectMapper());
+        mvc = MockMvcBuilders.standaloneSetup(controller)
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+    }
+
+    @Test
+    void searchIsForbiddenInOtherUsersProjects() throws Exception {
+        mvc.perform(get("/api/projects/10/search").param("query", "password"))
+                .andExpect(status().isForbidden());
+        verifyNoInteractions(fileIndexingService);
+    }
+
+    @Test
+    void symbolLookupsAreForbiddenInOtherUsersProjects() throws Exception {
+        mvc.perform(get("/api/projects/10/symbols/definition").param("name", "UserService"))
+                .andExpect(status().isForbidden());
+        mvc.perform(get("/api/projects/10/symbols/references").param("name", "UserService"))
+                .andExpect(status().isForbidden());
+        verifyNoInteractions(fileIndexingService);
+    }
+
+    @Test
+    void semanticSearchIsForbiddenInOtherUsersProjects() throws Exception {
+        mvc.perform(get("/api/projects/10/search/semantic").param("query", "load the user"))
+                .andExpect(status().isForbidden());
+        verifyNoInteractions(fileIndexingService);
+    }
+
+    @Test
+    void hybridSearchIsForbiddenInOtherUsersProjects() throws Exception {
+        mvc.perform(get("/api/projects/10/search/hybrid").param("query", "load the user"))
+                .andExpect(status().isForbidden());
+        verifyNoInteractions(fileIndexingService);
+    }
+}
@@ -0,0 +1,131 @@
+package com.devos.core.cache;
+
+import com.devos.core.domain.entity.Project;
+import com.devos.core.repository.ProjectRepository;
+import com.devos.core.service.AuthService;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Remembers the current user's ID, project owners and normalized project roots, so repeated
+ * ownership checks (a batch of file operations, for instance) cost no queries after the
+ * first. Within a request the results are kept as request attributes; across requests they
+ * are reused for a short TTL, keyed by the authenticated principal. Deleted projects are
+ * evicted right away.
+ */
+@Component
+@RequiredArgsConstructor
+public class ProjectAccessCache {
+
+    private static final String USER_ATTRIBUTE = ProjectAccessCache.class.getName() + ".userId";
+    private static final String PROJECTS_ATTRIBUTE = ProjectAccessCache.class.getName() + ".projects";
+
+    private final ProjectRepository projectRepository;
+    private final AuthService authService;
+
+    @Value("${devos.security.access-cache.ttl-ms:30000}")
+    private long ttlMs = 30000;
+
+    @Value("${devos.security.access-cache.max-entries:10000}")
+    private long maxEntries = 10000;
+
+    private WeightedLruCache<String, Expiring<Long>> userIds;
+    private WeightedLruCache<Long, Expiring<ProjectAccess>> projects;
+
+    public record ProjectAccess(Long ownerId, Path root) {
+    }
+
+    @PostConstruct
+    public void init() {
+        userIds = new WeightedLruCache<>(maxEntries, (principal, userId) -> 1);
+        projects = new WeightedLruCache<>(maxEntries, (projectId, access) -> 1);
+    }
+
+    /**
+     * Returns the normalized root directory of a project owned by the current user.
+     *
+     * @throws SecurityException if someone else owns the project
+     */
+    public Path ownedProjectRoot(Long projectId) {
+        ProjectAccess access = projectAccess(projectId);
+        if (!access.ownerId().equals(currentUserId())) {
+            throw new SecurityException("Access denied: You do not own this project");
+        }
+        return access.root();
+    }
+
+    public Long currentUserId() {
+        RequestAttributes request = RequestContextHolder.getRequestAttributes();
+        if (request != null && request.getAttribute(USER_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST) instanceof Long userId) {
+            return userId;
+        }
+
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        String principal = authentication == null ? null : authentication.getName();
+        Expiring<Long> cached = principal == null ? null : userIds.get(principal);
+        Long userId;
+        if (cached != null && !cached.isExpired()) {
+            userId = cached.value();
+        } else {
+            userId = authService.getCurrentUser().getId();
+            if (principal != null) userIds.put(principal, new Expiring<>(userId, System.currentTimeMillis() + ttlMs));
+        }
+        if (request != null) request.setAttribute(USER_ATTRIBUTE, userId, RequestAttributes.SCOPE_REQUEST);
+        return userId;
+    }
+
+    public void evict(Long projectId) {
+        projects.invalidate(projectId);
+    }
+
+    private ProjectAccess projectAccess(Long projectId) {
+        Map<Long, ProjectAccess> requestProjects = requestProjects();
+        ProjectAccess access = requestProjects == null ? null : requestProjects.get(projectId);
+        if (access != null) return access;
+
+        Expiring<ProjectAccess> cached = projects.get(projectId);
+        if (cached != null && !cached.isExpired()) {
+            access = cached.value();
+        } else {
+            Project project = projectRepository.findById(projectId)
+                    .orElseThrow(() -> new RuntimeException("Project not found: " + projectId));
+            access = new ProjectAccess(project.getUser().getId(),
+                    Paths.get(project.getLocalPath()).toAbsolutePath().normalize());
+            projects.put(projectId, new Expiring<>(access, System.currentTimeMillis() + ttlMs));
+        }
+        if (requestProjects != null) requestProjects.put(projectId, access);
+        return access;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<Long, ProjectAccess> requestProjects() {
+        RequestAttributes request = RequestContextHolder.getRequestAttributes();
+        if (request == null) return null;
+
+        Object projects = request.getAttribute(PROJECTS_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (projects == null) {
+            // Only the request's own thread sees it
+            projects = new HashMap<Long, ProjectAccess>();
+            request.setAttribute(PROJECTS_ATTRIBUTE, projects, RequestAttributes.SCOPE_REQUEST);
+        }
+        return (Map<Long, ProjectAccess>) projects;
+    }
+
+    private record Expiring<V>(V value, long expiresAt) {
+
+        boolean isExpired() {
+            return System.currentTimeMillis() >= expiresAt;
+        }
+    }
+}
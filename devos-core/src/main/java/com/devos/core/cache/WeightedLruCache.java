@@ -0,0 +1,130 @@
+package com.devos.core.cache;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.Predicate;
+import java.util.function.ToLongBiFunction;
+
+/**
+ * Small LRU cache bounded by the total weight of its entries rather than their count,
+ * so a few large values cannot crowd the heap the way an entry-count limit would allow.
+ * All operations lock the cache; entries are expected to be cheap to weigh.
+ */
+public class WeightedLruCache<K, V> {
+
+    private final long maxWeight;
+    private final ToLongBiFunction<K, V> weigher;
+    // Told about entries dropped to make room, while the cache is locked
+    private final BiConsumer<K, V> evictionListener;
+    private final LinkedHashMap<K, Entry<V>> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long weight;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public WeightedLruCache(long maxWeight, ToLongBiFunction<K, V> weigher) {
+        this(maxWeight, weigher, (key, value) -> { });
+    }
+
+    public WeightedLruCache(long maxWeight, ToLongBiFunction<K, V> weigher, BiConsumer<K, V> evictionListener) {
+        this.maxWeight = maxWeight;
+        this.weigher = weigher;
+        this.evictionListener = evictionListener;
+    }
+
+    public V get(K key) {
+        Entry<V> entry;
+        synchronized (this) {
+            entry = entries.get(key);
+        }
+        (entry == null ? misses : hits).incrementAndGet();
+        return entry == null ? null : entry.value();
+    }
+
+    public void put(K key, V value) {
+        long entryWeight = Math.max(1, weigher.applyAsLong(key, value));
+        synchronized (this) {
+            remove(key);
+            if (entryWeight > maxWeight) return; // Would evict everything else and still not fit
+
+            entries.put(key, new Entry<>(value, entryWeight));
+            weight += entryWeight;
+            Iterator<Map.Entry<K, Entry<V>>> eldest = entries.entrySet().iterator();
+            while (weight > maxWeight && eldest.hasNext()) {
+                Map.Entry<K, Entry<V>> evicted = eldest.next();
+                weight -= evicted.getValue().weight();
+                eldest.remove();
+                evictions.incrementAndGet();
+                evictionListener.accept(evicted.getKey(), evicted.getValue().value());
+            }
+        }
+    }
+
+    public synchronized void invalidate(K key) {
+        remove(key);
+    }
+
+    public synchronized void invalidateIf(Predicate<K> predicate) {
+        Iterator<Map.Entry<K, Entry<V>>> iterator = entries.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<K, Entry<V>> entry = iterator.next();
+            if (predicate.test(entry.getKey())) {
+                weight -= entry.getValue().weight();
+                iterator.remove();
+            }
+        }
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        weight = 0;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long weight() {
+        return weight;
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    public Map<String, Object> stats() {
+        long hitCount = hits.get();
+        long requests = hitCount + misses.get();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("size", size());
+        stats.put("weight", weight());
+        stats.put("maxWeight", maxWeight);
+        stats.put("hits", hitCount);
+        stats.put("misses", misses.get());
+        stats.put("evictions", evictions.get());
+        stats.put("hitRatio", requests == 0 ? 0.0 : (double) hitCount / requests);
+        return stats;
+    }
+
+    private void remove(K key) {
+        Entry<V> previous = entries.remove(key);
+        if (previous != null) {
+            weight -= previous.weight();
+        }
+    }
+
+    private record Entry<V>(V value, long weight) {
+    }
+}
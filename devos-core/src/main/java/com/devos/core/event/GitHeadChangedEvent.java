@@ -0,0 +1,8 @@
+package com.devos.core.event;
+
+/**
+ * Published after a git operation moved HEAD of the repository at {@code projectPath}, such
+ * as a checkout, pull, merge or revert.
+ */
+public record GitHeadChangedEvent(String projectPath) {
+}
@@ -0,0 +1,10 @@
+package com.devos.core.event;
+
+import java.util.Map;
+
+/**
+ * Published when an indexing job changes state and periodically while it runs.
+ * {@code job} is a snapshot of the job's state and progress.
+ */
+public record IndexingJobEvent(Long projectId, Map<String, Object> job) {
+}
@@ -0,0 +1,9 @@
+package com.devos.core.event;
+
+/**
+ * Published when a project has been deleted, so components holding per-project state (open
+ * indexes, cached trees and contents, watchers, queued jobs) can release it. Listeners use
+ * {@code @TransactionalEventListener}, so nothing is dropped unless the delete commits.
+ */
+public record ProjectDeletedEvent(Long projectId, String localPath) {
+}
@@ -0,0 +1,16 @@
+package com.devos.core.event;
+
+import java.util.Set;
+
+/**
+ * Published when files of a project change on disk. Paths are relative to the project
+ * root and use forward slashes. {@code rescan} is set when individual changes were lost
+ * (for example a watcher overflow) and listeners should re-scan the whole project.
+ */
+public record ProjectFilesChangedEvent(Long projectId, Set<String> changedPaths, Set<String> deletedPaths,
+                                       boolean rescan) {
+
+    public static ProjectFilesChangedEvent rescan(Long projectId) {
+        return new ProjectFilesChangedEvent(projectId, Set.of(), Set.of(), true);
+    }
+}
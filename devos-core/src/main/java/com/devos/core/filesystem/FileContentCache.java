@@ -0,0 +1,157 @@
+package com.devos.core.filesystem;
+
+import com.devos.core.cache.WeightedLruCache;
+import com.devos.core.event.ProjectDeletedEvent;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * Caches file contents per project. Entries are checked against the file's modification time
+ * and size on every read, so edits made outside the application are never served stale, and
+ * the file services drop entries they write, move or delete. The cached paths of each project
+ * are also kept sorted, so a file, a directory or a whole project is dropped without scanning
+ * the other entries.
+ *
+ * <p>Contents of large files can be kept in direct buffers off the heap; they count against the
+ * same budget. A hit on such an entry decodes a new String, since callers need text: that copy
+ * lives only as long as the request, while the cache itself retains just the bytes off-heap.
+ * Files read too often for that copy to pay off belong under {@code off-heap-min-kb}.
+ */
+@Component
+public class FileContentCache {
+
+    @Value("${devos.file.content-cache.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${devos.file.content-cache.max-weight-mb:64}")
+    private long maxWeightMb = 64;
+
+    // Larger files are read from disk every time
+    @Value("${devos.file.content-cache.max-entry-kb:2048}")
+    private long maxEntryKb = 2048;
+
+    // Files at least this large are stored off-heap; 0 keeps everything on the heap
+    @Value("${devos.file.content-cache.off-heap-min-kb:256}")
+    private long offHeapMinKb = 256;
+
+    private WeightedLruCache<Key, Entry> cache;
+    // Cached paths by project, for invalidating a directory or project without a full scan
+    private final Map<Long, NavigableSet<String>> cachedPaths = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        cache = new WeightedLruCache<>(maxWeightMb * 1024 * 1024, (key, entry) -> key.path().length() * 2L + entry.weight(),
+                (key, entry) -> forget(key));
+    }
+
+    /**
+     * Returns the file's content as UTF-8, from the cache if the file has not changed since it
+     * was cached.
+     */
+    public String read(Long projectId, Path file) throws IOException {
+        if (!enabled) return Files.readString(file, StandardCharsets.UTF_8);
+
+        BasicFileAttributes attrs = Files.readAttributes(file, BasicFileAttributes.class);
+        Key key = new Key(projectId, file.toAbsolutePath().normalize().toString());
+        Entry entry = cache.get(key);
+        if (entry != null && entry.modified().equals(attrs.lastModifiedTime()) && entry.size() == attrs.size()) {
+            return entry.content();
+        }
+
+        // A change between reading the attributes and the content only costs a miss next time
+        String content = Files.readString(file, StandardCharsets.UTF_8);
+        if (attrs.size() <= maxEntryKb * 1024) {
+            cache.put(key, newEntry(attrs, content));
+            // Recorded after the put: a path left over by a racing eviction only costs a no-op
+            // invalidation, while a cached entry missing here could never be invalidated
+            cachedPaths.computeIfAbsent(projectId, id -> new ConcurrentSkipListSet<>()).add(key.path());
+        } else if (entry != null) {
+            drop(key);
+        }
+        return content;
+    }
+
+    // Drops the entry for a file, or for everything under a directory
+    public void invalidate(Long projectId, Path path) {
+        String prefix = path.toAbsolutePath().normalize().toString();
+        drop(new Key(projectId, prefix));
+
+        NavigableSet<String> paths = cachedPaths.get(projectId);
+        if (paths == null) return;
+        // Every path that starts with the directory and a separator
+        for (String below : paths.subSet(prefix + File.separatorChar, prefix + (char) (File.separatorChar + 1))) {
+            drop(new Key(projectId, below));
+        }
+    }
+
+    public void invalidateProject(Long projectId) {
+        NavigableSet<String> paths = cachedPaths.remove(projectId);
+        if (paths == null) return;
+        for (String path : paths) {
+            cache.invalidate(new Key(projectId, path));
+        }
+    }
+
+    @TransactionalEventListener
+    public void onProjectDeleted(ProjectDeletedEvent event) {
+        invalidateProject(event.projectId());
+    }
+
+    public WeightedLruCache<?, ?> getCache() {
+        return cache;
+    }
+
+    public Map<String, Object> getStats() {
+        return cache.stats();
+    }
+
+    private void drop(Key key) {
+        cache.invalidate(key);
+        forget(key);
+    }
+
+    private void forget(Key key) {
+        NavigableSet<String> paths = cachedPaths.get(key.projectId());
+        if (paths != null) {
+            paths.remove(key.path());
+        }
+    }
+
+    private Entry newEntry(BasicFileAttributes attrs, String content) {
+        if (offHeapMinKb <= 0 || attrs.size() < offHeapMinKb * 1024) {
+            return new Entry(attrs.lastModifiedTime(), attrs.size(), content, null);
+        }
+        byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer buffer = ByteBuffer.allocateDirect(bytes.length).put(bytes).flip();
+        return new Entry(attrs.lastModifiedTime(), attrs.size(), null, buffer);
+    }
+
+    private record Key(Long projectId, String path) {
+    }
+
+    private record Entry(FileTime modified, long size, String text, ByteBuffer offHeap) {
+
+        String content() {
+            return text != null ? text : StandardCharsets.UTF_8.decode(offHeap.duplicate()).toString();
+        }
+
+        long weight() {
+            return 64 + (text != null ? text.length() * 2L : offHeap.capacity());
+        }
+    }
+}
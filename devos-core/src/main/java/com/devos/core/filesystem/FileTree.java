@@ -0,0 +1,378 @@
+package com.devos.core.filesystem;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.BitSet;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory directory tree of one project. Nodes live in parallel arrays with interned names,
+ * and each directory keeps its children in an array sorted in display order (directories
+ * first, then by name), so lookups are binary searches and rendering never sorts. Every
+ * structural change gets a new generation and is recorded in a bounded change log, which lets
+ * clients fetch only what changed since the generation they have.
+ */
+public final class FileTree {
+
+    // Seeded with the clock so generations from before a restart are never reused
+    private static final AtomicLong GENERATIONS = new AtomicLong(System.currentTimeMillis());
+    private static final int ROOT = 0;
+    private static final int NONE = -1;
+
+    public record Change(long generation, String type, String path, String nodeType) {
+    }
+
+    public record View(long generation, List<Map<String, Object>> nodes) {
+    }
+
+    public record Level(long generation, int total, List<Map<String, Object>> entries, String nextCursor) {
+    }
+
+    private String[] names = new String[256];
+    private int[] parents = new int[256];
+    // Sorted children of each directory; only the first childCounts[node] slots are used
+    private int[][] children = new int[256][];
+    private int[] childCounts = new int[256];
+    private final BitSet directories = new BitSet();
+    private final Map<String, String> internedNames = new HashMap<>();
+    private int nodeCount = 1;
+    private int liveCount = 1;
+    private int freeList = NONE; // Chained through parents
+
+    private final int maxChanges;
+    private final Deque<Change> changes = new ArrayDeque<>();
+    // Changes after this generation are all in the log
+    private long logStart;
+    private long generation;
+
+    private View rendered;
+
+    public FileTree(int maxChanges) {
+        this.maxChanges = maxChanges;
+        names[ROOT] = "";
+        parents[ROOT] = NONE;
+        directories.set(ROOT);
+        generation = GENERATIONS.incrementAndGet();
+        logStart = generation;
+    }
+
+    public synchronized long getGeneration() {
+        return generation;
+    }
+
+    public synchronized int size() {
+        return liveCount - 1;
+    }
+
+    public synchronized boolean contains(String path) {
+        return find(path) != NONE;
+    }
+
+    /**
+     * Adds a file or directory along with any missing parent directories.
+     *
+     * @return false if the path was already there
+     */
+    public synchronized boolean add(String path, boolean directory) {
+        String[] segments = path.split("/");
+        int node = ROOT;
+        boolean added = false;
+        StringBuilder current = new StringBuilder();
+        for (int i = 0; i < segments.length; i++) {
+            if (segments[i].isEmpty()) continue;
+            if (current.length() > 0) current.append('/');
+            current.append(segments[i]);
+
+            boolean isDirectory = directory || i < segments.length - 1;
+            int child = findChild(node, segments[i]);
+            if (child != NONE && directories.get(child) != isDirectory) {
+                // Replaced by a node of the other kind
+                unlink(child);
+                record("deleted", current.toString(), !isDirectory);
+                child = NONE;
+            }
+            if (child == NONE) {
+                child = insertChild(node, segments[i], isDirectory);
+                record("added", current.toString(), isDirectory);
+                added = true;
+            }
+            node = child;
+        }
+        return added;
+    }
+
+    /**
+     * Removes a file, or a directory with everything below it.
+     *
+     * @return false if the path was not there
+     */
+    public synchronized boolean remove(String path) {
+        int node = find(path);
+        if (node == NONE || node == ROOT) return false;
+
+        boolean directory = directories.get(node);
+        unlink(node);
+        record("deleted", path, directory);
+        return true;
+    }
+
+    /**
+     * Returns the tree as nested nodes with id (relative path), name, type and, for
+     * directories, children. The result is shared until the tree changes and must not be modified.
+     */
+    public synchronized View render() {
+        if (rendered == null || rendered.generation() != generation) {
+            rendered = new View(generation, renderChildren(ROOT, ""));
+        }
+        return rendered;
+    }
+
+    /**
+     * Returns up to {@code limit} direct children of a directory in display order, starting
+     * after {@code cursor} (the nextCursor of the previous page, or null for the first page).
+     * Directories carry their child count, so clients can expand them one level at a time.
+     * Returns null if {@code path} is not a directory.
+     */
+    public synchronized Level list(String path, String cursor, int limit) {
+        int parent = find(path);
+        if (parent == NONE || !directories.get(parent)) return null;
+
+        int start = 0;
+        if (cursor != null && !cursor.isBlank()) {
+            // Positioned by name rather than node, so the cursor survives changes to the directory
+            String after = decodeCursor(cursor);
+            int index = search(parent, after.charAt(0) == 'd', after.substring(2));
+            start = index >= 0 ? index + 1 : -index - 1;
+        }
+        int end = (int) Math.min(childCounts[parent], (long) start + limit);
+
+        String parentPath = String.join("/", Arrays.stream(path.split("/")).filter(s -> !s.isEmpty()).toList());
+        List<Map<String, Object>> entries = new ArrayList<>();
+        for (int i = start; i < end; i++) {
+            int child = children[parent][i];
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("id", parentPath.isEmpty() ? names[child] : parentPath + "/" + names[child]);
+            entry.put("name", names[child]);
+            if (directories.get(child)) {
+                entry.put("type", "directory");
+                entry.put("childCount", childCounts[child]);
+                entry.put("hasChildren", childCounts[child] > 0);
+            } else {
+                entry.put("type", "file");
+                entry.put("hasChildren", false);
+            }
+            entries.add(entry);
+        }
+        String nextCursor = end < childCounts[parent] && end > start ? encodeCursor(children[parent][end - 1]) : null;
+        return new Level(generation, childCounts[parent], entries, nextCursor);
+    }
+
+    /**
+     * Returns the changes after {@code since}, oldest first, or null when the log no longer
+     * covers that generation and the client has to reload the whole tree.
+     */
+    public synchronized List<Change> changesSince(long since) {
+        if (since < logStart || since > generation) return null;
+
+        List<Change> result = new ArrayList<>();
+        for (Change change : changes) {
+            if (change.generation() > since) result.add(change);
+        }
+        return result;
+    }
+
+    /**
+     * Adds and removes entries so the tree matches {@code other}. Generations only advance
+     * for entries that actually differ.
+     */
+    public synchronized void replaceWith(FileTree other) {
+        Map<String, Boolean> target = other.entries();
+        Map<String, Boolean> current = new LinkedHashMap<>();
+        collectEntries(ROOT, "", current);
+        current.forEach((path, directory) -> {
+            if (!directory.equals(target.get(path))) remove(path);
+        });
+        target.forEach((path, directory) -> {
+            if (!directory.equals(current.get(path))) add(path, directory);
+        });
+    }
+
+    // Path to whether it is a directory, parents before children
+    synchronized Map<String, Boolean> entries() {
+        Map<String, Boolean> entries = new LinkedHashMap<>();
+        collectEntries(ROOT, "", entries);
+        return entries;
+    }
+
+    // Rough heap cost: names, arrays and the rendered maps
+    public synchronized long estimatedBytes() {
+        return (long) names.length * 28 + (long) liveCount * 200 + (long) changes.size() * 96;
+    }
+
+    private int find(String path) {
+        int node = ROOT;
+        for (String segment : path.split("/")) {
+            if (segment.isEmpty()) continue;
+            node = findChild(node, segment);
+            if (node == NONE) return NONE;
+        }
+        return node;
+    }
+
+    // A name can only be taken by a directory or a file, so at most one of the searches hits
+    private int findChild(int parent, String name) {
+        int index = search(parent, true, name);
+        if (index < 0) index = search(parent, false, name);
+        return index >= 0 ? children[parent][index] : NONE;
+    }
+
+    // Index of the child in the parent's sorted children, or -(insertion point) - 1 like Arrays.binarySearch
+    private int search(int parent, boolean directory, String name) {
+        int[] siblings = children[parent];
+        int low = 0;
+        int high = childCounts[parent] - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int child = siblings[mid];
+            int order = compare(directories.get(child), names[child], directory, name);
+            if (order < 0) {
+                low = mid + 1;
+            } else if (order > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -low - 1;
+    }
+
+    private int insertChild(int parent, String name, boolean directory) {
+        int index = -search(parent, directory, name) - 1;
+        int node = allocate();
+        names[node] = internedNames.computeIfAbsent(name, n -> n);
+        parents[node] = parent;
+        children[node] = null;
+        childCounts[node] = 0;
+        directories.set(node, directory);
+
+        int count = childCounts[parent];
+        int[] siblings = children[parent];
+        if (siblings == null) {
+            siblings = children[parent] = new int[4];
+        } else if (count == siblings.length) {
+            siblings = children[parent] = Arrays.copyOf(siblings, count * 2);
+        }
+        System.arraycopy(siblings, index, siblings, index + 1, count - index);
+        siblings[index] = node;
+        childCounts[parent]++;
+        liveCount++;
+        return node;
+    }
+
+    // Directories first, then files, each by name
+    private static int compare(boolean aDirectory, String aName, boolean bDirectory, String bName) {
+        if (aDirectory != bDirectory) return aDirectory ? -1 : 1;
+        int byName = String.CASE_INSENSITIVE_ORDER.compare(aName, bName);
+        return byName != 0 ? byName : aName.compareTo(bName);
+    }
+
+    private String encodeCursor(int node) {
+        String value = (directories.get(node) ? "d:" : "f:") + names[node];
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String decodeCursor(String cursor) {
+        String value;
+        try {
+            value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid file tree cursor");
+        }
+        if (value.length() < 3 || value.charAt(1) != ':' || "df".indexOf(value.charAt(0)) < 0) {
+            throw new IllegalArgumentException("Invalid file tree cursor");
+        }
+        return value;
+    }
+
+    private void unlink(int node) {
+        int parent = parents[node];
+        int index = search(parent, directories.get(node), names[node]);
+        int[] siblings = children[parent];
+        System.arraycopy(siblings, index + 1, siblings, index, childCounts[parent] - index - 1);
+        childCounts[parent]--;
+        release(node);
+    }
+
+    private void release(int node) {
+        for (int i = 0; i < childCounts[node]; i++) {
+            release(children[node][i]);
+        }
+        names[node] = null;
+        children[node] = null;
+        childCounts[node] = 0;
+        directories.clear(node);
+        parents[node] = freeList;
+        freeList = node;
+        liveCount--;
+    }
+
+    private int allocate() {
+        if (freeList != NONE) {
+            int node = freeList;
+            freeList = parents[node];
+            return node;
+        }
+        if (nodeCount == names.length) {
+            int capacity = names.length * 2;
+            names = Arrays.copyOf(names, capacity);
+            parents = Arrays.copyOf(parents, capacity);
+            children = Arrays.copyOf(children, capacity);
+            childCounts = Arrays.copyOf(childCounts, capacity);
+        }
+        return nodeCount++;
+    }
+
+    private void record(String type, String path, boolean directory) {
+        generation = GENERATIONS.incrementAndGet();
+        changes.addLast(new Change(generation, type, path, directory ? "directory" : "file"));
+        while (changes.size() > maxChanges) {
+            logStart = changes.removeFirst().generation();
+        }
+    }
+
+    private void collectEntries(int parent, String parentPath, Map<String, Boolean> entries) {
+        for (int i = 0; i < childCounts[parent]; i++) {
+            int child = children[parent][i];
+            String path = parentPath.isEmpty() ? names[child] : parentPath + "/" + names[child];
+            entries.put(path, directories.get(child));
+            collectEntries(child, path, entries);
+        }
+    }
+
+    private List<Map<String, Object>> renderChildren(int parent, String parentPath) {
+        List<Map<String, Object>> nodes = new ArrayList<>();
+        for (int i = 0; i < childCounts[parent]; i++) {
+            int child = children[parent][i];
+            String path = parentPath.isEmpty() ? names[child] : parentPath + "/" + names[child];
+            Map<String, Object> node = new LinkedHashMap<>();
+            node.put("id", path);
+            node.put("name", names[child]);
+            if (directories.get(child)) {
+                node.put("type", "directory");
+                node.put("children", renderChildren(child, path));
+            } else {
+                node.put("type", "file");
+            }
+            nodes.add(node);
+        }
+        return nodes;
+    }
+}
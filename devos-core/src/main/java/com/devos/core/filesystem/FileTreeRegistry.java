@@ -0,0 +1,195 @@
+package com.devos.core.filesystem;
+
+import com.devos.core.cache.WeightedLruCache;
+import com.devos.core.domain.entity.Project;
+import com.devos.core.event.ProjectDeletedEvent;
+import com.devos.core.event.ProjectFilesChangedEvent;
+import com.devos.core.indexing.IndexFields;
+import com.devos.core.repository.ProjectRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps a {@link FileTree} per project for the file explorer. A tree is walked from disk the
+ * first time it is requested and then kept current from file operations and watcher events.
+ * Hidden entries (other than .gitignore) and ignored paths are left out. Least recently used
+ * trees are dropped once their estimated size exceeds the configured budget.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class FileTreeRegistry {
+
+    private final ProjectRepository projectRepository;
+    private final ProjectFileWalker fileWalker;
+    private final ProjectFileWatcher fileWatcher;
+
+    @Value("${devos.filesystem.tree.max-weight-mb:128}")
+    private long maxWeightMb = 128;
+
+    // Structural changes kept per tree for delta requests; older clients reload the whole tree
+    @Value("${devos.filesystem.tree.max-changes:5000}")
+    private int maxChanges = 5000;
+
+    // Projects without a watcher get no change events, so their tree is re-walked after this long
+    @Value("${devos.filesystem.tree.unwatched-max-age-ms:30000}")
+    private long unwatchedMaxAgeMs = 30000;
+
+    private final Map<Long, Object> buildLocks = new ConcurrentHashMap<>();
+    private WeightedLruCache<Long, LoadedTree> trees;
+
+    @PostConstruct
+    public void init() {
+        trees = new WeightedLruCache<>(maxWeightMb * 1024 * 1024, (projectId, loaded) -> loaded.tree().estimatedBytes());
+    }
+
+    public FileTree getTree(Long projectId) {
+        LoadedTree loaded = trees.get(projectId);
+        if (isFresh(projectId, loaded)) return loaded.tree();
+
+        synchronized (buildLocks.computeIfAbsent(projectId, id -> new Object())) {
+            loaded = trees.get(projectId);
+            if (isFresh(projectId, loaded)) return loaded.tree();
+
+            Project project = projectRepository.findById(projectId)
+                    .orElseThrow(() -> new RuntimeException("Project not found: " + projectId));
+            LoadedTree rebuilt = build(projectId, project.getLocalPath());
+            if (loaded != null) {
+                // Keep the existing tree so clients' generations and deltas stay valid
+                loaded.tree().replaceWith(rebuilt.tree());
+                rebuilt = new LoadedTree(rebuilt.root(), loaded.tree(), rebuilt.builtAt(), false);
+            }
+            trees.put(projectId, rebuilt);
+            return rebuilt.tree();
+        }
+    }
+
+    public void invalidate(Long projectId) {
+        trees.invalidate(projectId);
+    }
+
+    @TransactionalEventListener
+    public void onProjectDeleted(ProjectDeletedEvent event) {
+        invalidate(event.projectId());
+        buildLocks.remove(event.projectId());
+    }
+
+    @Async
+    @EventListener
+    public void onProjectFilesChanged(ProjectFilesChangedEvent event) {
+        if (event.rescan()) {
+            // Re-walked on the next request
+            LoadedTree loaded = trees.get(event.projectId());
+            if (loaded != null) trees.put(event.projectId(), new LoadedTree(loaded.root(), loaded.tree(), 0, true));
+            return;
+        }
+        applyChanges(event.projectId(), event.changedPaths(), event.deletedPaths());
+    }
+
+    /**
+     * Applies changes made through the application right away, without waiting for the
+     * watcher. Paths are relative to the project root; changed paths that no longer exist
+     * are removed.
+     */
+    public void applyChanges(Long projectId, Collection<String> changedPaths, Collection<String> deletedPaths) {
+        LoadedTree loaded = trees.get(projectId);
+        if (loaded == null || loaded.root() == null) return; // Built on the next request
+
+        FileTree tree = loaded.tree();
+        for (String deletedPath : deletedPaths) {
+            tree.remove(IndexFields.normalizePath(deletedPath));
+        }
+        for (String changedPath : changedPaths) {
+            String path = IndexFields.normalizePath(changedPath);
+            Path file = loaded.root().resolve(path).normalize();
+            try {
+                if (!file.startsWith(loaded.root()) || file.equals(loaded.root())) continue;
+                if (isHidden(path, Files.isDirectory(file)) || fileWalker.isIgnored(loaded.root(), file)) {
+                    tree.remove(path);
+                } else if (Files.isDirectory(file)) {
+                    tree.add(path, true);
+                    walk(loaded.root(), file, tree);
+                } else if (Files.isRegularFile(file)) {
+                    tree.add(path, false);
+                } else {
+                    tree.remove(path);
+                }
+            } catch (IOException e) {
+                log.debug("Could not update file tree for {}: {}", file, e.getMessage());
+                tree.remove(path);
+            }
+        }
+    }
+
+    private LoadedTree build(Long projectId, String localPath) {
+        FileTree tree = new FileTree(maxChanges);
+        Path root = localPath == null || localPath.isEmpty() ? null : Paths.get(localPath).toAbsolutePath().normalize();
+        if (root == null || !Files.isDirectory(root)) {
+            return new LoadedTree(null, tree, System.currentTimeMillis(), false);
+        }
+
+        long start = System.currentTimeMillis();
+        try {
+            walk(root, root, tree);
+        } catch (IOException e) {
+            log.warn("Could not read the full file tree under {}: {}", root, e.getMessage());
+        }
+        log.info("Built file tree for project {}: {} entries in {} ms", projectId, tree.size(),
+                System.currentTimeMillis() - start);
+        return new LoadedTree(root, tree, System.currentTimeMillis(), false);
+    }
+
+    private void walk(Path root, Path start, FileTree tree) throws IOException {
+        // Ignored directories (.gitignore, node_modules, build output) are never opened
+        fileWalker.walk(root, start, ProjectFileWalker.WalkOptions.all(), new ProjectFileWalker.Visitor() {
+            @Override
+            public boolean preVisitDirectory(Path dir, String relativePath, IgnoreRules rules) {
+                if (relativePath.isEmpty()) return true;
+                if (dir.getFileName().toString().startsWith(".")) return false;
+
+                tree.add(relativePath, true);
+                return true;
+            }
+
+            @Override
+            public void visitFile(Path file, String relativePath, BasicFileAttributes attrs) {
+                if (!isHidden(relativePath, false)) tree.add(relativePath, false);
+            }
+        });
+    }
+
+    // Dot directories are skipped entirely; dot files other than .gitignore are hidden
+    private static boolean isHidden(String relativePath, boolean directory) {
+        String[] segments = relativePath.split("/");
+        for (int i = 0; i < segments.length; i++) {
+            String segment = segments[i];
+            if (!segment.startsWith(".")) continue;
+            boolean last = i == segments.length - 1;
+            if (!last || directory || !segment.equals(".gitignore")) return true;
+        }
+        return false;
+    }
+
+    private boolean isFresh(Long projectId, LoadedTree loaded) {
+        if (loaded == null || loaded.stale()) return false;
+        return fileWatcher.isWatching(projectId) || System.currentTimeMillis() - loaded.builtAt() < unwatchedMaxAgeMs;
+    }
+
+    private record LoadedTree(Path root, FileTree tree, long builtAt, boolean stale) {
+    }
+}
@@ -0,0 +1,176 @@
+package com.devos.core.filesystem;
+
+import com.devos.core.indexing.IndexFields;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Ignore rules in effect for one directory of a project: a fixed set of always-skipped
+ * names plus the patterns of every .gitignore and .devosignore from the project root down
+ * to that directory. Follows gitignore semantics: deeper files override shallower ones, the
+ * last matching pattern within a file wins, and "!" re-includes a path.
+ */
+@Slf4j
+public final class IgnoreRules {
+
+    public static final List<String> IGNORE_FILES = List.of(".gitignore", ".devosignore");
+
+    private final IgnoreRules parent;
+    private final Path directory;
+    private final Set<String> alwaysIgnored;
+    private final List<Rule> rules;
+
+    private IgnoreRules(IgnoreRules parent, Path directory, Set<String> alwaysIgnored, List<Rule> rules) {
+        this.parent = parent;
+        this.directory = directory;
+        this.alwaysIgnored = alwaysIgnored;
+        this.rules = rules;
+    }
+
+    public static IgnoreRules load(Path root, Collection<String> alwaysIgnored) {
+        Path directory = root.toAbsolutePath().normalize();
+        return new IgnoreRules(null, directory, Set.copyOf(alwaysIgnored), readRules(directory));
+    }
+
+    /**
+     * Rules for a subdirectory. Directories without ignore files share their parent's rules,
+     * so walking a tree only allocates where patterns actually change.
+     */
+    public IgnoreRules forDirectory(Path dir) {
+        Path child = dir.toAbsolutePath().normalize();
+        List<Rule> childRules = readRules(child);
+        return childRules.isEmpty() ? this : new IgnoreRules(this, child, alwaysIgnored, childRules);
+    }
+
+    public boolean isIgnored(Path path, boolean isDirectory) {
+        Path absolute = path.toAbsolutePath().normalize();
+        Path root = root().directory;
+        if (!absolute.startsWith(root) || absolute.equals(root)) return false;
+
+        // Nothing below an ignored directory can be re-included, as in git
+        for (Path ancestor = absolute.getParent(); !ancestor.equals(root); ancestor = ancestor.getParent()) {
+            if (ignoresEntry(ancestor, true)) return true;
+        }
+        return ignoresEntry(absolute, isDirectory);
+    }
+
+    // Checks the path itself only; walkers have already pruned ignored ancestors
+    boolean ignoresEntry(Path absolute, boolean isDirectory) {
+        if (alwaysIgnored.contains(absolute.getFileName().toString())) return true;
+
+        for (IgnoreRules node = this; node != null; node = node.parent) {
+            if (node.rules.isEmpty() || absolute.equals(node.directory) || !absolute.startsWith(node.directory)) continue;
+
+            String relativePath = IndexFields.normalizePath(node.directory.relativize(absolute).toString());
+            for (int i = node.rules.size() - 1; i >= 0; i--) {
+                Rule rule = node.rules.get(i);
+                if (rule.matches(relativePath, isDirectory)) {
+                    return !rule.negated();
+                }
+            }
+        }
+        return false;
+    }
+
+    private IgnoreRules root() {
+        IgnoreRules node = this;
+        while (node.parent != null) {
+            node = node.parent;
+        }
+        return node;
+    }
+
+    private static List<Rule> readRules(Path directory) {
+        List<Rule> rules = new ArrayList<>();
+        for (String name : IGNORE_FILES) {
+            Path file = directory.resolve(name);
+            if (!Files.isRegularFile(file)) continue;
+            try {
+                for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+                    Rule rule = Rule.parse(line);
+                    if (rule != null) rules.add(rule);
+                }
+            } catch (IOException e) {
+                log.debug("Could not read ignore file {}: {}", file, e.getMessage());
+            }
+        }
+        return rules;
+    }
+
+    record Rule(Pattern pattern, boolean negated, boolean directoryOnly) {
+
+        boolean matches(String relativePath, boolean isDirectory) {
+            return (isDirectory || !directoryOnly) && pattern.matcher(relativePath).matches();
+        }
+
+        static Rule parse(String line) {
+            String text = stripTrailingSpaces(line);
+            if (text.isEmpty() || text.startsWith("#")) return null;
+
+            boolean negated = text.startsWith("!");
+            if (negated) text = text.substring(1);
+            else if (text.startsWith("\\!") || text.startsWith("\\#")) text = text.substring(1);
+
+            boolean directoryOnly = text.endsWith("/");
+            if (directoryOnly) text = text.substring(0, text.length() - 1);
+            if (text.isEmpty()) return null;
+
+            // A slash anywhere but at the end anchors the pattern to the ignore file's directory
+            boolean anchored = text.contains("/");
+            if (text.startsWith("/")) text = text.substring(1);
+
+            String regex = (anchored ? "" : "(?:.*/)?") + globToRegex(text);
+            return new Rule(Pattern.compile(regex), negated, directoryOnly);
+        }
+
+        private static String stripTrailingSpaces(String line) {
+            int end = line.length();
+            while (end > 0 && line.charAt(end - 1) == ' ' && (end < 2 || line.charAt(end - 2) != '\\')) {
+                end--;
+            }
+            return line.substring(0, end);
+        }
+
+        private static String globToRegex(String glob) {
+            StringBuilder regex = new StringBuilder();
+            for (int i = 0; i < glob.length(); i++) {
+                char c = glob.charAt(i);
+                if (c == '*' && glob.startsWith("**", i)) {
+                    boolean slashAfter = glob.startsWith("**/", i);
+                    boolean atSegmentStart = i == 0 || glob.charAt(i - 1) == '/';
+                    if (atSegmentStart && slashAfter) {
+                        regex.append("(?:.*/)?"); // Zero or more directories
+                        i += 2;
+                    } else {
+                        regex.append(".*");
+                        i++;
+                    }
+                } else if (c == '*') {
+                    regex.append("[^/]*");
+                } else if (c == '?') {
+                    regex.append("[^/]");
+                } else if (c == '[' && glob.indexOf(']', i + 2) > 0) {
+                    int end = glob.indexOf(']', i + 2);
+                    String set = glob.substring(i + 1, end);
+                    if (set.startsWith("!")) set = "^" + set.substring(1);
+                    regex.append('[').append(set.replace("\\", "\\\\").replace("[", "\\[")).append(']');
+                    i = end;
+                } else if (c == '\\' && i + 1 < glob.length()) {
+                    regex.append(Pattern.quote(String.valueOf(glob.charAt(++i))));
+                } else {
+                    regex.append(Pattern.quote(String.valueOf(c)));
+                }
+            }
+            return regex.toString();
+        }
+    }
+}
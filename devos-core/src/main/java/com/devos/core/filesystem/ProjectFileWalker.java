@@ -0,0 +1,233 @@
+package com.devos.core.filesystem;
+
+import com.devos.core.indexing.IndexFields;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Walks a project tree the way every scanner in DevOS should: directories excluded by
+ * .gitignore/.devosignore or the built-in skip list are pruned before they are opened, and
+ * files can additionally be filtered by size and by binary extension. Optionally the
+ * top-level directories are walked concurrently, in which case the visitor must be
+ * thread-safe.
+ */
+@Component
+@Slf4j
+public class ProjectFileWalker {
+
+    public static final Set<String> ALWAYS_IGNORED = Set.of(
+            ".git", ".hg", ".svn", ".devos", ".idea", "node_modules", "target", "build", "dist", "venv", "__pycache__");
+
+    private static final Set<String> BINARY_EXTENSIONS = Set.of(
+            "png", "jpg", "jpeg", "gif", "bmp", "ico", "webp", "tiff", "psd", "pdf",
+            "zip", "gz", "tgz", "bz2", "xz", "7z", "rar", "jar", "war", "ear", "class",
+            "so", "dll", "dylib", "exe", "o", "a", "lib", "bin", "obj", "pyc", "pyo", "wasm",
+            "woff", "woff2", "ttf", "otf", "eot", "mp3", "mp4", "mov", "avi", "mkv", "wav", "ogg", "flac",
+            "db", "sqlite", "sqlite3", "dat", "iso", "dmg");
+    private static final int BINARY_SNIFF_LENGTH = 8000;
+
+    @Value("${devos.filesystem.walker.threads:4}")
+    private int threads = 4;
+
+    public IgnoreRules rootRules(Path root) {
+        return IgnoreRules.load(root, ALWAYS_IGNORED);
+    }
+
+    /**
+     * Ignore rules in effect inside the given directory, loaded from the root down.
+     */
+    public IgnoreRules rulesFor(Path root, Path directory) {
+        Path normalizedRoot = root.toAbsolutePath().normalize();
+        IgnoreRules rules = rootRules(normalizedRoot);
+        Path current = normalizedRoot;
+        for (Path segment : normalizedRoot.relativize(directory.toAbsolutePath().normalize())) {
+            current = current.resolve(segment);
+            rules = rules.forDirectory(current);
+        }
+        return rules;
+    }
+
+    public boolean isIgnored(Path root, Path path) {
+        Path normalizedRoot = root.toAbsolutePath().normalize();
+        Path normalized = path.toAbsolutePath().normalize();
+        if (!normalized.startsWith(normalizedRoot) || normalized.equals(normalizedRoot)) return false;
+        return rulesFor(normalizedRoot, normalized.getParent()).isIgnored(normalized, Files.isDirectory(normalized));
+    }
+
+    public void walk(Path root, WalkOptions options, Visitor visitor) throws IOException {
+        walk(root, root, options, visitor);
+    }
+
+    /**
+     * Walks the subtree under {@code start}, applying the ignore files found between the
+     * project root and {@code start} as well as those inside the subtree.
+     */
+    public void walk(Path root, Path start, WalkOptions options, Visitor visitor) throws IOException {
+        Path normalizedRoot = root.toAbsolutePath().normalize();
+        Path normalizedStart = start.toAbsolutePath().normalize();
+        IgnoreRules startRules = normalizedStart.equals(normalizedRoot)
+                ? rootRules(normalizedRoot) : rulesFor(normalizedRoot, normalizedStart.getParent());
+
+        if (!options.parallel() || threads <= 1) {
+            Files.walkFileTree(normalizedStart, new RulesVisitor(normalizedRoot, normalizedStart, startRules, options, visitor, null));
+            return;
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "devos-walker-" + normalizedRoot.getFileName());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Future<?>> subtrees = new ArrayList<>();
+            Files.walkFileTree(normalizedStart, new RulesVisitor(normalizedRoot, normalizedStart, startRules, options, visitor,
+                    (dir, rules) -> subtrees.add(executor.submit(() -> {
+                        try {
+                            Files.walkFileTree(dir, new RulesVisitor(normalizedRoot, dir, rules, options, visitor, null));
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    }))));
+            for (Future<?> subtree : subtrees) {
+                subtree.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while walking " + normalizedStart, e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause() instanceof UncheckedIOException unchecked ? unchecked.getCause() : e.getCause();
+            throw cause instanceof IOException io ? io : new IOException("Failed to walk " + normalizedStart, cause);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    public static boolean hasBinaryExtension(Path file) {
+        String name = file.getFileName().toString();
+        int dot = name.lastIndexOf('.');
+        return dot > 0 && BINARY_EXTENSIONS.contains(name.substring(dot + 1).toLowerCase(Locale.ROOT));
+    }
+
+    // Same heuristic as git: a NUL byte near the start means binary
+    public static boolean looksBinary(byte[] content) {
+        int length = Math.min(content.length, BINARY_SNIFF_LENGTH);
+        for (int i = 0; i < length; i++) {
+            if (content[i] == 0) return true;
+        }
+        return false;
+    }
+
+    /**
+     * @param maxFileSize files larger than this are skipped; zero or less means no limit
+     * @param skipBinary  skip files whose extension marks them as binary
+     * @param parallel    walk top-level directories concurrently
+     */
+    public record WalkOptions(long maxFileSize, boolean skipBinary, boolean parallel) {
+
+        public static WalkOptions all() {
+            return new WalkOptions(0, false, false);
+        }
+
+        public static WalkOptions textFiles(long maxFileSize) {
+            return new WalkOptions(maxFileSize, true, false);
+        }
+
+        public WalkOptions inParallel() {
+            return new WalkOptions(maxFileSize, skipBinary, true);
+        }
+    }
+
+    public interface Visitor {
+
+        // Called for every directory that is not ignored; returning false prunes it
+        default boolean preVisitDirectory(Path dir, String relativePath, IgnoreRules rules) throws IOException {
+            return true;
+        }
+
+        void visitFile(Path file, String relativePath, BasicFileAttributes attrs) throws IOException;
+    }
+
+    @FunctionalInterface
+    private interface SubtreeHandler {
+        void submit(Path dir, IgnoreRules rules);
+    }
+
+    private static final class RulesVisitor extends SimpleFileVisitor<Path> {
+        private final Path root;
+        private final Path start;
+        private final WalkOptions options;
+        private final Visitor visitor;
+        private final SubtreeHandler forkHandler;
+        private final Deque<IgnoreRules> rules = new ArrayDeque<>();
+
+        RulesVisitor(Path root, Path start, IgnoreRules startRules, WalkOptions options, Visitor visitor,
+                     SubtreeHandler forkHandler) {
+            this.root = root;
+            this.start = start;
+            this.options = options;
+            this.visitor = visitor;
+            this.forkHandler = forkHandler;
+            rules.push(startRules);
+        }
+
+        @Override
+        public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+            IgnoreRules current = rules.peek();
+            if (!dir.equals(root) && current.ignoresEntry(dir, true)) return FileVisitResult.SKIP_SUBTREE;
+            if (forkHandler != null && !dir.equals(start)) {
+                forkHandler.submit(dir, current);
+                return FileVisitResult.SKIP_SUBTREE;
+            }
+
+            IgnoreRules inside = dir.equals(root) ? current : current.forDirectory(dir);
+            if (!visitor.preVisitDirectory(dir, relativePath(dir), inside)) return FileVisitResult.SKIP_SUBTREE;
+            rules.push(inside);
+            return FileVisitResult.CONTINUE;
+        }
+
+        @Override
+        public FileVisitResult postVisitDirectory(Path dir, IOException e) {
+            rules.pop();
+            return FileVisitResult.CONTINUE;
+        }
+
+        @Override
+        public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+            if (!attrs.isRegularFile() || rules.peek().ignoresEntry(file, false)) return FileVisitResult.CONTINUE;
+            if (options.maxFileSize() > 0 && attrs.size() > options.maxFileSize()) return FileVisitResult.CONTINUE;
+            if (options.skipBinary() && hasBinaryExtension(file)) return FileVisitResult.CONTINUE;
+
+            visitor.visitFile(file, relativePath(file), attrs);
+            return FileVisitResult.CONTINUE;
+        }
+
+        @Override
+        public FileVisitResult visitFileFailed(Path file, IOException e) {
+            log.debug("Skipping unreadable path: {}", file);
+            return FileVisitResult.CONTINUE;
+        }
+
+        private String relativePath(Path path) {
+            return IndexFields.normalizePath(root.relativize(path).toString());
+        }
+    }
+}
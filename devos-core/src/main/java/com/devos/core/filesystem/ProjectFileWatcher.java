@@ -0,0 +1,280 @@
+package com.devos.core.filesystem;
+
+import com.devos.core.domain.entity.Project;
+import com.devos.core.event.ProjectDeletedEvent;
+import com.devos.core.event.ProjectFilesChangedEvent;
+import com.devos.core.indexing.IndexFields;
+import com.devos.core.repository.ProjectRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Watches project roots recursively and publishes {@link ProjectFilesChangedEvent}s so that
+ * changes made outside the API (git pull, RUN_COMMAND steps, external editors) reach the
+ * index. Event bursts are coalesced per project and flushed once the project has been
+ * quiet for a short while, or after a maximum delay during long bursts such as checkouts.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ProjectFileWatcher {
+
+    private final ProjectRepository projectRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ProjectFileWalker fileWalker;
+
+    private final Map<WatchKey, WatchedDirectory> watchKeys = new ConcurrentHashMap<>();
+    private final Map<Long, WatchedProject> projects = new ConcurrentHashMap<>();
+
+    private WatchService watchService;
+    private Thread watchThread;
+
+    @Value("${devos.indexing.watcher.enabled:true}")
+    private boolean enabled;
+
+    @Value("${devos.indexing.watcher.quiet-period-ms:500}")
+    private long quietPeriodMs;
+
+    @Value("${devos.indexing.watcher.max-delay-ms:5000}")
+    private long maxDelayMs;
+
+    @PostConstruct
+    public void start() throws IOException {
+        if (!enabled) return;
+
+        watchService = FileSystems.getDefault().newWatchService();
+        watchThread = new Thread(this::processEvents, "devos-file-watcher");
+        watchThread.setDaemon(true);
+        watchThread.start();
+    }
+
+    @PreDestroy
+    public void stop() throws IOException {
+        if (watchService != null) {
+            watchService.close();
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void watchIndexedProjects() {
+        if (!enabled) return;
+
+        Thread registration = new Thread(() -> {
+            for (Project project : projectRepository.findAll()) {
+                if (Boolean.TRUE.equals(project.getIsIndexed()) && project.getLocalPath() != null) {
+                    watch(project.getId(), Paths.get(project.getLocalPath()));
+                }
+            }
+        }, "devos-file-watcher-init");
+        registration.setDaemon(true);
+        registration.start();
+    }
+
+    public void watch(Long projectId, Path root) {
+        if (!enabled || !Files.isDirectory(root)) return;
+
+        WatchedProject project = new WatchedProject(projectId, root.toAbsolutePath().normalize());
+        if (projects.putIfAbsent(projectId, project) != null) return;
+
+        registerTree(project, project.root);
+        if (projects.get(projectId) != project) {
+            // Unwatched while its directories were being registered
+            cancelKeys(project);
+            return;
+        }
+        log.info("Watching project {} at {}", projectId, project.root);
+    }
+
+    public void unwatch(Long projectId) {
+        WatchedProject project = projects.remove(projectId);
+        if (project != null) cancelKeys(project);
+    }
+
+    @TransactionalEventListener
+    public void onProjectDeleted(ProjectDeletedEvent event) {
+        unwatch(event.projectId());
+    }
+
+    public boolean isWatching(Long projectId) {
+        return projects.containsKey(projectId);
+    }
+
+    @Scheduled(fixedDelayString = "${devos.indexing.watcher.flush-interval-ms:250}")
+    public void flushPendingChanges() {
+        long now = System.currentTimeMillis();
+        for (WatchedProject project : projects.values()) {
+            ProjectFilesChangedEvent event = project.drainIfSettled(now, quietPeriodMs, maxDelayMs);
+            if (event != null) {
+                log.debug("Project {} changed on disk: {} changed, {} deleted, rescan={}", project.projectId,
+                        event.changedPaths().size(), event.deletedPaths().size(), event.rescan());
+                eventPublisher.publishEvent(event);
+            }
+        }
+    }
+
+    // Safety net for changes the OS never reported (dropped events, unwatchable directories)
+    @Scheduled(fixedDelayString = "${devos.indexing.watcher.rescan-interval-ms:1800000}",
+            initialDelayString = "${devos.indexing.watcher.rescan-interval-ms:1800000}")
+    public void rescanWatchedProjects() {
+        projects.values().forEach(WatchedProject::requestRescan);
+    }
+
+    private void processEvents() {
+        while (true) {
+            WatchKey key;
+            try {
+                key = watchService.take();
+            } catch (InterruptedException | ClosedWatchServiceException e) {
+                return;
+            }
+
+            WatchedDirectory directory = watchKeys.get(key);
+            if (directory != null) {
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    handleEvent(directory, event);
+                }
+            }
+
+            if (!key.reset()) {
+                watchKeys.remove(key);
+            }
+        }
+    }
+
+    private void handleEvent(WatchedDirectory directory, WatchEvent<?> event) {
+        WatchedProject project = directory.project();
+        if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+            log.warn("Watch events overflowed for project {}, scheduling a rescan", project.projectId);
+            project.requestRescan();
+            return;
+        }
+
+        Path child = directory.path().resolve((Path) event.context());
+        if (directory.rules().isIgnored(child, Files.isDirectory(child))) return;
+
+        String relativePath = IndexFields.normalizePath(project.root.relativize(child).toString());
+        if (event.kind() == StandardWatchEventKinds.ENTRY_DELETE) {
+            project.recordDeleted(relativePath);
+        } else if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE && Files.isDirectory(child)) {
+            // Files created before the new directory was registered produced no events of their own
+            registerTree(project, child);
+            project.recordChanged(relativePath);
+        } else {
+            project.recordChanged(relativePath);
+        }
+    }
+
+    private void registerTree(WatchedProject project, Path start) {
+        try {
+            // Ignored directories are never registered, so they cost no watch handles or events
+            fileWalker.walk(project.root, start, ProjectFileWalker.WalkOptions.all(), new ProjectFileWalker.Visitor() {
+                @Override
+                public boolean preVisitDirectory(Path dir, String relativePath, IgnoreRules rules) throws IOException {
+                    WatchKey key = dir.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                            StandardWatchEventKinds.ENTRY_DELETE, StandardWatchEventKinds.ENTRY_MODIFY);
+                    watchKeys.put(key, new WatchedDirectory(project, dir, rules));
+                    return true;
+                }
+
+                @Override
+                public void visitFile(Path file, String relativePath, BasicFileAttributes attrs) {
+                }
+            });
+        } catch (IOException e) {
+            // Typically the OS watch limit; a rescan keeps the index correct without live events
+            log.warn("Could not watch all directories under {} for project {}: {}", start, project.projectId, e.getMessage());
+            project.requestRescan();
+        }
+    }
+
+    private void cancelKeys(WatchedProject project) {
+        watchKeys.entrySet().removeIf(entry -> {
+            if (entry.getValue().project() == project) {
+                entry.getKey().cancel();
+                return true;
+            }
+            return false;
+        });
+    }
+
+    private record WatchedDirectory(WatchedProject project, Path path, IgnoreRules rules) {
+    }
+
+    private static class WatchedProject {
+        private final Long projectId;
+        private final Path root;
+        private Set<String> changed = new HashSet<>();
+        private Set<String> deleted = new HashSet<>();
+        private boolean rescan;
+        private long firstEventAt;
+        private long lastEventAt;
+
+        WatchedProject(Long projectId, Path root) {
+            this.projectId = projectId;
+            this.root = root;
+        }
+
+        synchronized void recordChanged(String path) {
+            deleted.remove(path);
+            changed.add(path);
+            touch();
+        }
+
+        synchronized void recordDeleted(String path) {
+            changed.remove(path);
+            deleted.add(path);
+            touch();
+        }
+
+        synchronized void requestRescan() {
+            rescan = true;
+            touch();
+        }
+
+        synchronized ProjectFilesChangedEvent drainIfSettled(long now, long quietPeriodMs, long maxDelayMs) {
+            if (firstEventAt == 0) return null;
+            if (now - lastEventAt < quietPeriodMs && now - firstEventAt < maxDelayMs) return null;
+
+            ProjectFilesChangedEvent event = rescan
+                    ? ProjectFilesChangedEvent.rescan(projectId)
+                    : new ProjectFilesChangedEvent(projectId, changed, deleted, false);
+            changed = new HashSet<>();
+            deleted = new HashSet<>();
+            rescan = false;
+            firstEventAt = 0;
+            return event;
+        }
+
+        private void touch() {
+            lastEventAt = System.currentTimeMillis();
+            if (firstEventAt == 0) {
+                firstEventAt = lastEventAt;
+            }
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.devos.core.indexing;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.CharArraySet;
+import org.apache.lucene.analysis.LowerCaseFilter;
+import org.apache.lucene.analysis.StopFilter;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.Tokenizer;
+import org.apache.lucene.analysis.core.FlattenGraphFilter;
+import org.apache.lucene.analysis.core.KeywordAnalyzer;
+import org.apache.lucene.analysis.miscellaneous.PerFieldAnalyzerWrapper;
+import org.apache.lucene.analysis.miscellaneous.RemoveDuplicatesTokenFilter;
+import org.apache.lucene.analysis.miscellaneous.WordDelimiterGraphFilter;
+import org.apache.lucene.analysis.pattern.PatternReplaceCharFilter;
+import org.apache.lucene.analysis.pattern.PatternTokenizer;
+
+import java.io.Reader;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Analyzer for source code. The sub-word variant splits identifiers on case changes,
+ * underscores and digits while keeping the original token, so {@code getFileContent}
+ * is found by {@code getFileContent}, {@code file} or {@code content}. Qualified names
+ * and paths ({@code a.b.C}, {@code Foo::bar}, {@code src/app.ts}) stay together as one
+ * original token plus their parts. Operators are treated as separators.
+ * The exact variant emits whole identifiers with their case intact.
+ */
+public final class CodeAnalyzer extends Analyzer {
+
+    private static final Pattern QUALIFIED_NAME = Pattern.compile(
+            "[\\p{L}\\p{N}_$]+(?:(?:\\.|/|::|-)[\\p{L}\\p{N}_$]+)*");
+    private static final Pattern IDENTIFIER = Pattern.compile("[\\p{L}\\p{N}_$]+");
+    // WordDelimiterGraphFilter does not split an acronym from the following word (HTTPServer)
+    private static final Pattern ACRONYM_BOUNDARY = Pattern.compile("(\\p{Lu})(?=\\p{Lu}\\p{Ll})");
+
+    private static final int SPLIT_FLAGS = WordDelimiterGraphFilter.GENERATE_WORD_PARTS
+            | WordDelimiterGraphFilter.GENERATE_NUMBER_PARTS
+            | WordDelimiterGraphFilter.SPLIT_ON_CASE_CHANGE
+            | WordDelimiterGraphFilter.SPLIT_ON_NUMERICS
+            | WordDelimiterGraphFilter.CATENATE_ALL
+            | WordDelimiterGraphFilter.PRESERVE_ORIGINAL;
+
+    private final boolean splitIdentifiers;
+    private final boolean flattenGraph;
+    private final CharArraySet stopWords;
+
+    private CodeAnalyzer(boolean splitIdentifiers, boolean flattenGraph, CharArraySet stopWords) {
+        this.splitIdentifiers = splitIdentifiers;
+        this.flattenGraph = flattenGraph;
+        this.stopWords = stopWords;
+    }
+
+    // IndexWriter cannot consume token graphs, so the index-time variant flattens them
+    public static CodeAnalyzer subwords(SourceLanguage language) {
+        CharArraySet stopWords = language.getKeywords().isEmpty()
+                ? CharArraySet.EMPTY_SET
+                : CharArraySet.unmodifiableSet(new CharArraySet(language.getKeywords(), true));
+        return new CodeAnalyzer(true, true, stopWords);
+    }
+
+    // Keywords are not removed from queries: a keyword of one language is a real word in another
+    public static CodeAnalyzer subwordQuery() {
+        return new CodeAnalyzer(true, false, CharArraySet.EMPTY_SET);
+    }
+
+    public static CodeAnalyzer exact() {
+        return new CodeAnalyzer(false, false, CharArraySet.EMPTY_SET);
+    }
+
+    public static Analyzer forIndexing() {
+        return new PerFieldAnalyzerWrapper(subwords(SourceLanguage.OTHER), Map.of(
+                IndexFields.CONTENT_EXACT, exact(),
+                IndexFields.TRIGRAM, TrigramQueryPlanner.analyzer(),
+                IndexFields.PATH, new KeywordAnalyzer()));
+    }
+
+    public static Analyzer forQuerying() {
+        return new PerFieldAnalyzerWrapper(subwordQuery(), Map.of(
+                IndexFields.CONTENT_EXACT, exact(),
+                IndexFields.PATH, new KeywordAnalyzer()));
+    }
+
+    // Whole names, lower-cased, to be matched as prefixes of sub-word tokens: "UserSe" completes
+    // the catenated "userservice" and "serv" the part "service"
+    public static Analyzer prefixes() {
+        return new Analyzer() {
+            @Override
+            protected TokenStreamComponents createComponents(String fieldName) {
+                Tokenizer source = new PatternTokenizer(QUALIFIED_NAME, 0);
+                return new TokenStreamComponents(source, new LowerCaseFilter(source));
+            }
+        };
+    }
+
+    @Override
+    protected Reader initReader(String fieldName, Reader reader) {
+        return splitIdentifiers ? new PatternReplaceCharFilter(ACRONYM_BOUNDARY, "$1_", reader) : reader;
+    }
+
+    @Override
+    protected TokenStreamComponents createComponents(String fieldName) {
+        Tokenizer source = new PatternTokenizer(splitIdentifiers ? QUALIFIED_NAME : IDENTIFIER, 0);
+        if (!splitIdentifiers) {
+            return new TokenStreamComponents(source);
+        }
+
+        TokenStream stream = new WordDelimiterGraphFilter(source, SPLIT_FLAGS, null);
+        stream = new LowerCaseFilter(stream);
+        stream = new RemoveDuplicatesTokenFilter(stream); // Catenated parts usually equal the original
+        if (!stopWords.isEmpty()) {
+            stream = new StopFilter(stream, stopWords);
+        }
+        if (flattenGraph) {
+            stream = new FlattenGraphFilter(stream);
+        }
+        return new TokenStreamComponents(source, stream);
+    }
+
+    @Override
+    protected TokenStream normalize(String fieldName, TokenStream in) {
+        return splitIdentifiers ? new LowerCaseFilter(in) : in;
+    }
+}
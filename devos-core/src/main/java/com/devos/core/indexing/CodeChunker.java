@@ -0,0 +1,94 @@
+package com.devos.core.indexing;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Splits a file into chunks for embedding. Declarations found by {@link SymbolExtractor}
+ * start new chunks (together with the comments and annotations right above them), small
+ * neighbours are packed together, and anything without declarations or longer than the
+ * limit falls back to fixed, slightly overlapping line windows.
+ */
+public final class CodeChunker {
+
+    static final int MIN_CHUNK_LINES = 8;
+    static final int MAX_CHUNK_LINES = 60;
+    static final int WINDOW_OVERLAP = 5;
+    static final int MAX_CHUNK_CHARS = 4000;
+
+    private CodeChunker() {
+    }
+
+    /**
+     * @param startLine first line of the chunk, 1-based
+     * @param endLine   last line of the chunk, inclusive
+     * @param symbol    the first declaration in the chunk, if any
+     */
+    public record CodeChunk(int startLine, int endLine, String text, String symbol) {
+    }
+
+    public static List<CodeChunk> chunk(String content, List<CodeSymbol> symbols) {
+        String[] lines = content.split("\n", -1);
+        TreeMap<Integer, String> starts = new TreeMap<>();
+        for (CodeSymbol symbol : symbols) {
+            if (symbol.kind() == CodeSymbol.Kind.FIELD || symbol.line() > lines.length) continue;
+            String label = symbol.container() == null ? symbol.name() : symbol.container() + "." + symbol.name();
+            starts.putIfAbsent(leadingCommentStart(lines, symbol.line()), label);
+        }
+        starts.putIfAbsent(1, null);
+
+        List<CodeChunk> chunks = new ArrayList<>();
+        int chunkStart = -1;
+        String chunkSymbol = null;
+        List<Map.Entry<Integer, String>> boundaries = new ArrayList<>(starts.entrySet());
+        for (int i = 0; i < boundaries.size(); i++) {
+            int start = boundaries.get(i).getKey();
+            int end = i + 1 < boundaries.size() ? boundaries.get(i + 1).getKey() - 1 : lines.length;
+            if (chunkStart < 0) {
+                chunkStart = start;
+                chunkSymbol = boundaries.get(i).getValue();
+            } else if (start - chunkStart >= MIN_CHUNK_LINES || end - chunkStart + 1 > MAX_CHUNK_LINES) {
+                addWindows(lines, chunkStart, start - 1, chunkSymbol, chunks);
+                chunkStart = start;
+                chunkSymbol = boundaries.get(i).getValue();
+            } else if (chunkSymbol == null) {
+                chunkSymbol = boundaries.get(i).getValue();
+            }
+        }
+        if (chunkStart > 0) {
+            addWindows(lines, chunkStart, lines.length, chunkSymbol, chunks);
+        }
+        return chunks;
+    }
+
+    private static void addWindows(String[] lines, int start, int end, String symbol, List<CodeChunk> chunks) {
+        for (int windowStart = start; windowStart <= end; ) {
+            int windowEnd = Math.min(end, windowStart + MAX_CHUNK_LINES - 1);
+            String text = String.join("\n", Arrays.copyOfRange(lines, windowStart - 1, windowEnd));
+            if (!text.isBlank()) {
+                chunks.add(new CodeChunk(windowStart, windowEnd,
+                        text.length() > MAX_CHUNK_CHARS ? text.substring(0, MAX_CHUNK_CHARS) : text, symbol));
+            }
+            if (windowEnd == end) break;
+            windowStart = windowEnd + 1 - WINDOW_OVERLAP;
+        }
+    }
+
+    // Doc comments, annotations and decorators belong to the declaration below them
+    private static int leadingCommentStart(String[] lines, int line) {
+        int start = line;
+        while (start > 1) {
+            String previous = lines[start - 2].trim();
+            if (previous.startsWith("@") || previous.startsWith("//") || previous.startsWith("/*")
+                    || previous.startsWith("*") || previous.startsWith("#")) {
+                start--;
+            } else {
+                break;
+            }
+        }
+        return start;
+    }
+}
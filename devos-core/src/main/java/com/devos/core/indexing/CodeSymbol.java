@@ -0,0 +1,53 @@
+package com.devos.core.indexing;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A declaration found in a source file. Lines and columns are 1-based.
+ */
+public record CodeSymbol(String name, Kind kind, int line, int column, String container) {
+
+    public enum Kind {
+        CLASS, INTERFACE, ENUM, STRUCT, TYPE, METHOD, FUNCTION, FIELD
+    }
+
+    public Map<String, Object> toMap(String path) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("name", name);
+        map.put("kind", kind.name());
+        map.put("path", path);
+        map.put("line", line);
+        map.put("column", column);
+        map.put("container", container);
+        return map;
+    }
+
+    // Symbols are stored on the file document as one tab-separated line each
+    public static String encode(List<CodeSymbol> symbols) {
+        StringBuilder encoded = new StringBuilder();
+        for (CodeSymbol symbol : symbols) {
+            encoded.append(symbol.kind.name()).append('\t')
+                    .append(symbol.name).append('\t')
+                    .append(symbol.line).append('\t')
+                    .append(symbol.column).append('\t')
+                    .append(symbol.container == null ? "" : symbol.container).append('\n');
+        }
+        return encoded.toString();
+    }
+
+    public static List<CodeSymbol> decode(String encoded) {
+        List<CodeSymbol> symbols = new ArrayList<>();
+        if (encoded == null) return symbols;
+
+        for (String line : encoded.split("\n")) {
+            String[] parts = line.split("\t", -1);
+            if (parts.length < 5) continue;
+            symbols.add(new CodeSymbol(parts[1], Kind.valueOf(parts[0]), Integer.parseInt(parts[2]),
+                    Integer.parseInt(parts[3]), parts[4].isEmpty() ? null : parts[4]));
+        }
+        return symbols;
+    }
+}
@@ -0,0 +1,21 @@
+package com.devos.core.indexing;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Turns text into fixed-size vectors for the chunk index. Implementations must be
+ * deterministic for a given model: vectors are cached in the index and only recomputed
+ * when a chunk's content or the model changes.
+ */
+public interface EmbeddingProvider {
+
+    /**
+     * Identifies the model and its settings; changing it re-embeds every project.
+     */
+    String getModel();
+
+    int getDimensions();
+
+    List<float[]> embed(List<String> texts) throws IOException;
+}
@@ -0,0 +1,105 @@
+package com.devos.core.indexing;
+
+import jakarta.annotation.PreDestroy;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.StringHelper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Local, deterministic embeddings built with the hashing trick: identifier sub-words and
+ * adjacent sub-word pairs are hashed into a signed, L2-normalized bag-of-words vector. It
+ * captures vocabulary overlap rather than meaning, but needs no model or network and gives
+ * stable vectors for tests and offline installs.
+ */
+@Component
+@ConditionalOnProperty(name = "devos.indexing.semantic.provider", havingValue = "hashing", matchIfMissing = true)
+public class HashingEmbeddingProvider implements EmbeddingProvider {
+
+    private static final int SEED = 0x5eed;
+    private static final float PAIR_WEIGHT = 0.5f;
+
+    private final Analyzer analyzer = CodeAnalyzer.subwordQuery();
+    private final int dimensions;
+
+    public HashingEmbeddingProvider(@Value("${devos.indexing.semantic.dimensions:256}") int dimensions) {
+        this.dimensions = dimensions;
+    }
+
+    @Override
+    public String getModel() {
+        return "hashing-v1-" + dimensions;
+    }
+
+    @Override
+    public int getDimensions() {
+        return dimensions;
+    }
+
+    @Override
+    public List<float[]> embed(List<String> texts) throws IOException {
+        List<float[]> vectors = new ArrayList<>(texts.size());
+        for (String text : texts) {
+            vectors.add(embed(text));
+        }
+        return vectors;
+    }
+
+    @PreDestroy
+    public void close() {
+        analyzer.close();
+    }
+
+    private float[] embed(String text) throws IOException {
+        Map<String, Float> features = new HashMap<>();
+        try (TokenStream tokens = analyzer.tokenStream(IndexFields.CONTENT, text)) {
+            CharTermAttribute term = tokens.addAttribute(CharTermAttribute.class);
+            tokens.reset();
+            String previous = null;
+            while (tokens.incrementToken()) {
+                String token = term.toString();
+                features.merge(token, 1f, Float::sum);
+                if (previous != null) {
+                    features.merge(previous + " " + token, PAIR_WEIGHT, Float::sum);
+                }
+                previous = token;
+            }
+            tokens.end();
+        }
+
+        float[] vector = new float[dimensions];
+        for (Map.Entry<String, Float> feature : features.entrySet()) {
+            int hash = StringHelper.murmurhash3_x86_32(new BytesRef(feature.getKey()), SEED);
+            // Sub-linear term frequency keeps repeated boilerplate from dominating
+            float weight = (float) (1 + Math.log(feature.getValue()));
+            vector[Math.floorMod(hash, dimensions)] += (hash & 0x80000000) == 0 ? weight : -weight;
+        }
+        return normalize(vector);
+    }
+
+    private static float[] normalize(float[] vector) {
+        double norm = 0;
+        for (float value : vector) {
+            norm += value * value;
+        }
+        if (norm == 0) {
+            vector[0] = 1; // Cosine similarity is undefined for the zero vector
+            return vector;
+        }
+        float scale = (float) (1 / Math.sqrt(norm));
+        for (int i = 0; i < vector.length; i++) {
+            vector[i] *= scale;
+        }
+        return vector;
+    }
+}
@@ -0,0 +1,56 @@
+package com.devos.core.indexing;
+
+import java.util.zip.CRC32C;
+
+/**
+ * Field names shared by everything that reads or writes the per-project file index.
+ */
+public final class IndexFields {
+
+    public static final String PATH = "path";
+    public static final String CONTENT = "content";
+    public static final String CONTENT_EXACT = "content_exact";
+    public static final String SOURCE = "source"; // Stored file content
+    public static final String PATH_TEXT = "path_text";
+    public static final String TRIGRAM = "trigram"; // Lower-cased content trigrams for substring and regex search
+
+    // Names of declared symbols (searchable) and their kind, line and container (stored)
+    public static final String SYMBOL = "symbol";
+    public static final String SYMBOLS = "symbols";
+
+    // Doc values used to detect changed files without re-reading them
+    public static final String PATH_DV = "path_dv";
+    public static final String MTIME = "mtime";
+    public static final String SIZE = "size";
+    public static final String HASH = "hash";
+
+    // Facet dimensions (language, top-level directory, extension, size bucket) live in SearchFacets
+
+    // Chunk index: one document per embedded chunk, sharing PATH, PATH_DV and HASH (of the whole file)
+    public static final String CHUNK_VECTOR = "chunk_vector";
+    public static final String CHUNK_TEXT = "chunk_text";
+    public static final String CHUNK_HASH = "chunk_hash";
+    public static final String CHUNK_START_LINE = "chunk_start_line";
+    public static final String CHUNK_END_LINE = "chunk_end_line";
+    public static final String CHUNK_SYMBOL = "chunk_symbol";
+    public static final String EMBEDDING_MODEL = "embedding_model";
+
+    // Bumped whenever analysis or field options change; older indexes are wiped and rebuilt
+    public static final String SCHEMA_VERSION_KEY = "devos.schema";
+    public static final String SCHEMA_VERSION = "6";
+    public static final String CHUNK_SCHEMA_VERSION = "1";
+
+    private IndexFields() {
+    }
+
+    public static String normalizePath(String path) {
+        String normalized = path.replace('\\', '/');
+        return normalized.startsWith("/") ? normalized.substring(1) : normalized;
+    }
+
+    public static String contentHash(byte[] bytes) {
+        CRC32C crc = new CRC32C();
+        crc.update(bytes, 0, bytes.length);
+        return Long.toHexString(crc.getValue()) + "-" + Integer.toHexString(bytes.length);
+    }
+}
@@ -0,0 +1,21 @@
+package com.devos.core.indexing;
+
+import lombok.Getter;
+
+/**
+ * The indexes kept per project. Each lives in its own directory and carries its own schema
+ * version, so one can be rebuilt without touching the other.
+ */
+@Getter
+public enum IndexKind {
+    FILES("", IndexFields.SCHEMA_VERSION),
+    CHUNKS("-chunks", IndexFields.CHUNK_SCHEMA_VERSION);
+
+    private final String directorySuffix;
+    private final String schemaVersion;
+
+    IndexKind(String directorySuffix, String schemaVersion) {
+        this.directorySuffix = directorySuffix;
+        this.schemaVersion = schemaVersion;
+    }
+}
@@ -0,0 +1,213 @@
+package com.devos.core.indexing;
+
+import com.devos.core.event.ProjectDeletedEvent;
+import com.devos.core.indexing.ProjectIndexRegistry.IndexKey;
+import com.devos.core.indexing.ProjectIndexRegistry.ProjectIndex;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.store.AlreadyClosedException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.time.Instant;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Tracks segment count, deleted documents and disk size of the open indexes, and force-merges
+ * the ones past a threshold. Merges only start inside the off-peak window and run one at a time
+ * on their own thread, so they never hold up the registry's refresh and commit schedule.
+ * Closed indexes keep their last stats until their directory is deleted.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class IndexMaintenance {
+
+    private final ProjectIndexRegistry indexRegistry;
+
+    @Value("${devos.indexing.maintenance.enabled:true}")
+    private boolean enabled = true;
+
+    // Local hours as "start-end", e.g. "1-5" or "22-4"; empty means any time
+    @Value("${devos.indexing.maintenance.off-peak-hours:}")
+    private String offPeakHours = "";
+    // Parsed from offPeakHours at startup; a negative start means any time
+    private int offPeakStart = -1;
+    private int offPeakEnd = -1;
+
+    @Value("${devos.indexing.maintenance.max-segments:30}")
+    private int maxSegments = 30;
+
+    @Value("${devos.indexing.maintenance.max-deleted-ratio:0.25}")
+    private double maxDeletedRatio = 0.25;
+
+    // Segments left by a force-merge; merging down to one would create a segment too big for
+    // the merge policy to ever rewrite again
+    @Value("${devos.indexing.maintenance.target-segments:5}")
+    private int targetSegments = 5;
+
+    private final Map<IndexKey, IndexStats> stats = new ConcurrentHashMap<>();
+    private final Set<IndexKey> merging = ConcurrentHashMap.newKeySet();
+    private ExecutorService mergeExecutor;
+
+    public record IndexStats(Long projectId, IndexKind kind, int segments, int documents, int deletedDocuments,
+                             double deletedRatio, long sizeInBytes, boolean largeIndex, Instant measuredAt,
+                             Instant lastForceMerge) {
+    }
+
+    @PostConstruct
+    void start() {
+        parseOffPeakHours();
+        mergeExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "devos-index-maintenance");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void stop() {
+        if (mergeExecutor != null) {
+            mergeExecutor.shutdownNow();
+        }
+    }
+
+    public List<IndexStats> getStats() {
+        List<IndexStats> all = new ArrayList<>(stats.values());
+        all.sort(Comparator.comparingLong(IndexStats::sizeInBytes).reversed());
+        return all;
+    }
+
+    @TransactionalEventListener
+    public void onProjectDeleted(ProjectDeletedEvent event) {
+        stats.keySet().removeIf(key -> key.projectId().equals(event.projectId()));
+    }
+
+    @Scheduled(fixedDelayString = "${devos.indexing.maintenance.interval-ms:300000}")
+    public void runMaintenance() {
+        if (!enabled) return;
+
+        stats.keySet().removeIf(key -> !Files.isDirectory(indexRegistry.indexDirectory(key.projectId(), key.kind())));
+        boolean offPeak = isOffPeak(LocalTime.now());
+        for (ProjectIndex index : indexRegistry.openIndexes()) {
+            IndexStats current;
+            try {
+                current = measure(index);
+            } catch (AlreadyClosedException e) {
+                continue; // Evicted meanwhile
+            } catch (IOException e) {
+                log.warn("Could not measure index {}", index.getKey(), e);
+                continue;
+            }
+            if (offPeak && needsMerge(current) && merging.add(index.getKey())) {
+                mergeExecutor.execute(() -> forceMerge(index, current));
+            }
+        }
+    }
+
+    boolean needsMerge(IndexStats current) {
+        return current.deletedRatio() >= maxDeletedRatio || current.segments() > maxSegments;
+    }
+
+    // Fails startup on a malformed window instead of throwing from every scheduled run
+    void parseOffPeakHours() {
+        offPeakStart = -1;
+        offPeakEnd = -1;
+        if (offPeakHours == null || offPeakHours.isBlank()) return;
+
+        String[] hours = offPeakHours.trim().split("-", -1);
+        int start;
+        int end;
+        try {
+            if (hours.length != 2) throw new NumberFormatException();
+            start = Integer.parseInt(hours[0].trim());
+            end = Integer.parseInt(hours[1].trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid devos.indexing.maintenance.off-peak-hours '" + offPeakHours
+                    + "', expected start-end hours such as 1-5 or 22-4");
+        }
+        if (start < 0 || start > 23 || end < 0 || end > 23 || start == end) {
+            throw new IllegalArgumentException("Invalid devos.indexing.maintenance.off-peak-hours '" + offPeakHours
+                    + "', hours must be 0-23 and differ");
+        }
+        offPeakStart = start;
+        offPeakEnd = end;
+    }
+
+    boolean isOffPeak(LocalTime now) {
+        if (offPeakStart < 0) return true;
+
+        int hour = now.getHour();
+        return offPeakStart <= offPeakEnd
+                ? hour >= offPeakStart && hour < offPeakEnd
+                : hour >= offPeakStart || hour < offPeakEnd;
+    }
+
+    private IndexStats measure(ProjectIndex index) throws IOException {
+        long size = ProjectIndexRegistry.sizeOnDisk(index.getDirectory());
+        indexRegistry.tuneMergePolicy(index, size);
+
+        IndexSearcher searcher = index.getSearcherManager().acquire();
+        IndexStats current;
+        try {
+            IndexReader reader = searcher.getIndexReader();
+            int maxDoc = reader.maxDoc();
+            int deleted = reader.numDeletedDocs();
+            IndexStats previous = stats.get(index.getKey());
+            current = new IndexStats(index.getKey().projectId(), index.getKey().kind(), reader.leaves().size(),
+                    reader.numDocs(), deleted, maxDoc == 0 ? 0 : (double) deleted / maxDoc, size, index.isLargeIndex(),
+                    Instant.now(), previous != null ? previous.lastForceMerge() : null);
+        } finally {
+            index.getSearcherManager().release(searcher);
+        }
+        stats.put(index.getKey(), current);
+        return current;
+    }
+
+    private void forceMerge(ProjectIndex index, IndexStats before) {
+        IndexKey key = index.getKey();
+        index.getPins().incrementAndGet();
+        try {
+            long start = System.currentTimeMillis();
+            if (before.deletedRatio() >= maxDeletedRatio) {
+                index.getWriter().forceMergeDeletes();
+            }
+            if (before.segments() > maxSegments) {
+                index.getWriter().forceMerge(targetSegments);
+            }
+            index.getWriter().commit();
+            index.getSearcherManager().maybeRefreshBlocking();
+
+            IndexStats after = measure(index);
+            stats.put(key, new IndexStats(after.projectId(), after.kind(), after.segments(), after.documents(),
+                    after.deletedDocuments(), after.deletedRatio(), after.sizeInBytes(), after.largeIndex(),
+                    after.measuredAt(), Instant.now()));
+            log.info("Force-merged index {} in {} ms: {} -> {} segments, {} -> {} bytes", key,
+                    System.currentTimeMillis() - start, before.segments(), after.segments(),
+                    before.sizeInBytes(), after.sizeInBytes());
+        } catch (AlreadyClosedException e) {
+            log.debug("Index {} was closed during its force-merge", key);
+        } catch (IOException e) {
+            log.error("Force-merge of index {} failed", key, e);
+        } finally {
+            index.getPins().decrementAndGet();
+            merging.remove(key);
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package com.devos.core.indexing;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.IOContext;
+import org.apache.lucene.store.IndexInput;
+import org.springframework.stereotype.Component;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.EnumMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Exports a project's indexes as a zip of their last commit point, and restores such an archive
+ * in place of the local indexes. The archive holds one folder per {@link IndexKind} and ends with
+ * a manifest listing the SHA-256 and size of every file; a restore is only swapped in once all of
+ * them check out.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class IndexSnapshots {
+
+    static final String MANIFEST = "manifest.sha256";
+    private static final String FORMAT = "devos-index-snapshot 1";
+    private static final Pattern ENTRY_NAME = Pattern.compile("(files|chunks)/[A-Za-z0-9_.\\-]+");
+
+    private final ProjectIndexRegistry indexRegistry;
+    private final SearchResultCache searchResultCache;
+
+    public void export(Long projectId, OutputStream out) throws IOException {
+        StringBuilder manifest = new StringBuilder();
+        manifest.append("# ").append(FORMAT).append('\n');
+        manifest.append("# project ").append(projectId).append('\n');
+
+        ZipOutputStream zip = new ZipOutputStream(out);
+        // Index files are mostly compressed already, so favour speed
+        zip.setLevel(Deflater.BEST_SPEED);
+        byte[] buffer = new byte[64 * 1024];
+        for (IndexKind kind : IndexKind.values()) {
+            indexRegistry.withSnapshot(projectId, kind, (directory, commit) -> {
+                manifest.append("# schema ").append(folder(kind)).append(' ').append(kind.getSchemaVersion())
+                        .append(" generation ").append(commit.getGeneration()).append('\n');
+                for (String file : commit.getFileNames()) {
+                    String name = folder(kind) + "/" + file;
+                    zip.putNextEntry(new ZipEntry(name));
+                    MessageDigest digest = sha256();
+                    long size = copy(directory, file, zip, digest, buffer);
+                    zip.closeEntry();
+                    manifest.append(HexFormat.of().formatHex(digest.digest())).append("  ")
+                            .append(size).append("  ").append(name).append('\n');
+                }
+                return null;
+            });
+        }
+        zip.putNextEntry(new ZipEntry(MANIFEST));
+        zip.write(manifest.toString().getBytes(StandardCharsets.UTF_8));
+        zip.closeEntry();
+        zip.finish();
+        zip.flush();
+        log.info("Exported index snapshot of project {}", projectId);
+    }
+
+    /**
+     * Replaces the project's indexes with the archive's. Nothing changes locally unless the whole
+     * archive matches its manifest.
+     *
+     * @return the number of files and bytes restored
+     */
+    public Map<String, Object> restore(Long projectId, InputStream in) throws IOException {
+        Path staging = indexRegistry.createStagingDirectory(projectId);
+        try {
+            Map<String, String> received = new LinkedHashMap<>();
+            String manifest = null;
+            long bytes = 0;
+
+            ZipInputStream zip = new ZipInputStream(in);
+            ZipEntry entry;
+            while ((entry = zip.getNextEntry()) != null) {
+                String name = entry.getName();
+                if (MANIFEST.equals(name)) {
+                    manifest = new String(zip.readAllBytes(), StandardCharsets.UTF_8);
+                    continue;
+                }
+                if (entry.isDirectory() || !ENTRY_NAME.matcher(name).matches()) {
+                    throw new IllegalArgumentException("Unexpected entry in index snapshot: " + name);
+                }
+                if (received.containsKey(name)) {
+                    throw new IllegalArgumentException("Duplicate entry in index snapshot: " + name);
+                }
+                Path target = staging.resolve(name);
+                Files.createDirectories(target.getParent());
+                MessageDigest digest = sha256();
+                long size;
+                try (OutputStream file = new DigestOutputStream(Files.newOutputStream(target), digest)) {
+                    size = zip.transferTo(file);
+                }
+                bytes += size;
+                received.put(name, HexFormat.of().formatHex(digest.digest()) + "  " + size);
+            }
+            if (manifest == null) {
+                throw new IllegalArgumentException("Index snapshot has no " + MANIFEST);
+            }
+
+            Map<IndexKind, Path> staged = verify(projectId, manifest, received, staging);
+            indexRegistry.replace(projectId, staged);
+            searchResultCache.invalidate(projectId);
+            log.info("Restored index snapshot of project {}: {} files, {} bytes", projectId, received.size(), bytes);
+
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("files", received.size());
+            result.put("bytes", bytes);
+            return result;
+        } finally {
+            FileSystemUtils.deleteRecursively(staging);
+        }
+    }
+
+    private Map<IndexKind, Path> verify(Long projectId, String manifest, Map<String, String> received, Path staging)
+            throws IOException {
+        Map<String, String> expected = new LinkedHashMap<>();
+        Map<IndexKind, Path> staged = new EnumMap<>(IndexKind.class);
+        BufferedReader reader = new BufferedReader(new StringReader(manifest));
+        String line = reader.readLine();
+        if (!("# " + FORMAT).equals(line)) {
+            throw new IllegalArgumentException("Unsupported index snapshot format: " + line);
+        }
+        while ((line = reader.readLine()) != null) {
+            if (line.isBlank()) continue;
+            String[] parts = line.split("\\s+");
+            if (line.startsWith("# project ")) {
+                if (!parts[2].equals(String.valueOf(projectId))) {
+                    throw new IllegalArgumentException("Index snapshot belongs to project " + parts[2]);
+                }
+            } else if (line.startsWith("# schema ")) {
+                IndexKind kind = IndexKind.valueOf(parts[2].toUpperCase(Locale.ROOT));
+                if (!parts[3].equals(kind.getSchemaVersion())) {
+                    throw new IllegalArgumentException("Index snapshot has " + parts[2] + " schema " + parts[3]
+                            + ", expected " + kind.getSchemaVersion());
+                }
+                staged.put(kind, staging.resolve(parts[2]));
+            } else if (!line.startsWith("#") && parts.length == 3) {
+                expected.put(parts[2], parts[0] + "  " + parts[1]);
+            } else {
+                throw new IllegalArgumentException("Malformed index snapshot manifest line: " + line);
+            }
+        }
+
+        for (Map.Entry<String, String> file : expected.entrySet()) {
+            String actual = received.get(file.getKey());
+            if (actual == null) {
+                throw new IllegalArgumentException("Index snapshot is missing " + file.getKey());
+            }
+            if (!actual.equals(file.getValue())) {
+                throw new IllegalArgumentException("Checksum mismatch for " + file.getKey());
+            }
+        }
+        for (String name : received.keySet()) {
+            if (!expected.containsKey(name)) {
+                throw new IllegalArgumentException("Index snapshot entry not in manifest: " + name);
+            }
+        }
+        for (Map.Entry<IndexKind, Path> kind : staged.entrySet()) {
+            if (!Files.isDirectory(kind.getValue())) {
+                throw new IllegalArgumentException("Index snapshot has no files for " + kind.getKey());
+            }
+        }
+        return staged;
+    }
+
+    private static long copy(Directory directory, String file, OutputStream out, MessageDigest digest, byte[] buffer)
+            throws IOException {
+        try (IndexInput input = directory.openInput(file, IOContext.READONCE)) {
+            long remaining = input.length();
+            long size = remaining;
+            while (remaining > 0) {
+                int chunk = (int) Math.min(buffer.length, remaining);
+                input.readBytes(buffer, 0, chunk);
+                digest.update(buffer, 0, chunk);
+                out.write(buffer, 0, chunk);
+                remaining -= chunk;
+            }
+            return size;
+        }
+    }
+
+    private static String folder(IndexKind kind) {
+        return kind.name().toLowerCase(Locale.ROOT);
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
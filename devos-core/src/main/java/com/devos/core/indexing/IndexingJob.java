@@ -0,0 +1,119 @@
+package com.devos.core.indexing;
+
+import lombok.Getter;
+
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * One queued or running (re-)index of a project. Progress is read live from the pipeline
+ * stats while the job runs; cancellation is cooperative and takes effect between files.
+ */
+@Getter
+public class IndexingJob {
+
+    public enum Type {
+        // Re-indexes the paths changed between the last indexed commit and HEAD
+        GIT_SYNC,
+        // Walks the project and re-indexes files whose size or mtime changed
+        INCREMENTAL,
+        // Walks the project and rewrites every file
+        FULL;
+
+        // Each type does at least the work of the ones declared before it
+        public boolean covers(Type other) {
+            return compareTo(other) >= 0;
+        }
+    }
+
+    public enum Priority {
+        LOW, NORMAL, HIGH
+    }
+
+    public enum State {
+        QUEUED, RUNNING, COMPLETED, FAILED, CANCELLED;
+
+        public boolean isFinished() {
+            return this == COMPLETED || this == FAILED || this == CANCELLED;
+        }
+    }
+
+    // Highest priority first, then first come first served
+    public static final Comparator<IndexingJob> QUEUE_ORDER = Comparator
+            .comparing(IndexingJob::getPriority, Comparator.reverseOrder())
+            .thenComparingLong(IndexingJob::getSequence);
+
+    private static final AtomicLong SEQUENCE = new AtomicLong();
+
+    private final String id = UUID.randomUUID().toString();
+    private final long sequence = SEQUENCE.incrementAndGet();
+    private final Long projectId;
+    private final Type type;
+    private final Instant createdAt = Instant.now();
+
+    private volatile Priority priority;
+    private volatile State state = State.QUEUED;
+    private volatile IndexingPipeline.Stats stats;
+    private volatile boolean cancelRequested;
+    private volatile Instant startedAt;
+    private volatile Instant finishedAt;
+    private volatile String error;
+
+    public IndexingJob(Long projectId, Type type, Priority priority) {
+        this.projectId = projectId;
+        this.type = type;
+        this.priority = priority;
+    }
+
+    public void setPriority(Priority priority) {
+        this.priority = priority;
+    }
+
+    public void requestCancel() {
+        cancelRequested = true;
+    }
+
+    public void markRunning() {
+        stats = new IndexingPipeline.Stats();
+        startedAt = Instant.now();
+        state = State.RUNNING;
+    }
+
+    public void finish(State finalState, String errorMessage) {
+        error = errorMessage;
+        finishedAt = Instant.now();
+        state = finalState;
+    }
+
+    public Map<String, Object> toMap() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("jobId", id);
+        map.put("projectId", projectId);
+        map.put("type", type);
+        map.put("priority", priority);
+        map.put("state", state);
+        map.put("cancelRequested", cancelRequested);
+        map.put("createdAt", createdAt.toString());
+        map.put("startedAt", startedAt != null ? startedAt.toString() : null);
+        map.put("finishedAt", finishedAt != null ? finishedAt.toString() : null);
+
+        IndexingPipeline.Stats current = stats;
+        if (current != null) {
+            map.put("filesDone", current.getProcessed());
+            map.put("filesTotal", current.getWalked());
+            map.put("totalKnown", current.isWalkComplete());
+            map.put("filesIndexed", current.getIndexed());
+            map.put("filesFailed", current.getFailed());
+            map.put("bytesRead", current.getBytesRead());
+            map.put("bytesTotal", current.getBytesWalked());
+            map.put("elapsedMs", current.getElapsedMillis());
+            map.put("etaMs", state == State.RUNNING ? current.getEtaMillis() : null);
+        }
+        map.put("error", error);
+        return map;
+    }
+}
@@ -0,0 +1,326 @@
+package com.devos.core.indexing;
+
+import com.devos.core.filesystem.ProjectFileWalker;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.lucene.index.IndexWriter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Predicate;
+
+/**
+ * Indexes a directory tree in three stages connected by bounded queues:
+ * a single ignore-aware walker, a pool of readers that load and decode files, and a pool of
+ * indexers that build documents and hand them to the (thread-safe) IndexWriter.
+ * Full queues block the upstream stage, so memory stays bounded regardless of
+ * project size.
+ */
+@Slf4j
+public class IndexingPipeline {
+
+    private static final WalkedFile END_OF_WALK = new WalkedFile(null, null, null);
+    private static final SourceFile END_OF_READ = new SourceFile(null, null, null, 0L, 0L);
+
+    private final ProjectFileWalker fileWalker;
+    private final int readerThreads;
+    private final int indexerThreads;
+    private final int queueCapacity;
+
+    public IndexingPipeline(ProjectFileWalker fileWalker, int readerThreads, int indexerThreads, int queueCapacity) {
+        this.fileWalker = fileWalker;
+        this.readerThreads = Math.max(1, readerThreads);
+        this.indexerThreads = Math.max(1, indexerThreads);
+        this.queueCapacity = Math.max(1, queueCapacity);
+    }
+
+    public Stats run(Path root, ProjectFileWalker.WalkOptions options, Predicate<Path> fileFilter, IndexWriter writer,
+                     Handler handler) throws IOException {
+        return run(root, options, fileFilter, writer, handler, new Stats());
+    }
+
+    /**
+     * Runs the pipeline, updating {@code stats} as it goes so callers can report live progress.
+     *
+     * @throws CancellationException if {@link Handler#isCancelled()} turned true before the run completed
+     */
+    public Stats run(Path root, ProjectFileWalker.WalkOptions options, Predicate<Path> fileFilter, IndexWriter writer,
+                     Handler handler, Stats stats) throws IOException {
+        BlockingQueue<WalkedFile> walked = new ArrayBlockingQueue<>(queueCapacity);
+        BlockingQueue<SourceFile> read = new ArrayBlockingQueue<>(queueCapacity);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        AtomicInteger activeReaders = new AtomicInteger(readerThreads);
+
+        ExecutorService executor = Executors.newFixedThreadPool(1 + readerThreads + indexerThreads, runnable -> {
+            Thread thread = new Thread(runnable, "devos-indexing-" + root.getFileName());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        try {
+            Future<?> walker = executor.submit(() -> walk(root, options, fileFilter, walked, handler, stats, failure));
+            for (int i = 0; i < readerThreads; i++) {
+                executor.submit(() -> readLoop(walked, read, handler, stats, failure, activeReaders));
+            }
+            Future<?>[] indexers = new Future<?>[indexerThreads];
+            for (int i = 0; i < indexerThreads; i++) {
+                indexers[i] = executor.submit(() -> indexLoop(read, writer, handler, stats, failure));
+            }
+
+            walker.get();
+            for (Future<?> indexer : indexers) {
+                indexer.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failure.compareAndSet(null, e);
+        } catch (Exception e) {
+            failure.compareAndSet(null, e);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        stats.finish();
+        Throwable error = failure.get();
+        if (error != null && handler.isCancelled()) {
+            throw error instanceof CancellationException cancelled ? cancelled : new CancellationException("Indexing cancelled");
+        }
+        if (error != null) {
+            throw error instanceof IOException io ? io : new IOException("Indexing pipeline failed", error);
+        }
+        return stats;
+    }
+
+    private void walk(Path root, ProjectFileWalker.WalkOptions options, Predicate<Path> fileFilter,
+                      BlockingQueue<WalkedFile> out, Handler handler, Stats stats, AtomicReference<Throwable> failure) {
+        long start = System.nanoTime();
+        try {
+            fileWalker.walk(root, options, (file, relativePath, attrs) -> {
+                if (failure.get() != null) throw new IOException("Indexing aborted");
+                if (handler.isCancelled()) throw new CancellationException("Indexing cancelled");
+                if (!fileFilter.test(file)) return;
+
+                stats.walked.incrementAndGet();
+                stats.bytesWalked.addAndGet(attrs.size());
+                put(out, new WalkedFile(file, relativePath, attrs));
+            });
+            stats.walkComplete = true;
+        } catch (Throwable e) {
+            failure.compareAndSet(null, e);
+        } finally {
+            stats.walkNanos.addAndGet(System.nanoTime() - start);
+            for (int i = 0; i < readerThreads; i++) {
+                put(out, END_OF_WALK);
+            }
+        }
+    }
+
+    private void readLoop(BlockingQueue<WalkedFile> in, BlockingQueue<SourceFile> out, Handler handler,
+                          Stats stats, AtomicReference<Throwable> failure, AtomicInteger activeReaders) {
+        try {
+            while (true) {
+                WalkedFile file = in.take();
+                if (file == END_OF_WALK) break;
+                if (failure.get() != null || handler.isCancelled()) continue; // Drain so the walker is never blocked
+
+                long start = System.nanoTime();
+                SourceFile source = null;
+                try {
+                    long mtime = file.attrs().lastModifiedTime().toMillis();
+                    if (handler.needsRead(file.relativePath(), mtime, file.attrs().size())) {
+                        byte[] bytes = Files.readAllBytes(file.path());
+                        stats.read.incrementAndGet();
+                        stats.bytesRead.addAndGet(bytes.length);
+                        if (ProjectFileWalker.looksBinary(bytes)) {
+                            stats.skipped.incrementAndGet();
+                        } else {
+                            source = new SourceFile(file.relativePath(), new String(bytes, StandardCharsets.UTF_8),
+                                    IndexFields.contentHash(bytes), bytes.length, mtime);
+                        }
+                    } else {
+                        stats.skipped.incrementAndGet();
+                    }
+                } catch (IOException e) {
+                    stats.failed.incrementAndGet();
+                    log.warn("Failed to read file for indexing: {}", file.path(), e);
+                } finally {
+                    stats.readNanos.addAndGet(System.nanoTime() - start);
+                }
+                if (source != null) {
+                    out.put(source); // Blocks while the indexers are behind
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failure.compareAndSet(null, e);
+        } finally {
+            if (activeReaders.decrementAndGet() == 0) {
+                for (int i = 0; i < indexerThreads; i++) {
+                    put(out, END_OF_READ);
+                }
+            }
+        }
+    }
+
+    private void indexLoop(BlockingQueue<SourceFile> in, IndexWriter writer, Handler handler,
+                           Stats stats, AtomicReference<Throwable> failure) {
+        try {
+            while (true) {
+                SourceFile file = in.take();
+                if (file == END_OF_READ) break;
+                if (failure.get() != null) continue;
+
+                long start = System.nanoTime();
+                try {
+                    handler.index(writer, file);
+                    stats.indexed.incrementAndGet();
+                } catch (Throwable e) {
+                    // Writer failures are fatal for the whole run
+                    failure.compareAndSet(null, e);
+                } finally {
+                    stats.indexNanos.addAndGet(System.nanoTime() - start);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failure.compareAndSet(null, e);
+        }
+    }
+
+    private static <T> void put(BlockingQueue<T> queue, T item) {
+        try {
+            queue.put(item);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public interface Handler {
+
+        // Called before a file is read; returning false skips it (used for incremental runs)
+        boolean needsRead(String relativePath, long mtime, long size);
+
+        void index(IndexWriter writer, SourceFile file) throws IOException;
+
+        // Polled between files; once true the run stops early with a CancellationException
+        default boolean isCancelled() {
+            return false;
+        }
+    }
+
+    private record WalkedFile(Path path, String relativePath, BasicFileAttributes attrs) {
+    }
+
+    public record SourceFile(String relativePath, String content, String hash, long size, long mtime) {
+    }
+
+    public static class Stats {
+        private final long startNanos = System.nanoTime();
+        private volatile long elapsedNanos;
+        private volatile boolean walkComplete;
+
+        private final AtomicLong walked = new AtomicLong();
+        private final AtomicLong bytesWalked = new AtomicLong();
+        private final AtomicLong skipped = new AtomicLong();
+        private final AtomicLong read = new AtomicLong();
+        private final AtomicLong bytesRead = new AtomicLong();
+        private final AtomicLong indexed = new AtomicLong();
+        private final AtomicLong failed = new AtomicLong();
+
+        // Cumulative busy time per stage, summed across that stage's threads
+        private final AtomicLong walkNanos = new AtomicLong();
+        private final AtomicLong readNanos = new AtomicLong();
+        private final AtomicLong indexNanos = new AtomicLong();
+
+        void finish() {
+            elapsedNanos = System.nanoTime() - startNanos;
+        }
+
+        public long getWalked() {
+            return walked.get();
+        }
+
+        public long getBytesWalked() {
+            return bytesWalked.get();
+        }
+
+        // Until the walk completes, getWalked() is only a lower bound of the files to process
+        public boolean isWalkComplete() {
+            return walkComplete;
+        }
+
+        // Files that went all the way through the pipeline: indexed, skipped or failed
+        public long getProcessed() {
+            return indexed.get() + skipped.get() + failed.get();
+        }
+
+        public long getElapsedMillis() {
+            long nanos = elapsedNanos != 0 ? elapsedNanos : System.nanoTime() - startNanos;
+            return TimeUnit.NANOSECONDS.toMillis(nanos);
+        }
+
+        /**
+         * Remaining time at the file rate so far, or null while the total is still unknown.
+         */
+        public Long getEtaMillis() {
+            long processed = getProcessed();
+            if (!walkComplete || processed == 0) return null;
+            long remaining = Math.max(0, walked.get() - processed);
+            return Math.round((double) remaining * getElapsedMillis() / processed);
+        }
+
+        public long getSkipped() {
+            return skipped.get();
+        }
+
+        public long getRead() {
+            return read.get();
+        }
+
+        public long getBytesRead() {
+            return bytesRead.get();
+        }
+
+        public long getIndexed() {
+            return indexed.get();
+        }
+
+        public long getFailed() {
+            return failed.get();
+        }
+
+        public Map<String, Object> toMap() {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("walked", walked.get());
+            map.put("skipped", skipped.get());
+            map.put("read", read.get());
+            map.put("bytesRead", bytesRead.get());
+            map.put("indexed", indexed.get());
+            map.put("failed", failed.get());
+            map.put("elapsedMs", TimeUnit.NANOSECONDS.toMillis(elapsedNanos));
+            map.put("filesPerSec", perSecond(indexed.get(), elapsedNanos));
+            map.put("walkFilesPerThreadSec", perSecond(walked.get(), walkNanos.get()));
+            map.put("readFilesPerThreadSec", perSecond(read.get(), readNanos.get()));
+            map.put("indexFilesPerThreadSec", perSecond(indexed.get(), indexNanos.get()));
+            return map;
+        }
+
+        private static long perSecond(long count, long nanos) {
+            return nanos == 0 ? 0 : count * TimeUnit.SECONDS.toNanos(1) / nanos;
+        }
+    }
+}
@@ -0,0 +1,580 @@
+package com.devos.core.indexing;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.IntStream;
+
+/**
+ * In-memory file path index of one project, for quick-open. Directory paths are interned
+ * once and file names live in a single char arena, so each file costs its name plus a few
+ * dozen bytes of primitive arrays instead of a String and map entry per path. Matching is fzf-style: the query must appear as
+ * a subsequence of the path, and matches are scored for segment and camelCase boundaries,
+ * consecutive characters, gaps and recent modification. A character bitmask per file name,
+ * and the part of the query each directory consumes, reject most files before any scanning.
+ */
+public final class PathIndex {
+
+    // Scoring constants follow fzf's v1 algorithm
+    private static final int SCORE_MATCH = 16;
+    private static final int SCORE_GAP_START = -3;
+    private static final int SCORE_GAP_EXTENSION = -1;
+    private static final int BONUS_BOUNDARY = SCORE_MATCH / 2;
+    private static final int BONUS_PATH_SEPARATOR = BONUS_BOUNDARY + 1;
+    private static final int BONUS_CAMEL = BONUS_BOUNDARY + SCORE_GAP_EXTENSION;
+    private static final int BONUS_CONSECUTIVE = -(SCORE_GAP_START + SCORE_GAP_EXTENSION);
+    private static final int BONUS_FIRST_CHAR_MULTIPLIER = 2;
+
+    // Quick-open specific: recently modified files get up to one and a half matched characters extra
+    private static final int MAX_RECENCY_BONUS = 24;
+    private static final long RECENCY_STEP_MS = TimeUnit.HOURS.toMillis(1);
+    private static final int[] RECENCY_BONUS = new int[24 * 7]; // Halves every day, zero after a week
+
+    private static final int PARALLEL_THRESHOLD = 50_000;
+    private static final int MAX_SLICES = 8;
+
+    private static final int NO_MATCH = Integer.MIN_VALUE;
+    private static final int CLASS_LOWER = 0, CLASS_UPPER = 1, CLASS_DIGIT = 2, CLASS_SEPARATOR = 3,
+            CLASS_DELIMITER = 4, CLASS_OTHER = 5;
+
+    private static final byte[] ASCII_CLASSES = new byte[128];
+
+    static {
+        for (char c = 0; c < ASCII_CLASSES.length; c++) {
+            ASCII_CLASSES[c] = (byte) asciiClass(c);
+        }
+        for (int hour = 0; hour < RECENCY_BONUS.length; hour++) {
+            RECENCY_BONUS[hour] = (int) Math.round(MAX_RECENCY_BONUS * Math.pow(0.5, hour / 24.0));
+        }
+    }
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Interned directories: path without trailing slash ("" for the root) and parent id (-1 for the root)
+    private final List<String> dirPaths = new ArrayList<>();
+    private final Map<String, Integer> dirIds = new HashMap<>();
+    private int[] dirParents = new int[64];
+
+    // Files as parallel arrays; removed files stay as tombstones until the next compaction
+    private int fileCount;
+    private int[] fileDirs = new int[1024];
+    private int[] nameOffsets = new int[1024];
+    private int[] nameLengths = new int[1024];
+    private long[] nameMasks = new long[1024];
+    private long[] mtimes = new long[1024];
+    private final BitSet deleted = new BitSet();
+    private int deletedCount;
+    private char[] names = new char[16 * 1024];
+    private int namesLength;
+
+    // Open-addressing table of file id + 1 keyed by (directory, name); 0 marks an empty slot
+    private int[] slots = new int[2048];
+
+    public record Match(String path, int score, int[] positions, long mtime) {
+    }
+
+    public void add(String relativePath, long mtime) {
+        lock.writeLock().lock();
+        try {
+            int slash = relativePath.lastIndexOf('/');
+            int dir = internDirectory(slash < 0 ? "" : relativePath.substring(0, slash));
+            String name = relativePath.substring(slash + 1);
+
+            int slot = findSlot(dir, name);
+            if (slots[slot] != 0) {
+                int id = slots[slot] - 1;
+                mtimes[id] = mtime;
+                if (deleted.get(id)) {
+                    deleted.clear(id);
+                    deletedCount--;
+                }
+                return;
+            }
+            slots[slot] = append(dir, name, mtime) + 1;
+            if (fileCount * 2 > slots.length) {
+                rehash(slots.length * 2);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Removes the file at the path, or every file below it if the path was a directory.
+     */
+    public void remove(String relativePath) {
+        lock.writeLock().lock();
+        try {
+            int slash = relativePath.lastIndexOf('/');
+            Integer dir = dirIds.get(slash < 0 ? "" : relativePath.substring(0, slash));
+            if (dir != null) {
+                int slot = findSlot(dir, relativePath.substring(slash + 1));
+                if (slots[slot] != 0) markDeleted(slots[slot] - 1);
+            }
+
+            BitSet removedDirs = new BitSet();
+            String prefix = relativePath + "/";
+            for (int i = 0; i < dirPaths.size(); i++) {
+                String path = dirPaths.get(i);
+                if (path.equals(relativePath) || path.startsWith(prefix)) removedDirs.set(i);
+            }
+            if (!removedDirs.isEmpty()) {
+                for (int id = 0; id < fileCount; id++) {
+                    if (removedDirs.get(fileDirs[id])) markDeleted(id);
+                }
+            }
+
+            if (deletedCount > 1024 && deletedCount * 2 > fileCount) {
+                compact();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return fileCount - deletedCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public long estimatedBytes() {
+        lock.readLock().lock();
+        try {
+            long dirChars = dirPaths.stream().mapToLong(String::length).sum();
+            return names.length * 2L + fileDirs.length * 32L + slots.length * 4L + dirChars * 2 + dirPaths.size() * 96L;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Best matches first. Files whose name alone contains the query rank above matches that
+     * span directories, as in most quick-open UIs; the directory pass only runs when names do
+     * not fill the limit. Smart case as in fzf: the query only matches case-sensitively when
+     * it contains an upper-case letter. An empty query lists the most recently modified files.
+     */
+    public List<Match> search(String query, int limit, long now) {
+        String compact = query.replaceAll("\\s+", "");
+        boolean caseSensitive = !compact.equals(compact.toLowerCase());
+        char[] pattern = compact.toCharArray(); // Already lower-case unless matching case-sensitively
+
+        lock.readLock().lock();
+        try {
+            List<Match> matches = toMatches(collect(pattern, caseSensitive, null, limit, now), pattern, caseSensitive, true);
+            if (matches.size() < limit && pattern.length > 0) {
+                int[] dirProgress = directoryProgress(pattern, caseSensitive);
+                matches.addAll(toMatches(collect(pattern, caseSensitive, dirProgress, limit - matches.size(), now),
+                        pattern, caseSensitive, false));
+            }
+            return matches;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Large projects are scanned in parallel slices, each keeping its own top candidates
+    private PriorityQueue<int[]> collect(char[] pattern, boolean caseSensitive, int[] dirProgress, int limit, long now) {
+        int slices = fileCount < PARALLEL_THRESHOLD ? 1 : Math.min(MAX_SLICES, ForkJoinPool.getCommonPoolParallelism() + 1);
+        int sliceSize = (fileCount + slices - 1) / slices;
+        Comparator<int[]> worstFirst = worstFirst(pattern.length == 0);
+        PriorityQueue<int[]> best = new PriorityQueue<>(limit + 1, worstFirst);
+        IntStream.range(0, slices).parallel()
+                .mapToObj(slice -> scan(slice * sliceSize, Math.min(fileCount, (slice + 1) * sliceSize),
+                        pattern, caseSensitive, dirProgress, limit, now, worstFirst))
+                .toList()
+                .forEach(candidates -> candidates.forEach(candidate -> offer(best, candidate, limit, worstFirst)));
+        return best;
+    }
+
+    private List<Match> toMatches(PriorityQueue<int[]> best, char[] pattern, boolean caseSensitive, boolean inName) {
+        List<Match> matches = new ArrayList<>(best.size());
+        char[] buffer = new char[256];
+        while (!best.isEmpty()) {
+            int[] candidate = best.poll();
+            int id = candidate[0];
+            buffer = fill(id, buffer);
+            int length = pathLength(id);
+            int from = inName ? length - nameLengths[id] : 0;
+            int[] positions = new int[pattern.length];
+            if (pattern.length > 0) {
+                match(buffer, from, length, pattern, caseSensitive, positions);
+            }
+            matches.add(new Match(new String(buffer, 0, length), candidate[1], positions, mtimes[id]));
+        }
+        Collections.reverse(matches);
+        return matches;
+    }
+
+    /**
+     * Top candidates {id, score, path length} among files [from, to); called with the read lock held.
+     * Without directory progress only file names are matched, otherwise only files whose
+     * match needs the directory part.
+     */
+    private PriorityQueue<int[]> scan(int from, int to, char[] pattern, boolean caseSensitive, int[] dirProgress,
+                                      int limit, long now, Comparator<int[]> worstFirst) {
+        long[] remainingMasks = new long[pattern.length + 1];
+        for (int i = 0; i < pattern.length; i++) {
+            remainingMasks[i] = mask(pattern, i, pattern.length);
+        }
+        PriorityQueue<int[]> best = new PriorityQueue<>(limit + 1, worstFirst);
+        char[] buffer = new char[256];
+        int bufferDir = -1;
+        int dirLength = 0;
+        int[] spare = new int[3];
+        // No match can score more than every character landing right after a path separator
+        int maxScore = pattern.length == 0 ? Integer.MAX_VALUE
+                : pattern.length * (SCORE_MATCH + BONUS_PATH_SEPARATOR) + BONUS_PATH_SEPARATOR * (BONUS_FIRST_CHAR_MULTIPLIER - 1);
+
+        for (int id = from; id < to; id++) {
+            if (deleted.get(id)) continue;
+            if (best.size() == limit && maxScore != Integer.MAX_VALUE && maxScore + recencyBonus(mtimes[id], now) < best.peek()[1]) continue;
+
+            boolean inName = (nameMasks[id] & remainingMasks[0]) == remainingMasks[0] && nameContains(id, pattern, 0, caseSensitive);
+            int score;
+            if (dirProgress == null) {
+                if (!inName) continue;
+                int offset = nameOffsets[id];
+                score = pattern.length == 0 ? 0 : match(names, offset, offset + nameLengths[id], pattern, caseSensitive, null);
+            } else {
+                // The directory already consumed part of the pattern; the name has to cover the rest
+                int dir = fileDirs[id];
+                long remainingMask = remainingMasks[dirProgress[dir]];
+                if (inName || (nameMasks[id] & remainingMask) != remainingMask
+                        || !nameContains(id, pattern, dirProgress[dir], caseSensitive)) continue;
+
+                // Files of one directory are mostly adjacent, so the directory prefix is copied once per run
+                int nameLength = nameLengths[id];
+                if (dir != bufferDir || buffer.length < dirLength + nameLength) {
+                    String dirPath = dirPaths.get(dir);
+                    dirLength = dirPath.isEmpty() ? 0 : dirPath.length() + 1;
+                    if (buffer.length < dirLength + nameLength) buffer = new char[Math.max(buffer.length * 2, dirLength + nameLength)];
+                    dirPath.getChars(0, dirPath.length(), buffer, 0);
+                    if (dirLength > 0) buffer[dirLength - 1] = '/';
+                    bufferDir = dir;
+                }
+                System.arraycopy(names, nameOffsets[id], buffer, dirLength, nameLength);
+                score = match(buffer, 0, dirLength + nameLength, pattern, caseSensitive, null);
+            }
+
+            spare[0] = id;
+            spare[1] = score + recencyBonus(mtimes[id], now);
+            spare[2] = pathLength(id);
+            int[] evicted = offer(best, spare, limit, worstFirst);
+            spare = evicted != null ? evicted : new int[3];
+        }
+        return best;
+    }
+
+    /**
+     * For every directory, how many pattern characters a greedy left-to-right match consumes
+     * in "dir/". Greedy consumption is maximal, so a file matches exactly when its name
+     * contains the rest of the pattern as a subsequence. Each directory only scans its own
+     * last segment, continuing from its parent.
+     */
+    private int[] directoryProgress(char[] pattern, boolean caseSensitive) {
+        int[] progress = new int[dirPaths.size()];
+        int[] beforeSlash = new int[dirPaths.size()];
+        for (int dir = 0; dir < progress.length; dir++) {
+            String path = dirPaths.get(dir);
+            int parent = dirParents[dir];
+            int consumed = parent < 0 ? 0 : beforeSlash[parent];
+            int from = parent < 0 ? 0 : dirPaths.get(parent).length();
+            for (int i = from; i < path.length() && consumed < pattern.length; i++) {
+                if (fold(path.charAt(i), caseSensitive) == pattern[consumed]) consumed++;
+            }
+            beforeSlash[dir] = consumed;
+            if (!path.isEmpty() && consumed < pattern.length && pattern[consumed] == '/') consumed++;
+            progress[dir] = consumed;
+        }
+        return progress;
+    }
+
+    private boolean nameContains(int id, char[] pattern, int from, boolean caseSensitive) {
+        int next = from;
+        int offset = nameOffsets[id];
+        for (int i = offset, end = offset + nameLengths[id]; i < end && next < pattern.length; i++) {
+            if (fold(names[i], caseSensitive) == pattern[next]) next++;
+        }
+        return next == pattern.length;
+    }
+
+    // Adds the candidate if it beats the current worst; returns the array that was not kept, for reuse
+    private static int[] offer(PriorityQueue<int[]> best, int[] candidate, int limit, Comparator<int[]> worstFirst) {
+        if (best.size() < limit) {
+            best.offer(candidate);
+            return null;
+        }
+        if (worstFirst.compare(candidate, best.peek()) <= 0) return candidate;
+        int[] evicted = best.poll();
+        best.offer(candidate);
+        return evicted;
+    }
+
+    private Comparator<int[]> worstFirst(boolean byRecency) {
+        // Lowest score first, and among equal scores the longest path, so the heap evicts those
+        return byRecency
+                ? Comparator.<int[]>comparingLong(c -> mtimes[c[0]]).thenComparingInt(c -> -c[2])
+                : Comparator.<int[]>comparingInt(c -> c[1]).thenComparingInt(c -> -c[2]);
+    }
+
+    private int internDirectory(String path) {
+        Integer existing = dirIds.get(path);
+        if (existing != null) return existing;
+
+        // Parents are interned first, so a directory's id is always greater than its parent's
+        int parent = path.isEmpty() ? -1 : internDirectory(path.lastIndexOf('/') < 0 ? "" : path.substring(0, path.lastIndexOf('/')));
+        int id = dirPaths.size();
+        dirPaths.add(path);
+        dirIds.put(path, id);
+        if (id == dirParents.length) dirParents = Arrays.copyOf(dirParents, id * 2);
+        dirParents[id] = parent;
+        return id;
+    }
+
+    private int append(int dir, String name, long mtime) {
+        if (fileCount == fileDirs.length) {
+            int capacity = fileCount * 2;
+            fileDirs = Arrays.copyOf(fileDirs, capacity);
+            nameOffsets = Arrays.copyOf(nameOffsets, capacity);
+            nameLengths = Arrays.copyOf(nameLengths, capacity);
+            nameMasks = Arrays.copyOf(nameMasks, capacity);
+            mtimes = Arrays.copyOf(mtimes, capacity);
+        }
+        if (namesLength + name.length() > names.length) {
+            names = Arrays.copyOf(names, Math.max(names.length * 2, namesLength + name.length()));
+        }
+        name.getChars(0, name.length(), names, namesLength);
+
+        int id = fileCount++;
+        fileDirs[id] = dir;
+        nameOffsets[id] = namesLength;
+        nameLengths[id] = name.length();
+        nameMasks[id] = mask(names, namesLength, namesLength + name.length());
+        mtimes[id] = mtime;
+        namesLength += name.length();
+        return id;
+    }
+
+    private void markDeleted(int id) {
+        if (!deleted.get(id)) {
+            deleted.set(id);
+            deletedCount++;
+        }
+    }
+
+    // Rebuilds the arrays from the live files, dropping tombstones and unused directories
+    private void compact() {
+        List<String> paths = new ArrayList<>(fileCount - deletedCount);
+        List<Long> liveMtimes = new ArrayList<>(fileCount - deletedCount);
+        char[] buffer = new char[256];
+        for (int id = 0; id < fileCount; id++) {
+            if (deleted.get(id)) continue;
+            buffer = fill(id, buffer);
+            paths.add(new String(buffer, 0, pathLength(id)));
+            liveMtimes.add(mtimes[id]);
+        }
+
+        dirPaths.clear();
+        dirIds.clear();
+        deleted.clear();
+        deletedCount = 0;
+        fileCount = 0;
+        namesLength = 0;
+        slots = new int[slots.length];
+        for (int i = 0; i < paths.size(); i++) {
+            add(paths.get(i), liveMtimes.get(i)); // The write lock is reentrant
+        }
+    }
+
+    private int findSlot(int dir, String name) {
+        int mask = slots.length - 1;
+        int slot = hash(dir, name) & mask;
+        while (slots[slot] != 0) {
+            int id = slots[slot] - 1;
+            if (fileDirs[id] == dir && nameEquals(id, name)) break;
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void rehash(int capacity) {
+        slots = new int[capacity];
+        int mask = capacity - 1;
+        for (int id = 0; id < fileCount; id++) {
+            int slot = hash(fileDirs[id], names, nameOffsets[id], nameLengths[id]) & mask;
+            while (slots[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            slots[slot] = id + 1;
+        }
+    }
+
+    private boolean nameEquals(int id, String name) {
+        if (nameLengths[id] != name.length()) return false;
+        int offset = nameOffsets[id];
+        for (int i = 0; i < name.length(); i++) {
+            if (names[offset + i] != name.charAt(i)) return false;
+        }
+        return true;
+    }
+
+    private static int hash(int dir, String name) {
+        int hash = dir * 31 + 17;
+        for (int i = 0; i < name.length(); i++) {
+            hash = hash * 31 + name.charAt(i);
+        }
+        return hash ^ (hash >>> 16);
+    }
+
+    private static int hash(int dir, char[] chars, int offset, int length) {
+        int hash = dir * 31 + 17;
+        for (int i = offset; i < offset + length; i++) {
+            hash = hash * 31 + chars[i];
+        }
+        return hash ^ (hash >>> 16);
+    }
+
+    private int pathLength(int id) {
+        int dirLength = dirPaths.get(fileDirs[id]).length();
+        return (dirLength == 0 ? 0 : dirLength + 1) + nameLengths[id];
+    }
+
+    // Writes the full path of the file into the buffer, growing it if needed
+    private char[] fill(int id, char[] buffer) {
+        String dir = dirPaths.get(fileDirs[id]);
+        int length = pathLength(id);
+        if (buffer.length < length) buffer = new char[Math.max(length, buffer.length * 2)];
+
+        int position = 0;
+        if (!dir.isEmpty()) {
+            dir.getChars(0, dir.length(), buffer, 0);
+            buffer[dir.length()] = '/';
+            position = dir.length() + 1;
+        }
+        System.arraycopy(names, nameOffsets[id], buffer, position, nameLengths[id]);
+        return buffer;
+    }
+
+    /**
+     * fzf v1 on text[from, to): find the first subsequence match scanning forward, shrink it by
+     * scanning backward from its end, then score that window.
+     */
+    private static int match(char[] text, int from, int to, char[] pattern, boolean caseSensitive, int[] positions) {
+        int patternIndex = 0;
+        int start = -1;
+        int end = -1;
+        for (int i = from; i < to; i++) {
+            if (fold(text[i], caseSensitive) == pattern[patternIndex]) {
+                if (start < 0) start = i;
+                if (++patternIndex == pattern.length) {
+                    end = i + 1;
+                    break;
+                }
+            }
+        }
+        if (end < 0) return NO_MATCH;
+
+        patternIndex = pattern.length - 1;
+        for (int i = end - 1; i >= start; i--) {
+            if (fold(text[i], caseSensitive) == pattern[patternIndex] && --patternIndex < 0) {
+                start = i;
+                break;
+            }
+        }
+
+        int score = 0;
+        int consecutive = 0;
+        int firstBonus = 0;
+        boolean inGap = false;
+        // A file name always follows a path separator
+        int previousClass = start > from ? charClass(text[start - 1]) : CLASS_SEPARATOR;
+        patternIndex = 0;
+        for (int i = start; i < end; i++) {
+            int currentClass = charClass(text[i]);
+            if (fold(text[i], caseSensitive) == pattern[patternIndex]) {
+                if (positions != null) positions[patternIndex] = i;
+
+                int bonus = bonus(previousClass, currentClass);
+                if (consecutive == 0) {
+                    firstBonus = bonus;
+                } else {
+                    // A boundary inside a run starts a new chunk; otherwise the run keeps its first bonus
+                    if (bonus >= BONUS_BOUNDARY && bonus > firstBonus) firstBonus = bonus;
+                    bonus = Math.max(bonus, Math.max(firstBonus, BONUS_CONSECUTIVE));
+                }
+                score += SCORE_MATCH + (patternIndex == 0 ? bonus * BONUS_FIRST_CHAR_MULTIPLIER : bonus);
+                inGap = false;
+                consecutive++;
+                patternIndex++;
+            } else {
+                score += inGap ? SCORE_GAP_EXTENSION : SCORE_GAP_START;
+                inGap = true;
+                consecutive = 0;
+                firstBonus = 0;
+            }
+            previousClass = currentClass;
+        }
+        return score;
+    }
+
+    private static int bonus(int previousClass, int currentClass) {
+        boolean currentIsWord = currentClass <= CLASS_DIGIT;
+        if (currentIsWord && previousClass == CLASS_SEPARATOR) return BONUS_PATH_SEPARATOR;
+        if (currentIsWord && previousClass > CLASS_DIGIT) return BONUS_BOUNDARY;
+        if (previousClass == CLASS_LOWER && currentClass == CLASS_UPPER) return BONUS_CAMEL;
+        if (previousClass != CLASS_DIGIT && currentClass == CLASS_DIGIT) return BONUS_CAMEL;
+        return currentIsWord ? 0 : BONUS_BOUNDARY;
+    }
+
+    private static int charClass(char c) {
+        return c < 128 ? ASCII_CLASSES[c] : Character.isLetterOrDigit(c)
+                ? (Character.isUpperCase(c) ? CLASS_UPPER : CLASS_LOWER) : CLASS_OTHER;
+    }
+
+    private static int asciiClass(char c) {
+        if (c >= 'a' && c <= 'z') return CLASS_LOWER;
+        if (c >= 'A' && c <= 'Z') return CLASS_UPPER;
+        if (c >= '0' && c <= '9') return CLASS_DIGIT;
+        if (c == '/') return CLASS_SEPARATOR;
+        if (c == '.' || c == '_' || c == '-' || c == ' ') return CLASS_DELIMITER;
+        return CLASS_OTHER;
+    }
+
+    private static char fold(char c, boolean caseSensitive) {
+        if (caseSensitive) return c;
+        if (c >= 'A' && c <= 'Z') return (char) (c + ('a' - 'A'));
+        return c < 128 ? c : Character.toLowerCase(c);
+    }
+
+    // One bit per letter and digit (case-folded), other characters share the remaining bits
+    private static long mask(char[] chars, int from, int to) {
+        long mask = 0;
+        for (int i = from; i < to; i++) {
+            char c = fold(chars[i], false);
+            int bit;
+            if (c >= 'a' && c <= 'z') bit = c - 'a';
+            else if (c >= '0' && c <= '9') bit = 26 + c - '0';
+            else bit = 36 + c % 28;
+            mask |= 1L << bit;
+        }
+        return mask;
+    }
+
+    private static int recencyBonus(long mtime, long now) {
+        long hours = Math.max(0, now - mtime) / RECENCY_STEP_MS;
+        return hours < RECENCY_BONUS.length ? RECENCY_BONUS[(int) hours] : 0;
+    }
+}
@@ -0,0 +1,159 @@
+package com.devos.core.indexing;
+
+import com.devos.core.cache.WeightedLruCache;
+import com.devos.core.domain.entity.Project;
+import com.devos.core.event.ProjectDeletedEvent;
+import com.devos.core.event.ProjectFilesChangedEvent;
+import com.devos.core.filesystem.ProjectFileWalker;
+import com.devos.core.filesystem.ProjectFileWatcher;
+import com.devos.core.repository.ProjectRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps a {@link PathIndex} per project for quick-open. An index is built from disk the first
+ * time a project is searched and then kept current from file change events, so queries never
+ * touch the database. Least recently used indexes are dropped once their estimated size
+ * exceeds the configured budget.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class PathIndexRegistry {
+
+    private final ProjectRepository projectRepository;
+    private final ProjectFileWalker fileWalker;
+    private final ProjectFileWatcher fileWatcher;
+
+    @Value("${devos.indexing.path-index.max-weight-mb:256}")
+    private long maxWeightMb = 256;
+
+    // Projects without a watcher get no change events, so their index is rebuilt after this long
+    @Value("${devos.indexing.path-index.unwatched-max-age-ms:30000}")
+    private long unwatchedMaxAgeMs = 30000;
+
+    private final Map<Long, Object> buildLocks = new ConcurrentHashMap<>();
+    private WeightedLruCache<Long, LoadedIndex> indexes;
+
+    @PostConstruct
+    public void init() {
+        indexes = new WeightedLruCache<>(maxWeightMb * 1024 * 1024, (projectId, loaded) -> loaded.index().estimatedBytes());
+    }
+
+    public List<Map<String, Object>> find(Long projectId, String query, int limit) {
+        List<PathIndex.Match> matches = getIndex(projectId).search(query, limit, System.currentTimeMillis());
+        return matches.stream().map(match -> {
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("path", match.path());
+            result.put("name", match.path().substring(match.path().lastIndexOf('/') + 1));
+            result.put("score", match.score());
+            result.put("positions", match.positions());
+            result.put("lastModified", match.mtime());
+            return result;
+        }).toList();
+    }
+
+    public PathIndex getIndex(Long projectId) {
+        LoadedIndex loaded = indexes.get(projectId);
+        if (isFresh(projectId, loaded)) return loaded.index();
+
+        synchronized (buildLocks.computeIfAbsent(projectId, id -> new Object())) {
+            loaded = indexes.get(projectId);
+            if (isFresh(projectId, loaded)) return loaded.index();
+
+            Project project = projectRepository.findById(projectId)
+                    .orElseThrow(() -> new RuntimeException("Project not found: " + projectId));
+            loaded = build(projectId, project.getLocalPath());
+            indexes.put(projectId, loaded);
+            return loaded.index();
+        }
+    }
+
+    public void invalidate(Long projectId) {
+        indexes.invalidate(projectId);
+    }
+
+    @TransactionalEventListener
+    public void onProjectDeleted(ProjectDeletedEvent event) {
+        invalidate(event.projectId());
+        buildLocks.remove(event.projectId());
+    }
+
+    @Async
+    @EventListener
+    public void onProjectFilesChanged(ProjectFilesChangedEvent event) {
+        LoadedIndex loaded = indexes.get(event.projectId());
+        if (loaded == null || loaded.root() == null) return; // Built on the next search
+
+        if (event.rescan()) {
+            indexes.invalidate(event.projectId());
+            return;
+        }
+
+        PathIndex index = loaded.index();
+        for (String deletedPath : event.deletedPaths()) {
+            index.remove(IndexFields.normalizePath(deletedPath));
+        }
+        for (String changedPath : event.changedPaths()) {
+            String path = IndexFields.normalizePath(changedPath);
+            Path file = loaded.root().resolve(path).normalize();
+            try {
+                if (!file.startsWith(loaded.root()) || fileWalker.isIgnored(loaded.root(), file)) continue;
+
+                if (Files.isDirectory(file)) {
+                    fileWalker.walk(loaded.root(), file, ProjectFileWalker.WalkOptions.all(),
+                            (child, childPath, attrs) -> index.add(childPath, attrs.lastModifiedTime().toMillis()));
+                } else if (Files.isRegularFile(file)) {
+                    index.add(path, Files.getLastModifiedTime(file).toMillis());
+                } else {
+                    index.remove(path);
+                }
+            } catch (IOException e) {
+                log.debug("Could not update path index for {}: {}", file, e.getMessage());
+                index.remove(path);
+            }
+        }
+    }
+
+    private LoadedIndex build(Long projectId, String localPath) {
+        PathIndex index = new PathIndex();
+        if (localPath == null || localPath.isEmpty()) {
+            return new LoadedIndex(null, index, System.currentTimeMillis());
+        }
+
+        Path root = Paths.get(localPath).toAbsolutePath().normalize();
+        long start = System.currentTimeMillis();
+        try {
+            fileWalker.walk(root, ProjectFileWalker.WalkOptions.all().inParallel(),
+                    (file, relativePath, attrs) -> index.add(relativePath, attrs.lastModifiedTime().toMillis()));
+        } catch (IOException e) {
+            log.warn("Path index for project {} is incomplete: {}", projectId, e.getMessage());
+        }
+        log.info("Built path index for project {}: {} files in {} ms", projectId, index.size(),
+                System.currentTimeMillis() - start);
+        return new LoadedIndex(root, index, System.currentTimeMillis());
+    }
+
+    private boolean isFresh(Long projectId, LoadedIndex loaded) {
+        if (loaded == null) return false;
+        return fileWatcher.isWatching(projectId) || System.currentTimeMillis() - loaded.builtAt() < unwatchedMaxAgeMs;
+    }
+
+    private record LoadedIndex(Path root, PathIndex index, long builtAt) {
+    }
+}
@@ -0,0 +1,647 @@
+package com.devos.core.indexing;
+
+import com.devos.core.event.ProjectDeletedEvent;
+import com.devos.core.event.ProjectFilesChangedEvent;
+import jakarta.annotation.PreDestroy;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.codecs.lucene99.Lucene99Codec;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexCommit;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.KeepOnlyLastCommitDeletionPolicy;
+import org.apache.lucene.index.SnapshotDeletionPolicy;
+import org.apache.lucene.index.TieredMergePolicy;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.ReferenceManager;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.store.AlreadyClosedException;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Keeps one IndexWriter and one near-real-time SearcherManager open per project so that
+ * single-file updates and searches do not pay for opening, committing and fsyncing the
+ * index on every call. Commits and reader refreshes happen in the background; projects
+ * that have not been touched for a while are closed, least recently used first.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ProjectIndexRegistry {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final Map<IndexKey, ProjectIndex> indexes = new ConcurrentHashMap<>();
+    // Writers of a project share its lock; replacing its indexes takes it exclusively
+    private final Map<Long, ReadWriteLock> writeLocks = new ConcurrentHashMap<>();
+    private final Analyzer indexAnalyzer = CodeAnalyzer.forIndexing();
+    private final Analyzer queryAnalyzer = CodeAnalyzer.forQuerying();
+    private final Map<SourceLanguage, Analyzer> contentAnalyzers = createContentAnalyzers();
+
+    @Value("${devos.indexing.path:.devos/index}")
+    private String indexPath;
+
+    @Value("${devos.indexing.registry.max-open:32}")
+    private int maxOpen;
+
+    @Value("${devos.indexing.registry.idle-timeout-ms:900000}")
+    private long idleTimeoutMs;
+
+    @Value("${devos.indexing.registry.refresh-after-updates:50}")
+    private int refreshAfterUpdates;
+
+    @Value("${devos.indexing.registry.ram-buffer-mb:32}")
+    private double ramBufferMb;
+
+    // Small indexes merge eagerly since it is cheap; large ones keep Lucene's default tiering to
+    // limit write amplification
+    @Value("${devos.indexing.merge.large-index-mb:512}")
+    private long largeIndexMb = 512;
+
+    @Value("${devos.indexing.merge.small-segments-per-tier:4}")
+    private double smallSegmentsPerTier = 4;
+
+    @Value("${devos.indexing.merge.large-segments-per-tier:10}")
+    private double largeSegmentsPerTier = 10;
+
+    @Value("${devos.indexing.merge.max-merged-segment-mb:5120}")
+    private double maxMergedSegmentMb = 5120;
+
+    @Value("${devos.indexing.merge.deletes-pct-allowed:20}")
+    private double deletesPctAllowed = 20;
+
+    public Analyzer getAnalyzer() {
+        return queryAnalyzer;
+    }
+
+    /**
+     * Analyzes file content with the keyword stopwords of the file's language. The stream is
+     * reused per thread, so the document holding it must be indexed before the next call.
+     */
+    public TokenStream contentTokens(String relativePath, String content) {
+        return contentAnalyzers.get(SourceLanguage.fromPath(relativePath)).tokenStream(IndexFields.CONTENT, content);
+    }
+
+    public <T> T withWriter(Long projectId, IndexAction<IndexWriter, T> action) throws IOException {
+        return withWriter(projectId, IndexKind.FILES, action);
+    }
+
+    public <T> T withWriter(Long projectId, IndexKind kind, IndexAction<IndexWriter, T> action) throws IOException {
+        Lock lock = writeLock(projectId).readLock();
+        lock.lock();
+        try {
+            ProjectIndex index = pin(new IndexKey(projectId, kind));
+            try {
+                return action.apply(index.getWriter());
+            } finally {
+                index.getPins().decrementAndGet();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public <T> T withSearcher(Long projectId, IndexAction<IndexSearcher, T> action) throws IOException {
+        return withSearcher(projectId, IndexKind.FILES, action);
+    }
+
+    public <T> T withSearcher(Long projectId, IndexKind kind, IndexAction<IndexSearcher, T> action) throws IOException {
+        IndexKey key = new IndexKey(projectId, kind);
+        try {
+            return search(acquireIndex(key), action);
+        } catch (AlreadyClosedException e) {
+            log.debug("Index {} was closed concurrently, reopening", key);
+            return search(acquireIndex(key), action);
+        }
+    }
+
+    /**
+     * Searches the project's index without opening a writer for it, for fan-out reads that should
+     * neither count against {@code max-open} nor evict indexes in active use. The open index is
+     * used when there is one; otherwise the last commit is read from disk. Returns null, without
+     * creating anything, when the project has no index.
+     */
+    public <T> T withReadOnlySearcher(Long projectId, IndexKind kind, IndexAction<IndexSearcher, T> action)
+            throws IOException {
+        ProjectIndex index = indexes.get(new IndexKey(projectId, kind));
+        if (index != null) {
+            try {
+                return search(index, action);
+            } catch (AlreadyClosedException e) {
+                // Evicted in the meantime, so its last commit is on disk
+            }
+        }
+
+        Path path = indexDirectory(projectId, kind);
+        if (!Files.isDirectory(path)) return null;
+        try (Directory directory = FSDirectory.open(path)) {
+            if (!DirectoryReader.indexExists(directory)) return null;
+            try (DirectoryReader reader = DirectoryReader.open(directory)) {
+                return action.apply(new IndexSearcher(reader));
+            }
+        }
+    }
+
+    /**
+     * Version of the reader searches currently see. It changes whenever a refresh exposes new
+     * changes, so results computed against one generation can be reused until it moves on.
+     */
+    public long searchGeneration(Long projectId) throws IOException {
+        return acquireIndex(new IndexKey(projectId, IndexKind.FILES)).getGeneration();
+    }
+
+    /**
+     * Records a write against the project index. The reader is refreshed right away once
+     * enough updates have piled up, otherwise the scheduled refresh picks them up.
+     */
+    public void markUpdated(Long projectId) {
+        markUpdated(projectId, IndexKind.FILES);
+    }
+
+    public void markUpdated(Long projectId, IndexKind kind) {
+        ProjectIndex index = indexes.get(new IndexKey(projectId, kind));
+        if (index == null) return;
+
+        index.getDirty().set(true);
+        if (index.getPendingUpdates().incrementAndGet() >= refreshAfterUpdates) {
+            refresh(index);
+        }
+    }
+
+    /**
+     * Commits and refreshes immediately, used after bulk operations such as a full re-index.
+     */
+    public void commitNow(Long projectId) throws IOException {
+        commitNow(projectId, IndexKind.FILES);
+    }
+
+    public void commitNow(Long projectId, IndexKind kind) throws IOException {
+        ProjectIndex index = indexes.get(new IndexKey(projectId, kind));
+        if (index == null) return;
+
+        index.getWriter().commit();
+        index.getDirty().set(false);
+        index.getSearcherManager().maybeRefreshBlocking();
+        index.getPendingUpdates().set(0);
+    }
+
+    /**
+     * Makes every update so far visible to searches, for readers that must not lag behind
+     * the writer such as derived indexes.
+     */
+    public void refreshNow(Long projectId, IndexKind kind) throws IOException {
+        ProjectIndex index = indexes.get(new IndexKey(projectId, kind));
+        if (index == null) return;
+
+        index.getPendingUpdates().set(0);
+        index.getSearcherManager().maybeRefreshBlocking();
+    }
+
+    /**
+     * Commits pending changes and hands the resulting commit point to {@code action}. The commit's
+     * files are kept on disk, and the index stays open, until the action returns.
+     */
+    public <T> T withSnapshot(Long projectId, IndexKind kind, SnapshotAction<T> action) throws IOException {
+        Lock lock = writeLock(projectId).readLock();
+        lock.lock();
+        try {
+            ProjectIndex index = pin(new IndexKey(projectId, kind));
+            try {
+                index.getWriter().commit();
+                index.getDirty().set(false);
+                IndexCommit commit = index.getSnapshots().snapshot();
+                try {
+                    return action.apply(index.getDirectory(), commit);
+                } finally {
+                    index.getSnapshots().release(commit);
+                    index.getWriter().deleteUnusedFiles();
+                }
+            } finally {
+                index.getPins().decrementAndGet();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public Path createStagingDirectory(Long projectId) throws IOException {
+        return Files.createDirectories(Paths.get(indexPath, ".staging", projectId + "-" + System.nanoTime()));
+    }
+
+    /**
+     * Replaces every index of the project with the given directories, e.g. restored from a
+     * snapshot. Kinds missing from {@code staged} are dropped and rebuilt when next used.
+     * Writes and opening indexes wait until the swap is done.
+     *
+     * @throws IllegalStateException if an indexing job or other writer is using the indexes
+     */
+    public synchronized void replace(Long projectId, Map<IndexKind, Path> staged) throws IOException {
+        Lock lock = writeLock(projectId).writeLock();
+        if (!lock.tryLock()) {
+            throw new IllegalStateException("The indexes of project " + projectId + " are being written to");
+        }
+        try {
+            close(projectId);
+            for (IndexKind kind : IndexKind.values()) {
+                Path target = indexDirectory(projectId, kind);
+                FileSystemUtils.deleteRecursively(target);
+                Path source = staged.get(kind);
+                if (source != null) {
+                    Files.createDirectories(target.getParent());
+                    Files.move(source, target, StandardCopyOption.ATOMIC_MOVE);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        log.info("Replaced indexes of project {} ({})", projectId, staged.keySet());
+    }
+
+    /**
+     * Closes every index of the project and removes their directories, after writes in progress
+     * have finished. Opening indexes waits until they are gone.
+     */
+    public void delete(Long projectId) throws IOException {
+        // Taken before the monitor, since a running writer may need it to reopen an evicted index.
+        // Jobs of a deleted project are cancelled on the same event, so the wait is short.
+        ReadWriteLock projectLock = writeLock(projectId);
+        Lock lock = projectLock.writeLock();
+        lock.lock();
+        try {
+            synchronized (this) {
+                close(projectId);
+                for (IndexKind kind : IndexKind.values()) {
+                    FileSystemUtils.deleteRecursively(indexDirectory(projectId, kind));
+                }
+            }
+            writeLocks.remove(projectId, projectLock);
+        } finally {
+            lock.unlock();
+        }
+        log.info("Deleted indexes of project {}", projectId);
+    }
+
+    @TransactionalEventListener
+    public void onProjectDeleted(ProjectDeletedEvent event) {
+        try {
+            delete(event.projectId());
+        } catch (IOException e) {
+            log.error("Error deleting indexes of project {}", event.projectId(), e);
+        }
+    }
+
+    public Path indexDirectory(Long projectId, IndexKind kind) {
+        return Paths.get(indexPath, projectId + kind.getDirectorySuffix());
+    }
+
+    Collection<ProjectIndex> openIndexes() {
+        return new ArrayList<>(indexes.values());
+    }
+
+    // Switches a live writer to the merge profile for its current size
+    void tuneMergePolicy(ProjectIndex index, long sizeInBytes) {
+        boolean large = sizeInBytes >= largeIndexMb * 1024 * 1024;
+        if (large != index.isLargeIndex()) {
+            index.getWriter().getConfig().setMergePolicy(mergePolicy(large));
+            index.setLargeIndex(large);
+            log.info("Index {} now uses the {} merge profile", index.getKey(), large ? "large" : "small");
+        }
+    }
+
+    static long sizeOnDisk(Directory directory) throws IOException {
+        long size = 0;
+        for (String file : directory.listAll()) {
+            try {
+                size += directory.fileLength(file);
+            } catch (NoSuchFileException ignored) {
+                // Deleted by a merge while listing
+            }
+        }
+        return size;
+    }
+
+    private TieredMergePolicy mergePolicy(boolean large) {
+        TieredMergePolicy policy = new TieredMergePolicy();
+        policy.setSegmentsPerTier(large ? largeSegmentsPerTier : smallSegmentsPerTier);
+        policy.setMaxMergedSegmentMB(maxMergedSegmentMb);
+        policy.setDeletesPctAllowed(deletesPctAllowed);
+        return policy;
+    }
+
+    public void close(Long projectId) {
+        for (IndexKind kind : IndexKind.values()) {
+            ProjectIndex index = indexes.remove(new IndexKey(projectId, kind));
+            if (index != null) {
+                closeQuietly(index);
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${devos.indexing.registry.refresh-interval-ms:1000}")
+    public void refreshAll() {
+        for (ProjectIndex index : indexes.values()) {
+            if (index.getPendingUpdates().get() > 0) {
+                refresh(index);
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${devos.indexing.registry.commit-interval-ms:15000}")
+    public void commitAll() {
+        for (ProjectIndex index : indexes.values()) {
+            if (index.getDirty().compareAndSet(true, false)) {
+                try {
+                    index.getWriter().commit();
+                } catch (AlreadyClosedException ignored) {
+                    // Closed by eviction, which commits on its own
+                } catch (IOException e) {
+                    index.getDirty().set(true);
+                    log.error("Error committing index {}", index.getKey(), e);
+                }
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${devos.indexing.registry.eviction-interval-ms:60000}")
+    public void evictIdle() {
+        long cutoff = System.currentTimeMillis() - idleTimeoutMs;
+        for (ProjectIndex index : new ArrayList<>(indexes.values())) {
+            if (index.getLastAccess() < cutoff && evict(index)) {
+                log.info("Closed idle index {}", index.getKey());
+            }
+        }
+    }
+
+    @PreDestroy
+    public void closeAll() {
+        for (IndexKey key : new ArrayList<>(indexes.keySet())) {
+            close(key.projectId());
+        }
+        indexAnalyzer.close();
+        queryAnalyzer.close();
+        contentAnalyzers.values().forEach(Analyzer::close);
+    }
+
+    private ProjectIndex acquireIndex(IndexKey key) throws IOException {
+        ProjectIndex index = indexes.get(key);
+        if (index == null) {
+            index = open(key);
+        }
+        index.touch();
+        return index;
+    }
+
+    private ReadWriteLock writeLock(Long projectId) {
+        return writeLocks.computeIfAbsent(projectId, id -> new ReentrantReadWriteLock());
+    }
+
+    /**
+     * Acquires the index and keeps it from being evicted until the caller decrements its pins.
+     * An index evicted before the pin took hold is reopened, so writes never hit a closed writer.
+     */
+    private ProjectIndex pin(IndexKey key) throws IOException {
+        while (true) {
+            ProjectIndex index = acquireIndex(key);
+            index.getPins().incrementAndGet();
+            if (indexes.get(key) == index) return index;
+            index.getPins().decrementAndGet();
+        }
+    }
+
+    // Pins are checked again after removal, so a pin taken while evicting is never lost
+    private synchronized boolean evict(ProjectIndex index) {
+        if (index.getPins().get() > 0 || !indexes.remove(index.getKey(), index)) return false;
+        if (index.getPins().get() > 0) {
+            indexes.put(index.getKey(), index);
+            return false;
+        }
+        closeQuietly(index);
+        return true;
+    }
+
+    private synchronized ProjectIndex open(IndexKey key) throws IOException {
+        ProjectIndex existing = indexes.get(key);
+        if (existing != null) return existing;
+
+        Directory directory = FSDirectory.open(indexDirectory(key.projectId(), key.kind()));
+        try {
+            boolean large = sizeOnDisk(directory) >= largeIndexMb * 1024 * 1024;
+            IndexWriterConfig config = new IndexWriterConfig(indexAnalyzer);
+            config.setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND);
+            config.setRAMBufferSizeMB(ramBufferMb);
+            // Stored source is read far less often than it is written and compresses very well
+            config.setCodec(new Lucene99Codec(Lucene99Codec.Mode.BEST_COMPRESSION));
+            // Lets snapshots pin a commit point while its files are copied out
+            SnapshotDeletionPolicy snapshots = new SnapshotDeletionPolicy(new KeepOnlyLastCommitDeletionPolicy());
+            config.setIndexDeletionPolicy(snapshots);
+            config.setMergePolicy(mergePolicy(large));
+
+            IndexWriter writer = new IndexWriter(directory, config);
+            boolean rebuild = upgradeSchema(key, writer);
+            SearcherManager searcherManager = new SearcherManager(writer, null);
+
+            ProjectIndex index = new ProjectIndex(key, directory, writer, searcherManager, snapshots);
+            index.setLargeIndex(large);
+            index.updateGeneration();
+            searcherManager.addListener(new ReferenceManager.RefreshListener() {
+                @Override
+                public void beforeRefresh() {
+                }
+
+                @Override
+                public void afterRefresh(boolean didRefresh) throws IOException {
+                    if (didRefresh) {
+                        index.updateGeneration();
+                    }
+                }
+            });
+            indexes.put(key, index);
+            evictOverflow();
+
+            log.debug("Opened index {}", key);
+            // Derived indexes catch up on their own when they find themselves empty
+            if (rebuild && key.kind() == IndexKind.FILES) {
+                eventPublisher.publishEvent(ProjectFilesChangedEvent.rescan(key.projectId()));
+            }
+            return index;
+        } catch (IOException e) {
+            directory.close();
+            throw e;
+        }
+    }
+
+    // Returns true when an index built with an older schema was wiped and needs re-indexing
+    private boolean upgradeSchema(IndexKey key, IndexWriter writer) throws IOException {
+        String version = null;
+        Iterable<Map.Entry<String, String>> commitData = writer.getLiveCommitData();
+        if (commitData != null) {
+            for (Map.Entry<String, String> entry : commitData) {
+                if (IndexFields.SCHEMA_VERSION_KEY.equals(entry.getKey())) {
+                    version = entry.getValue();
+                }
+            }
+        }
+        String current = key.kind().getSchemaVersion();
+        if (current.equals(version)) return false;
+
+        boolean hadDocuments = writer.getDocStats().numDocs > 0;
+        if (hadDocuments) {
+            log.info("Index {} has schema {} (current {}), rebuilding", key, version, current);
+            writer.deleteAll();
+        }
+        writer.setLiveCommitData(Map.of(IndexFields.SCHEMA_VERSION_KEY, current).entrySet());
+        writer.commit();
+        return hadDocuments;
+    }
+
+    private static Map<SourceLanguage, Analyzer> createContentAnalyzers() {
+        Map<SourceLanguage, Analyzer> analyzers = new EnumMap<>(SourceLanguage.class);
+        for (SourceLanguage language : SourceLanguage.values()) {
+            analyzers.put(language, CodeAnalyzer.subwords(language));
+        }
+        return analyzers;
+    }
+
+    private void evictOverflow() {
+        int overflow = indexes.size() - maxOpen;
+        if (overflow <= 0) return;
+
+        List<ProjectIndex> lru = new ArrayList<>(indexes.values());
+        lru.removeIf(index -> index.getPins().get() > 0);
+        lru.sort(Comparator.comparingLong(ProjectIndex::getLastAccess));
+        for (int i = 0; i < Math.min(overflow, lru.size()); i++) {
+            ProjectIndex index = lru.get(i);
+            if (evict(index)) {
+                log.info("Evicted least recently used index {}", index.getKey());
+            }
+        }
+    }
+
+    private <T> T search(ProjectIndex index, IndexAction<IndexSearcher, T> action) throws IOException {
+        SearcherManager searcherManager = index.getSearcherManager();
+        IndexSearcher searcher = searcherManager.acquire();
+        try {
+            return action.apply(searcher);
+        } finally {
+            searcherManager.release(searcher);
+        }
+    }
+
+    private void refresh(ProjectIndex index) {
+        try {
+            index.getPendingUpdates().set(0);
+            index.getSearcherManager().maybeRefresh();
+        } catch (AlreadyClosedException ignored) {
+            // Evicted in the meantime
+        } catch (IOException e) {
+            log.error("Error refreshing searcher for index {}", index.getKey(), e);
+        }
+    }
+
+    private void closeQuietly(ProjectIndex index) {
+        try {
+            index.getSearcherManager().close();
+        } catch (IOException e) {
+            log.warn("Error closing searcher for index {}", index.getKey(), e);
+        }
+        try {
+            // IndexWriter.close() commits pending changes
+            index.getWriter().close();
+        } catch (IOException | AlreadyClosedException e) {
+            log.warn("Error closing index writer for index {}", index.getKey(), e);
+        }
+        try {
+            index.getDirectory().close();
+        } catch (IOException e) {
+            log.warn("Error closing index directory for index {}", index.getKey(), e);
+        }
+    }
+
+    @FunctionalInterface
+    public interface IndexAction<R, T> {
+        T apply(R resource) throws IOException;
+    }
+
+    @FunctionalInterface
+    public interface SnapshotAction<T> {
+        T apply(Directory directory, IndexCommit commit) throws IOException;
+    }
+
+    record IndexKey(Long projectId, IndexKind kind) {
+
+        @Override
+        public String toString() {
+            return kind == IndexKind.FILES ? "project " + projectId : kind.name().toLowerCase() + " of project " + projectId;
+        }
+    }
+
+    @Getter
+    static class ProjectIndex {
+        private final IndexKey key;
+        private final Directory directory;
+        private final IndexWriter writer;
+        private final SearcherManager searcherManager;
+        private final SnapshotDeletionPolicy snapshots;
+        private final AtomicInteger pendingUpdates = new AtomicInteger();
+        // Pinned indexes are in use by a writer, snapshot or merge and are not evicted
+        private final AtomicInteger pins = new AtomicInteger();
+        private final AtomicBoolean dirty = new AtomicBoolean();
+        private volatile long lastAccess = System.currentTimeMillis();
+        private volatile long generation;
+        @Setter
+        private volatile boolean largeIndex;
+
+        ProjectIndex(IndexKey key, Directory directory, IndexWriter writer, SearcherManager searcherManager,
+                     SnapshotDeletionPolicy snapshots) {
+            this.key = key;
+            this.directory = directory;
+            this.writer = writer;
+            this.searcherManager = searcherManager;
+            this.snapshots = snapshots;
+        }
+
+        void touch() {
+            lastAccess = System.currentTimeMillis();
+        }
+
+        void updateGeneration() throws IOException {
+            IndexSearcher searcher = searcherManager.acquire();
+            try {
+                generation = ((DirectoryReader) searcher.getIndexReader()).getVersion();
+            } finally {
+                searcherManager.release(searcher);
+            }
+        }
+    }
+}
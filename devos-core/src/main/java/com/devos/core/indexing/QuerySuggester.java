@@ -0,0 +1,439 @@
+package com.devos.core.indexing;
+
+import com.devos.core.event.ProjectDeletedEvent;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.index.DocValues;
+import org.apache.lucene.index.LeafReader;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.SortedDocValues;
+import org.apache.lucene.index.StoredFields;
+import org.apache.lucene.search.DocIdSetIterator;
+import org.apache.lucene.search.suggest.InputIterator;
+import org.apache.lucene.search.suggest.Lookup;
+import org.apache.lucene.search.suggest.analyzing.AnalyzingInfixSuggester;
+import org.apache.lucene.store.AlreadyClosedException;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.util.Bits;
+import org.apache.lucene.util.BytesRef;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Typeahead suggestions per project: declared symbols, file names and identifiers used in
+ * several files, ranked by how many files declare or use them. Each project gets an in-memory
+ * {@link AnalyzingInfixSuggester}, derived from the file index like the semantic index: a sync
+ * compares file hashes and only re-reads files that changed. Lookups never wait for a sync;
+ * they trigger one in the background when the file index has moved on.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class QuerySuggester {
+
+    public static final String SYMBOL = "symbol";
+    public static final String FILE = "file";
+    public static final String IDENTIFIER = "identifier";
+
+    private static final Pattern IDENTIFIER_PATTERN = Pattern.compile("[A-Za-z_$][A-Za-z0-9_$]{2,63}");
+    // Declarations and file names outrank identifiers that are merely used
+    private static final long DECLARATION_WEIGHT = 10;
+
+    private final ProjectIndexRegistry indexRegistry;
+
+    @Value("${devos.indexing.suggest.enabled:true}")
+    private boolean enabled = true;
+
+    // Suggesters kept in memory; the least recently used beyond this are dropped and rebuilt on demand
+    @Value("${devos.indexing.suggest.max-projects:32}")
+    private int maxProjects = 32;
+
+    // Identifiers are only suggested once they appear in this many files
+    @Value("${devos.indexing.suggest.min-identifier-files:2}")
+    private int minIdentifierFiles = 2;
+
+    @Value("${devos.indexing.suggest.max-identifiers-per-file:50}")
+    private int maxIdentifiersPerFile = 50;
+
+    private final Map<Long, ProjectSuggestions> projects = new LinkedHashMap<>(16, 0.75f, true);
+    private ExecutorService syncExecutor;
+
+    @PostConstruct
+    void start() {
+        syncExecutor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "devos-suggest-sync");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void stop() {
+        if (syncExecutor != null) {
+            syncExecutor.shutdownNow();
+        }
+        synchronized (projects) {
+            projects.values().forEach(ProjectSuggestions::close);
+            projects.clear();
+        }
+    }
+
+    /**
+     * Returns up to {@code limit} completions of {@code query}, best first. Every word of the
+     * query must match, the last one as a prefix. {@code types} restricts the kind of
+     * suggestion (symbol, file, identifier); empty means all.
+     */
+    public Map<String, Object> suggest(Long projectId, String query, int limit, Collection<String> types) throws IOException {
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("query", query);
+        if (!enabled) {
+            response.put("suggestions", List.of());
+            response.put("ready", false);
+            return response;
+        }
+
+        ProjectSuggestions suggestions = project(projectId);
+        boolean ready = suggestions.generation >= 0;
+        if (indexRegistry.searchGeneration(projectId) != suggestions.generation) {
+            requestSync(projectId, suggestions);
+        }
+
+        List<Map<String, Object>> results = new ArrayList<>();
+        if (ready && query != null && !query.isBlank()) {
+            Set<BytesRef> contexts = null;
+            if (types != null && !types.isEmpty()) {
+                contexts = new HashSet<>();
+                for (String type : types) contexts.add(new BytesRef(type));
+            }
+            try {
+                // Entries removed since the last rebuild are still in the suggester, so ask for a few more
+                List<Lookup.LookupResult> hits = suggestions.suggester.lookup(query, contexts, limit + 8, true, false);
+                for (Lookup.LookupResult hit : hits) {
+                    String text = hit.key.toString();
+                    TermCounts counts = suggestions.terms.get(text);
+                    if (counts == null || !counts.isSuggested(minIdentifierFiles)) continue;
+
+                    Map<String, Object> result = new LinkedHashMap<>();
+                    result.put("text", text);
+                    result.put("type", counts.type());
+                    result.put("weight", hit.value);
+                    results.add(result);
+                }
+                // Stable order between keystrokes for equally weighted entries
+                results.sort(Comparator.comparing((Map<String, Object> result) -> (Long) result.get("weight")).reversed()
+                        .thenComparing(result -> (String) result.get("text")));
+                if (results.size() > limit) results = new ArrayList<>(results.subList(0, limit));
+            } catch (AlreadyClosedException e) {
+                ready = false; // Evicted meanwhile
+            }
+        }
+        response.put("suggestions", results);
+        response.put("ready", ready);
+        return response;
+    }
+
+    /**
+     * Brings the project's suggestions up to date with its file index.
+     */
+    public void sync(Long projectId) throws IOException {
+        sync(project(projectId));
+    }
+
+    @TransactionalEventListener
+    public void onProjectDeleted(ProjectDeletedEvent event) {
+        ProjectSuggestions suggestions;
+        synchronized (projects) {
+            suggestions = projects.remove(event.projectId());
+        }
+        if (suggestions != null) suggestions.close();
+    }
+
+    private void requestSync(Long projectId, ProjectSuggestions suggestions) {
+        if (!suggestions.syncQueued.compareAndSet(false, true)) return;
+
+        syncExecutor.execute(() -> {
+            suggestions.syncQueued.set(false);
+            try {
+                sync(suggestions);
+            } catch (AlreadyClosedException e) {
+                log.debug("Suggestions of project {} were dropped during a sync", projectId);
+            } catch (IOException | RuntimeException e) {
+                log.error("Error updating suggestions for project: {}", projectId, e);
+            }
+        });
+    }
+
+    private void sync(ProjectSuggestions suggestions) throws IOException {
+        Long projectId = suggestions.projectId;
+        synchronized (suggestions) {
+            indexRegistry.refreshNow(projectId, IndexKind.FILES);
+            long generation = indexRegistry.searchGeneration(projectId);
+            if (generation == suggestions.generation) return;
+
+            Set<String> touched = new HashSet<>();
+            int changed = indexRegistry.withSearcher(projectId, searcher -> {
+                int count = 0;
+                Set<String> seen = new HashSet<>();
+                for (LeafReaderContext leaf : searcher.getIndexReader().leaves()) {
+                    LeafReader reader = leaf.reader();
+                    Bits liveDocs = reader.getLiveDocs();
+                    SortedDocValues paths = reader.getSortedDocValues(IndexFields.PATH_DV);
+                    if (paths == null) continue;
+
+                    SortedDocValues hashes = DocValues.getSorted(reader, IndexFields.HASH);
+                    StoredFields storedFields = reader.storedFields();
+                    for (int doc = paths.nextDoc(); doc != DocIdSetIterator.NO_MORE_DOCS; doc = paths.nextDoc()) {
+                        if (liveDocs != null && !liveDocs.get(doc)) continue;
+
+                        String path = paths.lookupOrd(paths.ordValue()).utf8ToString();
+                        String hash = hashes.advanceExact(doc) ? hashes.lookupOrd(hashes.ordValue()).utf8ToString() : "";
+                        seen.add(path);
+                        FileTerms previous = suggestions.files.get(path);
+                        if (previous != null && previous.hash().equals(hash)) continue;
+
+                        Document stored = storedFields.document(doc, Set.of(IndexFields.SOURCE, IndexFields.SYMBOLS));
+                        FileTerms current = extractTerms(path, hash, stored);
+                        if (previous != null) suggestions.remove(previous, touched);
+                        suggestions.add(current, touched);
+                        count++;
+                    }
+                }
+                for (FileTerms removed : new ArrayList<>(suggestions.files.values())) {
+                    if (!seen.contains(removed.path())) {
+                        suggestions.remove(removed, touched);
+                        count++;
+                    }
+                }
+                return count;
+            });
+
+            boolean rebuild = suggestions.generation < 0;
+            if (!rebuild) {
+                for (String text : touched) {
+                    TermCounts counts = suggestions.terms.get(text);
+                    if (counts != null && counts.isSuggested(minIdentifierFiles)) {
+                        suggestions.suggester.update(new BytesRef(text), Set.of(new BytesRef(counts.type())),
+                                counts.weight(), null);
+                        suggestions.stale.remove(text);
+                    } else {
+                        suggestions.stale.add(text);
+                    }
+                }
+                // Removed entries only disappear on a rebuild; lookups skip them until then
+                rebuild = suggestions.stale.size() > Math.max(1000, suggestions.terms.size() / 4);
+            }
+            if (rebuild) {
+                suggestions.suggester.build(new TermIterator(suggestions.suggestedTerms(minIdentifierFiles)));
+                suggestions.stale.clear();
+            } else {
+                suggestions.suggester.refresh();
+            }
+            suggestions.generation = generation;
+            log.debug("Updated suggestions for project {}: {} files changed, {} terms touched{}",
+                    projectId, changed, touched.size(), rebuild ? ", rebuilt" : "");
+        }
+    }
+
+    FileTerms extractTerms(String path, String hash, Document stored) {
+        Set<String> symbols = new HashSet<>();
+        for (CodeSymbol symbol : CodeSymbol.decode(stored.get(IndexFields.SYMBOLS))) {
+            symbols.add(symbol.name());
+        }
+
+        Set<String> keywords = SourceLanguage.fromPath(path).getKeywords();
+        Map<String, Integer> occurrences = new HashMap<>();
+        String source = stored.get(IndexFields.SOURCE);
+        if (source != null) {
+            Matcher matcher = IDENTIFIER_PATTERN.matcher(source);
+            while (matcher.find()) {
+                String identifier = matcher.group();
+                if (!keywords.contains(identifier)) occurrences.merge(identifier, 1, Integer::sum);
+            }
+        }
+        List<String> identifiers = new ArrayList<>(occurrences.keySet());
+        identifiers.sort((a, b) -> occurrences.get(b) - occurrences.get(a));
+        if (identifiers.size() > maxIdentifiersPerFile) {
+            identifiers = identifiers.subList(0, maxIdentifiersPerFile);
+        }
+
+        String fileName = path.substring(path.lastIndexOf('/') + 1);
+        return new FileTerms(path, hash, fileName, symbols, new HashSet<>(identifiers));
+    }
+
+    private ProjectSuggestions project(Long projectId) throws IOException {
+        List<ProjectSuggestions> evicted = new ArrayList<>();
+        ProjectSuggestions suggestions;
+        synchronized (projects) {
+            suggestions = projects.get(projectId);
+            if (suggestions == null) {
+                suggestions = new ProjectSuggestions(projectId);
+                projects.put(projectId, suggestions);
+                Iterator<ProjectSuggestions> lru = projects.values().iterator();
+                while (projects.size() > Math.max(1, maxProjects) && lru.hasNext()) {
+                    evicted.add(lru.next());
+                    lru.remove();
+                }
+            }
+        }
+        evicted.forEach(ProjectSuggestions::close);
+        return suggestions;
+    }
+
+    record FileTerms(String path, String hash, String fileName, Set<String> symbols, Set<String> identifiers) {
+    }
+
+    // Number of files that declare, are named or use a term
+    private static class TermCounts {
+        int symbolFiles;
+        int fileNames;
+        int identifierFiles;
+
+        boolean isSuggested(int minIdentifierFiles) {
+            return symbolFiles > 0 || fileNames > 0 || identifierFiles >= minIdentifierFiles;
+        }
+
+        long weight() {
+            return DECLARATION_WEIGHT * (symbolFiles + fileNames) + identifierFiles;
+        }
+
+        String type() {
+            return symbolFiles > 0 ? SYMBOL : fileNames > 0 ? FILE : IDENTIFIER;
+        }
+
+        boolean isEmpty() {
+            return symbolFiles == 0 && fileNames == 0 && identifierFiles == 0;
+        }
+    }
+
+    private static class ProjectSuggestions {
+        final Long projectId;
+        final AnalyzingInfixSuggester suggester;
+        // Guarded by this; terms is also read by lookups, hence concurrent
+        final Map<String, FileTerms> files = new HashMap<>();
+        final Map<String, TermCounts> terms = new ConcurrentHashMap<>();
+        final Set<String> stale = new HashSet<>();
+        final AtomicBoolean syncQueued = new AtomicBoolean();
+        volatile long generation = -1;
+
+        ProjectSuggestions(Long projectId) throws IOException {
+            this.projectId = projectId;
+            this.suggester = new AnalyzingInfixSuggester(new ByteBuffersDirectory(),
+                    CodeAnalyzer.subwords(SourceLanguage.OTHER), CodeAnalyzer.prefixes(),
+                    AnalyzingInfixSuggester.DEFAULT_MIN_PREFIX_CHARS, false, true, false, false);
+        }
+
+        void add(FileTerms file, Set<String> touched) {
+            files.put(file.path(), file);
+            for (String symbol : file.symbols()) {
+                terms.computeIfAbsent(symbol, t -> new TermCounts()).symbolFiles++;
+                touched.add(symbol);
+            }
+            terms.computeIfAbsent(file.fileName(), t -> new TermCounts()).fileNames++;
+            touched.add(file.fileName());
+            for (String identifier : file.identifiers()) {
+                terms.computeIfAbsent(identifier, t -> new TermCounts()).identifierFiles++;
+                touched.add(identifier);
+            }
+        }
+
+        void remove(FileTerms file, Set<String> touched) {
+            files.remove(file.path());
+            for (String symbol : file.symbols()) {
+                decrement(symbol, counts -> counts.symbolFiles--, touched);
+            }
+            decrement(file.fileName(), counts -> counts.fileNames--, touched);
+            for (String identifier : file.identifiers()) {
+                decrement(identifier, counts -> counts.identifierFiles--, touched);
+            }
+        }
+
+        private void decrement(String text, Consumer<TermCounts> update, Set<String> touched) {
+            TermCounts counts = terms.get(text);
+            if (counts == null) return;
+            update.accept(counts);
+            if (counts.isEmpty()) terms.remove(text);
+            touched.add(text);
+        }
+
+        List<Map.Entry<String, TermCounts>> suggestedTerms(int minIdentifierFiles) {
+            List<Map.Entry<String, TermCounts>> suggested = new ArrayList<>();
+            for (Map.Entry<String, TermCounts> entry : terms.entrySet()) {
+                if (entry.getValue().isSuggested(minIdentifierFiles)) suggested.add(entry);
+            }
+            return suggested;
+        }
+
+        void close() {
+            try {
+                suggester.close();
+            } catch (IOException e) {
+                log.warn("Error closing suggester of project {}", projectId, e);
+            }
+        }
+    }
+
+    private static class TermIterator implements InputIterator {
+        private final Iterator<Map.Entry<String, TermCounts>> entries;
+        private TermCounts current;
+
+        TermIterator(List<Map.Entry<String, TermCounts>> entries) {
+            this.entries = entries.iterator();
+        }
+
+        @Override
+        public BytesRef next() {
+            if (!entries.hasNext()) return null;
+            Map.Entry<String, TermCounts> entry = entries.next();
+            current = entry.getValue();
+            return new BytesRef(entry.getKey());
+        }
+
+        @Override
+        public long weight() {
+            return current.weight();
+        }
+
+        @Override
+        public BytesRef payload() {
+            return null;
+        }
+
+        @Override
+        public boolean hasPayloads() {
+            return false;
+        }
+
+        @Override
+        public Set<BytesRef> contexts() {
+            return Set.of(new BytesRef(current.type()));
+        }
+
+        @Override
+        public boolean hasContexts() {
+            return true;
+        }
+    }
+}
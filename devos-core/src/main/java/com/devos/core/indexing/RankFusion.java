@@ -0,0 +1,59 @@
+package com.devos.core.indexing;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Weighted reciprocal rank fusion: every ranking contributes {@code weight / (k + rank)} for
+ * each key it contains. Only ranks are used, so retrievers with incomparable scores (BM25 and
+ * cosine similarity) can be combined without normalisation.
+ */
+public final class RankFusion {
+
+    // The constant from the original RRF paper; dampens the gap between the top few ranks
+    public static final int DEFAULT_RANK_CONSTANT = 60;
+
+    private RankFusion() {
+    }
+
+    /**
+     * @param ranks 1-based rank of the key in each ranking that contained it
+     */
+    public record Fused(String key, double score, Map<String, Integer> ranks) {
+
+        int bestRank() {
+            return ranks.values().stream().mapToInt(Integer::intValue).min().orElse(Integer.MAX_VALUE);
+        }
+    }
+
+    /**
+     * @param rankings ordered keys per retriever; repeated keys only count at their first position
+     * @param weights  per-retriever weight; missing retrievers default to 1
+     */
+    public static List<Fused> fuse(Map<String, List<String>> rankings, Map<String, Double> weights, int rankConstant) {
+        Map<String, Double> scores = new LinkedHashMap<>();
+        Map<String, Map<String, Integer>> ranks = new LinkedHashMap<>();
+
+        rankings.forEach((retriever, keys) -> {
+            double weight = weights.getOrDefault(retriever, 1.0);
+            int rank = 0;
+            for (String key : keys) {
+                Map<String, Integer> keyRanks = ranks.computeIfAbsent(key, k -> new LinkedHashMap<>());
+                if (keyRanks.containsKey(retriever)) continue;
+
+                keyRanks.put(retriever, ++rank);
+                scores.merge(key, weight / (rankConstant + rank), Double::sum);
+            }
+        });
+
+        List<Fused> fused = new ArrayList<>();
+        scores.forEach((key, score) -> fused.add(new Fused(key, score, ranks.get(key))));
+        fused.sort(Comparator.comparingDouble(Fused::score).reversed()
+                .thenComparingInt(Fused::bestRank)
+                .thenComparing(Fused::key));
+        return fused;
+    }
+}
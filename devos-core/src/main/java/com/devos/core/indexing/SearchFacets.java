@@ -0,0 +1,212 @@
+package com.devos.core.indexing;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.SortedDocValuesField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.index.DocValues;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.SortedDocValues;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.Collector;
+import org.apache.lucene.search.ConstantScoreQuery;
+import org.apache.lucene.search.LeafCollector;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.Scorable;
+import org.apache.lucene.search.ScoreMode;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.util.BytesRef;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Facet dimensions of the file index. Every dimension is indexed twice: as a StringField so
+ * drill-down is a plain filter clause (cached by the query cache, no scoring), and as sorted
+ * doc values so counts are collected in the same pass as the top hits.
+ */
+public final class SearchFacets {
+
+    public static final String LANGUAGE = "language";
+    public static final String TOP_DIR = "top_dir";
+    public static final String EXTENSION = "ext";
+    public static final String SIZE_BUCKET = "size_bucket";
+    public static final List<String> DIMENSIONS = List.of(LANGUAGE, TOP_DIR, EXTENSION, SIZE_BUCKET);
+
+    // Files directly in the project root have no top-level directory
+    public static final String ROOT_DIR = "/";
+    public static final String NO_EXTENSION = "none";
+
+    private static final String FIELD_PREFIX = "facet_";
+    private static final int MAX_VALUES_PER_DIMENSION = 20;
+
+    private static final Map<String, String> LANGUAGES = Map.ofEntries(
+            Map.entry("java", "java"), Map.entry("kt", "kotlin"), Map.entry("scala", "scala"),
+            Map.entry("groovy", "groovy"), Map.entry("py", "python"), Map.entry("js", "javascript"),
+            Map.entry("jsx", "javascript"), Map.entry("mjs", "javascript"), Map.entry("cjs", "javascript"),
+            Map.entry("ts", "typescript"), Map.entry("tsx", "typescript"), Map.entry("go", "go"),
+            Map.entry("rs", "rust"), Map.entry("c", "c"), Map.entry("h", "c"), Map.entry("cpp", "cpp"),
+            Map.entry("cc", "cpp"), Map.entry("hpp", "cpp"), Map.entry("cs", "csharp"), Map.entry("rb", "ruby"),
+            Map.entry("php", "php"), Map.entry("swift", "swift"), Map.entry("sh", "shell"),
+            Map.entry("sql", "sql"), Map.entry("html", "html"), Map.entry("css", "css"), Map.entry("scss", "css"),
+            Map.entry("json", "json"), Map.entry("xml", "xml"), Map.entry("yml", "yaml"), Map.entry("yaml", "yaml"),
+            Map.entry("md", "markdown"), Map.entry("properties", "properties"), Map.entry("gradle", "groovy"));
+
+    // Upper bounds in bytes, paired with their labels; anything larger is "1mb+"
+    private static final long[] SIZE_LIMITS = {1024, 10 * 1024, 100 * 1024, 1024 * 1024};
+    private static final String[] SIZE_LABELS = {"0-1kb", "1-10kb", "10-100kb", "100kb-1mb", "1mb+"};
+
+    private SearchFacets() {
+    }
+
+    public static void addFields(Document doc, String relativePath, long size) {
+        Map<String, String> values = new LinkedHashMap<>();
+        String extension = extension(relativePath);
+        int slash = relativePath.indexOf('/');
+        values.put(LANGUAGE, LANGUAGES.getOrDefault(extension, "other"));
+        values.put(TOP_DIR, slash < 0 ? ROOT_DIR : relativePath.substring(0, slash));
+        values.put(EXTENSION, extension.isEmpty() ? NO_EXTENSION : extension);
+        values.put(SIZE_BUCKET, sizeBucket(size));
+
+        values.forEach((dimension, value) -> {
+            doc.add(new StringField(field(dimension), value, Field.Store.NO));
+            doc.add(new SortedDocValuesField(field(dimension), new BytesRef(value)));
+        });
+    }
+
+    public static String sizeBucket(long size) {
+        for (int i = 0; i < SIZE_LIMITS.length; i++) {
+            if (size < SIZE_LIMITS[i]) return SIZE_LABELS[i];
+        }
+        return SIZE_LABELS[SIZE_LIMITS.length];
+    }
+
+    /**
+     * Parses "dimension:value" pairs. Values of one dimension are OR-ed, dimensions are AND-ed.
+     */
+    public static Map<String, List<String>> parseFilters(Collection<String> filters) {
+        Map<String, List<String>> parsed = new TreeMap<>();
+        if (filters == null) return parsed;
+
+        for (String filter : filters) {
+            int colon = filter.indexOf(':');
+            String dimension = colon < 0 ? filter : filter.substring(0, colon).trim();
+            if (colon < 0 || !DIMENSIONS.contains(dimension)) {
+                throw new IllegalArgumentException("Invalid facet filter '" + filter + "', expected one of "
+                        + DIMENSIONS + " as dimension:value");
+            }
+            List<String> values = parsed.computeIfAbsent(dimension, d -> new ArrayList<>());
+            String value = filter.substring(colon + 1).trim();
+            if (!values.contains(value)) values.add(value);
+        }
+        parsed.values().forEach(values -> values.sort(Comparator.naturalOrder()));
+        return parsed;
+    }
+
+    /**
+     * Adds the filters as non-scoring clauses, so drill-down never changes the ranking.
+     */
+    public static Query applyFilters(Query query, Map<String, List<String>> filters) {
+        if (filters.isEmpty()) return query;
+
+        BooleanQuery.Builder builder = new BooleanQuery.Builder().add(query, BooleanClause.Occur.MUST);
+        filters.forEach((dimension, values) -> {
+            BooleanQuery.Builder anyValue = new BooleanQuery.Builder();
+            for (String value : values) {
+                anyValue.add(new TermQuery(new Term(field(dimension), value)), BooleanClause.Occur.SHOULD);
+            }
+            builder.add(new ConstantScoreQuery(anyValue.build()), BooleanClause.Occur.FILTER);
+        });
+        return builder.build();
+    }
+
+    private static String field(String dimension) {
+        return FIELD_PREFIX + dimension;
+    }
+
+    private static String extension(String relativePath) {
+        int dot = relativePath.lastIndexOf('.');
+        if (dot <= relativePath.lastIndexOf('/') + 1) return ""; // No dot, or a dotfile
+        return relativePath.substring(dot + 1).toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Counts facet values over every matching document. Counting happens per segment by
+     * ordinal; labels are only resolved once, for the non-zero ordinals, in {@link #getCounts()}.
+     */
+    public static class Counter implements Collector {
+
+        private final List<LeafCounts> leaves = new ArrayList<>();
+
+        @Override
+        public LeafCollector getLeafCollector(LeafReaderContext context) throws IOException {
+            SortedDocValues[] values = new SortedDocValues[DIMENSIONS.size()];
+            int[][] counts = new int[DIMENSIONS.size()][];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = DocValues.getSorted(context.reader(), field(DIMENSIONS.get(i)));
+                counts[i] = new int[values[i].getValueCount()];
+            }
+            leaves.add(new LeafCounts(context, counts));
+
+            return new LeafCollector() {
+                @Override
+                public void setScorer(Scorable scorer) {
+                }
+
+                @Override
+                public void collect(int doc) throws IOException {
+                    for (int i = 0; i < values.length; i++) {
+                        if (values[i].advanceExact(doc)) {
+                            counts[i][values[i].ordValue()]++;
+                        }
+                    }
+                }
+            };
+        }
+
+        @Override
+        public ScoreMode scoreMode() {
+            return ScoreMode.COMPLETE_NO_SCORES;
+        }
+
+        /**
+         * Values per dimension, most frequent first, limited to the top values of each dimension.
+         */
+        public Map<String, List<Map<String, Object>>> getCounts() throws IOException {
+            Map<String, List<Map<String, Object>>> facets = new LinkedHashMap<>();
+            for (int i = 0; i < DIMENSIONS.size(); i++) {
+                Map<String, Integer> totals = new HashMap<>();
+                for (LeafCounts leaf : leaves) {
+                    int[] counts = leaf.counts()[i];
+                    SortedDocValues labels = null;
+                    for (int ord = 0; ord < counts.length; ord++) {
+                        if (counts[ord] == 0) continue;
+                        if (labels == null) labels = DocValues.getSorted(leaf.context().reader(), field(DIMENSIONS.get(i)));
+                        totals.merge(labels.lookupOrd(ord).utf8ToString(), counts[ord], Integer::sum);
+                    }
+                }
+
+                List<Map<String, Object>> values = new ArrayList<>();
+                totals.entrySet().stream()
+                        .sorted(Map.Entry.<String, Integer>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+                        .limit(MAX_VALUES_PER_DIMENSION)
+                        .forEach(entry -> values.add(Map.of("value", entry.getKey(), "count", entry.getValue())));
+                facets.put(DIMENSIONS.get(i), values);
+            }
+            return facets;
+        }
+
+        private record LeafCounts(LeafReaderContext context, int[][] counts) {
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package com.devos.core.indexing;
+
+import com.devos.core.cache.WeightedLruCache;
+import com.devos.core.event.ProjectDeletedEvent;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Caches search responses per project under the generation of the reader that produced
+ * them. Any refresh that exposes new changes moves the generation on, so stale results are
+ * never served and no explicit invalidation is needed on writes; repeated queries against an
+ * unchanged index are answered without searching at all.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SearchResultCache {
+
+    private final ProjectIndexRegistry indexRegistry;
+
+    private final Map<Long, Long> latestGenerations = new ConcurrentHashMap<>();
+    private WeightedLruCache<Key, Map<String, Object>> cache;
+
+    @Value("${devos.indexing.search-cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${devos.indexing.search-cache.max-weight-mb:64}")
+    private long maxWeightMb;
+
+    @PostConstruct
+    void init() {
+        cache = new WeightedLruCache<>(maxWeightMb * 1024 * 1024, (key, value) -> key.weight() + estimateWeight(value));
+    }
+
+    /**
+     * Returns the cached response for the query, or computes and caches it. The query is used
+     * verbatim, see {@link #normalizeQuery}. Responses that carry an "error" entry are
+     * returned but never cached.
+     */
+    public Map<String, Object> get(Long projectId, String kind, String query, List<?> options,
+                                   Supplier<Map<String, Object>> search) {
+        if (!enabled) return search.get();
+
+        long generation;
+        try {
+            generation = indexRegistry.searchGeneration(projectId);
+        } catch (IOException e) {
+            log.warn("Could not read index generation for project {}, bypassing cache", projectId, e);
+            return search.get();
+        }
+        Long previous = latestGenerations.put(projectId, generation);
+        if (previous != null && previous != generation) {
+            // Entries for older generations can never be hit again
+            cache.invalidateIf(key -> key.projectId().equals(projectId) && key.generation() != generation);
+        }
+
+        Key key = new Key(projectId, kind, query, Collections.unmodifiableList(new ArrayList<>(options)), generation);
+        Map<String, Object> cached = cache.get(key);
+        if (cached != null) return cached;
+
+        Map<String, Object> response = search.get();
+        if (!response.containsKey("error")) {
+            cache.put(key, response);
+        }
+        return response;
+    }
+
+    // For when a project's index is swapped out, since the new reader versions may collide with cached ones
+    public void invalidate(Long projectId) {
+        latestGenerations.remove(projectId);
+        cache.invalidateIf(key -> key.projectId().equals(projectId));
+    }
+
+    @TransactionalEventListener
+    public void onProjectDeleted(ProjectDeletedEvent event) {
+        invalidate(event.projectId());
+    }
+
+    public WeightedLruCache<?, ?> getCache() {
+        return cache;
+    }
+
+    public Map<String, Object> getStats() {
+        return cache.stats();
+    }
+
+    // Whitespace is insignificant to the query parser; case is not, since exact fields keep it
+    public static String normalizeQuery(String query) {
+        return query == null ? "" : query.trim().replaceAll("\\s+", " ");
+    }
+
+    // Rough heap footprint of a response made of maps, collections, strings and boxed values
+    private static long estimateWeight(Object value) {
+        if (value == null) return 8;
+        if (value instanceof String string) return 40 + 2L * string.length();
+        if (value instanceof Map<?, ?> map) {
+            long weight = 64;
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                weight += 32 + estimateWeight(entry.getKey()) + estimateWeight(entry.getValue());
+            }
+            return weight;
+        }
+        if (value instanceof Collection<?> collection) {
+            long weight = 40;
+            for (Object element : collection) {
+                weight += 8 + estimateWeight(element);
+            }
+            return weight;
+        }
+        return 16;
+    }
+
+    record Key(Long projectId, String kind, String query, List<?> options, long generation) {
+
+        long weight() {
+            return 96 + 2L * (query == null ? 0 : query.length()) + 16L * options.size();
+        }
+    }
+}
@@ -0,0 +1,354 @@
+package com.devos.core.indexing;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.KnnFloatVectorField;
+import org.apache.lucene.document.SortedDocValuesField;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.index.DocValues;
+import org.apache.lucene.index.FloatVectorValues;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.LeafReader;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.PostingsEnum;
+import org.apache.lucene.index.ReaderUtil;
+import org.apache.lucene.index.SortedDocValues;
+import org.apache.lucene.index.StoredFields;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.index.Terms;
+import org.apache.lucene.index.TermsEnum;
+import org.apache.lucene.index.VectorSimilarityFunction;
+import org.apache.lucene.search.DocIdSetIterator;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.KnnFloatVectorQuery;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.util.BitSetIterator;
+import org.apache.lucene.util.Bits;
+import org.apache.lucene.util.BytesRef;
+import org.apache.lucene.util.FixedBitSet;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Maintains the per-project chunk index used for semantic search. It is derived entirely
+ * from the file index (stored source and symbols), so it never reads the file system: a
+ * sync compares file hashes in both indexes and only re-chunks files whose hash changed.
+ * Within a changed file, chunks whose text is unchanged keep their existing vectors, so only
+ * edited regions go through the embedding provider.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SemanticIndexer {
+
+    private final ProjectIndexRegistry indexRegistry;
+    private final EmbeddingProvider embeddingProvider;
+
+    private final Map<Long, AtomicBoolean> pendingSyncs = new ConcurrentHashMap<>();
+
+    @Value("${devos.indexing.semantic.enabled:true}")
+    private boolean enabled;
+
+    @Value("${devos.indexing.semantic.batch-size:64}")
+    private int batchSize;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Queues a sync. Requests arriving while one is already queued for the project are
+     * folded into it, so bursts of file changes cause at most one extra pass.
+     */
+    @Async
+    public void requestSync(Long projectId) {
+        if (!enabled) return;
+
+        AtomicBoolean pending = pendingSyncs.computeIfAbsent(projectId, id -> new AtomicBoolean());
+        if (!pending.compareAndSet(false, true)) return;
+
+        synchronized (pending) {
+            pending.set(false);
+            try {
+                sync(projectId);
+            } catch (IOException | RuntimeException e) {
+                log.error("Error updating semantic index for project: {}", projectId, e);
+            }
+        }
+    }
+
+    public SyncStats sync(Long projectId) throws IOException {
+        indexRegistry.refreshNow(projectId, IndexKind.FILES);
+        Map<String, String> fileHashes = indexRegistry.withSearcher(projectId, SemanticIndexer::readFileHashes);
+
+        String model = embeddingProvider.getModel();
+        boolean modelChanged = indexRegistry.withSearcher(projectId, IndexKind.CHUNKS, searcher ->
+                searcher.count(new TermQuery(new Term(IndexFields.EMBEDDING_MODEL, model))) < searcher.getIndexReader().numDocs());
+        if (modelChanged) {
+            log.info("Embedding model changed to {}, re-embedding project: {}", model, projectId);
+            indexRegistry.withWriter(projectId, IndexKind.CHUNKS, writer -> writer.deleteAll());
+            indexRegistry.commitNow(projectId, IndexKind.CHUNKS);
+        }
+        Map<String, String> chunkedHashes = indexRegistry.withSearcher(projectId, IndexKind.CHUNKS, SemanticIndexer::readFileHashes);
+
+        List<String> changed = new ArrayList<>();
+        fileHashes.forEach((path, hash) -> {
+            if (!hash.equals(chunkedHashes.get(path))) changed.add(path);
+        });
+        List<String> removed = new ArrayList<>();
+        for (String path : chunkedHashes.keySet()) {
+            if (!fileHashes.containsKey(path)) removed.add(path);
+        }
+        SyncStats stats = new SyncStats(changed.size(), removed.size());
+        if (changed.isEmpty() && removed.isEmpty()) return stats;
+
+        indexRegistry.withWriter(projectId, IndexKind.CHUNKS, writer -> {
+            for (String path : removed) {
+                writer.deleteDocuments(new Term(IndexFields.PATH, path));
+            }
+            for (int i = 0; i < changed.size(); i += batchSize) {
+                reindexBatch(projectId, writer, changed.subList(i, Math.min(changed.size(), i + batchSize)), stats);
+            }
+            return null;
+        });
+        indexRegistry.commitNow(projectId, IndexKind.CHUNKS);
+
+        log.debug("Updated semantic index for project {}: {}", projectId, stats);
+        return stats;
+    }
+
+    public boolean hasChunks(Long projectId) throws IOException {
+        return indexRegistry.withSearcher(projectId, IndexKind.CHUNKS, searcher -> searcher.getIndexReader().numDocs() > 0);
+    }
+
+    /**
+     * Returns the chunks closest to the query, best first.
+     */
+    public List<Map<String, Object>> search(Long projectId, String query, int topK) throws IOException {
+        float[] vector = embeddingProvider.embed(List.of(query)).get(0);
+        return indexRegistry.withSearcher(projectId, IndexKind.CHUNKS, searcher -> {
+            List<Map<String, Object>> results = new ArrayList<>();
+            TopDocs hits = searcher.search(new KnnFloatVectorQuery(IndexFields.CHUNK_VECTOR, vector, topK), topK);
+            StoredFields storedFields = searcher.storedFields();
+            for (ScoreDoc scoreDoc : hits.scoreDocs) {
+                Document doc = storedFields.document(scoreDoc.doc);
+                Map<String, Object> result = new LinkedHashMap<>();
+                result.put("path", doc.get(IndexFields.PATH));
+                result.put("startLine", doc.getField(IndexFields.CHUNK_START_LINE).numericValue().intValue());
+                result.put("endLine", doc.getField(IndexFields.CHUNK_END_LINE).numericValue().intValue());
+                result.put("symbol", doc.get(IndexFields.CHUNK_SYMBOL));
+                result.put("score", scoreDoc.score);
+                result.put("text", doc.get(IndexFields.CHUNK_TEXT));
+                results.add(result);
+            }
+            return results;
+        });
+    }
+
+    private void reindexBatch(Long projectId, IndexWriter writer, List<String> paths, SyncStats stats) throws IOException {
+        Map<String, SourceDocument> sources = indexRegistry.withSearcher(projectId, searcher -> loadSources(searcher, paths));
+        Map<String, float[]> previousVectors = indexRegistry.withSearcher(projectId, IndexKind.CHUNKS,
+                searcher -> loadVectors(searcher, paths));
+
+        // Collect the chunks whose text has no vector yet and embed them in one call
+        Map<String, List<PendingChunk>> chunksByPath = new LinkedHashMap<>();
+        List<String> toEmbed = new ArrayList<>();
+        List<PendingChunk> needingVectors = new ArrayList<>();
+        for (Map.Entry<String, SourceDocument> entry : sources.entrySet()) {
+            SourceDocument source = entry.getValue();
+            List<PendingChunk> chunks = new ArrayList<>();
+            for (CodeChunker.CodeChunk chunk : CodeChunker.chunk(source.content(), source.symbols())) {
+                String chunkHash = IndexFields.contentHash(chunk.text().getBytes(StandardCharsets.UTF_8));
+                PendingChunk pending = new PendingChunk(chunk, chunkHash, new float[][]{previousVectors.get(chunkHash)});
+                if (pending.vector()[0] == null) {
+                    toEmbed.add(chunk.text());
+                    needingVectors.add(pending);
+                } else {
+                    stats.reused++;
+                }
+                chunks.add(pending);
+            }
+            chunksByPath.put(entry.getKey(), chunks);
+        }
+
+        List<float[]> vectors = embeddingProvider.embed(toEmbed);
+        for (int i = 0; i < needingVectors.size(); i++) {
+            needingVectors.get(i).vector()[0] = vectors.get(i);
+        }
+        stats.embedded += toEmbed.size();
+
+        String model = embeddingProvider.getModel();
+        for (String path : paths) {
+            writer.deleteDocuments(new Term(IndexFields.PATH, path));
+            SourceDocument source = sources.get(path);
+            if (source == null) continue; // Deleted from the file index in the meantime
+
+            List<Document> documents = new ArrayList<>();
+            for (PendingChunk chunk : chunksByPath.get(path)) {
+                documents.add(chunkDocument(path, source.hash(), model, chunk));
+            }
+            if (documents.isEmpty()) {
+                // Marks empty or declaration-free files as done so they are not re-chunked on every sync
+                documents.add(baseDocument(path, source.hash(), model));
+            }
+            writer.addDocuments(documents);
+        }
+    }
+
+    private static Document chunkDocument(String path, String fileHash, String model, PendingChunk pending) {
+        CodeChunker.CodeChunk chunk = pending.chunk();
+        Document doc = baseDocument(path, fileHash, model);
+        doc.add(new KnnFloatVectorField(IndexFields.CHUNK_VECTOR, pending.vector()[0], VectorSimilarityFunction.COSINE));
+        doc.add(new StoredField(IndexFields.CHUNK_HASH, pending.hash()));
+        doc.add(new StoredField(IndexFields.CHUNK_START_LINE, chunk.startLine()));
+        doc.add(new StoredField(IndexFields.CHUNK_END_LINE, chunk.endLine()));
+        doc.add(new StoredField(IndexFields.CHUNK_TEXT, chunk.text()));
+        if (chunk.symbol() != null) {
+            doc.add(new StoredField(IndexFields.CHUNK_SYMBOL, chunk.symbol()));
+        }
+        return doc;
+    }
+
+    private static Document baseDocument(String path, String fileHash, String model) {
+        Document doc = new Document();
+        doc.add(new StringField(IndexFields.PATH, path, Field.Store.YES));
+        doc.add(new SortedDocValuesField(IndexFields.PATH_DV, new BytesRef(path)));
+        doc.add(new SortedDocValuesField(IndexFields.HASH, new BytesRef(fileHash)));
+        doc.add(new StringField(IndexFields.EMBEDDING_MODEL, model, Field.Store.NO));
+        return doc;
+    }
+
+    // Path to whole-file hash; works for both indexes since chunk documents carry the file hash
+    private static Map<String, String> readFileHashes(IndexSearcher searcher) throws IOException {
+        Map<String, String> hashes = new HashMap<>();
+        for (LeafReaderContext leaf : searcher.getIndexReader().leaves()) {
+            LeafReader reader = leaf.reader();
+            Bits liveDocs = reader.getLiveDocs();
+            SortedDocValues paths = reader.getSortedDocValues(IndexFields.PATH_DV);
+            if (paths == null) continue;
+
+            SortedDocValues fileHashes = DocValues.getSorted(reader, IndexFields.HASH);
+            for (int doc = paths.nextDoc(); doc != DocIdSetIterator.NO_MORE_DOCS; doc = paths.nextDoc()) {
+                if (liveDocs != null && !liveDocs.get(doc)) continue;
+                String hash = fileHashes.advanceExact(doc) ? fileHashes.lookupOrd(fileHashes.ordValue()).utf8ToString() : "";
+                hashes.put(paths.lookupOrd(paths.ordValue()).utf8ToString(), hash);
+            }
+        }
+        return hashes;
+    }
+
+    private static Map<String, SourceDocument> loadSources(IndexSearcher searcher, List<String> paths) throws IOException {
+        Map<String, SourceDocument> sources = new LinkedHashMap<>();
+        StoredFields storedFields = searcher.storedFields();
+        List<LeafReaderContext> leaves = searcher.getIndexReader().leaves();
+        for (String path : paths) {
+            TopDocs hits = searcher.search(new TermQuery(new Term(IndexFields.PATH, path)), 1);
+            if (hits.scoreDocs.length == 0) continue;
+
+            int doc = hits.scoreDocs[0].doc;
+            Document stored = storedFields.document(doc, Set.of(IndexFields.SOURCE, IndexFields.SYMBOLS));
+            LeafReaderContext leaf = leaves.get(ReaderUtil.subIndex(doc, leaves));
+            SortedDocValues hashes = DocValues.getSorted(leaf.reader(), IndexFields.HASH);
+            String hash = hashes.advanceExact(doc - leaf.docBase) ? hashes.lookupOrd(hashes.ordValue()).utf8ToString() : "";
+            String content = stored.get(IndexFields.SOURCE);
+            sources.put(path, new SourceDocument(content == null ? "" : content, hash,
+                    CodeSymbol.decode(stored.get(IndexFields.SYMBOLS))));
+        }
+        return sources;
+    }
+
+    // Existing vectors of the given files keyed by chunk hash, so unchanged chunks skip embedding
+    private static Map<String, float[]> loadVectors(IndexSearcher searcher, List<String> paths) throws IOException {
+        Map<String, float[]> vectors = new HashMap<>();
+        for (LeafReaderContext leaf : searcher.getIndexReader().leaves()) {
+            LeafReader reader = leaf.reader();
+            Terms terms = reader.terms(IndexFields.PATH);
+            FloatVectorValues values = reader.getFloatVectorValues(IndexFields.CHUNK_VECTOR);
+            if (terms == null || values == null) continue;
+
+            // The chunks of all paths are gathered first, since vector values can only move forward
+            Bits liveDocs = reader.getLiveDocs();
+            FixedBitSet chunks = new FixedBitSet(reader.maxDoc());
+            TermsEnum termsEnum = terms.iterator();
+            PostingsEnum postings = null;
+            for (String path : paths) {
+                if (!termsEnum.seekExact(new BytesRef(path))) continue;
+                postings = termsEnum.postings(postings, PostingsEnum.NONE);
+                for (int doc = postings.nextDoc(); doc != DocIdSetIterator.NO_MORE_DOCS; doc = postings.nextDoc()) {
+                    if (liveDocs == null || liveDocs.get(doc)) chunks.set(doc);
+                }
+            }
+
+            StoredFields storedFields = reader.storedFields();
+            DocIdSetIterator docs = new BitSetIterator(chunks, chunks.cardinality());
+            for (int doc = docs.nextDoc(); doc != DocIdSetIterator.NO_MORE_DOCS; doc = docs.nextDoc()) {
+                int vectorDoc = values.docID() < doc ? values.advance(doc) : values.docID();
+                if (vectorDoc != doc) continue;
+
+                String chunkHash = storedFields.document(doc, Set.of(IndexFields.CHUNK_HASH)).get(IndexFields.CHUNK_HASH);
+                if (chunkHash != null) {
+                    vectors.put(chunkHash, values.vectorValue().clone()); // The array is reused by the reader
+                }
+            }
+        }
+        return vectors;
+    }
+
+    private record SourceDocument(String content, String hash, List<CodeSymbol> symbols) {
+    }
+
+    // The vector is held in a one-element array so it can be filled in after batch embedding
+    private record PendingChunk(CodeChunker.CodeChunk chunk, String hash, float[][] vector) {
+    }
+
+    public static class SyncStats {
+        private final int changedFiles;
+        private final int removedFiles;
+        private int embedded;
+        private int reused;
+
+        SyncStats(int changedFiles, int removedFiles) {
+            this.changedFiles = changedFiles;
+            this.removedFiles = removedFiles;
+        }
+
+        public int getChangedFiles() {
+            return changedFiles;
+        }
+
+        public int getRemovedFiles() {
+            return removedFiles;
+        }
+
+        public int getEmbedded() {
+            return embedded;
+        }
+
+        public int getReused() {
+            return reused;
+        }
+
+        @Override
+        public String toString() {
+            return "{changedFiles=" + changedFiles + ", removedFiles=" + removedFiles
+                    + ", embedded=" + embedded + ", reused=" + reused + "}";
+        }
+    }
+}
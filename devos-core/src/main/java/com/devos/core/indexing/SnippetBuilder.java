@@ -0,0 +1,79 @@
+package com.devos.core.indexing;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Turns match offsets inside a file into line-based snippets. Highlight ranges are
+ * character positions within the returned snippet text, so clients can render them
+ * without fetching the file.
+ */
+public final class SnippetBuilder {
+
+    private static final int MAX_SNIPPET_LENGTH = 240;
+    private static final int CONTEXT_BEFORE_MATCH = 60;
+
+    private SnippetBuilder() {
+    }
+
+    public static List<Map<String, Object>> build(String content, List<int[]> ranges, int maxSnippets) {
+        List<Map<String, Object>> snippets = new ArrayList<>();
+        if (content == null || ranges.isEmpty()) return snippets;
+
+        List<int[]> sorted = new ArrayList<>(ranges);
+        sorted.sort(Comparator.<int[]>comparingInt(range -> range[0]).thenComparingInt(range -> range[1]));
+
+        int lineNumber = 1;
+        int lineStart = 0;
+        int scanned = 0;
+        int i = 0;
+        while (i < sorted.size() && snippets.size() < maxSnippets) {
+            int start = Math.min(sorted.get(i)[0], content.length());
+            // Advance to the line containing this match
+            for (; scanned < start; scanned++) {
+                if (content.charAt(scanned) == '\n') {
+                    lineNumber++;
+                    lineStart = scanned + 1;
+                }
+            }
+            int lineEnd = content.indexOf('\n', lineStart);
+            if (lineEnd < 0) lineEnd = content.length();
+
+            List<int[]> lineRanges = new ArrayList<>();
+            while (i < sorted.size() && sorted.get(i)[0] < Math.max(lineEnd, lineStart + 1)) {
+                int[] range = sorted.get(i++);
+                lineRanges.add(new int[]{range[0] - lineStart, Math.min(range[1], lineEnd) - lineStart});
+            }
+            snippets.add(snippet(lineNumber, content.substring(lineStart, lineEnd), lineRanges));
+        }
+        return snippets;
+    }
+
+    private static Map<String, Object> snippet(int lineNumber, String line, List<int[]> ranges) {
+        String text = line.endsWith("\r") ? line.substring(0, line.length() - 1) : line;
+        int offset = 0;
+        if (text.length() > MAX_SNIPPET_LENGTH) {
+            offset = Math.max(0, Math.min(ranges.get(0)[0] - CONTEXT_BEFORE_MATCH, text.length() - MAX_SNIPPET_LENGTH));
+            text = text.substring(offset, offset + MAX_SNIPPET_LENGTH);
+        }
+
+        List<Map<String, Integer>> highlights = new ArrayList<>();
+        int previousEnd = -1;
+        for (int[] range : ranges) {
+            int start = Math.max(range[0] - offset, 0);
+            int end = Math.min(range[1] - offset, text.length());
+            if (end <= start || start < previousEnd) continue; // Outside the window or overlapping
+            highlights.add(Map.of("start", start, "end", end));
+            previousEnd = end;
+        }
+
+        Map<String, Object> snippet = new LinkedHashMap<>();
+        snippet.put("line", lineNumber);
+        snippet.put("text", text);
+        snippet.put("highlights", highlights);
+        return snippet;
+    }
+}
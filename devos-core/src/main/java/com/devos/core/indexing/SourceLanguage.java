@@ -0,0 +1,65 @@
+package com.devos.core.indexing;
+
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Languages the indexer knows something about, detected from the file extension.
+ * Keywords are dropped from the sub-word content field of files in that language
+ * because they occur in nearly every file and only dilute scoring.
+ */
+public enum SourceLanguage {
+
+    JAVA(Set.of("java"), Set.of(
+            "abstract", "assert", "break", "case", "catch", "class", "const", "continue", "default", "do",
+            "else", "enum", "extends", "final", "finally", "for", "goto", "if", "implements", "import",
+            "instanceof", "interface", "native", "new", "package", "private", "protected", "public",
+            "return", "static", "super", "switch", "synchronized", "this", "throw", "throws", "transient",
+            "try", "volatile", "while", "null", "true", "false")),
+
+    JAVASCRIPT(Set.of("js", "jsx", "mjs", "cjs", "ts", "tsx"), Set.of(
+            "async", "await", "break", "case", "catch", "class", "const", "continue", "default", "delete",
+            "do", "else", "export", "extends", "finally", "for", "from", "function", "if", "import", "in",
+            "instanceof", "let", "new", "return", "super", "switch", "this", "throw", "try", "typeof",
+            "var", "void", "while", "yield", "null", "undefined", "true", "false")),
+
+    PYTHON(Set.of("py"), Set.of(
+            "and", "as", "assert", "async", "await", "break", "class", "continue", "def", "del", "elif",
+            "else", "except", "finally", "for", "from", "global", "if", "import", "in", "is", "lambda",
+            "nonlocal", "not", "or", "pass", "raise", "return", "try", "while", "with", "yield", "self",
+            "None", "True", "False")),
+
+    GO(Set.of("go"), Set.of(
+            "break", "case", "chan", "const", "continue", "default", "defer", "else", "fallthrough", "for",
+            "func", "go", "goto", "if", "import", "interface", "map", "package", "range", "return",
+            "select", "struct", "switch", "type", "var", "nil", "true", "false")),
+
+    OTHER(Set.of(), Set.of());
+
+    private final Set<String> extensions;
+    private final Set<String> keywords;
+
+    SourceLanguage(Set<String> extensions, Set<String> keywords) {
+        this.extensions = extensions;
+        this.keywords = keywords;
+    }
+
+    public Set<String> getExtensions() {
+        return extensions;
+    }
+
+    public Set<String> getKeywords() {
+        return keywords;
+    }
+
+    public static SourceLanguage fromPath(String path) {
+        int dot = path.lastIndexOf('.');
+        if (dot < 0 || dot < path.lastIndexOf('/')) return OTHER;
+
+        String extension = path.substring(dot + 1).toLowerCase(Locale.ROOT);
+        for (SourceLanguage language : values()) {
+            if (language.extensions.contains(extension)) return language;
+        }
+        return OTHER;
+    }
+}
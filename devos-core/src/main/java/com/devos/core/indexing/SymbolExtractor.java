@@ -0,0 +1,380 @@
+package com.devos.core.indexing;
+
+import com.devos.core.indexing.CodeSymbol.Kind;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Pulls class, interface, method, function and field declarations out of Java, TS/JS,
+ * Python and Go sources. This is a line-oriented lexer rather than a parser: comments
+ * and string literals are blanked out first, containers are tracked through brace depth
+ * (or indentation for Python), and declarations are recognised with per-language patterns.
+ * It misses exotic formatting but is cheap enough to run for every indexed file.
+ */
+public final class SymbolExtractor {
+
+    private static final int MAX_CONTENT_LENGTH = 1024 * 1024;
+    private static final int MAX_LINE_LENGTH = 1000; // Minified code has no useful declarations
+
+    private static final String ID = "([A-Za-z_$][\\w$]*)";
+    private static final String ANNOTATIONS = "(?:@[\\w.]+(?:\\([^)]*\\))?\\s+)*";
+    private static final String JAVA_MODIFIERS = "(?:(?:public|protected|private|static|final|abstract|synchronized"
+            + "|native|default|strictfp|transient|volatile|sealed|non-sealed)\\s+)*";
+    private static final String JAVA_TYPE = "[\\w$.]+(?:<.*>)?(?:\\[\\])*";
+    private static final String TS_MODIFIERS = "(?:(?:public|private|protected|static|readonly|abstract|override"
+            + "|declare|async|get|set)\\s+)*";
+
+    private static final Pattern JAVA_TYPE_DECL = Pattern.compile("\\b(class|interface|enum|record)\\s+" + ID);
+    private static final Pattern JAVA_FIELD = Pattern.compile(
+            "^\\s*" + ANNOTATIONS + JAVA_MODIFIERS + JAVA_TYPE + "\\s+" + ID + "\\s*(?:=|;|,)");
+    private static final Pattern JAVA_METHOD = Pattern.compile(
+            "^\\s*" + ANNOTATIONS + JAVA_MODIFIERS + "(?:<[^>]*>\\s+)?(?:" + JAVA_TYPE + "\\s+)?" + ID + "\\s*\\(");
+    private static final Pattern JAVA_ENUM_CONSTANT = Pattern.compile("^\\s*" + ANNOTATIONS + "([A-Z][A-Z0-9_]*)\\s*(?:[(,;{]|$)");
+
+    private static final Pattern TS_TYPE_DECL = Pattern.compile("\\b(class|interface|enum)\\s+" + ID);
+    private static final Pattern TS_TYPE_ALIAS = Pattern.compile("^\\s*(?:export\\s+)?(?:declare\\s+)?type\\s+" + ID
+            + "\\s*(?:<[^>]*>)?\\s*=");
+    private static final Pattern TS_FUNCTION = Pattern.compile("\\bfunction\\s*\\*?\\s*" + ID + "\\s*[(<]");
+    private static final Pattern TS_FUNCTION_VARIABLE = Pattern.compile("^\\s*(?:export\\s+)?(?:const|let|var)\\s+"
+            + ID + "\\s*(?::[^=]+)?=\\s*(?:async\\s+)?(?:function\\b|\\([^)]*\\)\\s*(?::[^=]+)?=>|[\\w$]+\\s*=>)");
+    private static final Pattern TS_METHOD = Pattern.compile(
+            "^\\s*" + ANNOTATIONS + TS_MODIFIERS + "\\*?\\s*(#?[A-Za-z_$][\\w$]*)\\s*[?!]?\\s*(?:<[^>]*>)?\\s*\\(");
+    private static final Pattern TS_FIELD = Pattern.compile(
+            "^\\s*" + ANNOTATIONS + TS_MODIFIERS + "(#?[A-Za-z_$][\\w$]*)\\s*[?!]?\\s*(?::|=(?![=>])|;)");
+
+    private static final Pattern PY_CLASS = Pattern.compile("^(\\s*)class\\s+" + ID);
+    private static final Pattern PY_DEF = Pattern.compile("^(\\s*)(?:async\\s+)?def\\s+" + ID);
+    private static final Pattern PY_ATTRIBUTE = Pattern.compile("^(\\s*)" + ID + "\\s*(?::[^=]+)?=(?!=)");
+    private static final Pattern PY_ANNOTATED = Pattern.compile("^(\\s*)" + ID + "\\s*:\\s*[\\w\\[\\].,| ]*[\\w\\]]\\s*$");
+    private static final Pattern PY_SELF_ATTRIBUTE = Pattern.compile("^\\s*self\\." + ID + "\\s*(?::[^=]+)?=(?!=)");
+
+    private static final Pattern GO_METHOD = Pattern.compile(
+            "^func\\s*\\(\\s*(?:[\\w$]+\\s+)?\\*?\\s*" + ID + "[^)]*\\)\\s*" + ID + "\\s*[(\\[]");
+    private static final Pattern GO_FUNCTION = Pattern.compile("^func\\s+" + ID + "\\s*[(\\[]");
+    private static final Pattern GO_TYPE = Pattern.compile(
+            "^\\s*(?:type\\s+)?" + ID + "(?:\\[[^\\]]*\\])?\\s+(struct|interface)\\s*\\{");
+    private static final Pattern GO_TYPE_ALIAS = Pattern.compile("^\\s*type\\s+" + ID + "(?:\\[[^\\]]*\\])?\\s+[^({]");
+    private static final Pattern GO_FIELD = Pattern.compile("^\\s*" + ID + "(?:\\s*,\\s*[\\w$]+)*\\s+[*\\[\\]\\w.]");
+    private static final Pattern GO_INTERFACE_METHOD = Pattern.compile("^\\s*" + ID + "\\s*\\(");
+
+    private static final Set<String> NOT_NAMES = Set.of(
+            "if", "for", "while", "switch", "catch", "return", "new", "else", "do", "try", "throw", "synchronized",
+            "super", "this", "function", "constructor", "static", "await", "typeof", "delete", "case", "assert");
+
+    private SymbolExtractor() {
+    }
+
+    public static List<CodeSymbol> extract(SourceLanguage language, String content) {
+        if (language == SourceLanguage.OTHER || content.length() > MAX_CONTENT_LENGTH) return List.of();
+
+        String[] lines = blankCommentsAndStrings(content, language).split("\n", -1);
+        return language == SourceLanguage.PYTHON ? extractPython(lines) : extractBraced(language, lines);
+    }
+
+    private static List<CodeSymbol> extractBraced(SourceLanguage language, String[] lines) {
+        List<CodeSymbol> symbols = new ArrayList<>();
+        Deque<Scope> scopes = new ArrayDeque<>();
+        CodeSymbol pendingScope = null;
+        int depth = 0;
+
+        for (int i = 0; i < lines.length; i++) {
+            String line = lines[i];
+            if (line.length() <= MAX_LINE_LENGTH) {
+                Scope scope = scopes.peek();
+                Scope members = scope != null && depth == scope.bodyDepth() ? scope : null;
+                CodeSymbol opened = switch (language) {
+                    case JAVA -> matchJava(line, i + 1, scope, members, symbols);
+                    case JAVASCRIPT -> matchTypeScript(line, i + 1, scope, members, symbols);
+                    default -> matchGo(line, i + 1, members, symbols);
+                };
+                if (opened != null) {
+                    pendingScope = opened;
+                }
+            }
+
+            for (int c = 0; c < line.length(); c++) {
+                char ch = line.charAt(c);
+                if (ch == '{') {
+                    depth++;
+                    if (pendingScope != null) {
+                        scopes.push(new Scope(pendingScope.name(), pendingScope.kind(), depth));
+                        pendingScope = null;
+                    }
+                } else if (ch == '}') {
+                    depth = Math.max(0, depth - 1);
+                    while (!scopes.isEmpty() && scopes.peek().bodyDepth() > depth) {
+                        scopes.pop();
+                    }
+                }
+            }
+        }
+        return symbols;
+    }
+
+    private static CodeSymbol matchJava(String line, int lineNumber, Scope scope, Scope members, List<CodeSymbol> symbols) {
+        Matcher type = JAVA_TYPE_DECL.matcher(line);
+        if (type.find()) {
+            Kind kind = switch (type.group(1)) {
+                case "interface" -> Kind.INTERFACE;
+                case "enum" -> Kind.ENUM;
+                default -> Kind.CLASS;
+            };
+            return add(symbols, type, 2, kind, lineNumber, scope);
+        }
+        if (members == null) return null;
+
+        Matcher constant = JAVA_ENUM_CONSTANT.matcher(line);
+        if (members.kind() == Kind.ENUM && constant.find()) {
+            add(symbols, constant, 1, Kind.FIELD, lineNumber, members);
+            return null;
+        }
+        Matcher field = JAVA_FIELD.matcher(line);
+        if (field.find()) {
+            add(symbols, field, 1, Kind.FIELD, lineNumber, members);
+            return null;
+        }
+        Matcher method = JAVA_METHOD.matcher(line);
+        if (method.find()) {
+            add(symbols, method, 1, Kind.METHOD, lineNumber, members);
+        }
+        return null;
+    }
+
+    private static CodeSymbol matchTypeScript(String line, int lineNumber, Scope scope, Scope members,
+                                              List<CodeSymbol> symbols) {
+        Matcher type = TS_TYPE_DECL.matcher(line);
+        if (type.find()) {
+            Kind kind = switch (type.group(1)) {
+                case "interface" -> Kind.INTERFACE;
+                case "enum" -> Kind.ENUM;
+                default -> Kind.CLASS;
+            };
+            return add(symbols, type, 2, kind, lineNumber, scope);
+        }
+        Matcher alias = TS_TYPE_ALIAS.matcher(line);
+        if (alias.find()) {
+            add(symbols, alias, 1, Kind.TYPE, lineNumber, scope);
+            return null;
+        }
+        Matcher function = TS_FUNCTION.matcher(line);
+        if (function.find()) {
+            add(symbols, function, 1, Kind.FUNCTION, lineNumber, scope);
+            return null;
+        }
+        Matcher variable = TS_FUNCTION_VARIABLE.matcher(line);
+        if (variable.find()) {
+            add(symbols, variable, 1, Kind.FUNCTION, lineNumber, scope);
+            return null;
+        }
+        if (members == null || members.kind() == Kind.ENUM) return null;
+
+        Matcher method = TS_METHOD.matcher(line);
+        if (method.find()) {
+            add(symbols, method, 1, Kind.METHOD, lineNumber, members);
+            return null;
+        }
+        Matcher field = TS_FIELD.matcher(line);
+        if (field.find()) {
+            add(symbols, field, 1, Kind.FIELD, lineNumber, members);
+        }
+        return null;
+    }
+
+    private static CodeSymbol matchGo(String line, int lineNumber, Scope members, List<CodeSymbol> symbols) {
+        Matcher method = GO_METHOD.matcher(line);
+        if (method.find()) {
+            symbols.add(new CodeSymbol(method.group(2), Kind.METHOD, lineNumber, method.start(2) + 1, method.group(1)));
+            return null;
+        }
+        Matcher function = GO_FUNCTION.matcher(line);
+        if (function.find()) {
+            add(symbols, function, 1, Kind.FUNCTION, lineNumber, null);
+            return null;
+        }
+        Matcher type = GO_TYPE.matcher(line);
+        if (type.find() && (members == null || line.contains("type"))) {
+            Kind kind = type.group(2).equals("struct") ? Kind.STRUCT : Kind.INTERFACE;
+            return add(symbols, type, 1, kind, lineNumber, null);
+        }
+        Matcher alias = GO_TYPE_ALIAS.matcher(line);
+        if (alias.find()) {
+            add(symbols, alias, 1, Kind.TYPE, lineNumber, null);
+            return null;
+        }
+        if (members == null) return null;
+
+        if (members.kind() == Kind.INTERFACE) {
+            Matcher interfaceMethod = GO_INTERFACE_METHOD.matcher(line);
+            if (interfaceMethod.find()) {
+                add(symbols, interfaceMethod, 1, Kind.METHOD, lineNumber, members);
+            }
+        } else {
+            Matcher field = GO_FIELD.matcher(line);
+            if (field.find()) {
+                add(symbols, field, 1, Kind.FIELD, lineNumber, members);
+            }
+        }
+        return null;
+    }
+
+    private static List<CodeSymbol> extractPython(String[] lines) {
+        List<CodeSymbol> symbols = new ArrayList<>();
+        Deque<PythonScope> scopes = new ArrayDeque<>();
+        Set<String> selfAttributes = new HashSet<>();
+
+        for (int i = 0; i < lines.length; i++) {
+            String line = lines[i];
+            if (line.isBlank() || line.length() > MAX_LINE_LENGTH) continue;
+
+            int indent = indentation(line);
+            while (!scopes.isEmpty() && scopes.peek().indent >= indent) {
+                scopes.pop();
+            }
+            PythonScope scope = scopes.peek();
+            if (scope != null && scope.bodyIndent < 0) {
+                scope.bodyIndent = indent;
+            }
+            boolean classBody = scope != null && scope.kind == Kind.CLASS && indent == scope.bodyIndent;
+            String container = scope == null ? null : scope.name;
+
+            Matcher type = PY_CLASS.matcher(line);
+            Matcher def = PY_DEF.matcher(line);
+            if (type.find()) {
+                symbols.add(new CodeSymbol(type.group(2), Kind.CLASS, i + 1, type.start(2) + 1, container));
+                scopes.push(new PythonScope(type.group(2), Kind.CLASS, indent));
+            } else if (def.find()) {
+                Kind kind = classBody ? Kind.METHOD : Kind.FUNCTION;
+                symbols.add(new CodeSymbol(def.group(2), kind, i + 1, def.start(2) + 1, container));
+                scopes.push(new PythonScope(def.group(2), kind, indent));
+            } else if (classBody) {
+                Matcher attribute = PY_ATTRIBUTE.matcher(line);
+                if (!attribute.find()) {
+                    attribute = PY_ANNOTATED.matcher(line); // Dataclass style "name: type"
+                    if (!attribute.find()) continue;
+                }
+                if (!SourceLanguage.PYTHON.getKeywords().contains(attribute.group(2))) {
+                    symbols.add(new CodeSymbol(attribute.group(2), Kind.FIELD, i + 1, attribute.start(2) + 1, container));
+                }
+            } else {
+                Matcher attribute = PY_SELF_ATTRIBUTE.matcher(line);
+                PythonScope owner = enclosingClass(scopes);
+                if (owner != null && attribute.find() && selfAttributes.add(owner.name + "." + attribute.group(1))) {
+                    symbols.add(new CodeSymbol(attribute.group(1), Kind.FIELD, i + 1, attribute.start(1) + 1, owner.name));
+                }
+            }
+        }
+        return symbols;
+    }
+
+    private static PythonScope enclosingClass(Deque<PythonScope> scopes) {
+        for (PythonScope scope : scopes) {
+            if (scope.kind == Kind.CLASS) return scope;
+        }
+        return null;
+    }
+
+    private static CodeSymbol add(List<CodeSymbol> symbols, Matcher matcher, int group, Kind kind, int line, Scope container) {
+        String name = matcher.group(group);
+        if (NOT_NAMES.contains(name)) return null;
+
+        CodeSymbol symbol = new CodeSymbol(name, kind, line, matcher.start(group) + 1,
+                container == null ? null : container.name());
+        symbols.add(symbol);
+        return symbol;
+    }
+
+    private static int indentation(String line) {
+        int indent = 0;
+        while (indent < line.length() && Character.isWhitespace(line.charAt(indent))) {
+            indent++;
+        }
+        return indent;
+    }
+
+    /**
+     * Replaces comments and string literals with spaces, keeping line breaks so that
+     * line and column numbers still match the original text.
+     */
+    static String blankCommentsAndStrings(String content, SourceLanguage language) {
+        boolean python = language == SourceLanguage.PYTHON;
+        char[] chars = content.toCharArray();
+        int i = 0;
+        while (i < chars.length) {
+            char c = chars[i];
+            char next = i + 1 < chars.length ? chars[i + 1] : 0;
+            if (python ? c == '#' : c == '/' && next == '/') {
+                i = blankUntil(chars, i, "\n", false);
+            } else if (!python && c == '/' && next == '*') {
+                i = blankUntil(chars, i + 2, "*/", false);
+            } else if (python && (c == '"' || c == '\'') && next == c && i + 2 < chars.length && chars[i + 2] == c) {
+                i = blankUntil(chars, i + 3, String.valueOf(new char[]{c, c, c}), true);
+            } else if (c == '"' || c == '\'' || (c == '`' && language != SourceLanguage.JAVA)) {
+                // Only template and raw strings may span lines
+                i = blankString(chars, i, c, c == '`');
+            } else {
+                i++;
+            }
+        }
+        return new String(chars);
+    }
+
+    private static int blankUntil(char[] chars, int from, String end, boolean escapes) {
+        int start = Math.max(0, from - (end.equals("\n") ? 0 : end.length()));
+        int i = from;
+        while (i < chars.length && !regionMatches(chars, i, end)) {
+            if (escapes && chars[i] == '\\') i++;
+            i++;
+        }
+        int stop = end.equals("\n") ? Math.min(i, chars.length) : Math.min(i + end.length(), chars.length);
+        blank(chars, start, stop);
+        return stop;
+    }
+
+    private static int blankString(char[] chars, int from, char quote, boolean multiline) {
+        int i = from + 1;
+        while (i < chars.length && chars[i] != quote && (multiline || chars[i] != '\n')) {
+            if (chars[i] == '\\' && quote != '`') i++;
+            i++;
+        }
+        int stop = Math.min(i + 1, chars.length);
+        blank(chars, from, stop);
+        return stop;
+    }
+
+    private static boolean regionMatches(char[] chars, int offset, String text) {
+        if (offset + text.length() > chars.length) return false;
+        for (int i = 0; i < text.length(); i++) {
+            if (chars[offset + i] != text.charAt(i)) return false;
+        }
+        return true;
+    }
+
+    private static void blank(char[] chars, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (chars[i] != '\n') chars[i] = ' ';
+        }
+    }
+
+    private record Scope(String name, Kind kind, int bodyDepth) {
+    }
+
+    private static class PythonScope {
+        private final String name;
+        private final Kind kind;
+        private final int indent;
+        private int bodyIndent = -1;
+
+        PythonScope(String name, Kind kind, int indent) {
+            this.name = name;
+            this.kind = kind;
+            this.indent = indent;
+        }
+    }
+}
@@ -0,0 +1,343 @@
+package com.devos.core.indexing;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.LowerCaseFilter;
+import org.apache.lucene.analysis.Tokenizer;
+import org.apache.lucene.analysis.ngram.NGramTokenizer;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.ConstantScoreQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.TermQuery;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Turns a literal or regular expression into a boolean query over lower-cased content
+ * trigrams, in the spirit of Google Code Search: every file that can match the pattern
+ * contains all trigrams of the query, so only those candidates need to be verified with
+ * the real matcher. A null plan means the pattern has no usable trigrams and every file
+ * is a candidate.
+ */
+public final class TrigramQueryPlanner {
+
+    // Above these limits the exact string sets are collapsed into a plain AND/OR query
+    private static final int MAX_EXACT_SET = 16;
+    private static final int MAX_TRIGRAMS_PER_STRING = 32;
+
+    private TrigramQueryPlanner() {
+    }
+
+    public static Analyzer analyzer() {
+        return new Analyzer() {
+            @Override
+            protected TokenStreamComponents createComponents(String fieldName) {
+                Tokenizer source = new NGramTokenizer(3, 3);
+                return new TokenStreamComponents(source, new LowerCaseFilter(source));
+            }
+        };
+    }
+
+    public static Query plan(String pattern, boolean regex) {
+        Query query;
+        if (regex) {
+            query = new Parser(pattern).parse().toQuery();
+        } else {
+            query = andOfTrigrams(pattern);
+        }
+        return query == null ? null : new ConstantScoreQuery(query);
+    }
+
+    private static Query andOfTrigrams(String text) {
+        // Folded one code point at a time like LowerCaseFilter; String.toLowerCase can change the
+        // length (e.g. a dotted capital I) and shift every trigram after it
+        int[] codePoints = text.codePoints().map(Character::toLowerCase).toArray();
+        if (codePoints.length < 3) return null;
+
+        Set<String> trigrams = new LinkedHashSet<>();
+        for (int i = 0; i + 3 <= codePoints.length && trigrams.size() < MAX_TRIGRAMS_PER_STRING; i++) {
+            trigrams.add(new String(codePoints, i, 3));
+        }
+        return combine(trigrams.stream().map(t -> (Query) new TermQuery(new Term(IndexFields.TRIGRAM, t))).toList(),
+                BooleanClause.Occur.MUST);
+    }
+
+    // Null operands mean "matches anything": they drop out of an AND and poison an OR
+    private static Query combine(List<Query> queries, BooleanClause.Occur occur) {
+        List<Query> present = new ArrayList<>();
+        for (Query query : queries) {
+            if (query == null) {
+                if (occur == BooleanClause.Occur.SHOULD) return null;
+            } else {
+                present.add(query);
+            }
+        }
+        if (present.isEmpty()) return null;
+        if (present.size() == 1) return present.get(0);
+
+        BooleanQuery.Builder builder = new BooleanQuery.Builder();
+        for (Query query : present) {
+            builder.add(query, occur);
+        }
+        return builder.build();
+    }
+
+    /**
+     * What is known about the strings a regex fragment can match: either the full set of
+     * strings (when small), or only a trigram query every match must satisfy.
+     */
+    private record Info(Set<String> exact, Query match) {
+
+        static final Info ANY = new Info(null, null);
+
+        static Info exactly(Set<String> strings) {
+            return strings.size() > MAX_EXACT_SET ? new Info(null, orOfStrings(strings)) : new Info(strings, null);
+        }
+
+        Query toQuery() {
+            return exact != null ? orOfStrings(exact) : match;
+        }
+
+        // Null when the cross product would grow beyond the exact set limit
+        Info concatExact(Info next) {
+            if (exact == null || next.exact == null || exact.size() * next.exact.size() > MAX_EXACT_SET) return null;
+
+            Set<String> product = new LinkedHashSet<>();
+            for (String left : exact) {
+                for (String right : next.exact) {
+                    product.add(left + right);
+                }
+            }
+            return new Info(product, null);
+        }
+
+        Info or(Info other) {
+            if (exact != null && other.exact != null && exact.size() + other.exact.size() <= MAX_EXACT_SET) {
+                Set<String> union = new LinkedHashSet<>(exact);
+                union.addAll(other.exact);
+                return new Info(union, null);
+            }
+            Query left = toQuery();
+            Query right = other.toQuery();
+            return left == null || right == null ? ANY : new Info(null, combine(Arrays.asList(left, right), BooleanClause.Occur.SHOULD));
+        }
+
+        Info optional() {
+            if (exact == null) return ANY;
+            Set<String> strings = new LinkedHashSet<>(exact);
+            strings.add("");
+            return exactly(strings);
+        }
+
+        private static Query orOfStrings(Set<String> strings) {
+            List<Query> alternatives = new ArrayList<>();
+            for (String string : strings) {
+                Query query = andOfTrigrams(string);
+                if (query == null) return null; // A short alternative can match almost anywhere
+                alternatives.add(query);
+            }
+            return combine(alternatives, BooleanClause.Occur.SHOULD);
+        }
+    }
+
+    /**
+     * Recursive-descent parser for the subset of java.util.regex syntax that matters for
+     * planning. Anything it does not understand is treated as "matches anything", which
+     * only widens the candidate set and never loses results.
+     */
+    private static final class Parser {
+        private final String pattern;
+        private int pos;
+
+        Parser(String pattern) {
+            this.pattern = pattern;
+        }
+
+        Info parse() {
+            Info info = alternation();
+            return pos < pattern.length() ? Info.ANY : info;
+        }
+
+        private Info alternation() {
+            Info info = concatenation();
+            while (pos < pattern.length() && pattern.charAt(pos) == '|') {
+                pos++;
+                info = info.or(concatenation());
+            }
+            return info;
+        }
+
+        // Adjacent exact fragments are joined so that trigrams spanning them are used too;
+        // everything else contributes its own requirement to the conjunction
+        private Info concatenation() {
+            List<Query> required = new ArrayList<>();
+            Info run = Info.exactly(Set.of(""));
+            while (pos < pattern.length() && pattern.charAt(pos) != '|' && pattern.charAt(pos) != ')') {
+                Info next = quantified(atom());
+                Info joined = run.concatExact(next);
+                if (joined != null) {
+                    run = joined;
+                } else if (next.exact() != null) {
+                    required.add(run.toQuery());
+                    run = next;
+                } else {
+                    required.add(run.toQuery());
+                    required.add(next.match());
+                    run = Info.exactly(Set.of(""));
+                }
+            }
+            if (required.isEmpty()) return run;
+
+            required.add(run.toQuery());
+            return new Info(null, combine(required, BooleanClause.Occur.MUST));
+        }
+
+        private Info quantified(Info atom) {
+            if (pos >= pattern.length()) return atom;
+
+            char c = pattern.charAt(pos);
+            Info result;
+            if (c == '*') {
+                pos++;
+                result = Info.ANY;
+            } else if (c == '?') {
+                pos++;
+                result = atom.optional();
+            } else if (c == '+') {
+                pos++;
+                result = new Info(null, atom.toQuery());
+            } else if (c == '{' && pattern.indexOf('}', pos) > pos) {
+                int end = pattern.indexOf('}', pos);
+                String bounds = pattern.substring(pos + 1, end);
+                pos = end + 1;
+                result = bounds.startsWith("0") || bounds.startsWith(",") ? Info.ANY : new Info(null, atom.toQuery());
+            } else {
+                return atom;
+            }
+            // Lazy and possessive suffixes do not change what can match
+            if (pos < pattern.length() && (pattern.charAt(pos) == '?' || pattern.charAt(pos) == '+')) {
+                pos++;
+            }
+            return result;
+        }
+
+        private Info atom() {
+            char c = pattern.charAt(pos++);
+            switch (c) {
+                case '(':
+                    return group();
+                case '[':
+                    return characterClass();
+                case '.':
+                    return Info.ANY;
+                case '^':
+                case '$':
+                    return Info.exactly(Set.of(""));
+                case '\\':
+                    return escape();
+                default:
+                    return Info.exactly(Set.of(String.valueOf(c)));
+            }
+        }
+
+        private Info group() {
+            if (pattern.startsWith("?", pos)) {
+                int colon = pattern.indexOf(':', pos);
+                if (pattern.startsWith("?<", pos) && !pattern.startsWith("?<=", pos) && !pattern.startsWith("?<!", pos)) {
+                    pos = pattern.indexOf('>', pos) + 1; // Named group
+                } else if (colon > pos && pattern.substring(pos + 1, colon).matches("[a-zA-Z-]*")) {
+                    pos = colon + 1; // Non-capturing, possibly with flags such as (?i:...)
+                } else {
+                    // Inline flags and lookaround assertions consume no input
+                    skipGroup();
+                    return Info.exactly(Set.of(""));
+                }
+            }
+            Info inner = alternation();
+            if (pos < pattern.length() && pattern.charAt(pos) == ')') {
+                pos++;
+            }
+            return inner;
+        }
+
+        private void skipGroup() {
+            int depth = 1;
+            while (pos < pattern.length() && depth > 0) {
+                char c = pattern.charAt(pos++);
+                if (c == '\\') pos++;
+                else if (c == '(') depth++;
+                else if (c == ')') depth--;
+            }
+        }
+
+        private Info characterClass() {
+            boolean negated = pos < pattern.length() && pattern.charAt(pos) == '^';
+            if (negated) pos++;
+            Set<String> chars = new LinkedHashSet<>();
+            boolean known = !negated;
+            boolean first = true;
+            while (pos < pattern.length() && (pattern.charAt(pos) != ']' || first)) {
+                first = false;
+                char c = pattern.charAt(pos++);
+                if (c == '\\' && pos < pattern.length()) {
+                    char escaped = pattern.charAt(pos++);
+                    if (Character.isLetterOrDigit(escaped)) known = false; // \d, \w, \p{..}
+                    else chars.add(String.valueOf(escaped));
+                } else if (c == '[') {
+                    known = false; // Nested classes and intersections
+                } else if (pos + 1 < pattern.length() && pattern.charAt(pos) == '-' && pattern.charAt(pos + 1) != ']') {
+                    char end = pattern.charAt(pos + 1);
+                    pos += 2;
+                    if (end - c >= 4) known = false;
+                    for (char r = c; r <= end && known; r++) {
+                        chars.add(String.valueOf(r));
+                    }
+                } else {
+                    chars.add(String.valueOf(c));
+                }
+            }
+            pos++; // Closing bracket
+            return known && chars.size() <= 4 && !chars.isEmpty() ? Info.exactly(chars) : Info.ANY;
+        }
+
+        private Info escape() {
+            if (pos >= pattern.length()) return Info.ANY;
+
+            char c = pattern.charAt(pos++);
+            switch (c) {
+                case 'b':
+                case 'B':
+                case 'A':
+                case 'z':
+                case 'Z':
+                case 'G':
+                    return Info.exactly(Set.of(""));
+                case 'n':
+                    return Info.exactly(Set.of("\n"));
+                case 't':
+                    return Info.exactly(Set.of("\t"));
+                case 'Q': {
+                    int end = pattern.indexOf("\\E", pos);
+                    String literal = pattern.substring(pos, end < 0 ? pattern.length() : end);
+                    pos = end < 0 ? pattern.length() : end + 2;
+                    return Info.exactly(Set.of(literal));
+                }
+                case 'p':
+                case 'P':
+                    if (pos < pattern.length() && pattern.charAt(pos) == '{') {
+                        pos = pattern.indexOf('}', pos) + 1;
+                    } else {
+                        pos++;
+                    }
+                    return Info.ANY;
+                default:
+                    return Character.isLetterOrDigit(c) ? Info.ANY : Info.exactly(Set.of(String.valueOf(c)));
+            }
+        }
+    }
+}
@@ -35,6 +35,9 @@ public interface ProjectRepository extends JpaRepository<Project, Long> {
     @Query("SELECT p FROM Project p WHERE p.isIndexed = false AND p.status = 'ACTIVE'")
     List<Project> findUnindexedProjects();
 
+    @Query("SELECT p FROM Project p WHERE p.localPath = :localPath AND p.isIndexed = true AND p.status != 'DELETED'")
+    List<Project> findIndexedByLocalPath(@Param("localPath") String localPath);
+
     @Query("SELECT COUNT(p) FROM Project p WHERE p.user.id = :userId AND p.status = 'ACTIVE'")
     long countActiveProjectsByUser(@Param("userId") Long userId);
 
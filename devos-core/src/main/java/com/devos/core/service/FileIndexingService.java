@@ -1,5 +1,10 @@
 package com.devos.core.service;
 
+import com.devos.core.indexing.IndexingJob;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 
 public interface FileIndexingService {
@@ -7,10 +12,44 @@ public interface FileIndexingService {
     void indexProject(Long projectId);
     
     void indexProjectFiles(Long projectId);
+
+    /**
+     * Runs the job on the calling thread, reporting progress through the job's stats.
+     *
+     * @throws java.util.concurrent.CancellationException if the job was cancelled before it completed
+     */
+    void runIndexingJob(IndexingJob job) throws IOException;
     
     Map<String, Object> searchInProject(Long projectId, String query);
+
+    Map<String, Object> searchInProject(Long projectId, String query, String cursor, int pageSize);
+
+    Map<String, Object> searchInProject(Long projectId, String query, String cursor, int pageSize,
+                                        Map<String, List<String>> facetFilters);
+
+    Map<String, Object> semanticSearch(Long projectId, String query, int topK);
+
+    Map<String, Object> hybridSearch(Long projectId, String query, int topK, double lexicalWeight,
+                                     double semanticWeight, long budgetMs);
+
+    Map<String, Object> searchAcrossProjects(Collection<Long> projectIds, String query, int topK);
+
+    Map<String, Object> grep(Long projectId, String pattern, boolean regex, boolean caseSensitive,
+                             String filePattern, int maxResults);
+
+    /**
+     * Typeahead completions from symbol names, file names and common identifiers. Answered from
+     * memory; "ready" is false while a project's suggestions are first being built.
+     */
+    Map<String, Object> suggest(Long projectId, String query, int limit, List<String> types);
+
+    Map<String, Object> findDefinition(Long projectId, String symbol);
+
+    Map<String, Object> findReferences(Long projectId, String symbol);
     
     void updateIndex(Long projectId, String filePath, String content);
     
     void removeFromIndex(Long projectId, String filePath);
+
+    void reindexPaths(Long projectId, Collection<String> relativePaths);
 }
@@ -2,6 +2,7 @@ package com.devos.core.service;
 
 import org.springframework.web.multipart.MultipartFile;
 
+import java.nio.file.Path;
 import java.util.Map;
 
 public interface FileService {
@@ -9,6 +10,9 @@ public interface FileService {
     Map<String, Object> getProjectFiles(Long projectId);
     
     String getFileContent(Long projectId, String filePath);
+
+    // Location on disk of an existing regular file, for streaming it without loading it
+    Path resolveFilePath(Long projectId, String filePath);
     
     void setFileContent(Long projectId, String filePath, String content);
     
@@ -25,4 +29,6 @@ public interface FileService {
     void moveFile(Long projectId, String sourcePath, String targetPath);
     
     Object searchInFiles(Long projectId, String query, String filePattern, Boolean caseSensitive);
+
+    Map<String, Object> findFiles(Long projectId, String query, int limit);
 }
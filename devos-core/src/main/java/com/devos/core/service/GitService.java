@@ -25,6 +25,14 @@ public interface GitService {
 
     List<String> getChangedFiles(String projectPath);
 
+    /**
+     * Paths that differ between two commits, relative to the repository root. Both sides of a
+     * rename are listed.
+     *
+     * @throws RuntimeException if either commit cannot be resolved, e.g. after a history rewrite
+     */
+    List<String> getChangedPaths(String projectPath, String fromCommit, String toCommit);
+
     String stashChanges(String projectPath, String message);
 
     List<String> getStashList(String projectPath);
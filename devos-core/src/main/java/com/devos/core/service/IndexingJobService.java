@@ -0,0 +1,27 @@
+package com.devos.core.service;
+
+import com.devos.core.indexing.IndexingJob;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface IndexingJobService {
+
+    /**
+     * Queues an indexing run. A project has at most one queued job; submitting again returns
+     * that job (raised to the higher priority), unless the new type covers more work, in which
+     * case the new job replaces it.
+     */
+    IndexingJob submit(Long projectId, IndexingJob.Type type, IndexingJob.Priority priority);
+
+    Optional<IndexingJob> getJob(String jobId);
+
+    List<IndexingJob> getProjectJobs(Long projectId);
+
+    /**
+     * Cancels a queued job right away, or asks a running one to stop after its current files.
+     *
+     * @return false if the job is unknown or already finished
+     */
+    boolean cancel(String jobId);
+}
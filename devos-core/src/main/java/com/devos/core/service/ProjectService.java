@@ -1,15 +1,25 @@
 package com.devos.core.service;
 
 import com.devos.core.domain.entity.Project;
+import com.devos.core.filesystem.FileTree;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 public interface ProjectService {
     
     Object getFileTree(Long id, boolean includeContent);
+
+    // Generation changes whenever the tree does and doubles as an ETag
+    FileTree.View getFileTreeView(Long id);
+
+    Map<String, Object> getFileTreeChanges(Long id, long since);
+
+    // One directory level, paged by cursor; limit is capped by configuration
+    Map<String, Object> getFileTreeLevel(Long id, String path, String cursor, int limit);
     
     Project createProject(Project project);
     
@@ -18,6 +28,8 @@ public interface ProjectService {
     Optional<Project> getProjectById(Long id);
     
     Page<Project> getUserProjects(Pageable pageable);
+
+    List<Project> getUserIndexedProjects();
     
     Project updateProject(Long id, Project project);
     
@@ -2,6 +2,7 @@ package com.devos.core.service.impl;
 
 import com.devos.core.domain.entity.Project;
 import com.devos.core.domain.entity.User;
+import com.devos.core.filesystem.FileContentCache;
 import com.devos.core.repository.ProjectRepository;
 import com.devos.core.service.AuthService;
 import com.devos.core.service.DiffService;
@@ -26,6 +27,7 @@ public class DiffServiceImpl implements DiffService {
 
     private final AuthService authService;
     private final ProjectRepository projectRepository;
+    private final FileContentCache fileContentCache;
 
     @Override
     public Map<String, Object> generateDiff(Long projectId, String filePath, String content) {
@@ -118,7 +120,7 @@ public class DiffServiceImpl implements DiffService {
         Path fullFilePath = projectPath.resolve(filePath);
 
         if (Files.exists(fullFilePath)) {
-            return Files.readString(fullFilePath);
+            return fileContentCache.read(project.getId(), fullFilePath);
         }
         
         return ""; // Return empty string if file doesn't exist
@@ -1,126 +1,812 @@
 package com.devos.core.service.impl;
 
 import com.devos.core.domain.entity.Project;
+import com.devos.core.event.ProjectFilesChangedEvent;
+import com.devos.core.filesystem.ProjectFileWalker;
+import com.devos.core.filesystem.ProjectFileWatcher;
+import com.devos.core.indexing.CodeSymbol;
+import com.devos.core.indexing.IndexFields;
+import com.devos.core.indexing.IndexKind;
+import com.devos.core.indexing.IndexingJob;
+import com.devos.core.indexing.IndexingPipeline;
+import com.devos.core.indexing.ProjectIndexRegistry;
+import com.devos.core.indexing.QuerySuggester;
+import com.devos.core.indexing.RankFusion;
+import com.devos.core.indexing.SearchFacets;
+import com.devos.core.indexing.SearchResultCache;
+import com.devos.core.indexing.SemanticIndexer;
+import com.devos.core.indexing.SnippetBuilder;
+import com.devos.core.indexing.SourceLanguage;
+import com.devos.core.indexing.SymbolExtractor;
+import com.devos.core.indexing.TrigramQueryPlanner;
 import com.devos.core.repository.ProjectRepository;
 import com.devos.core.service.FileIndexingService;
+import com.devos.core.service.GitService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.io.FileUtils;
-import org.apache.lucene.analysis.Analyzer;
-import org.apache.lucene.analysis.standard.StandardAnalyzer;
 import org.apache.lucene.document.Document;
 import org.apache.lucene.document.Field;
+import org.apache.lucene.document.FieldType;
+import org.apache.lucene.document.NumericDocValuesField;
+import org.apache.lucene.document.SortedDocValuesField;
+import org.apache.lucene.document.StoredField;
 import org.apache.lucene.document.StringField;
 import org.apache.lucene.document.TextField;
 import org.apache.lucene.index.*;
+import org.apache.lucene.queryparser.classic.MultiFieldQueryParser;
+import org.apache.lucene.queryparser.classic.ParseException;
 import org.apache.lucene.queryparser.classic.QueryParser;
 import org.apache.lucene.search.*;
-import org.apache.lucene.store.Directory;
-import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.util.Bits;
+import org.apache.lucene.util.BytesRef;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.io.File;
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
 import java.nio.file.Paths;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class FileIndexingServiceImpl implements FileIndexingService {
 
-    private final ProjectRepository projectRepository;
+    private static final String[] SEARCH_FIELDS = {IndexFields.CONTENT, IndexFields.CONTENT_EXACT, IndexFields.PATH_TEXT};
+    private static final Map<String, Float> SEARCH_BOOSTS = Map.of(
+            IndexFields.CONTENT, 1.0f, IndexFields.CONTENT_EXACT, 2.0f, IndexFields.PATH_TEXT, 1.5f);
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 200;
+    private static final int MAX_SNIPPETS_PER_FILE = 5;
+    private static final int MAX_SYMBOL_FILES = 200;
+    private static final int MAX_REFERENCES = 1000;
+    private static final int MAX_GREP_RESULTS = 5000;
+    private static final int MAX_SEMANTIC_RESULTS = 100;
+    private static final int MAX_SUGGESTIONS = 50;
+    private static final int MAX_HYBRID_BUDGET_MS = 10_000;
+    // Every language the symbol extractor understands, plus the common text formats
+    private static final Set<String> INDEXED_EXTENSIONS = indexedExtensions();
+    private static final String LEXICAL = "lexical";
+    private static final String SEMANTIC = "semantic";
+
+    // Offsets let search build snippets from the Matches API without re-analyzing the file
+    private static final FieldType CONTENT_TYPE = new FieldType(TextField.TYPE_NOT_STORED);
+    // Trigrams only need to answer "which files contain this", so no frequencies, positions or norms
+    private static final FieldType TRIGRAM_TYPE = new FieldType();
 
-    @Value("${devos.indexing.path:.devos/index}")
-    private String indexPath;
+    static {
+        CONTENT_TYPE.setIndexOptions(IndexOptions.DOCS_AND_FREQS_AND_POSITIONS_AND_OFFSETS);
+        CONTENT_TYPE.freeze();
+        TRIGRAM_TYPE.setIndexOptions(IndexOptions.DOCS);
+        TRIGRAM_TYPE.setTokenized(true);
+        TRIGRAM_TYPE.setOmitNorms(true);
+        TRIGRAM_TYPE.freeze();
+    }
+
+    private final ProjectRepository projectRepository;
+    private final ProjectIndexRegistry indexRegistry;
+    private final ProjectFileWatcher projectFileWatcher;
+    private final SearchResultCache searchCache;
+    private final ProjectFileWalker fileWalker;
+    private final SemanticIndexer semanticIndexer;
+    private final QuerySuggester querySuggester;
+    private final GitService gitService;
 
     @Value("${devos.indexing.enabled:true}")
     private boolean indexingEnabled;
 
+    @Value("${devos.indexing.max-file-size:1048576}")
+    private long maxFileSize;
+
+    // 0 means one thread per available core
+    @Value("${devos.indexing.pipeline.reader-threads:0}")
+    private int readerThreads;
+
+    @Value("${devos.indexing.pipeline.indexer-threads:0}")
+    private int indexerThreads;
+
+    @Value("${devos.indexing.pipeline.queue-capacity:1024}")
+    private int queueCapacity;
+
+    // Shared by the hybrid retrievers and the cross-project fan-out
+    @Value("${devos.indexing.search-threads:8}")
+    private int searchThreads;
+
+    @Value("${devos.indexing.hybrid.budget-ms:800}")
+    private long defaultHybridBudgetMs;
+
+    @Value("${devos.indexing.cross-project.max-projects:50}")
+    private int maxCrossProjects;
+
+    @Value("${devos.indexing.cross-project.budget-ms:2000}")
+    private long crossProjectBudgetMs;
+
+    private ExecutorService searchExecutor;
+
+    @PostConstruct
+    public void startSearchExecutor() {
+        AtomicInteger counter = new AtomicInteger();
+        searchExecutor = Executors.newFixedThreadPool(Math.max(2, searchThreads), runnable -> {
+            Thread thread = new Thread(runnable, "devos-search-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    public void stopSearchExecutor() {
+        if (searchExecutor != null) {
+            searchExecutor.shutdownNow();
+        }
+    }
+
     @Override
-    @Transactional
     public void indexProject(Long projectId) {
+        runQuietly(new IndexingJob(projectId, IndexingJob.Type.FULL, IndexingJob.Priority.NORMAL));
+    }
+
+    @Override
+    public void indexProjectFiles(Long projectId) {
+        runQuietly(new IndexingJob(projectId, IndexingJob.Type.INCREMENTAL, IndexingJob.Priority.NORMAL));
+    }
+
+    private void runQuietly(IndexingJob job) {
+        job.markRunning();
+        try {
+            runIndexingJob(job);
+        } catch (IOException e) {
+            log.error("Error indexing project: {}", job.getProjectId(), e);
+        }
+    }
+
+    // Not transactional: a run can take minutes and only the final save touches the database
+    @Override
+    public void runIndexingJob(IndexingJob job) throws IOException {
         if (!indexingEnabled) return;
-        
+
+        Long projectId = job.getProjectId();
+        boolean full = job.getType() == IndexingJob.Type.FULL;
         Project project = projectRepository.findById(projectId)
                 .orElseThrow(() -> new RuntimeException("Project not found: " + projectId));
-        
-        log.info("Starting full indexing for project: {} ({})", project.getName(), projectId);
-        
-        try (Directory directory = FSDirectory.open(Paths.get(indexPath, projectId.toString()));
-             Analyzer analyzer = new StandardAnalyzer()) {
-            
-            IndexWriterConfig config = new IndexWriterConfig(analyzer);
-            config.setOpenMode(IndexWriterConfig.OpenMode.CREATE); // Re-create index
-            
-            try (IndexWriter writer = new IndexWriter(directory, config)) {
-                File projectDir = new File(project.getLocalPath());
-                if (!projectDir.exists()) {
-                    log.error("Project path does not exist: {}", project.getLocalPath());
-                    return;
-                }
 
-                Collection<File> files = FileUtils.listFiles(projectDir, null, true);
-                for (File file : files) {
-                    if (isIndexable(file)) {
-                        indexFile(writer, project.getLocalPath(), file);
+        File projectDir = new File(project.getLocalPath());
+        if (!projectDir.exists()) {
+            throw new IOException("Project path does not exist: " + project.getLocalPath());
+        }
+
+        // Read before walking, so a later sync re-checks anything that changed during the walk
+        String head = currentHead(projectDir);
+        if (job.getType() == IndexingJob.Type.GIT_SYNC) {
+            if (syncToHead(job, project, head)) return;
+            // No usable baseline commit: fall through to an incremental walk
+        }
+
+        log.info("Starting {} indexing for project: {} ({})", full ? "full" : "incremental", project.getName(), projectId);
+
+        // A full run rewrites every file in place instead of clearing the index first, so a
+        // cancelled run leaves the previous documents for the files it did not reach
+        Map<String, IndexedFile> indexed = indexRegistry.withSearcher(projectId, this::loadIndexedFiles);
+        Set<String> seen = ConcurrentHashMap.newKeySet();
+        AtomicInteger touched = new AtomicInteger();
+        int[] deleted = new int[1];
+
+        IndexingPipeline.Stats stats;
+        try {
+            stats = indexRegistry.withWriter(projectId, writer -> {
+                IndexingPipeline.Stats result = newPipeline().run(projectDir.toPath(), walkOptions(), this::isIndexable, writer,
+                        new IndexingPipeline.Handler() {
+                            @Override
+                            public boolean needsRead(String relativePath, long mtime, long size) {
+                                seen.add(relativePath);
+                                IndexedFile previous = indexed.get(relativePath);
+                                return full || previous == null || previous.mtime() != mtime || previous.size() != size;
+                            }
+
+                            @Override
+                            public void index(IndexWriter indexWriter, IndexingPipeline.SourceFile file) throws IOException {
+                                Term term = new Term(IndexFields.PATH, file.relativePath());
+                                IndexedFile previous = indexed.get(file.relativePath());
+                                if (!full && previous != null && file.hash().equals(previous.hash())) {
+                                    // Touched but not modified: only record the new mtime
+                                    indexWriter.updateNumericDocValue(term, IndexFields.MTIME, file.mtime());
+                                    touched.incrementAndGet();
+                                } else {
+                                    indexWriter.updateDocument(term, buildDocument(file));
+                                }
+                            }
+
+                            @Override
+                            public boolean isCancelled() {
+                                return job.isCancelRequested();
+                            }
+                        }, job.getStats());
+
+                for (String path : indexed.keySet()) {
+                    if (!seen.contains(path)) {
+                        writer.deleteDocuments(new Term(IndexFields.PATH, path));
+                        deleted[0]++;
                     }
                 }
-            }
-            
-            project.setIsIndexed(true);
-            project.setLastIndexedAt(LocalDateTime.now());
-            projectRepository.save(project);
-            
-            log.info("Completed indexing for project: {}", projectId);
-        } catch (IOException e) {
-            log.error("Error indexing project: {}", projectId, e);
+                return result;
+            });
+        } catch (CancellationException e) {
+            // Files written before the cancel are complete documents, so keep them
+            indexRegistry.commitNow(projectId);
+            semanticIndexer.requestSync(projectId);
+            log.info("Cancelled indexing for project: {} {}", projectId, job.getStats().toMap());
+            throw e;
         }
+        indexRegistry.commitNow(projectId);
+        semanticIndexer.requestSync(projectId);
+
+        project.setIsIndexed(true);
+        project.setLastIndexedAt(LocalDateTime.now());
+        project.setGitCommitHash(head);
+        projectRepository.save(project);
+
+        projectFileWatcher.watch(projectId, projectDir.toPath());
+
+        log.info("Completed {} indexing for project: {} ({} changed, {} touched, {} deleted) {}", full ? "full" : "incremental",
+                projectId, stats.getIndexed() - touched.get(), touched.get(), deleted[0], stats.toMap());
     }
 
-    @Override
-    @Transactional
-    public void indexProjectFiles(Long projectId) {
-        // For simplicity, we just do a full index for now as per indexProject
-        indexProject(projectId);
+    /**
+     * Re-indexes only the paths that differ between the last indexed commit and HEAD. Returns
+     * false when there is no usable baseline: not a git repository, never indexed, or a
+     * recorded commit that no longer exists (e.g. after a force push and gc).
+     */
+    private boolean syncToHead(IndexingJob job, Project project, String head) throws IOException {
+        String recorded = project.getGitCommitHash();
+        if (head == null || recorded == null || !Boolean.TRUE.equals(project.getIsIndexed())) return false;
+        if (job.isCancelRequested()) throw new CancellationException("Indexing cancelled");
+        if (head.equals(recorded)) return true;
+
+        List<String> changed;
+        try {
+            changed = gitService.getChangedPaths(project.getLocalPath(), recorded, head);
+        } catch (RuntimeException e) {
+            log.warn("Cannot diff {}..{} for project {}, re-scanning instead: {}", recorded, head, project.getId(), e.getMessage());
+            return false;
+        }
+
+        reindex(project.getId(), Paths.get(project.getLocalPath()).toAbsolutePath().normalize(), changed);
+        indexRegistry.commitNow(project.getId());
+
+        project.setGitCommitHash(head);
+        project.setLastIndexedAt(LocalDateTime.now());
+        projectRepository.save(project);
+        log.info("Synced index of project {} from {} to {}: {} changed paths", project.getId(), recorded, head, changed.size());
+        return true;
+    }
+
+    // HEAD commit of the project's repository, or null if it is not one. Checked first because
+    // opening a directory through GitService initialises a repository there.
+    private String currentHead(File projectDir) {
+        if (!new File(projectDir, ".git").exists()) return null;
+        return gitService.getCurrentCommitHash(projectDir.getPath());
     }
 
     @Override
     public Map<String, Object> searchInProject(Long projectId, String queryStr) {
+        return searchInProject(projectId, queryStr, null, DEFAULT_PAGE_SIZE);
+    }
+
+    @Override
+    public Map<String, Object> searchInProject(Long projectId, String queryStr, String cursor, int pageSize) {
+        return searchInProject(projectId, queryStr, cursor, pageSize, Map.of());
+    }
+
+    @Override
+    public Map<String, Object> searchInProject(Long projectId, String queryStr, String cursor, int pageSize,
+                                               Map<String, List<String>> facetFilters) {
         log.info("Searching in project: {} with query: {}", projectId, queryStr);
-        
-        List<Map<String, Object>> results = new ArrayList<>();
-        
-        try (Directory directory = FSDirectory.open(Paths.get(indexPath, projectId.toString()));
-             IndexReader reader = DirectoryReader.open(directory)) {
-            
-            IndexSearcher searcher = new IndexSearcher(reader);
-            Analyzer analyzer = new StandardAnalyzer();
-            QueryParser parser = new QueryParser("content", analyzer);
+
+        String normalized = SearchResultCache.normalizeQuery(queryStr);
+        int size = Math.min(Math.max(1, pageSize), MAX_PAGE_SIZE);
+        Map<String, List<String>> filters = new TreeMap<>(facetFilters);
+        return searchCache.get(projectId, "search", normalized, Arrays.asList(cursor, size, filters),
+                () -> search(projectId, normalized, cursor, size, filters));
+    }
+
+    private Map<String, Object> search(Long projectId, String queryStr, String cursor, int size,
+                                       Map<String, List<String>> filters) {
+        try {
+            // Sub-word matches are the baseline; exact identifier and file name matches rank higher
+            QueryParser parser = new MultiFieldQueryParser(SEARCH_FIELDS, indexRegistry.getAnalyzer(), SEARCH_BOOSTS);
             Query query = parser.parse(queryStr);
-            
-            TopDocs topDocs = searcher.search(query, 50);
-            for (ScoreDoc scoreDoc : topDocs.scoreDocs) {
-                Document doc = searcher.doc(scoreDoc.doc);
-                Map<String, Object> result = new HashMap<>();
-                result.put("path", doc.get("path"));
+            ScoreDoc after = decodeCursor(cursor);
+
+            return indexRegistry.withSearcher(projectId, searcher -> {
+                // Facets are counted over all matches in the same pass that collects the page
+                TopScoreDocCollector topCollector = TopScoreDocCollector.create(size, after, Integer.MAX_VALUE);
+                SearchFacets.Counter facetCounter = new SearchFacets.Counter();
+                searcher.search(SearchFacets.applyFilters(query, filters), MultiCollector.wrap(topCollector, facetCounter));
+                TopDocs hits = topCollector.topDocs();
+                Weight weight = searcher.createWeight(searcher.rewrite(query), ScoreMode.COMPLETE_NO_SCORES, 1.0f);
+                List<Map<String, Object>> results = new ArrayList<>();
+                for (ScoreDoc scoreDoc : hits.scoreDocs) {
+                    results.add(hitResult(searcher, weight, scoreDoc.doc, scoreDoc.score));
+                }
+
+                boolean fullPage = hits.scoreDocs.length == size;
+                Map<String, Object> response = new LinkedHashMap<>();
+                response.put("projectId", projectId);
+                response.put("query", queryStr);
+                response.put("results", results);
+                response.put("totalHits", hits.totalHits.value);
+                response.put("facets", facetCounter.getCounts());
+                response.put("filters", filters);
+                response.put("nextCursor", fullPage ? encodeCursor(hits.scoreDocs[size - 1]) : null);
+                return response;
+            });
+        } catch (Exception e) {
+            log.error("Error searching in project: {}", projectId, e);
+            return Map.of("error", e.getMessage(), "results", List.of());
+        }
+    }
+
+    // Path, score and highlighted snippets of one search hit
+    private Map<String, Object> hitResult(IndexSearcher searcher, Weight weight, int docId, float score) throws IOException {
+        Document doc = searcher.storedFields().document(docId, Set.of(IndexFields.PATH, IndexFields.SOURCE));
+        List<LeafReaderContext> leaves = searcher.getIndexReader().leaves();
+        LeafReaderContext leaf = leaves.get(ReaderUtil.subIndex(docId, leaves));
+        List<int[]> ranges = matchOffsets(weight.matches(leaf, docId - leaf.docBase));
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("path", doc.get(IndexFields.PATH));
+        result.put("score", score);
+        result.put("hitCount", ranges.size());
+        result.put("snippets", SnippetBuilder.build(doc.get(IndexFields.SOURCE), ranges, MAX_SNIPPETS_PER_FILE));
+        return result;
+    }
+
+    @Override
+    public Map<String, Object> semanticSearch(Long projectId, String query, int topK) {
+        if (!semanticIndexer.isEnabled()) {
+            return Map.of("error", "Semantic search is disabled", "results", List.of());
+        }
+
+        int k = Math.min(Math.max(1, topK), MAX_SEMANTIC_RESULTS);
+        try {
+            List<Map<String, Object>> results = semanticIndexer.search(projectId, query, k);
+            boolean indexing = results.isEmpty() && !semanticIndexer.hasChunks(projectId);
+            if (indexing) {
+                // Nothing embedded yet, e.g. right after an upgrade; build the chunk index in the background
+                semanticIndexer.requestSync(projectId);
+            }
+
+            Map<String, Object> response = new LinkedHashMap<>();
+            response.put("projectId", projectId);
+            response.put("query", query);
+            response.put("results", results);
+            response.put("indexing", indexing);
+            return response;
+        } catch (Exception e) {
+            log.error("Error in semantic search for project: {}", projectId, e);
+            return Map.of("error", e.getMessage(), "results", List.of());
+        }
+    }
+
+    @Override
+    public Map<String, Object> suggest(Long projectId, String query, int limit, List<String> types) {
+        try {
+            return querySuggester.suggest(projectId, query, Math.min(Math.max(1, limit), MAX_SUGGESTIONS), types);
+        } catch (Exception e) {
+            log.error("Error suggesting completions for project: {}", projectId, e);
+            return Map.of("error", e.getMessage(), "suggestions", List.of());
+        }
+    }
+
+    @Override
+    public Map<String, Object> hybridSearch(Long projectId, String queryStr, int topK, double lexicalWeight,
+                                            double semanticWeight, long budgetMs) {
+        long start = System.nanoTime();
+        String normalized = SearchResultCache.normalizeQuery(queryStr);
+        int k = Math.min(Math.max(1, topK), MAX_PAGE_SIZE);
+        // Fusion needs more than k candidates per side; files absent from one list still score from the other
+        int candidates = Math.min(MAX_PAGE_SIZE, Math.max(50, k * 3));
+        long budget = Math.min(budgetMs > 0 ? budgetMs : defaultHybridBudgetMs, MAX_HYBRID_BUDGET_MS);
+
+        Map<String, Future<Map<String, Object>>> retrievers = new LinkedHashMap<>();
+        if (lexicalWeight > 0) {
+            retrievers.put(LEXICAL, CompletableFuture.supplyAsync(
+                    () -> searchInProject(projectId, normalized, null, candidates), searchExecutor));
+        }
+        if (semanticWeight > 0 && semanticIndexer.isEnabled()) {
+            retrievers.put(SEMANTIC, CompletableFuture.supplyAsync(
+                    () -> semanticSearch(projectId, normalized, Math.min(MAX_SEMANTIC_RESULTS, candidates * 2)), searchExecutor));
+        }
+        if (retrievers.isEmpty()) {
+            return Map.of("error", "At least one retriever needs a positive weight", "results", List.of());
+        }
+
+        // Each retriever gets whatever is left of the shared budget; late ones are dropped, not awaited
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(budget);
+        Map<String, List<Map<String, Object>>> hits = new LinkedHashMap<>();
+        List<String> timedOut = new ArrayList<>();
+        Map<String, Object> errors = new LinkedHashMap<>();
+        boolean indexing = false;
+        for (Map.Entry<String, Future<Map<String, Object>>> retriever : retrievers.entrySet()) {
+            try {
+                Map<String, Object> response = retriever.getValue().get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                if (response.containsKey("error")) {
+                    errors.put(retriever.getKey(), response.get("error"));
+                    continue;
+                }
+                indexing |= Boolean.TRUE.equals(response.get("indexing"));
+                @SuppressWarnings("unchecked")
+                List<Map<String, Object>> results = (List<Map<String, Object>>) response.get("results");
+                hits.put(retriever.getKey(), results);
+            } catch (TimeoutException e) {
+                retriever.getValue().cancel(true);
+                timedOut.add(retriever.getKey());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return Map.of("error", "Search interrupted", "results", List.of());
+            } catch (ExecutionException e) {
+                log.error("Hybrid {} retriever failed for project: {}", retriever.getKey(), projectId, e.getCause());
+                errors.put(retriever.getKey(), String.valueOf(e.getCause().getMessage()));
+            }
+        }
+        if (hits.isEmpty() && timedOut.isEmpty()) {
+            return Map.of("error", errors.values().iterator().next(), "results", List.of());
+        }
+
+        // Lexical hits are whole files while semantic hits are chunks; a file ranks by its best chunk
+        Map<String, List<String>> rankings = new LinkedHashMap<>();
+        Map<String, Map<String, Object>> lexicalByPath = new HashMap<>();
+        Map<String, Map<String, Object>> chunkByPath = new HashMap<>();
+        hits.forEach((retriever, results) -> {
+            Map<String, Map<String, Object>> byPath = LEXICAL.equals(retriever) ? lexicalByPath : chunkByPath;
+            List<String> paths = new ArrayList<>();
+            for (Map<String, Object> result : results) {
+                String path = (String) result.get("path");
+                paths.add(path);
+                byPath.putIfAbsent(path, result);
+            }
+            rankings.put(retriever, paths);
+        });
+
+        List<Map<String, Object>> results = new ArrayList<>();
+        for (RankFusion.Fused fused : RankFusion.fuse(rankings, Map.of(LEXICAL, lexicalWeight, SEMANTIC, semanticWeight),
+                RankFusion.DEFAULT_RANK_CONSTANT)) {
+            if (results.size() == k) break;
+
+            Map<String, Object> lexical = lexicalByPath.get(fused.key());
+            Map<String, Object> chunk = chunkByPath.get(fused.key());
+            Map<String, Object> result = new LinkedHashMap<>();
+            result.put("path", fused.key());
+            result.put("score", fused.score());
+            result.put("ranks", fused.ranks());
+            result.put("snippets", lexical != null ? lexical.get("snippets") : List.of());
+            if (chunk != null) {
+                Map<String, Object> bestChunk = new LinkedHashMap<>(chunk);
+                bestChunk.remove("path");
+                bestChunk.remove("score");
+                result.put("chunk", bestChunk);
+            }
+            results.add(result);
+        }
+
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("projectId", projectId);
+        response.put("query", normalized);
+        response.put("results", results);
+        response.put("weights", Map.of(LEXICAL, lexicalWeight, SEMANTIC, semanticWeight));
+        response.put("partial", !timedOut.isEmpty() || !errors.isEmpty());
+        response.put("timedOut", timedOut);
+        response.put("errors", errors);
+        response.put("indexing", indexing);
+        response.put("tookMs", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        return response;
+    }
+
+    @Override
+    public Map<String, Object> searchAcrossProjects(Collection<Long> projectIds, String queryStr, int topK) {
+        long start = System.nanoTime();
+        String normalized = SearchResultCache.normalizeQuery(queryStr);
+        int k = Math.min(Math.max(1, topK), MAX_PAGE_SIZE);
+        List<Long> requested = projectIds.stream().distinct().toList();
+        List<Long> ids = requested.subList(0, Math.min(requested.size(), Math.max(1, maxCrossProjects)));
+
+        Query query;
+        try {
+            query = new MultiFieldQueryParser(SEARCH_FIELDS, indexRegistry.getAnalyzer(), SEARCH_BOOSTS).parse(normalized);
+        } catch (ParseException e) {
+            return Map.of("error", e.getMessage(), "results", List.of());
+        }
+
+        // Each project is searched as its own shard and the shards' top k are merged into one global top k.
+        // Term statistics stay per project, so BM25 scores are only approximately comparable across projects.
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(crossProjectBudgetMs);
+        Map<Long, Future<ProjectHits>> pending = new LinkedHashMap<>();
+        for (Long projectId : ids) {
+            // Read-only, so fanning out neither creates indexes nor evicts the ones in active use
+            pending.put(projectId, searchExecutor.submit(() -> indexRegistry.withReadOnlySearcher(projectId, IndexKind.FILES, searcher -> {
+                TopDocs top = searcher.search(query, k);
+                StoredFields storedFields = searcher.storedFields();
+                Map<Integer, String> paths = new HashMap<>();
+                for (ScoreDoc scoreDoc : top.scoreDocs) {
+                    paths.put(scoreDoc.doc, storedFields.document(scoreDoc.doc, Set.of(IndexFields.PATH)).get(IndexFields.PATH));
+                }
+                return new ProjectHits(projectId, top, paths);
+            })));
+        }
+
+        List<Long> timedOut = new ArrayList<>();
+        Map<Long, Object> errors = new LinkedHashMap<>();
+        try {
+            List<ProjectHits> shards = new ArrayList<>();
+            for (Map.Entry<Long, Future<ProjectHits>> entry : pending.entrySet()) {
+                // Projects without an index yield no hits
+                ProjectHits hits = awaitProject(entry.getKey(), entry.getValue(), deadline, timedOut, errors);
+                if (hits != null) shards.add(hits);
+            }
+            if (shards.isEmpty() && timedOut.isEmpty() && !errors.isEmpty()) {
+                return Map.of("error", errors.values().iterator().next(), "results", List.of());
+            }
+
+            TopDocs[] shardDocs = new TopDocs[shards.size()];
+            for (int i = 0; i < shardDocs.length; i++) {
+                shardDocs[i] = shards.get(i).topDocs();
+                for (ScoreDoc scoreDoc : shardDocs[i].scoreDocs) {
+                    scoreDoc.shardIndex = i;
+                }
+            }
+            TopDocs merged = TopDocs.merge(k, shardDocs);
+
+            // Snippets are only built for the global winners, with one more pass over each winning project
+            Map<Integer, List<String>> winners = new LinkedHashMap<>();
+            for (ScoreDoc scoreDoc : merged.scoreDocs) {
+                winners.computeIfAbsent(scoreDoc.shardIndex, i -> new ArrayList<>())
+                        .add(shards.get(scoreDoc.shardIndex).paths().get(scoreDoc.doc));
+            }
+            Map<Integer, Future<Map<String, Map<String, Object>>>> pendingDetails = new LinkedHashMap<>();
+            winners.forEach((shard, paths) -> pendingDetails.put(shard, searchExecutor.submit(
+                    () -> indexRegistry.withReadOnlySearcher(shards.get(shard).projectId(), IndexKind.FILES,
+                            searcher -> describeFiles(searcher, query, paths)))));
+            Map<Integer, Map<String, Map<String, Object>>> details = new HashMap<>();
+            for (Map.Entry<Integer, Future<Map<String, Map<String, Object>>>> entry : pendingDetails.entrySet()) {
+                Map<String, Map<String, Object>> byPath = awaitProject(shards.get(entry.getKey()).projectId(),
+                        entry.getValue(), deadline, timedOut, errors);
+                if (byPath != null) details.put(entry.getKey(), byPath);
+            }
+
+            Map<Long, String> projectNames = new HashMap<>();
+            projectRepository.findAllById(ids).forEach(project -> projectNames.put(project.getId(), project.getName()));
+
+            List<Map<String, Object>> results = new ArrayList<>();
+            for (ScoreDoc scoreDoc : merged.scoreDocs) {
+                ProjectHits hits = shards.get(scoreDoc.shardIndex);
+                String path = hits.paths().get(scoreDoc.doc);
+                Map<String, Object> detail = details.getOrDefault(scoreDoc.shardIndex, Map.of()).get(path);
+
+                Map<String, Object> result = new LinkedHashMap<>();
+                result.put("projectId", hits.projectId());
+                result.put("projectName", projectNames.get(hits.projectId()));
+                result.put("path", path);
                 result.put("score", scoreDoc.score);
+                result.put("hitCount", detail != null ? detail.get("hitCount") : 0);
+                result.put("snippets", detail != null ? detail.get("snippets") : List.of());
                 results.add(result);
             }
-            
+
+            Map<String, Object> response = new LinkedHashMap<>();
+            response.put("query", normalized);
+            response.put("projectsSearched", shards.size());
+            response.put("results", results);
+            response.put("totalHits", merged.totalHits.value);
+            response.put("partial", !timedOut.isEmpty() || !errors.isEmpty() || ids.size() < requested.size());
+            response.put("timedOut", timedOut);
+            response.put("errors", errors);
+            response.put("tookMs", TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            return response;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Map.of("error", "Search interrupted", "results", List.of());
+        }
+    }
+
+    private Map<String, Map<String, Object>> describeFiles(IndexSearcher searcher, Query query, List<String> paths)
+            throws IOException {
+        Weight weight = searcher.createWeight(searcher.rewrite(query), ScoreMode.COMPLETE_NO_SCORES, 1.0f);
+        Map<String, Map<String, Object>> byPath = new HashMap<>();
+        for (String path : paths) {
+            TopDocs file = searcher.search(new TermQuery(new Term(IndexFields.PATH, path)), 1);
+            if (file.scoreDocs.length > 0) {
+                byPath.put(path, hitResult(searcher, weight, file.scoreDocs[0].doc, file.scoreDocs[0].score));
+            }
+        }
+        return byPath;
+    }
+
+    // Late projects are dropped rather than awaited, failed ones are reported alongside the results
+    private <T> T awaitProject(Long projectId, Future<T> future, long deadline, List<Long> timedOut,
+                               Map<Long, Object> errors) throws InterruptedException {
+        try {
+            return future.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            if (!timedOut.contains(projectId)) timedOut.add(projectId);
+        } catch (ExecutionException e) {
+            log.error("Cross-project search failed for project: {}", projectId, e.getCause());
+            errors.put(projectId, String.valueOf(e.getCause().getMessage()));
+        }
+        return null;
+    }
+
+    @Override
+    public Map<String, Object> grep(Long projectId, String pattern, boolean regex, boolean caseSensitive,
+                                    String filePattern, int maxResults) {
+        Pattern matcher;
+        try {
+            int flags = caseSensitive ? 0 : Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE;
+            matcher = Pattern.compile(regex ? pattern : Pattern.quote(pattern), flags);
+        } catch (PatternSyntaxException e) {
+            return Map.of("error", "Invalid pattern: " + e.getDescription(), "results", List.of());
+        }
+        PathMatcher fileMatcher = filePattern == null || filePattern.isBlank()
+                ? null : FileSystems.getDefault().getPathMatcher("glob:" + filePattern);
+        int limit = Math.min(Math.max(1, maxResults), MAX_GREP_RESULTS);
+        return searchCache.get(projectId, "grep", pattern, Arrays.asList(regex, caseSensitive, filePattern, limit),
+                () -> grep(projectId, pattern, regex, matcher, fileMatcher, filePattern, limit));
+    }
+
+    private Map<String, Object> grep(Long projectId, String pattern, boolean regex, Pattern matcher,
+                                     PathMatcher fileMatcher, String filePattern, int limit) {
+        long start = System.currentTimeMillis();
+        try {
+            Query plan = TrigramQueryPlanner.plan(pattern, regex);
+            return indexRegistry.withSearcher(projectId, searcher -> {
+                Query query = plan != null ? plan : new MatchAllDocsQuery();
+                List<Map<String, Object>> results = new ArrayList<>();
+                int[] files = new int[2]; // Candidates verified, files with a match
+                // Candidates are verified as they are found, so collection stops once the limit is hit
+                searcher.search(query, new SimpleCollector() {
+                    private StoredFields storedFields;
+
+                    @Override
+                    protected void doSetNextReader(LeafReaderContext context) throws IOException {
+                        if (results.size() >= limit) throw new CollectionTerminatedException();
+                        storedFields = context.reader().storedFields();
+                    }
+
+                    @Override
+                    public void collect(int doc) throws IOException {
+                        String path = storedFields.document(doc, Set.of(IndexFields.PATH)).get(IndexFields.PATH);
+                        if (fileMatcher != null && !matchesGlob(fileMatcher, filePattern, path)) return;
+
+                        files[0]++;
+                        String source = storedFields.document(doc, Set.of(IndexFields.SOURCE)).get(IndexFields.SOURCE);
+                        int before = results.size();
+                        collectMatches(path, source, matcher, limit, results);
+                        if (results.size() > before) files[1]++;
+                        if (results.size() >= limit) throw new CollectionTerminatedException();
+                    }
+
+                    @Override
+                    public ScoreMode scoreMode() {
+                        return ScoreMode.COMPLETE_NO_SCORES;
+                    }
+                });
+                // Stable, so matches within a file stay in line order
+                results.sort(Comparator.comparing(result -> (String) result.get("path")));
+
+                Map<String, Object> response = new LinkedHashMap<>();
+                response.put("projectId", projectId);
+                response.put("pattern", pattern);
+                response.put("results", results);
+                response.put("totalResults", results.size());
+                response.put("matchedFiles", files[1]);
+                response.put("candidateFiles", files[0]);
+                response.put("fullScan", plan == null);
+                response.put("truncated", results.size() >= limit);
+                response.put("tookMs", System.currentTimeMillis() - start);
+                return response;
+            });
+        } catch (Exception e) {
+            log.error("Error searching for pattern in project: {}", projectId, e);
+            return Map.of("error", e.getMessage(), "results", List.of());
+        }
+    }
+
+    @Override
+    public Map<String, Object> findDefinition(Long projectId, String symbol) {
+        return searchCache.get(projectId, "definition", symbol, List.of(), () -> definitions(projectId, symbol));
+    }
+
+    private Map<String, Object> definitions(Long projectId, String symbol) {
+        try {
+            List<Map<String, Object>> definitions = indexRegistry.withSearcher(projectId, searcher -> {
+                List<Map<String, Object>> found = new ArrayList<>();
+                TopDocs hits = searcher.search(new TermQuery(new Term(IndexFields.SYMBOL, symbol)), MAX_SYMBOL_FILES);
+                StoredFields storedFields = searcher.storedFields();
+                for (ScoreDoc scoreDoc : hits.scoreDocs) {
+                    Document doc = storedFields.document(scoreDoc.doc);
+                    for (CodeSymbol codeSymbol : CodeSymbol.decode(doc.get(IndexFields.SYMBOLS))) {
+                        if (codeSymbol.name().equals(symbol)) {
+                            found.add(codeSymbol.toMap(doc.get(IndexFields.PATH)));
+                        }
+                    }
+                }
+                return found;
+            });
+
             return Map.of(
                     "projectId", projectId,
-                    "query", queryStr,
-                    "results", results,
-                    "totalHits", topDocs.totalHits.value
+                    "symbol", symbol,
+                    "definitions", definitions
             );
         } catch (Exception e) {
-            log.error("Error searching in project: {}", projectId, e);
-            return Map.of("error", e.getMessage(), "results", List.of());
+            log.error("Error finding definition of {} in project: {}", symbol, projectId, e);
+            return Map.of("error", e.getMessage(), "definitions", List.of());
+        }
+    }
+
+    @Override
+    public Map<String, Object> findReferences(Long projectId, String symbol) {
+        return searchCache.get(projectId, "references", symbol, List.of(), () -> references(projectId, symbol));
+    }
+
+    private Map<String, Object> references(Long projectId, String symbol) {
+        Pattern occurrence = Pattern.compile("(?<![\\w$])" + Pattern.quote(symbol) + "(?![\\w$])");
+        try {
+            // The exact-identifier field narrows the search to files that mention the symbol at all
+            return indexRegistry.withSearcher(projectId, searcher -> {
+                TopDocs hits = searcher.search(new TermQuery(new Term(IndexFields.CONTENT_EXACT, symbol)), MAX_SYMBOL_FILES);
+                StoredFields storedFields = searcher.storedFields();
+
+                List<Map<String, Object>> references = new ArrayList<>();
+                for (ScoreDoc scoreDoc : hits.scoreDocs) {
+                    if (references.size() >= MAX_REFERENCES) break;
+
+                    Document doc = storedFields.document(scoreDoc.doc);
+                    Set<Integer> definitionLines = new HashSet<>();
+                    for (CodeSymbol codeSymbol : CodeSymbol.decode(doc.get(IndexFields.SYMBOLS))) {
+                        if (codeSymbol.name().equals(symbol)) {
+                            definitionLines.add(codeSymbol.line());
+                        }
+                    }
+                    collectReferences(doc.get(IndexFields.PATH), doc.get(IndexFields.SOURCE), definitionLines,
+                            occurrence, references);
+                }
+
+                Map<String, Object> response = new LinkedHashMap<>();
+                response.put("projectId", projectId);
+                response.put("symbol", symbol);
+                response.put("references", references);
+                response.put("totalFiles", hits.totalHits.value);
+                // Files beyond the first MAX_SYMBOL_FILES were never scanned
+                response.put("truncated", hits.totalHits.value > MAX_SYMBOL_FILES || references.size() >= MAX_REFERENCES);
+                return response;
+            });
+        } catch (Exception e) {
+            log.error("Error finding references to {} in project: {}", symbol, projectId, e);
+            return Map.of("error", e.getMessage(), "references", List.of());
         }
     }
 
@@ -129,19 +815,14 @@ public class FileIndexingServiceImpl implements FileIndexingService {
     public void updateIndex(Long projectId, String filePath, String content) {
         if (!indexingEnabled) return;
 
-        try (Directory directory = FSDirectory.open(Paths.get(indexPath, projectId.toString()));
-             Analyzer analyzer = new StandardAnalyzer()) {
-            
-            IndexWriterConfig config = new IndexWriterConfig(analyzer);
-            config.setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND);
-            
-            try (IndexWriter writer = new IndexWriter(directory, config)) {
-                Document doc = new Document();
-                doc.add(new StringField("path", filePath, Field.Store.YES));
-                doc.add(new TextField("content", content, Field.Store.NO));
-                
-                writer.updateDocument(new Term("path", filePath), doc);
-            }
+        try {
+            String path = IndexFields.normalizePath(filePath);
+            byte[] bytes = content.getBytes(StandardCharsets.UTF_8);
+            // The mtime is unknown here; the next incremental run fills it in from the hash
+            Document doc = buildDocument(path, content, IndexFields.contentHash(bytes), bytes.length, 0L);
+            indexRegistry.withWriter(projectId, writer -> writer.updateDocument(new Term(IndexFields.PATH, path), doc));
+            indexRegistry.markUpdated(projectId);
+            semanticIndexer.requestSync(projectId);
         } catch (IOException e) {
             log.error("Error updating index for project: {}, file: {}", projectId, filePath, e);
         }
@@ -152,39 +833,269 @@ public class FileIndexingServiceImpl implements FileIndexingService {
     public void removeFromIndex(Long projectId, String filePath) {
         if (!indexingEnabled) return;
 
-        try (Directory directory = FSDirectory.open(Paths.get(indexPath, projectId.toString()));
-             Analyzer analyzer = new StandardAnalyzer()) {
-            
-            IndexWriterConfig config = new IndexWriterConfig(analyzer);
-            try (IndexWriter writer = new IndexWriter(directory, config)) {
-                writer.deleteDocuments(new Term("path", filePath));
-            }
+        try {
+            String path = IndexFields.normalizePath(filePath);
+            indexRegistry.withWriter(projectId, writer -> writer.deleteDocuments(new Term(IndexFields.PATH, path)));
+            indexRegistry.markUpdated(projectId);
+            semanticIndexer.requestSync(projectId);
         } catch (IOException e) {
             log.error("Error removing from index for project: {}, file: {}", projectId, filePath, e);
         }
     }
 
-    private void indexFile(IndexWriter writer, String projectRoot, File file) throws IOException {
-        String relativePath = Paths.get(projectRoot).relativize(file.toPath()).toString();
-        String content = FileUtils.readFileToString(file, StandardCharsets.UTF_8);
-        
+    @Override
+    public void reindexPaths(Long projectId, Collection<String> relativePaths) {
+        if (!indexingEnabled || relativePaths.isEmpty()) return;
+
+        Project project = projectRepository.findById(projectId)
+                .orElseThrow(() -> new RuntimeException("Project not found: " + projectId));
+        Path root = Paths.get(project.getLocalPath()).toAbsolutePath().normalize();
+
+        try {
+            reindex(projectId, root, relativePaths);
+        } catch (IOException e) {
+            log.error("Error re-indexing {} paths for project: {}", relativePaths.size(), projectId, e);
+        }
+    }
+
+    private void reindex(Long projectId, Path root, Collection<String> relativePaths) throws IOException {
+        indexRegistry.withWriter(projectId, writer -> {
+            for (String relativePath : relativePaths) {
+                String path = IndexFields.normalizePath(relativePath);
+                Path file = root.resolve(path).normalize();
+                if (!file.startsWith(root)) continue;
+
+                if (Files.isDirectory(file)) {
+                    // A directory appeared (checkout, unzip, mv): index everything below it
+                    if (!fileWalker.isIgnored(root, file)) {
+                        fileWalker.walk(root, file, walkOptions(),
+                                (child, childPath, attrs) -> reindexFile(projectId, writer, root, child));
+                    }
+                } else if (Files.isRegularFile(file) && !fileWalker.isIgnored(root, file)
+                        && Files.size(file) <= maxFileSize) {
+                    reindexFile(projectId, writer, root, file);
+                } else {
+                    // Gone: drop the file itself and anything that lived under it as a directory
+                    writer.deleteDocuments(new Term(IndexFields.PATH, path));
+                    writer.deleteDocuments(new PrefixQuery(new Term(IndexFields.PATH, path + "/")));
+                }
+            }
+            return null;
+        });
+        indexRegistry.markUpdated(projectId);
+        semanticIndexer.requestSync(projectId);
+    }
+
+    @Async
+    @EventListener
+    public void onProjectFilesChanged(ProjectFilesChangedEvent event) {
+        if (event.rescan()) return; // Queued as an incremental indexing job
+
+        Set<String> paths = new HashSet<>(event.changedPaths());
+        paths.addAll(event.deletedPaths());
+        reindexPaths(event.projectId(), paths);
+    }
+
+    private void reindexFile(Long projectId, IndexWriter writer, Path root, Path file) throws IOException {
+        if (!isIndexable(file)) return;
+
+        String relativePath = IndexFields.normalizePath(root.relativize(file).toString());
+        byte[] bytes = Files.readAllBytes(file);
+        if (ProjectFileWalker.looksBinary(bytes)) return;
+        String hash = IndexFields.contentHash(bytes);
+        long mtime = Files.getLastModifiedTime(file).toMillis();
+        Term term = new Term(IndexFields.PATH, relativePath);
+
+        if (hash.equals(indexRegistry.withSearcher(projectId, searcher -> indexedHash(searcher, term)))) {
+            // Usually our own write coming back through the watcher
+            writer.updateNumericDocValue(term, IndexFields.MTIME, mtime);
+            return;
+        }
+        writer.updateDocument(term, buildDocument(relativePath, new String(bytes, StandardCharsets.UTF_8),
+                hash, bytes.length, mtime));
+    }
+
+    private void collectMatches(String relativePath, String content, Pattern pattern, int limit,
+                                List<Map<String, Object>> results) {
+        if (content == null) return;
+
+        String[] lines = content.split("\\r?\\n", -1);
+        for (int i = 0; i < lines.length && results.size() < limit; i++) {
+            Matcher matcher = pattern.matcher(lines[i]);
+            while (matcher.find() && results.size() < limit) {
+                Map<String, Object> match = new LinkedHashMap<>();
+                match.put("path", relativePath);
+                match.put("line", i + 1);
+                match.put("column", matcher.start() + 1);
+                match.put("length", matcher.end() - matcher.start());
+                match.put("text", abbreviate(lines[i]));
+                results.add(match);
+                if (matcher.end() == matcher.start()) break; // Empty matches would repeat on every position
+            }
+        }
+    }
+
+    // Globs without a directory part match the file name anywhere in the tree, like grep --include
+    private static boolean matchesGlob(PathMatcher matcher, String glob, String relativePath) {
+        Path path = Paths.get(relativePath);
+        return glob.contains("/") ? matcher.matches(path) : matcher.matches(path.getFileName());
+    }
+
+    private void collectReferences(String relativePath, String content, Set<Integer> definitionLines,
+                                   Pattern occurrence, List<Map<String, Object>> references) {
+        if (content == null) return;
+
+        String[] lines = content.split("\\r?\\n", -1);
+        for (int i = 0; i < lines.length && references.size() < MAX_REFERENCES; i++) {
+            Matcher matcher = occurrence.matcher(lines[i]);
+            while (matcher.find() && references.size() < MAX_REFERENCES) {
+                Map<String, Object> reference = new LinkedHashMap<>();
+                reference.put("path", relativePath);
+                reference.put("line", i + 1);
+                reference.put("column", matcher.start() + 1);
+                reference.put("text", abbreviate(lines[i].strip()));
+                reference.put("definition", definitionLines.contains(i + 1));
+                references.add(reference);
+            }
+        }
+    }
+
+    private static List<int[]> matchOffsets(Matches matches) throws IOException {
+        List<int[]> ranges = new ArrayList<>();
+        if (matches == null) return ranges;
+
+        Set<Long> seen = new HashSet<>();
+        for (String field : List.of(IndexFields.CONTENT, IndexFields.CONTENT_EXACT)) {
+            MatchesIterator iterator = matches.getMatches(field);
+            if (iterator == null) continue;
+            while (iterator.next()) {
+                int start = iterator.startOffset();
+                int end = iterator.endOffset();
+                // Both content fields see the same identifiers, count each occurrence once
+                if (start >= 0 && seen.add(((long) start << 32) | end)) {
+                    ranges.add(new int[]{start, end});
+                }
+            }
+        }
+        return ranges;
+    }
+
+    private static String encodeCursor(ScoreDoc last) {
+        String value = Float.floatToIntBits(last.score) + ":" + last.doc;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static ScoreDoc decodeCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) return null;
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(":");
+            return new ScoreDoc(Integer.parseInt(parts[1]), Float.intBitsToFloat(Integer.parseInt(parts[0])));
+        } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+            throw new RuntimeException("Invalid search cursor");
+        }
+    }
+
+    private static String abbreviate(String line) {
+        return line.length() <= 200 ? line : line.substring(0, 200) + "...";
+    }
+
+    private String indexedHash(IndexSearcher searcher, Term term) throws IOException {
+        TopDocs hits = searcher.search(new TermQuery(term), 1);
+        if (hits.scoreDocs.length == 0) return null;
+
+        int doc = hits.scoreDocs[0].doc;
+        List<LeafReaderContext> leaves = searcher.getIndexReader().leaves();
+        LeafReaderContext leaf = leaves.get(ReaderUtil.subIndex(doc, leaves));
+        SortedDocValues hashes = DocValues.getSorted(leaf.reader(), IndexFields.HASH);
+        return hashes.advanceExact(doc - leaf.docBase) ? hashes.lookupOrd(hashes.ordValue()).utf8ToString() : null;
+    }
+
+    private IndexingPipeline newPipeline() {
+        int cores = Runtime.getRuntime().availableProcessors();
+        return new IndexingPipeline(fileWalker,
+                readerThreads > 0 ? readerThreads : cores,
+                indexerThreads > 0 ? indexerThreads : cores,
+                queueCapacity);
+    }
+
+    private Document buildDocument(IndexingPipeline.SourceFile file) {
+        return buildDocument(file.relativePath(), file.content(), file.hash(), file.size(), file.mtime());
+    }
+
+    private Document buildDocument(String relativePath, String content, String hash, long size, long mtime) {
         Document doc = new Document();
-        doc.add(new StringField("path", relativePath, Field.Store.YES));
-        doc.add(new TextField("content", content, Field.Store.NO)); // Content is indexed but not stored to save space
-        
-        writer.updateDocument(new Term("path", relativePath), doc);
-    }
-
-    private boolean isIndexable(File file) {
-        String name = file.getName().toLowerCase();
-        return !file.isDirectory() && 
-               !name.startsWith(".") && 
-               !name.contains("node_modules") && 
-               !name.contains("target") && 
-               !name.contains(".git") &&
-               (name.endsWith(".java") || name.endsWith(".js") || name.endsWith(".ts") || 
-                name.endsWith(".py") || name.endsWith(".md") || name.endsWith(".txt") || 
-                name.endsWith(".json") || name.endsWith(".xml") || name.endsWith(".yml") || 
-                name.endsWith(".yaml") || name.endsWith(".html") || name.endsWith(".css"));
+        doc.add(new StringField(IndexFields.PATH, relativePath, Field.Store.YES));
+        doc.add(new TextField(IndexFields.PATH_TEXT, relativePath, Field.Store.NO));
+        doc.add(new Field(IndexFields.CONTENT, indexRegistry.contentTokens(relativePath, content), CONTENT_TYPE));
+        doc.add(new Field(IndexFields.CONTENT_EXACT, content, CONTENT_TYPE));
+        doc.add(new StoredField(IndexFields.SOURCE, content)); // Compressed by the codec, serves snippets and grep
+        doc.add(new Field(IndexFields.TRIGRAM, content, TRIGRAM_TYPE));
+
+        List<CodeSymbol> symbols = SymbolExtractor.extract(SourceLanguage.fromPath(relativePath), content);
+        Set<String> names = new HashSet<>();
+        for (CodeSymbol symbol : symbols) {
+            if (names.add(symbol.name())) {
+                doc.add(new StringField(IndexFields.SYMBOL, symbol.name(), Field.Store.NO));
+            }
+        }
+        if (!symbols.isEmpty()) {
+            doc.add(new StoredField(IndexFields.SYMBOLS, CodeSymbol.encode(symbols)));
+        }
+        doc.add(new SortedDocValuesField(IndexFields.PATH_DV, new BytesRef(relativePath)));
+        doc.add(new SortedDocValuesField(IndexFields.HASH, new BytesRef(hash)));
+        doc.add(new NumericDocValuesField(IndexFields.SIZE, size));
+        doc.add(new NumericDocValuesField(IndexFields.MTIME, mtime));
+        SearchFacets.addFields(doc, relativePath, size);
+        return doc;
+    }
+
+    private Map<String, IndexedFile> loadIndexedFiles(IndexSearcher searcher) throws IOException {
+        Map<String, IndexedFile> indexed = new HashMap<>();
+        for (LeafReaderContext leaf : searcher.getIndexReader().leaves()) {
+            LeafReader reader = leaf.reader();
+            Bits liveDocs = reader.getLiveDocs();
+            SortedDocValues paths = reader.getSortedDocValues(IndexFields.PATH_DV);
+            if (paths == null) continue; // Written before change tracking existed, treated as new
+
+            SortedDocValues hashes = DocValues.getSorted(reader, IndexFields.HASH);
+            NumericDocValues sizes = DocValues.getNumeric(reader, IndexFields.SIZE);
+            NumericDocValues mtimes = DocValues.getNumeric(reader, IndexFields.MTIME);
+            for (int doc = paths.nextDoc(); doc != DocIdSetIterator.NO_MORE_DOCS; doc = paths.nextDoc()) {
+                if (liveDocs != null && !liveDocs.get(doc)) continue;
+
+                String path = paths.lookupOrd(paths.ordValue()).utf8ToString();
+                String hash = hashes.advanceExact(doc) ? hashes.lookupOrd(hashes.ordValue()).utf8ToString() : "";
+                long size = sizes.advanceExact(doc) ? sizes.longValue() : -1L;
+                long mtime = mtimes.advanceExact(doc) ? mtimes.longValue() : 0L;
+                indexed.put(path, new IndexedFile(mtime, size, hash));
+            }
+        }
+        return indexed;
+    }
+
+    private ProjectFileWalker.WalkOptions walkOptions() {
+        return ProjectFileWalker.WalkOptions.textFiles(maxFileSize);
+    }
+
+    // Ignored directories, size and binary files are already filtered out by the walker
+    private boolean isIndexable(Path file) {
+        String name = file.getFileName().toString().toLowerCase(Locale.ROOT);
+        int dot = name.lastIndexOf('.');
+        return !name.startsWith(".") && dot > 0 && INDEXED_EXTENSIONS.contains(name.substring(dot + 1));
     }
+
+    private static Set<String> indexedExtensions() {
+        Set<String> extensions = new HashSet<>(Set.of("md", "txt", "json", "xml", "yml", "yaml", "html", "css"));
+        for (SourceLanguage language : SourceLanguage.values()) {
+            extensions.addAll(language.getExtensions());
+        }
+        return Set.copyOf(extensions);
+    }
+
+    private record ProjectHits(Long projectId, TopDocs topDocs, Map<Integer, String> paths) {
+    }
+
+    private record IndexedFile(long mtime, long size, String hash) {
+    }
+
 }
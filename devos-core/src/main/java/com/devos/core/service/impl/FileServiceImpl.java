@@ -2,6 +2,9 @@ package com.devos.core.service.impl;
 
 import com.devos.core.domain.entity.FileNode;
 import com.devos.core.domain.entity.FileOperation;
+import com.devos.core.filesystem.FileContentCache;
+import com.devos.core.filesystem.FileTreeRegistry;
+import com.devos.core.indexing.PathIndexRegistry;
 import com.devos.core.repository.FileNodeRepository;
 import com.devos.core.repository.FileOperationRepository;
 import com.devos.core.service.FileService;
@@ -17,6 +20,7 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.time.LocalDateTime;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -28,6 +32,9 @@ public class FileServiceImpl implements FileService {
     private final FileNodeRepository fileNodeRepository;
     private final FileOperationRepository fileOperationRepository;
     private final com.devos.core.service.AuthService authService;
+    private final PathIndexRegistry pathIndexRegistry;
+    private final FileTreeRegistry fileTreeRegistry;
+    private final FileContentCache fileContentCache;
 
     @Override
     public Map<String, Object> getProjectFiles(Long projectId) {
@@ -47,13 +54,25 @@ public class FileServiceImpl implements FileService {
                 .orElseThrow(() -> new RuntimeException("File not found: " + filePath));
         
         try {
-            return Files.readString(Paths.get(fileNode.getAbsolutePath()));
+            return fileContentCache.read(projectId, Paths.get(fileNode.getAbsolutePath()));
         } catch (IOException e) {
             log.error("Error reading file: {}", filePath, e);
             throw new RuntimeException("Failed to read file: " + filePath, e);
         }
     }
 
+    @Override
+    public Path resolveFilePath(Long projectId, String filePath) {
+        FileNode fileNode = fileNodeRepository.findByProjectIdAndRelativePath(projectId, filePath)
+                .orElseThrow(() -> new RuntimeException("File not found: " + filePath));
+
+        Path path = Paths.get(fileNode.getAbsolutePath());
+        if (!Files.isRegularFile(path)) {
+            throw new RuntimeException("File not found: " + filePath);
+        }
+        return path;
+    }
+
     @Override
     @Transactional
     public void setFileContent(Long projectId, String filePath, String content) {
@@ -61,9 +80,12 @@ public class FileServiceImpl implements FileService {
                 .orElseThrow(() -> new RuntimeException("File not found: " + filePath));
         
         try {
-            Files.writeString(Paths.get(fileNode.getAbsolutePath()), content);
+            Path path = Paths.get(fileNode.getAbsolutePath());
+            Files.writeString(path, content);
+            fileContentCache.invalidate(projectId, path);
             fileNode.setLastModified(System.currentTimeMillis());
             fileNodeRepository.save(fileNode);
+            fileTreeRegistry.applyChanges(projectId, List.of(filePath), List.of());
             
             log.info("Updated file content: {}", filePath);
         } catch (IOException e) {
@@ -104,6 +126,7 @@ public class FileServiceImpl implements FileService {
                     .build();
             
             fileOperationRepository.save(operation);
+            fileTreeRegistry.applyChanges(projectId, List.of(targetPath + "/" + originalFilename), List.of());
             
             Map<String, Object> result = new HashMap<>();
             result.put("filename", originalFilename);
@@ -127,7 +150,9 @@ public class FileServiceImpl implements FileService {
                 .orElseThrow(() -> new RuntimeException("File not found: " + filePath));
         
         try {
-            Files.writeString(Paths.get(fileNode.getAbsolutePath()), content);
+            Path path = Paths.get(fileNode.getAbsolutePath());
+            Files.writeString(path, content);
+            fileContentCache.invalidate(projectId, path);
             fileNode.setLastModified(System.currentTimeMillis());
             fileNodeRepository.save(fileNode);
             
@@ -142,6 +167,7 @@ public class FileServiceImpl implements FileService {
                     .build();
             
             fileOperationRepository.save(operation);
+            fileTreeRegistry.applyChanges(projectId, List.of(filePath), List.of());
             
             Map<String, Object> result = new HashMap<>();
             result.put("path", filePath);
@@ -223,6 +249,7 @@ public class FileServiceImpl implements FileService {
             Path fullPath = Paths.get(filePath);
             Files.createDirectories(fullPath.getParent());
             Files.writeString(fullPath, content);
+            fileContentCache.invalidate(projectId, fullPath);
             
             // Create file node record
             FileNode fileNode = FileNode.builder()
@@ -247,6 +274,7 @@ public class FileServiceImpl implements FileService {
                     .build();
             
             fileOperationRepository.save(operation);
+            fileTreeRegistry.applyChanges(projectId, List.of(filePath), List.of());
             
             Map<String, Object> result = new HashMap<>();
             result.put("path", filePath);
@@ -269,7 +297,9 @@ public class FileServiceImpl implements FileService {
                 .orElseThrow(() -> new RuntimeException("File not found: " + filePath));
         
         try {
-            Files.deleteIfExists(Paths.get(fileNode.getAbsolutePath()));
+            Path path = Paths.get(fileNode.getAbsolutePath());
+            Files.deleteIfExists(path);
+            fileContentCache.invalidate(projectId, path);
             fileNodeRepository.delete(fileNode);
             
             // Log file operation
@@ -282,6 +312,7 @@ public class FileServiceImpl implements FileService {
                     .build();
             
             fileOperationRepository.save(operation);
+            fileTreeRegistry.applyChanges(projectId, List.of(), List.of(filePath));
             
             log.info("Deleted file: {}", filePath);
             
@@ -300,6 +331,7 @@ public class FileServiceImpl implements FileService {
             
             Files.createDirectories(target.getParent());
             Files.move(source, target);
+            fileContentCache.invalidate(projectId, source);
             
             // Update source file node
             FileNode sourceNode = fileNodeRepository.findByProjectIdAndRelativePath(projectId, sourcePath)
@@ -320,6 +352,7 @@ public class FileServiceImpl implements FileService {
                     .build();
             
             fileOperationRepository.save(operation);
+            fileTreeRegistry.applyChanges(projectId, List.of(targetPath), List.of(sourcePath));
             
             log.info("Moved file from {} to {}", sourcePath, targetPath);
             
@@ -329,6 +362,18 @@ public class FileServiceImpl implements FileService {
         }
     }
 
+    @Override
+    public Map<String, Object> findFiles(Long projectId, String query, int limit) {
+        List<Map<String, Object>> results = pathIndexRegistry.find(projectId, query == null ? "" : query,
+                Math.min(Math.max(1, limit), 200));
+
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("projectId", projectId);
+        response.put("query", query);
+        response.put("results", results);
+        return response;
+    }
+
     @Override
     public Object searchInFiles(Long projectId, String query, String filePattern, Boolean caseSensitive) {
         List<FileNode> files = fileNodeRepository.findByProjectIdOrderByRelativePathAsc(projectId);
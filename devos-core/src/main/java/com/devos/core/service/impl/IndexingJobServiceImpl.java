@@ -0,0 +1,272 @@
+package com.devos.core.service.impl;
+
+import com.devos.core.domain.entity.Project;
+import com.devos.core.event.GitHeadChangedEvent;
+import com.devos.core.event.IndexingJobEvent;
+import com.devos.core.event.ProjectDeletedEvent;
+import com.devos.core.event.ProjectFilesChangedEvent;
+import com.devos.core.indexing.IndexingJob;
+import com.devos.core.repository.ProjectRepository;
+import com.devos.core.service.FileIndexingService;
+import com.devos.core.service.IndexingJobService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs indexing jobs on a small worker pool, highest priority first. Jobs of one project
+ * never run concurrently: a job whose project is busy waits until the running one ends.
+ * State changes and periodic progress are published as {@link IndexingJobEvent}s.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class IndexingJobServiceImpl implements IndexingJobService {
+
+    private final FileIndexingService fileIndexingService;
+    private final ProjectRepository projectRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${devos.indexing.jobs.workers:2}")
+    private int workers = 2;
+
+    // Finished jobs kept for status queries
+    @Value("${devos.indexing.jobs.history-size:200}")
+    private int historySize = 200;
+
+    private final PriorityBlockingQueue<IndexingJob> queue = new PriorityBlockingQueue<>(16, IndexingJob.QUEUE_ORDER);
+
+    // Guarded by this: every known job in submission order, the running job per project, and
+    // jobs taken off the queue while their project was busy
+    private final Map<String, IndexingJob> jobs = new LinkedHashMap<>();
+    private final Map<Long, IndexingJob> running = new HashMap<>();
+    private final Map<Long, IndexingJob> deferred = new HashMap<>();
+
+    private ExecutorService workerPool;
+
+    @PostConstruct
+    public void start() {
+        int threads = Math.max(1, workers);
+        AtomicInteger counter = new AtomicInteger();
+        workerPool = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "devos-indexing-job-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (int i = 0; i < threads; i++) {
+            workerPool.submit(this::workLoop);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        synchronized (this) {
+            running.values().forEach(IndexingJob::requestCancel);
+        }
+        if (workerPool != null) {
+            workerPool.shutdownNow();
+        }
+    }
+
+    @Override
+    public IndexingJob submit(Long projectId, IndexingJob.Type type, IndexingJob.Priority priority) {
+        IndexingJob job;
+        IndexingJob superseded = null;
+        synchronized (this) {
+            IndexingJob queued = findQueued(projectId);
+            if (queued != null && queued.getType().covers(type)) {
+                if (priority.compareTo(queued.getPriority()) > 0) {
+                    // Re-insert so the queue sees the new priority
+                    boolean inQueue = queue.remove(queued);
+                    queued.setPriority(priority);
+                    if (inQueue) queue.add(queued);
+                }
+                return queued;
+            }
+            if (queued != null) {
+                // The new job does everything the queued one would
+                unqueue(queued);
+                queued.finish(IndexingJob.State.CANCELLED, "Superseded by a " + type + " indexing job");
+                superseded = queued;
+                if (queued.getPriority().compareTo(priority) > 0) priority = queued.getPriority();
+            }
+
+            job = new IndexingJob(projectId, type, priority);
+            jobs.put(job.getId(), job);
+            trimHistory();
+            queue.add(job);
+        }
+        if (superseded != null) publish(superseded);
+        publish(job);
+        log.info("Queued {} indexing job {} for project: {} ({})", type, job.getId(), projectId, priority);
+        return job;
+    }
+
+    @Override
+    public synchronized Optional<IndexingJob> getJob(String jobId) {
+        return Optional.ofNullable(jobs.get(jobId));
+    }
+
+    @Override
+    public synchronized List<IndexingJob> getProjectJobs(Long projectId) {
+        List<IndexingJob> projectJobs = new ArrayList<>();
+        for (IndexingJob job : jobs.values()) {
+            if (job.getProjectId().equals(projectId)) projectJobs.add(job);
+        }
+        Collections.reverse(projectJobs); // Newest first
+        return projectJobs;
+    }
+
+    @Override
+    public boolean cancel(String jobId) {
+        IndexingJob job;
+        synchronized (this) {
+            job = jobs.get(jobId);
+            if (job == null || job.getState().isFinished()) return false;
+
+            if (job.getState() == IndexingJob.State.RUNNING) {
+                job.requestCancel(); // The worker records the final state once the pipeline stops
+            } else {
+                unqueue(job);
+                job.finish(IndexingJob.State.CANCELLED, null);
+            }
+        }
+        publish(job);
+        return true;
+    }
+
+    @Scheduled(fixedDelayString = "${devos.indexing.jobs.progress-interval-ms:1000}")
+    public void publishProgress() {
+        List<IndexingJob> active;
+        synchronized (this) {
+            active = new ArrayList<>(running.values());
+        }
+        active.forEach(this::publish);
+    }
+
+    // Watcher overflows and periodic rescans go through the queue instead of indexing inline
+    @EventListener
+    public void onProjectFilesChanged(ProjectFilesChangedEvent event) {
+        if (event.rescan()) {
+            submit(event.projectId(), IndexingJob.Type.INCREMENTAL, IndexingJob.Priority.LOW);
+        }
+    }
+
+    // Checkouts, pulls and merges done through the app only re-index what the new HEAD changed
+    @EventListener
+    public void onGitHeadChanged(GitHeadChangedEvent event) {
+        for (Project project : projectRepository.findIndexedByLocalPath(event.projectPath())) {
+            submit(project.getId(), IndexingJob.Type.GIT_SYNC, IndexingJob.Priority.HIGH);
+        }
+    }
+
+    // Stops a deleted project's jobs so they do not recreate its index
+    @TransactionalEventListener
+    public void onProjectDeleted(ProjectDeletedEvent event) {
+        List<IndexingJob> active = new ArrayList<>();
+        synchronized (this) {
+            for (IndexingJob job : jobs.values()) {
+                if (job.getProjectId().equals(event.projectId()) && !job.getState().isFinished()) active.add(job);
+            }
+        }
+        active.forEach(job -> cancel(job.getId()));
+    }
+
+    private void workLoop() {
+        while (!Thread.currentThread().isInterrupted()) {
+            IndexingJob job;
+            try {
+                job = queue.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (claim(job)) {
+                publish(job);
+                run(job);
+            }
+        }
+    }
+
+    private synchronized boolean claim(IndexingJob job) {
+        if (job.getState() != IndexingJob.State.QUEUED) return false; // Cancelled while queued
+
+        if (running.containsKey(job.getProjectId())) {
+            deferred.put(job.getProjectId(), job);
+            return false;
+        }
+        running.put(job.getProjectId(), job);
+        job.markRunning();
+        return true;
+    }
+
+    private void run(IndexingJob job) {
+        try {
+            fileIndexingService.runIndexingJob(job);
+            job.finish(IndexingJob.State.COMPLETED, null);
+        } catch (CancellationException e) {
+            job.finish(IndexingJob.State.CANCELLED, null);
+        } catch (Exception e) {
+            log.error("Indexing job {} failed for project: {}", job.getId(), job.getProjectId(), e);
+            job.finish(IndexingJob.State.FAILED, e.getMessage());
+        } finally {
+            synchronized (this) {
+                running.remove(job.getProjectId());
+                IndexingJob next = deferred.remove(job.getProjectId());
+                if (next != null) queue.add(next);
+                trimHistory();
+            }
+            publish(job);
+        }
+    }
+
+    private IndexingJob findQueued(Long projectId) {
+        IndexingJob waiting = deferred.get(projectId);
+        if (waiting != null) return waiting;
+        for (IndexingJob job : queue) {
+            if (job.getProjectId().equals(projectId) && job.getState() == IndexingJob.State.QUEUED) return job;
+        }
+        return null;
+    }
+
+    private void unqueue(IndexingJob job) {
+        queue.remove(job);
+        deferred.remove(job.getProjectId(), job);
+    }
+
+    private void trimHistory() {
+        int excess = jobs.size() - historySize;
+        Iterator<IndexingJob> iterator = jobs.values().iterator();
+        while (excess > 0 && iterator.hasNext()) {
+            if (iterator.next().getState().isFinished()) {
+                iterator.remove();
+                excess--;
+            }
+        }
+    }
+
+    private void publish(IndexingJob job) {
+        eventPublisher.publishEvent(new IndexingJobEvent(job.getProjectId(), job.toMap()));
+    }
+}
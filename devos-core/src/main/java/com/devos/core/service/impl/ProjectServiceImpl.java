@@ -1,19 +1,31 @@
 package com.devos.core.service.impl;
 
+import com.devos.core.cache.ProjectAccessCache;
 import com.devos.core.domain.entity.Project;
 import com.devos.core.domain.entity.User;
+import com.devos.core.event.ProjectDeletedEvent;
+import com.devos.core.filesystem.FileTree;
+import com.devos.core.filesystem.FileTreeRegistry;
+import com.devos.core.filesystem.ProjectFileWalker;
+import com.devos.core.indexing.IndexFields;
 import com.devos.core.repository.ProjectRepository;
 import com.devos.core.service.ProjectService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Service
 @RequiredArgsConstructor
@@ -23,59 +35,60 @@ public class ProjectServiceImpl implements ProjectService {
     private final ProjectRepository projectRepository;
     private final @Lazy com.devos.core.service.AuthService authService;
     private final com.devos.core.service.GitService gitService;
+    private final ProjectFileWalker fileWalker;
+    private final FileTreeRegistry fileTreeRegistry;
+    private final ProjectAccessCache projectAccessCache;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${devos.filesystem.tree.max-page-size:1000}")
+    private int maxTreePageSize = 1000;
 
     @Override
     public Object getFileTree(Long id, boolean includeContent) {
-        Project project = getProjectWithOwnership(id);
-        String localPath = project.getLocalPath();
-        
-        if (localPath == null || localPath.isEmpty()) {
-             return java.util.Collections.emptyList();
-        }
-
-        java.io.File projectDir = new java.io.File(localPath);
-        if (!projectDir.exists() || !projectDir.isDirectory()) {
-            return java.util.Collections.emptyList();
-        }
-
-        return buildFileTree(projectDir, projectDir.getAbsolutePath());
+        return getFileTreeView(id).nodes();
     }
 
-    private java.util.List<java.util.Map<String, Object>> buildFileTree(java.io.File dir, String rootPath) {
-        java.io.File[] files = dir.listFiles();
-        if (files == null) return java.util.Collections.emptyList();
-
-        java.util.List<java.util.Map<String, Object>> tree = new java.util.ArrayList<>();
-        
-        // sort: directories first, then files
-        java.util.Arrays.sort(files, (f1, f2) -> {
-            if (f1.isDirectory() && !f2.isDirectory()) return -1;
-            if (!f1.isDirectory() && f2.isDirectory()) return 1;
-            return f1.getName().compareToIgnoreCase(f2.getName());
-        });
-
-        for (java.io.File file : files) {
-            // Skip hidden files and common ignore patterns
-            if (file.getName().startsWith(".") && !file.getName().equals(".gitignore")) continue;
-            if (file.getName().equals("node_modules") || file.getName().equals("target") || file.getName().equals("dist") || file.getName().equals("build")) continue;
-
-            java.util.Map<String, Object> node = new java.util.HashMap<>();
-            // Use a relative path as ID to ensure uniqueness but stability
-            String relativePath = file.getAbsolutePath().substring(rootPath.length()).replace("\\", "/"); 
-            if (relativePath.startsWith("/")) relativePath = relativePath.substring(1);
-            
-            node.put("id", relativePath.isEmpty() ? file.getName() : relativePath);
-            node.put("name", file.getName());
-            node.put("type", file.isDirectory() ? "directory" : "file");
-            // node.put("path", relativePath); 
+    @Override
+    public FileTree.View getFileTreeView(Long id) {
+        getProjectWithOwnership(id);
+        return fileTreeRegistry.getTree(id).render();
+    }
 
-            if (file.isDirectory()) {
-                node.put("children", buildFileTree(file, rootPath));
-            }
+    @Override
+    public java.util.Map<String, Object> getFileTreeChanges(Long id, long since) {
+        getProjectWithOwnership(id);
+        FileTree tree = fileTreeRegistry.getTree(id);
+        long generation = tree.getGeneration();
+        List<FileTree.Change> changes = tree.changesSince(since);
+
+        java.util.Map<String, Object> response = new java.util.LinkedHashMap<>();
+        response.put("projectId", id);
+        response.put("since", since);
+        response.put("generation", generation);
+        // The log no longer covers "since", so the client has to reload the whole tree
+        response.put("reset", changes == null);
+        response.put("changes", changes == null ? List.of() : changes);
+        return response;
+    }
 
-            tree.add(node);
+    @Override
+    public java.util.Map<String, Object> getFileTreeLevel(Long id, String path, String cursor, int limit) {
+        getProjectWithOwnership(id);
+        String directory = path == null ? "" : IndexFields.normalizePath(path).replaceAll("/+$", "");
+        FileTree.Level level = fileTreeRegistry.getTree(id)
+                .list(directory, cursor, Math.min(Math.max(1, limit), maxTreePageSize));
+        if (level == null) {
+            throw new IllegalArgumentException("Not a directory: " + directory);
         }
-        return tree;
+
+        java.util.Map<String, Object> response = new java.util.LinkedHashMap<>();
+        response.put("projectId", id);
+        response.put("path", directory);
+        response.put("generation", level.generation());
+        response.put("total", level.total());
+        response.put("entries", level.entries());
+        response.put("nextCursor", level.nextCursor());
+        return response;
     }
 
     @Override
@@ -151,11 +164,11 @@ public class ProjectServiceImpl implements ProjectService {
         java.io.File projectDir = new java.io.File(localPath);
         if (!projectDir.exists() || !projectDir.isDirectory()) return metadata;
 
-        java.util.Map<String, Integer> extensionCounts = new java.util.HashMap<>();
-        int[] totalFiles = new int[1]; // Use array to allow modification in lambda/recursion
-        scanExtensions(projectDir, extensionCounts, totalFiles);
+        java.util.Map<String, Integer> extensionCounts = new ConcurrentHashMap<>();
+        AtomicInteger totalFiles = new AtomicInteger();
+        scanExtensions(projectDir.toPath(), extensionCounts, totalFiles);
 
-        metadata.fileCount = totalFiles[0];
+        metadata.fileCount = totalFiles.get();
 
         if (extensionCounts.isEmpty()) return metadata;
 
@@ -186,26 +199,18 @@ public class ProjectServiceImpl implements ProjectService {
         return metadata;
     }
 
-    private void scanExtensions(java.io.File dir, java.util.Map<String, Integer> counts, int[] totalFiles) {
-        java.io.File[] files = dir.listFiles();
-        if (files == null) return;
-
-        for (java.io.File file : files) {
-            if (file.isDirectory()) {
-                // Skip common large folders
-                if (file.getName().equals("node_modules") || file.getName().equals("target") || 
-                    file.getName().equals(".git") || file.getName().equals("venv") ||
-                    file.getName().equals("dist") || file.getName().equals("build")) continue;
-                scanExtensions(file, counts, totalFiles);
-            } else {
-                totalFiles[0]++;
-                String name = file.getName();
+    private void scanExtensions(Path root, java.util.Map<String, Integer> counts, AtomicInteger totalFiles) {
+        try {
+            fileWalker.walk(root, ProjectFileWalker.WalkOptions.all().inParallel(), (file, relativePath, attrs) -> {
+                totalFiles.incrementAndGet();
+                String name = file.getFileName().toString();
                 int lastDot = name.lastIndexOf('.');
                 if (lastDot > 0 && lastDot < name.length() - 1) {
-                    String ext = name.substring(lastDot + 1).toLowerCase();
-                    counts.put(ext, counts.getOrDefault(ext, 0) + 1);
+                    counts.merge(name.substring(lastDot + 1).toLowerCase(), 1, Integer::sum);
                 }
-            }
+            });
+        } catch (IOException e) {
+            log.warn("Could not scan all files under {}: {}", root, e.getMessage());
         }
     }
     
@@ -234,6 +239,14 @@ public class ProjectServiceImpl implements ProjectService {
         return projectRepository.findByUserId(currentUser.getId(), pageable);
     }
 
+    @Override
+    public List<Project> getUserIndexedProjects() {
+        User currentUser = authService.getCurrentUser();
+        return projectRepository.findActiveProjectsByUser(currentUser.getId()).stream()
+                .filter(project -> Boolean.TRUE.equals(project.getIsIndexed()))
+                .toList();
+    }
+
     @Override
     @Transactional
     public Project updateProject(Long id, Project project) {
@@ -254,6 +267,9 @@ public class ProjectServiceImpl implements ProjectService {
     public void deleteProject(Long id) {
         Project project = getProjectWithOwnership(id);
         projectRepository.delete(project);
+        projectAccessCache.evict(id);
+        // Drops the project's indexes, caches and jobs
+        eventPublisher.publishEvent(new ProjectDeletedEvent(id, project.getLocalPath()));
         log.info("Deleted project: {}", project.getName());
     }
 
@@ -0,0 +1,97 @@
+package com.devos.core.cache;
+
+import com.devos.core.domain.entity.Project;
+import com.devos.core.domain.entity.User;
+import com.devos.core.repository.ProjectRepository;
+import com.devos.core.service.AuthService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.nio.file.Paths;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProjectAccessCacheTest {
+
+    @Mock
+    private ProjectRepository projectRepository;
+    @Mock
+    private AuthService authService;
+
+    private ProjectAccessCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new ProjectAccessCache(projectRepository, authService);
+        cache.init();
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken("1", null, List.of()));
+        when(authService.getCurrentUser()).thenReturn(User.builder().id(1L).build());
+        when(projectRepository.findById(10L)).thenReturn(Optional.of(project(1L, "/work/app")));
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void resolvesOwnershipOnceAcrossRepeatedChecks() {
+        RequestContextHolder.setRequestAttributes(requestAttributes());
+        for (int i = 0; i < 200; i++) {
+            assertEquals(Paths.get("/work/app").toAbsolutePath(), cache.ownedProjectRoot(10L));
+        }
+        verify(projectRepository, times(1)).findById(10L);
+        verify(authService, times(1)).getCurrentUser();
+
+        // A later request reuses both within the TTL
+        RequestContextHolder.setRequestAttributes(requestAttributes());
+        cache.ownedProjectRoot(10L);
+        verify(projectRepository, times(1)).findById(10L);
+        verify(authService, times(1)).getCurrentUser();
+
+        RequestContextHolder.resetRequestAttributes();
+        cache.evict(10L);
+        cache.ownedProjectRoot(10L);
+        verify(projectRepository, times(2)).findById(10L);
+    }
+
+    @Test
+    void rejectsProjectsOwnedBySomeoneElse() {
+        when(projectRepository.findById(20L)).thenReturn(Optional.of(project(2L, "/work/other")));
+
+        assertThrows(SecurityException.class, () -> cache.ownedProjectRoot(20L));
+        assertNotNull(cache.ownedProjectRoot(10L));
+    }
+
+    private static RequestAttributes requestAttributes() {
+        Map<String, Object> attributes = new HashMap<>();
+        RequestAttributes request = mock(RequestAttributes.class);
+        when(request.getAttribute(anyString(), anyInt())).thenAnswer(call -> attributes.get(call.getArgument(0)));
+        doAnswer(call -> attributes.put(call.getArgument(0), call.getArgument(1)))
+                .when(request).setAttribute(anyString(), any(), anyInt());
+        return request;
+    }
+
+    private static Project project(Long ownerId, String localPath) {
+        return Project.builder()
+                .user(User.builder().id(ownerId).build())
+                .localPath(localPath)
+                .build();
+    }
+}
@@ -0,0 +1,78 @@
+package com.devos.core.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WeightedLruCacheTest {
+
+    @Test
+    void evictsLeastRecentlyUsedEntriesBeyondMaxWeight() {
+        WeightedLruCache<String, String> cache = new WeightedLruCache<>(10, (key, value) -> value.length());
+        cache.put("a", "aaaa");
+        cache.put("b", "bbbb");
+        assertEquals("aaaa", cache.get("a"));
+
+        cache.put("c", "cccc");
+
+        assertNull(cache.get("b"));
+        assertEquals("aaaa", cache.get("a"));
+        assertEquals("cccc", cache.get("c"));
+        assertEquals(8, cache.weight());
+        assertEquals(1, cache.getEvictions());
+    }
+
+    @Test
+    void reportsEvictedEntries() {
+        List<String> evicted = new ArrayList<>();
+        WeightedLruCache<String, String> cache = new WeightedLruCache<>(10, (key, value) -> value.length(),
+                (key, value) -> evicted.add(key + "=" + value));
+        cache.put("a", "aaaa");
+        cache.put("b", "bbbb");
+        cache.invalidate("b");
+        cache.put("c", "cccc");
+        cache.put("d", "dddd");
+
+        assertEquals(List.of("a=aaaa"), evicted);
+    }
+
+    @Test
+    void doesNotCacheEntriesHeavierThanTheWholeCache() {
+        WeightedLruCache<String, String> cache = new WeightedLruCache<>(10, (key, value) -> value.length());
+        cache.put("a", "aaaa");
+        cache.put("big", "x".repeat(11));
+
+        assertNull(cache.get("big"));
+        assertEquals("aaaa", cache.get("a"));
+    }
+
+    @Test
+    void replacingAndInvalidatingKeepWeightInSync() {
+        WeightedLruCache<String, String> cache = new WeightedLruCache<>(100, (key, value) -> value.length());
+        cache.put("a", "aaaa");
+        cache.put("a", "aa");
+        cache.put("b", "bbb");
+        assertEquals(5, cache.weight());
+
+        cache.invalidateIf(key -> key.equals("a"));
+
+        assertEquals(1, cache.size());
+        assertEquals(3, cache.weight());
+    }
+
+    @Test
+    void countsHitsAndMisses() {
+        WeightedLruCache<String, String> cache = new WeightedLruCache<>(100, (key, value) -> 1);
+        cache.put("a", "value");
+        cache.get("a");
+        cache.get("a");
+        cache.get("missing");
+
+        assertEquals(2, cache.getHits());
+        assertEquals(1, cache.getMisses());
+        assertEquals(2.0 / 3, (double) cache.stats().get("hitRatio"), 1e-9);
+    }
+}
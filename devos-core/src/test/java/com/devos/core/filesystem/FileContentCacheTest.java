@@ -0,0 +1,103 @@
+package com.devos.core.filesystem;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FileContentCacheTest {
+
+    @TempDir
+    Path tmp;
+
+    private FileContentCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new FileContentCache();
+        ReflectionTestUtils.setField(cache, "offHeapMinKb", 1L);
+        cache.init();
+    }
+
+    @Test
+    void servesUnchangedFilesFromMemoryAndRereadsChangedOnes() throws IOException {
+        Path file = tmp.resolve("App.java");
+        Files.writeString(file, "class App {}");
+        FileTime modified = Files.getLastModifiedTime(file);
+
+        assertEquals("class App {}", cache.read(1L, file));
+        assertEquals("class App {}", cache.read(1L, file));
+        assertEquals(1, cache.getCache().getHits());
+
+        // Same size, different time
+        Files.writeString(file, "class Bpp {}");
+        Files.setLastModifiedTime(file, FileTime.fromMillis(modified.toMillis() + 2000));
+        assertEquals("class Bpp {}", cache.read(1L, file));
+
+        // Same time, different size
+        Files.writeString(file, "class App { int x; }");
+        Files.setLastModifiedTime(file, FileTime.fromMillis(modified.toMillis() + 2000));
+        assertEquals("class App { int x; }", cache.read(1L, file));
+    }
+
+    @Test
+    void keepsLargeFilesOffHeapAndInvalidatesWholeDirectories() throws IOException {
+        Path large = tmp.resolve("src/large.txt");
+        Path other = tmp.resolve("srcOther.txt");
+        Files.createDirectories(large.getParent());
+        String content = "é".repeat(4096);
+        Files.writeString(large, content);
+        Files.writeString(other, "other");
+
+        assertEquals(content, cache.read(1L, large));
+        cache.read(1L, other);
+        assertEquals(content, cache.read(1L, large));
+        assertEquals(2, cache.getCache().size());
+
+        cache.invalidate(1L, tmp.resolve("src"));
+        assertEquals(1, cache.getCache().size());
+        cache.invalidateProject(1L);
+        assertEquals(0, cache.getCache().size());
+    }
+
+    @Test
+    void forgetsEvictedPathsAndDropsSingleFiles() throws IOException {
+        ReflectionTestUtils.setField(cache, "maxWeightMb", 1L);
+        cache.init();
+        for (String name : new String[]{"a.txt", "b.txt", "c.txt"}) {
+            Files.writeString(tmp.resolve(name), "x".repeat(400 * 1024));
+            cache.read(1L, tmp.resolve(name));
+        }
+        Path small = tmp.resolve("small.txt");
+        Files.writeString(small, "small");
+        cache.read(1L, small);
+        cache.read(2L, small);
+
+        // a.txt made room for c.txt, and its path went with it
+        assertEquals(4, cache.getCache().size());
+        assertEquals(Set.of("b.txt", "c.txt", "small.txt"), cachedNames(1L));
+
+        cache.invalidate(1L, small);
+        assertEquals(Set.of("b.txt", "c.txt"), cachedNames(1L));
+        assertEquals(Set.of("small.txt"), cachedNames(2L));
+        assertEquals(3, cache.getCache().size());
+    }
+
+    @SuppressWarnings("unchecked")
+    private Set<String> cachedNames(Long projectId) {
+        Map<Long, Set<String>> paths = (Map<Long, Set<String>>) ReflectionTestUtils.getField(cache, "cachedPaths");
+        return paths.get(projectId).stream()
+                .map(path -> Path.of(path).getFileName().toString())
+                .collect(Collectors.toSet());
+    }
+}
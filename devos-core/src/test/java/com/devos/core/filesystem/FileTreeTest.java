@@ -0,0 +1,116 @@
+package com.devos.core.filesystem;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FileTreeTest {
+
+    @Test
+    void rendersDirectoriesFirstAndKeepsTrackOfChanges() {
+        FileTree tree = new FileTree(100);
+        tree.add("src/main/App.java", false);
+        tree.add("README.md", false);
+        tree.add("build.gradle", false);
+        tree.add("docs", true);
+        long generation = tree.getGeneration();
+
+        assertEquals(List.of("docs", "src", "build.gradle", "README.md"), names(tree.render().nodes()));
+        assertFalse(tree.add("src/main/App.java", false));
+        assertEquals(generation, tree.getGeneration());
+        assertSame(tree.render(), tree.render());
+
+        assertTrue(tree.remove("src/main"));
+        tree.add("docs/guide.md", false);
+        assertFalse(tree.contains("src/main/App.java"));
+        assertEquals(List.of(
+                new FileTree.Change(generation + 1, "deleted", "src/main", "directory"),
+                new FileTree.Change(generation + 2, "added", "docs/guide.md", "file")), tree.changesSince(generation));
+        assertEquals(List.of(), tree.changesSince(tree.getGeneration()));
+        assertNull(tree.changesSince(generation + 100));
+    }
+
+    @Test
+    void replaceWithOnlyRecordsDifferencesAndTrimsTheLog() {
+        FileTree tree = new FileTree(2);
+        tree.add("a/one.txt", false);
+        tree.add("a/two.txt", false);
+        long generation = tree.getGeneration();
+
+        FileTree other = new FileTree(2);
+        other.add("a/one.txt", false);
+        other.add("a/two.txt", true);
+        tree.replaceWith(other);
+
+        assertEquals(Map.of("a", true, "a/one.txt", false, "a/two.txt", true), tree.entries());
+        assertEquals(List.of("deleted", "added"), tree.changesSince(generation).stream()
+                .map(FileTree.Change::type)
+                .toList());
+        // Older generations have fallen out of the log
+        assertNull(tree.changesSince(generation - 1));
+    }
+
+    @Test
+    void listsOneLevelAtATimeWithCursors() {
+        FileTree tree = new FileTree(100);
+        tree.add("src/a.txt", false);
+        tree.add("src/b.txt", false);
+        tree.add("src/c.txt", false);
+        tree.add("src/lib/util.txt", false);
+        tree.add("src/empty", true);
+
+        FileTree.Level first = tree.list("src", null, 2);
+        assertEquals(5, first.total());
+        assertEquals(List.of("empty", "lib"), names(first.entries()));
+        assertEquals(Map.of("id", "src/lib", "name", "lib", "type", "directory", "childCount", 1, "hasChildren", true),
+                first.entries().get(1));
+        assertEquals(false, first.entries().get(0).get("hasChildren"));
+
+        // Entries removed or added around the cursor do not shift the next page
+        tree.remove("src/lib");
+        tree.add("src/0.txt", false);
+        FileTree.Level second = tree.list("src/", first.nextCursor(), 2);
+        assertEquals(List.of("0.txt", "a.txt"), names(second.entries()));
+        FileTree.Level last = tree.list("src", second.nextCursor(), 2);
+        assertEquals(List.of("b.txt", "c.txt"), names(last.entries()));
+        assertNull(last.nextCursor());
+
+        assertNull(tree.list("src/a.txt", null, 10));
+        assertThrows(IllegalArgumentException.class, () -> tree.list("src", "not a cursor", 10));
+    }
+
+    @Test
+    void handlesAHundredThousandEntriesInOneDirectory() {
+        List<Integer> order = new ArrayList<>();
+        for (int i = 0; i < 100_000; i++) order.add(i);
+        Collections.shuffle(order, new Random(42));
+
+        FileTree tree = new FileTree(100);
+        // Lookups, inserts and removals are binary searches, not walks over the siblings
+        assertTimeout(Duration.ofSeconds(10), () -> {
+            for (int i : order) tree.add(String.format("big/f%06d.txt", i), false);
+            for (int i : order) assertTrue(tree.contains(String.format("big/f%06d.txt", i)));
+            for (int i = 0; i < 100_000; i += 2) assertTrue(tree.remove(String.format("big/f%06d.txt", i)));
+        });
+        tree.add("big/sub", true);
+
+        FileTree.Level first = tree.list("big", null, 2);
+        assertEquals(50_001, first.total());
+        assertEquals(List.of("sub", "f000001.txt"), names(first.entries()));
+        FileTree.Level next = tree.list("big", first.nextCursor(), 3);
+        assertEquals(List.of("f000003.txt", "f000005.txt", "f000007.txt"), names(next.entries()));
+        assertFalse(tree.contains("big/f050000.txt"));
+        assertTrue(tree.contains("big/f050001.txt"));
+    }
+
+    private static List<Object> names(List<Map<String, Object>> nodes) {
+        return nodes.stream().map(node -> node.get("name")).toList();
+    }
+}
@@ -0,0 +1,102 @@
+package com.devos.core.filesystem;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProjectFileWalkerTest {
+
+    @TempDir
+    Path root;
+
+    private final ProjectFileWalker walker = new ProjectFileWalker();
+
+    @Test
+    void appliesNestedIgnoreFilesAndBuiltInSkips() throws IOException {
+        write(".gitignore", "*.log\n/out/\ngenerated/\n!keep.log\n");
+        write("src/.gitignore", "secret.txt\n");
+        write(".devosignore", "docs/**/draft-*.md\n");
+        write("app.log", "");
+        write("keep.log", "");
+        write("out/a.txt", "");
+        write("src/out/b.txt", "");
+        write("src/Main.java", "");
+        write("src/secret.txt", "");
+        write("src/generated/Gen.java", "");
+        write("docs/guide/draft-1.md", "");
+        write("docs/guide/final.md", "");
+        write("node_modules/lib/index.js", "");
+        write("frontend_deps/.gitignore", "*\n");
+        write("frontend_deps/huge.js", "");
+
+        Set<String> files = walk(ProjectFileWalker.WalkOptions.all());
+
+        assertEquals(new TreeSet<>(List.of(".devosignore", ".gitignore", "docs/guide/final.md", "keep.log",
+                "src/.gitignore", "src/Main.java", "src/out/b.txt")), files);
+    }
+
+    @Test
+    void filtersBinaryAndOversizedFiles() throws IOException {
+        write("small.txt", "hello");
+        write("large.txt", "x".repeat(100));
+        write("image.png", "not really");
+
+        Set<String> files = walk(ProjectFileWalker.WalkOptions.textFiles(50));
+
+        assertEquals(Set.of("small.txt"), files);
+        assertTrue(ProjectFileWalker.looksBinary(new byte[]{'a', 0, 'b'}));
+        assertFalse(ProjectFileWalker.looksBinary("plain".getBytes()));
+    }
+
+    @Test
+    void parallelWalkVisitsTheSameFiles() throws IOException {
+        write(".gitignore", "tmp/\n");
+        for (int i = 0; i < 5; i++) {
+            write("module" + i + "/src/File" + i + ".java", "");
+            write("module" + i + "/tmp/cache.bin", "");
+        }
+
+        Set<String> sequential = walk(ProjectFileWalker.WalkOptions.all());
+        Set<String> parallel = walk(ProjectFileWalker.WalkOptions.all().inParallel());
+
+        assertEquals(sequential, parallel);
+        assertEquals(6, parallel.size());
+    }
+
+    @Test
+    void walkingASubtreeHonoursAncestorRules() throws IOException {
+        write(".gitignore", "*.tmp\n");
+        write("a/b/keep.java", "");
+        write("a/b/skip.tmp", "");
+
+        Set<String> files = new ConcurrentSkipListSet<>();
+        walker.walk(root, root.resolve("a/b"), ProjectFileWalker.WalkOptions.all(),
+                (file, relativePath, attrs) -> files.add(relativePath));
+
+        assertEquals(Set.of("a/b/keep.java"), files);
+        assertTrue(walker.isIgnored(root, root.resolve("a/b/skip.tmp")));
+        assertTrue(walker.isIgnored(root, root.resolve("node_modules/x/y.js")));
+        assertFalse(walker.isIgnored(root, root.resolve("a/b/keep.java")));
+    }
+
+    private Set<String> walk(ProjectFileWalker.WalkOptions options) throws IOException {
+        Set<String> files = new ConcurrentSkipListSet<>();
+        walker.walk(root, options, (file, relativePath, attrs) -> files.add(relativePath));
+        return files;
+    }
+
+    private void write(String relativePath, String content) throws IOException {
+        Path file = root.resolve(relativePath);
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, content);
+    }
+}
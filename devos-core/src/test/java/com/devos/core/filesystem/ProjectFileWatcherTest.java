@@ -0,0 +1,94 @@
+package com.devos.core.filesystem;
+
+import com.devos.core.event.ProjectDeletedEvent;
+import com.devos.core.event.ProjectFilesChangedEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProjectFileWatcherTest {
+
+    @TempDir
+    Path root;
+
+    private final List<ProjectFilesChangedEvent> events = new CopyOnWriteArrayList<>();
+    private ProjectFileWatcher watcher;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        watcher = new ProjectFileWatcher(null, event -> events.add((ProjectFilesChangedEvent) event), new ProjectFileWalker());
+        ReflectionTestUtils.setField(watcher, "enabled", true);
+        ReflectionTestUtils.setField(watcher, "quietPeriodMs", 300L);
+        ReflectionTestUtils.setField(watcher, "maxDelayMs", 10000L);
+        watcher.start();
+        Files.writeString(root.resolve(".gitignore"), "*.log\n");
+        watcher.watch(1L, root);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        watcher.stop();
+    }
+
+    @Test
+    void coalescesBurstsAndSkipsIgnoredFiles() throws Exception {
+        Files.writeString(root.resolve("a.txt"), "a");
+        Files.writeString(root.resolve("app.log"), "ignored");
+        Thread.sleep(100);
+        watcher.flushPendingChanges();
+        assertEquals(List.of(), events);
+
+        Files.writeString(root.resolve("b.txt"), "b");
+        ProjectFilesChangedEvent event = awaitEvent();
+
+        assertEquals(Set.of("a.txt", "b.txt"), event.changedPaths());
+        assertFalse(event.rescan());
+        assertEquals(1, events.size());
+    }
+
+    @Test
+    void registersNewDirectoriesAndReportsDeletes() throws Exception {
+        Files.createDirectory(root.resolve("sub"));
+        assertTrue(awaitEvent().changedPaths().contains("sub"));
+
+        Files.writeString(root.resolve("sub/c.txt"), "c");
+        assertEquals(Set.of("sub/c.txt"), awaitEvent().changedPaths());
+
+        Files.delete(root.resolve("sub/c.txt"));
+        ProjectFilesChangedEvent deleted = awaitEvent();
+        assertEquals(Set.of("sub/c.txt"), deleted.deletedPaths());
+        assertEquals(Set.of(), deleted.changedPaths());
+    }
+
+    @Test
+    void stopsWatchingDeletedProjects() {
+        watcher.watch(1L, root);
+        assertTrue(watcher.isWatching(1L));
+
+        watcher.onProjectDeleted(new ProjectDeletedEvent(1L, root.toString()));
+        assertFalse(watcher.isWatching(1L));
+    }
+
+    // Flushes until the watcher publishes, as the scheduler would
+    private ProjectFilesChangedEvent awaitEvent() throws InterruptedException {
+        events.clear();
+        long deadline = System.currentTimeMillis() + 10000;
+        while (events.isEmpty() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+            watcher.flushPendingChanges();
+        }
+        assertFalse(events.isEmpty(), "No change event was published");
+        return events.get(0);
+    }
+}
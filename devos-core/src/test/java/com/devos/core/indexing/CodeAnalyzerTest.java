@@ -0,0 +1,74 @@
+package com.devos.core.indexing;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CodeAnalyzerTest {
+
+    @Test
+    void splitsCamelCaseAndKeepsOriginal() throws IOException {
+        List<String> tokens = tokens(CodeAnalyzer.subwords(SourceLanguage.OTHER), "getFileContent(HTTPServer2)");
+
+        assertTrue(tokens.containsAll(List.of("getfilecontent", "get", "file", "content")));
+        assertTrue(tokens.containsAll(List.of("httpserver2", "http", "server", "2")));
+    }
+
+    @Test
+    void splitsSnakeCaseAndQualifiedNames() throws IOException {
+        List<String> tokens = tokens(CodeAnalyzer.subwords(SourceLanguage.OTHER), "user_id = com.devos.Foo::bar");
+
+        assertTrue(tokens.containsAll(List.of("user_id", "user", "id")));
+        assertTrue(tokens.containsAll(List.of("com.devos.foo::bar", "devos", "foo", "bar")));
+        assertFalse(tokens.contains("="));
+    }
+
+    @Test
+    void removesKeywordsOfTheFileLanguageOnly() throws IOException {
+        String source = "public static function publicKey()";
+
+        List<String> java = tokens(CodeAnalyzer.subwords(SourceLanguage.JAVA), source);
+        assertFalse(java.contains("public"));
+        assertFalse(java.contains("static"));
+        assertTrue(java.contains("function"));
+        assertTrue(java.contains("publickey"));
+
+        List<String> javascript = tokens(CodeAnalyzer.subwords(SourceLanguage.JAVASCRIPT), source);
+        assertTrue(javascript.contains("public"));
+        assertFalse(javascript.contains("function"));
+    }
+
+    @Test
+    void exactVariantKeepsWholeIdentifiers() throws IOException {
+        List<String> tokens = tokens(CodeAnalyzer.exact(), "return getFileContent(user_id);");
+
+        assertEquals(List.of("return", "getFileContent", "user_id"), tokens);
+    }
+
+    @Test
+    void detectsLanguageFromExtension() {
+        assertEquals(SourceLanguage.JAVA, SourceLanguage.fromPath("src/Main.java"));
+        assertEquals(SourceLanguage.JAVASCRIPT, SourceLanguage.fromPath("web/app.TSX"));
+        assertEquals(SourceLanguage.OTHER, SourceLanguage.fromPath("my.dir/README"));
+    }
+
+    private static List<String> tokens(Analyzer analyzer, String text) throws IOException {
+        List<String> tokens = new ArrayList<>();
+        try (analyzer; TokenStream stream = analyzer.tokenStream(IndexFields.CONTENT, text)) {
+            CharTermAttribute term = stream.addAttribute(CharTermAttribute.class);
+            stream.reset();
+            while (stream.incrementToken()) {
+                tokens.add(term.toString());
+            }
+            stream.end();
+        }
+        return tokens;
+    }
+}
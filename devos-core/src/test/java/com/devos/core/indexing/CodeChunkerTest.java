@@ -0,0 +1,72 @@
+package com.devos.core.indexing;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CodeChunkerTest {
+
+    @Test
+    void startsChunksAtDeclarationsIncludingTheirComments() {
+        String source = """
+                package demo;
+
+                import java.util.List;
+
+                public class Orders {
+
+                    /**
+                     * Loads every order.
+                     */
+                    @Transactional
+                    public List<Order> findAll() {
+                        List<Order> orders = repository.findAll();
+                        orders.sort(BY_DATE);
+                        log.debug("Loaded {} orders", orders.size());
+                        audit.record("orders.read");
+                        return orders;
+                    }
+
+                    // Soft delete, the row is kept for reporting
+                    public void cancel(Order order) {
+                        order.setStatus(CANCELLED);
+                        repository.save(order);
+                        events.publish(new OrderCancelled(order));
+                        log.info("Cancelled {}", order.getId());
+                        metrics.increment("orders.cancelled");
+                        audit.record("orders.cancel");
+                    }
+                }
+                """;
+
+        List<CodeChunker.CodeChunk> chunks = CodeChunker.chunk(source, SymbolExtractor.extract(SourceLanguage.JAVA, source));
+
+        // The short class header is packed together with findAll
+        assertEquals(2, chunks.size(), chunks.toString());
+        assertEquals(1, chunks.get(0).startLine());
+        assertEquals(18, chunks.get(0).endLine());
+        assertEquals("Orders", chunks.get(0).symbol());
+        assertTrue(chunks.get(0).text().contains("findAll()"));
+        assertEquals(19, chunks.get(1).startLine());
+        assertEquals("Orders.cancel", chunks.get(1).symbol());
+        assertTrue(chunks.get(1).text().startsWith("    // Soft delete"));
+    }
+
+    @Test
+    void fallsBackToOverlappingWindows() {
+        String text = IntStream.rangeClosed(1, 100).mapToObj(i -> "line " + i).collect(Collectors.joining("\n"));
+
+        List<CodeChunker.CodeChunk> chunks = CodeChunker.chunk(text, List.of());
+
+        assertEquals(2, chunks.size());
+        assertEquals(1, chunks.get(0).startLine());
+        assertEquals(CodeChunker.MAX_CHUNK_LINES, chunks.get(0).endLine());
+        assertEquals(CodeChunker.MAX_CHUNK_LINES + 1 - CodeChunker.WINDOW_OVERLAP, chunks.get(1).startLine());
+        assertEquals(100, chunks.get(1).endLine());
+        assertNull(chunks.get(0).symbol());
+    }
+}
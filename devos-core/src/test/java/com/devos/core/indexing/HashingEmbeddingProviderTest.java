@@ -0,0 +1,41 @@
+package com.devos.core.indexing;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HashingEmbeddingProviderTest {
+
+    private final HashingEmbeddingProvider provider = new HashingEmbeddingProvider(128);
+
+    @Test
+    void producesDeterministicUnitVectors() throws IOException {
+        float[] first = provider.embed(List.of("loadUserProfile(id)")).get(0);
+        float[] second = provider.embed(List.of("loadUserProfile(id)")).get(0);
+
+        assertArrayEquals(first, second);
+        assertEquals(128, first.length);
+        assertEquals(1.0, dot(first, first), 1e-5);
+    }
+
+    @Test
+    void sharedSubwordsMakeTextsCloser() throws IOException {
+        List<float[]> vectors = provider.embed(List.of(
+                "user profile",
+                "public User loadUserProfile(long id) { return profiles.find(id); }",
+                "void renderChart(Canvas canvas, Series series)"));
+
+        assertTrue(dot(vectors.get(0), vectors.get(1)) > dot(vectors.get(0), vectors.get(2)));
+    }
+
+    private static double dot(float[] a, float[] b) {
+        double sum = 0;
+        for (int i = 0; i < a.length; i++) {
+            sum += a[i] * b[i];
+        }
+        return sum;
+    }
+}
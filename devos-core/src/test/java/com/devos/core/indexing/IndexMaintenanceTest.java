@@ -0,0 +1,112 @@
+package com.devos.core.indexing;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.index.Term;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IndexMaintenanceTest {
+
+    @TempDir
+    Path tmp;
+
+    private ProjectIndexRegistry registry;
+    private IndexMaintenance maintenance;
+
+    @BeforeEach
+    void setUp() {
+        registry = TestIndexRegistries.create(tmp);
+        // Keeps the merge policy from reclaiming the test's deletes on its own
+        ReflectionTestUtils.setField(registry, "deletesPctAllowed", 50.0);
+        maintenance = new IndexMaintenance(registry);
+        maintenance.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        maintenance.stop();
+        registry.closeAll();
+    }
+
+    @Test
+    void offPeakWindowMayWrapPastMidnight() {
+        ReflectionTestUtils.setField(maintenance, "offPeakHours", "1-5");
+        maintenance.parseOffPeakHours();
+        assertTrue(maintenance.isOffPeak(LocalTime.of(3, 0)));
+        assertFalse(maintenance.isOffPeak(LocalTime.of(5, 0)));
+
+        ReflectionTestUtils.setField(maintenance, "offPeakHours", "22-4");
+        maintenance.parseOffPeakHours();
+        assertTrue(maintenance.isOffPeak(LocalTime.of(23, 30)));
+        assertTrue(maintenance.isOffPeak(LocalTime.of(0, 15)));
+        assertFalse(maintenance.isOffPeak(LocalTime.of(12, 0)));
+
+        ReflectionTestUtils.setField(maintenance, "offPeakHours", "");
+        maintenance.parseOffPeakHours();
+        assertTrue(maintenance.isOffPeak(LocalTime.of(12, 0)));
+    }
+
+    @Test
+    void rejectsMalformedOffPeakHours() {
+        for (String hours : List.of("1", "1-5-7", "a-5", "1-", "0-24", "-1-5", "3-3")) {
+            ReflectionTestUtils.setField(maintenance, "offPeakHours", hours);
+            assertThrows(IllegalArgumentException.class, maintenance::parseOffPeakHours, hours);
+        }
+    }
+
+    @Test
+    void reportsDeletedDocumentsAndMergesThemAway() throws Exception {
+        updateDocuments("src/A.java", "src/B.java");
+        updateDocuments("src/A.java");
+
+        ReflectionTestUtils.setField(maintenance, "enabled", true);
+        ReflectionTestUtils.setField(maintenance, "maxDeletedRatio", 2.0); // Measure only
+        maintenance.runMaintenance();
+        IndexMaintenance.IndexStats before = single(maintenance.getStats());
+        assertEquals(2, before.documents());
+        assertTrue(before.deletedDocuments() > 0);
+        assertTrue(before.sizeInBytes() > 0);
+        assertNull(before.lastForceMerge());
+
+        ReflectionTestUtils.setField(maintenance, "maxDeletedRatio", 0.01);
+        maintenance.runMaintenance();
+        long deadline = System.currentTimeMillis() + 5000;
+        while (single(maintenance.getStats()).lastForceMerge() == null && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        IndexMaintenance.IndexStats after = single(maintenance.getStats());
+        assertNotNull(after.lastForceMerge());
+        assertEquals(0, after.deletedDocuments());
+        assertEquals(2, after.documents());
+    }
+
+    private void updateDocuments(String... paths) throws IOException {
+        registry.withWriter(1L, writer -> {
+            for (String path : paths) {
+                Document document = new Document();
+                document.add(new StringField(IndexFields.PATH, path, Field.Store.YES));
+                writer.updateDocument(new Term(IndexFields.PATH, path), document);
+            }
+            return null;
+        });
+        registry.commitNow(1L);
+        registry.refreshNow(1L, IndexKind.FILES);
+    }
+
+    private static IndexMaintenance.IndexStats single(List<IndexMaintenance.IndexStats> stats) {
+        assertEquals(1, stats.size());
+        return stats.get(0);
+    }
+}
@@ -0,0 +1,165 @@
+package com.devos.core.indexing;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.TermQuery;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class IndexSnapshotsTest {
+
+    @TempDir
+    Path tmp;
+
+    private final List<ProjectIndexRegistry> registries = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        registries.forEach(ProjectIndexRegistry::closeAll);
+    }
+
+    @Test
+    void restoresAnExportedSnapshotOnAnotherNode() throws IOException {
+        ProjectIndexRegistry source = registry("source");
+        ProjectIndexRegistry target = registry("target");
+        addDocument(source, "src/A.java");
+        addDocument(source, "src/B.java");
+        addDocument(target, "stale/Old.java");
+
+        byte[] archive = export(source);
+        new IndexSnapshots(target, cache(target)).restore(1L, new ByteArrayInputStream(archive));
+
+        assertEquals(2, numDocs(target));
+        // The source keeps working after its snapshot was released
+        addDocument(source, "src/C.java");
+        assertEquals(3, numDocs(source));
+    }
+
+    @Test
+    void rejectsACorruptedArchiveWithoutTouchingTheIndex() throws IOException {
+        ProjectIndexRegistry source = registry("source");
+        ProjectIndexRegistry target = registry("target");
+        addDocument(source, "src/A.java");
+        addDocument(target, "src/Local.java");
+
+        byte[] corrupted = flipByteOfFirstIndexFile(export(source));
+        IndexSnapshots snapshots = new IndexSnapshots(target, cache(target));
+        assertThrows(IllegalArgumentException.class,
+                () -> snapshots.restore(1L, new ByteArrayInputStream(corrupted)));
+        assertThrows(IllegalArgumentException.class,
+                () -> snapshots.restore(2L, new ByteArrayInputStream(export(source))));
+
+        assertEquals(1, numDocs(target));
+    }
+
+    @Test
+    void refusesToRestoreWhileTheIndexIsBeingWritten() throws Exception {
+        ProjectIndexRegistry source = registry("source");
+        ProjectIndexRegistry target = registry("target");
+        addDocument(source, "src/A.java");
+        addDocument(target, "src/Local.java");
+        byte[] archive = export(source);
+
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> job = executor.submit(() -> target.withWriter(1L, writer -> {
+                writing.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return null;
+            }));
+            assertTrue(writing.await(10, TimeUnit.SECONDS));
+
+            IndexSnapshots snapshots = new IndexSnapshots(target, cache(target));
+            assertThrows(IllegalStateException.class, () -> snapshots.restore(1L, new ByteArrayInputStream(archive)));
+            release.countDown();
+            job.get(10, TimeUnit.SECONDS);
+
+            snapshots.restore(1L, new ByteArrayInputStream(archive));
+            assertEquals(1, numDocs(target));
+            assertEquals(1, (int) target.withSearcher(1L,
+                    searcher -> searcher.count(new TermQuery(new Term(IndexFields.PATH, "src/A.java")))));
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    private ProjectIndexRegistry registry(String name) {
+        ProjectIndexRegistry registry = TestIndexRegistries.create(tmp.resolve(name));
+        registries.add(registry);
+        return registry;
+    }
+
+    private SearchResultCache cache(ProjectIndexRegistry registry) {
+        SearchResultCache cache = new SearchResultCache(registry);
+        ReflectionTestUtils.invokeMethod(cache, "init");
+        return cache;
+    }
+
+    private byte[] export(ProjectIndexRegistry registry) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new IndexSnapshots(registry, cache(registry)).export(1L, out);
+        return out.toByteArray();
+    }
+
+    private static void addDocument(ProjectIndexRegistry registry, String path) throws IOException {
+        registry.withWriter(1L, writer -> {
+            Document document = new Document();
+            document.add(new StringField(IndexFields.PATH, path, Field.Store.YES));
+            return writer.addDocument(document);
+        });
+        registry.commitNow(1L);
+        registry.refreshNow(1L, IndexKind.FILES);
+    }
+
+    private static int numDocs(ProjectIndexRegistry registry) throws IOException {
+        return registry.withSearcher(1L, searcher -> searcher.getIndexReader().numDocs());
+    }
+
+    private static byte[] flipByteOfFirstIndexFile(byte[] archive) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        boolean flipped = false;
+        try (ZipInputStream in = new ZipInputStream(new ByteArrayInputStream(archive));
+             ZipOutputStream zip = new ZipOutputStream(out)) {
+            ZipEntry entry;
+            while ((entry = in.getNextEntry()) != null) {
+                byte[] data = in.readAllBytes();
+                if (!flipped && !entry.getName().equals(IndexSnapshots.MANIFEST) && data.length > 0) {
+                    data[data.length / 2] ^= 1;
+                    flipped = true;
+                }
+                zip.putNextEntry(new ZipEntry(entry.getName()));
+                zip.write(data);
+                zip.closeEntry();
+            }
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,72 @@
+package com.devos.core.indexing;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PathIndexTest {
+
+    private static final long NOW = 1_700_000_000_000L;
+    private static final long OLD = NOW - 365L * 24 * 3600 * 1000;
+
+    @Test
+    void prefersBoundaryAndFileNameMatches() {
+        PathIndex index = new PathIndex();
+        index.add("src/main/java/com/devos/UserService.java", OLD);
+        index.add("src/main/java/com/devos/user/impl/SessionService.java", OLD);
+        index.add("docs/unused-resources.md", OLD);
+        index.add("README.md", OLD);
+
+        List<PathIndex.Match> matches = index.search("usrs", 10, NOW);
+
+        assertEquals("src/main/java/com/devos/UserService.java", matches.get(0).path());
+        assertFalse(paths(matches).contains("README.md"));
+        int[] positions = matches.get(0).positions();
+        assertEquals('U', matches.get(0).path().charAt(positions[0]));
+        assertEquals('S', matches.get(0).path().charAt(positions[3]));
+
+        // A separator in the query can only match across directories
+        assertEquals(List.of("src/main/java/com/devos/user/impl/SessionService.java"), paths(index.search("impl/sess", 10, NOW)));
+    }
+
+    @Test
+    void usesSmartCaseAndRecency() {
+        PathIndex index = new PathIndex();
+        index.add("web/app/readme.md", OLD);
+        index.add("web/api/ReadMe.md", OLD);
+        index.add("lib/foo.ts", OLD);
+        index.add("lib/fob.ts", NOW - 1000);
+
+        assertEquals(List.of("web/api/ReadMe.md"), paths(index.search("RM", 10, NOW)));
+        assertEquals(2, index.search("rm", 10, NOW).size());
+        assertEquals("lib/fob.ts", index.search("fo", 10, NOW).get(0).path());
+        assertEquals("lib/fob.ts", index.search("", 1, NOW).get(0).path());
+    }
+
+    @Test
+    void updatesIncrementallyAndCompacts() {
+        PathIndex index = new PathIndex();
+        for (int i = 0; i < 3000; i++) {
+            index.add("gen/part" + (i % 3) + "/File" + i + ".java", OLD);
+        }
+        index.add("src/Main.java", OLD);
+        index.add("src/Main.java", NOW);
+        assertEquals(3001, index.size());
+
+        index.remove("gen/part1");
+        index.remove("gen/part2"); // Crosses the tombstone threshold and compacts
+        index.remove("src/Main.java");
+        assertEquals(1000, index.size());
+        assertTrue(index.search("Main", 10, NOW).isEmpty());
+        assertEquals("gen/part0/File42.java", index.search("file42.", 10, NOW).get(0).path());
+
+        index.add("src/Main.java", NOW);
+        assertEquals("src/Main.java", index.search("main", 1, NOW).get(0).path());
+    }
+
+    private static List<String> paths(List<PathIndex.Match> matches) {
+        return matches.stream().map(PathIndex.Match::path).toList();
+    }
+}
@@ -0,0 +1,76 @@
+package com.devos.core.indexing;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.index.Term;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProjectIndexRegistryTest {
+
+    @TempDir
+    Path tmp;
+
+    private ProjectIndexRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        registry = TestIndexRegistries.create(tmp);
+    }
+
+    @AfterEach
+    void tearDown() {
+        registry.closeAll();
+    }
+
+    @Test
+    void deleteWaitsForWritesInProgress() throws Exception {
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<Long> job = executor.submit(() -> registry.withWriter(1L, writer -> {
+                writing.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                Document document = new Document();
+                document.add(new StringField(IndexFields.PATH, "src/A.java", Field.Store.YES));
+                return writer.updateDocument(new Term(IndexFields.PATH, "src/A.java"), document);
+            }));
+            assertTrue(writing.await(10, TimeUnit.SECONDS));
+
+            Future<?> delete = executor.submit(() -> {
+                registry.delete(1L);
+                return null;
+            });
+            assertThrows(TimeoutException.class, () -> delete.get(200, TimeUnit.MILLISECONDS));
+            assertTrue(Files.isDirectory(registry.indexDirectory(1L, IndexKind.FILES)));
+
+            // The write finishes on an open writer, then the index goes away
+            release.countDown();
+            job.get(10, TimeUnit.SECONDS);
+            delete.get(10, TimeUnit.SECONDS);
+            assertFalse(Files.exists(registry.indexDirectory(1L, IndexKind.FILES)));
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.devos.core.indexing;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.SortedDocValuesField;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.util.BytesRef;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QuerySuggesterTest {
+
+    @TempDir
+    Path tmp;
+
+    private ProjectIndexRegistry registry;
+    private QuerySuggester suggester;
+
+    @BeforeEach
+    void setUp() {
+        registry = TestIndexRegistries.create(tmp);
+        suggester = new QuerySuggester(registry);
+        suggester.start();
+    }
+
+    @AfterEach
+    void tearDown() {
+        suggester.stop();
+        registry.closeAll();
+    }
+
+    @Test
+    void completesSymbolsFileNamesAndSharedIdentifiers() throws IOException {
+        index("src/UserService.java", "class UserService { UserRepository userRepository; void save() {} }",
+                new CodeSymbol("UserService", CodeSymbol.Kind.CLASS, 1, 7, null));
+        index("src/UserController.java", "class UserController { UserRepository userRepository; String onlyHere; }",
+                new CodeSymbol("UserController", CodeSymbol.Kind.CLASS, 1, 7, null));
+        suggester.sync(1L);
+
+        // Declarations outrank identifiers, which need two files to be suggested at all
+        assertEquals(List.of("UserController", "UserService", "UserController.java", "UserService.java",
+                "UserRepository", "userRepository"), texts("User", null));
+        assertEquals(List.of("UserService", "UserService.java"), texts("serv", null));
+        assertEquals(List.of("UserService.java"), texts("serv", List.of(QuerySuggester.FILE)));
+        assertTrue(texts("onlyHere", null).isEmpty());
+        assertTrue(texts("class", null).isEmpty()); // Keywords are not identifiers
+    }
+
+    @Test
+    void syncPicksUpChangedAndDeletedFiles() throws IOException {
+        index("src/UserService.java", "class UserService {}",
+                new CodeSymbol("UserService", CodeSymbol.Kind.CLASS, 1, 7, null));
+        suggester.sync(1L);
+        assertEquals(List.of("UserService", "UserService.java"), texts("UserSe", null));
+
+        index("src/UserService.java", "class AccountService {}",
+                new CodeSymbol("AccountService", CodeSymbol.Kind.CLASS, 1, 7, null));
+        index("src/Billing.java", "class Billing {}", new CodeSymbol("Billing", CodeSymbol.Kind.CLASS, 1, 7, null));
+        suggester.sync(1L);
+        assertEquals(List.of("UserService.java"), texts("UserSe", null));
+        assertEquals(List.of("AccountService"), texts("acc", null));
+
+        registry.withWriter(1L, writer -> writer.deleteDocuments(new Term(IndexFields.PATH, "src/Billing.java")));
+        registry.commitNow(1L);
+        suggester.sync(1L);
+        assertTrue(texts("Bill", null).isEmpty());
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<String> texts(String query, List<String> types) throws IOException {
+        Map<String, Object> response = suggester.suggest(1L, query, 10, types);
+        assertEquals(true, response.get("ready"));
+        return ((List<Map<String, Object>>) response.get("suggestions")).stream()
+                .map(suggestion -> (String) suggestion.get("text"))
+                .toList();
+    }
+
+    private void index(String path, String source, CodeSymbol... symbols) throws IOException {
+        Document doc = new Document();
+        doc.add(new StringField(IndexFields.PATH, path, Field.Store.YES));
+        doc.add(new SortedDocValuesField(IndexFields.PATH_DV, new BytesRef(path)));
+        doc.add(new SortedDocValuesField(IndexFields.HASH,
+                new BytesRef(IndexFields.contentHash(source.getBytes(StandardCharsets.UTF_8)))));
+        doc.add(new StoredField(IndexFields.SOURCE, source));
+        doc.add(new StoredField(IndexFields.SYMBOLS, CodeSymbol.encode(List.of(symbols))));
+        registry.withWriter(1L, writer -> writer.updateDocument(new Term(IndexFields.PATH, path), doc));
+        registry.commitNow(1L);
+    }
+}
@@ -0,0 +1,35 @@
+package com.devos.core.indexing;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RankFusionTest {
+
+    @Test
+    void keysFoundByBothRetrieversRankFirst() {
+        Map<String, List<String>> rankings = new LinkedHashMap<>();
+        rankings.put("lexical", List.of("a", "b", "c"));
+        rankings.put("semantic", List.of("d", "c", "c", "a"));
+
+        List<RankFusion.Fused> fused = RankFusion.fuse(rankings, Map.of(), 60);
+
+        assertEquals(List.of("a", "c", "d", "b"), fused.stream().map(RankFusion.Fused::key).toList());
+        assertEquals(1.0 / 61 + 1.0 / 63, fused.get(0).score(), 1e-9);
+        assertEquals(Map.of("lexical", 3, "semantic", 2), fused.get(1).ranks());
+    }
+
+    @Test
+    void weightsShiftTheOrder() {
+        Map<String, List<String>> rankings = new LinkedHashMap<>();
+        rankings.put("lexical", List.of("a", "b"));
+        rankings.put("semantic", List.of("b", "a"));
+
+        assertEquals("b", RankFusion.fuse(rankings, Map.of("semantic", 2.0), 60).get(0).key());
+        assertEquals("a", RankFusion.fuse(rankings, Map.of("semantic", 0.5), 60).get(0).key());
+    }
+}
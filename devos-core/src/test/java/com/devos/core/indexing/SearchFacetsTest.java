@@ -0,0 +1,74 @@
+package com.devos.core.indexing;
+
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.search.MultiCollector;
+import org.apache.lucene.search.TopScoreDocCollector;
+import org.apache.lucene.store.ByteBuffersDirectory;
+import org.apache.lucene.store.Directory;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SearchFacetsTest {
+
+    @Test
+    void countsAndFiltersByDimension() throws IOException {
+        try (Directory directory = new ByteBuffersDirectory()) {
+            try (IndexWriter writer = new IndexWriter(directory, new IndexWriterConfig(new StandardAnalyzer()))) {
+                add(writer, "src/Main.java", 500);
+                add(writer, "src/Util.java", 20_000);
+                writer.commit(); // Two segments, so counts are merged across leaves
+                add(writer, "web/app.ts", 2_000);
+                add(writer, "README", 100);
+            }
+
+            try (DirectoryReader reader = DirectoryReader.open(directory)) {
+                IndexSearcher searcher = new IndexSearcher(reader);
+
+                Map<String, List<Map<String, Object>>> all = count(searcher, Map.of());
+                assertEquals(List.of(Map.of("value", "src", "count", 2), Map.of("value", "/", "count", 1),
+                        Map.of("value", "web", "count", 1)), all.get(SearchFacets.TOP_DIR));
+                assertEquals(Map.of("value", "none", "count", 1), all.get(SearchFacets.EXTENSION).get(1));
+
+                Map<String, List<String>> filters = SearchFacets.parseFilters(List.of("language:java", "language:typescript", "size_bucket:0-1kb"));
+                Map<String, List<Map<String, Object>>> drilled = count(searcher, filters);
+                assertEquals(List.of(Map.of("value", "java", "count", 1)), drilled.get(SearchFacets.LANGUAGE));
+            }
+        }
+    }
+
+    @Test
+    void rejectsUnknownDimensions() {
+        assertThrows(IllegalArgumentException.class, () -> SearchFacets.parseFilters(List.of("author:bob")));
+        assertThrows(IllegalArgumentException.class, () -> SearchFacets.parseFilters(List.of("language")));
+        assertEquals("100kb-1mb", SearchFacets.sizeBucket(1024 * 1024 - 1));
+        assertEquals("1mb+", SearchFacets.sizeBucket(1024 * 1024));
+    }
+
+    private static Map<String, List<Map<String, Object>>> count(IndexSearcher searcher, Map<String, List<String>> filters)
+            throws IOException {
+        SearchFacets.Counter counter = new SearchFacets.Counter();
+        searcher.search(SearchFacets.applyFilters(new MatchAllDocsQuery(), filters),
+                MultiCollector.wrap(TopScoreDocCollector.create(10, Integer.MAX_VALUE), counter));
+        return counter.getCounts();
+    }
+
+    private static void add(IndexWriter writer, String path, long size) throws IOException {
+        Document doc = new Document();
+        doc.add(new StringField(IndexFields.PATH, path, Field.Store.YES));
+        SearchFacets.addFields(doc, path, size);
+        writer.addDocument(doc);
+    }
+}
@@ -0,0 +1,79 @@
+package com.devos.core.indexing;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.SortedDocValuesField;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.util.BytesRef;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SemanticIndexerTest {
+
+    @TempDir
+    Path tmp;
+
+    private ProjectIndexRegistry registry;
+    private SemanticIndexer indexer;
+
+    @BeforeEach
+    void setUp() {
+        registry = TestIndexRegistries.create(tmp);
+        indexer = new SemanticIndexer(registry, new HashingEmbeddingProvider(64));
+        ReflectionTestUtils.setField(indexer, "batchSize", 64);
+    }
+
+    @AfterEach
+    void tearDown() {
+        registry.closeAll();
+    }
+
+    @Test
+    void reusesTheVectorsOfUnchangedChunks() throws IOException {
+        String original = lines(150, "");
+        putFile("notes/a.txt", original);
+        putFile("notes/b.txt", lines(150, "b"));
+        SemanticIndexer.SyncStats first = indexer.sync(1L);
+        assertEquals(0, first.getReused());
+        int chunksPerFile = first.getEmbedded() / 2;
+        assertTrue(chunksPerFile > 1);
+
+        // Only the last window of a.txt changes
+        putFile("notes/a.txt", original + "\nappended");
+        SemanticIndexer.SyncStats second = indexer.sync(1L);
+
+        assertEquals(1, second.getChangedFiles());
+        assertEquals(chunksPerFile - 1, second.getReused());
+        assertEquals(1, second.getEmbedded());
+    }
+
+    private void putFile(String path, String content) throws IOException {
+        Document doc = new Document();
+        doc.add(new StringField(IndexFields.PATH, path, Field.Store.YES));
+        doc.add(new SortedDocValuesField(IndexFields.PATH_DV, new BytesRef(path)));
+        doc.add(new SortedDocValuesField(IndexFields.HASH,
+                new BytesRef(IndexFields.contentHash(content.getBytes(StandardCharsets.UTF_8)))));
+        doc.add(new StoredField(IndexFields.SOURCE, content));
+        registry.withWriter(1L, writer -> writer.updateDocument(new Term(IndexFields.PATH, path), doc));
+        registry.commitNow(1L);
+    }
+
+    private static String lines(int count, String prefix) {
+        return IntStream.rangeClosed(1, count)
+                .mapToObj(i -> prefix + "line " + i + " of plain text")
+                .collect(Collectors.joining("\n"));
+    }
+}
@@ -0,0 +1,173 @@
+package com.devos.core.indexing;
+
+import com.devos.core.indexing.CodeSymbol.Kind;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SymbolExtractorTest {
+
+    @Test
+    void extractsJavaDeclarations() {
+        String source = """
+                package demo;
+
+                // class Commented {}
+                @Service
+                public class UserService implements Lookup {
+                    private static final String PREFIX = "class Fake {";
+                    private final Map<Long, User> users = new HashMap<>();
+
+                    public UserService(Repo repo) {
+                        if (repo != null) {
+                            load(repo);
+                        }
+                    }
+
+                    @Override
+                    public Optional<User> findUser(Long id) {
+                        return Optional.ofNullable(users.get(id));
+                    }
+
+                    enum Status { ACTIVE, DISABLED }
+                }
+                """;
+
+        List<CodeSymbol> symbols = SymbolExtractor.extract(SourceLanguage.JAVA, source);
+
+        assertSymbol(symbols, "UserService", Kind.CLASS, 5, null);
+        assertSymbol(symbols, "PREFIX", Kind.FIELD, 6, "UserService");
+        assertSymbol(symbols, "users", Kind.FIELD, 7, "UserService");
+        assertSymbol(symbols, "findUser", Kind.METHOD, 16, "UserService");
+        assertSymbol(symbols, "Status", Kind.ENUM, 20, "UserService");
+        assertNoSymbol(symbols, "Commented");
+        assertNoSymbol(symbols, "Fake");
+        assertNoSymbol(symbols, "load");
+        assertEquals(27, find(symbols, "findUser").column());
+    }
+
+    @Test
+    void extractsTypeScriptDeclarations() {
+        String source = """
+                export interface Props {
+                  title: string;
+                  onClose?(): void;
+                }
+
+                export class Dialog extends Component<Props> {
+                  private visible = false;
+
+                  async open(delay: number): Promise<void> {
+                    const inner = () => this.show();
+                  }
+                }
+
+                export const formatTitle = (title: string) => title.trim();
+                function helper(x) { return x; }
+                type Id = string | number;
+                """;
+
+        List<CodeSymbol> symbols = SymbolExtractor.extract(SourceLanguage.JAVASCRIPT, source);
+
+        assertSymbol(symbols, "Props", Kind.INTERFACE, 1, null);
+        assertSymbol(symbols, "title", Kind.FIELD, 2, "Props");
+        assertSymbol(symbols, "onClose", Kind.METHOD, 3, "Props");
+        assertSymbol(symbols, "Dialog", Kind.CLASS, 6, null);
+        assertSymbol(symbols, "visible", Kind.FIELD, 7, "Dialog");
+        assertSymbol(symbols, "open", Kind.METHOD, 9, "Dialog");
+        assertSymbol(symbols, "formatTitle", Kind.FUNCTION, 14, null);
+        assertSymbol(symbols, "helper", Kind.FUNCTION, 15, null);
+        assertSymbol(symbols, "Id", Kind.TYPE, 16, null);
+    }
+
+    @Test
+    void extractsPythonDeclarations() {
+        String source = """
+                class Repository:
+                    \"\"\"def not_a_function(): pass\"\"\"
+                    table: str
+                    limit = 10
+
+                    def __init__(self, db):
+                        self.db = db
+
+                    async def fetch(self, key):
+                        return self.db.get(key)
+
+                def main():
+                    pass
+                """;
+
+        List<CodeSymbol> symbols = SymbolExtractor.extract(SourceLanguage.PYTHON, source);
+
+        assertSymbol(symbols, "Repository", Kind.CLASS, 1, null);
+        assertSymbol(symbols, "table", Kind.FIELD, 3, "Repository");
+        assertSymbol(symbols, "limit", Kind.FIELD, 4, "Repository");
+        assertSymbol(symbols, "__init__", Kind.METHOD, 6, "Repository");
+        assertSymbol(symbols, "db", Kind.FIELD, 7, "Repository");
+        assertSymbol(symbols, "fetch", Kind.METHOD, 9, "Repository");
+        assertSymbol(symbols, "main", Kind.FUNCTION, 12, null);
+        assertNoSymbol(symbols, "not_a_function");
+    }
+
+    @Test
+    void extractsGoDeclarations() {
+        String source = """
+                package server
+
+                type Server struct {
+                	addr string
+                	mu   sync.Mutex
+                }
+
+                type Handler interface {
+                	Serve(req *Request) error
+                }
+
+                func (s *Server) Start() error {
+                	return nil
+                }
+
+                func New(addr string) *Server {
+                	return &Server{addr: addr}
+                }
+                """;
+
+        List<CodeSymbol> symbols = SymbolExtractor.extract(SourceLanguage.GO, source);
+
+        assertSymbol(symbols, "Server", Kind.STRUCT, 3, null);
+        assertSymbol(symbols, "addr", Kind.FIELD, 4, "Server");
+        assertSymbol(symbols, "mu", Kind.FIELD, 5, "Server");
+        assertSymbol(symbols, "Handler", Kind.INTERFACE, 8, null);
+        assertSymbol(symbols, "Serve", Kind.METHOD, 9, "Handler");
+        assertSymbol(symbols, "Start", Kind.METHOD, 12, "Server");
+        assertSymbol(symbols, "New", Kind.FUNCTION, 16, null);
+    }
+
+    @Test
+    void encodesAndDecodesSymbols() {
+        List<CodeSymbol> symbols = List.of(
+                new CodeSymbol("Main", Kind.CLASS, 1, 14, null),
+                new CodeSymbol("run", Kind.METHOD, 3, 17, "Main"));
+
+        assertEquals(symbols, CodeSymbol.decode(CodeSymbol.encode(symbols)));
+    }
+
+    private static void assertSymbol(List<CodeSymbol> symbols, String name, Kind kind, int line, String container) {
+        CodeSymbol symbol = find(symbols, name);
+        assertNotNull(symbol, "Missing symbol " + name + " in " + symbols);
+        assertEquals(kind, symbol.kind(), name);
+        assertEquals(line, symbol.line(), name);
+        assertEquals(container, symbol.container(), name);
+    }
+
+    private static void assertNoSymbol(List<CodeSymbol> symbols, String name) {
+        assertNull(find(symbols, name), "Unexpected symbol " + name);
+    }
+
+    private static CodeSymbol find(List<CodeSymbol> symbols, String name) {
+        return symbols.stream().filter(symbol -> symbol.name().equals(name)).findFirst().orElse(null);
+    }
+}
@@ -0,0 +1,25 @@
+package com.devos.core.indexing;
+
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Path;
+
+/**
+ * Registries for tests: indexes under {@code indexPath}, refreshed after every update and
+ * never closed for being idle. Callers close them with {@link ProjectIndexRegistry#closeAll()}.
+ */
+public final class TestIndexRegistries {
+
+    private TestIndexRegistries() {
+    }
+
+    public static ProjectIndexRegistry create(Path indexPath) {
+        ProjectIndexRegistry registry = new ProjectIndexRegistry(event -> { });
+        ReflectionTestUtils.setField(registry, "indexPath", indexPath.toString());
+        ReflectionTestUtils.setField(registry, "maxOpen", 4);
+        ReflectionTestUtils.setField(registry, "idleTimeoutMs", 100000L);
+        ReflectionTestUtils.setField(registry, "refreshAfterUpdates", 1);
+        ReflectionTestUtils.setField(registry, "ramBufferMb", 16.0);
+        return registry;
+    }
+}
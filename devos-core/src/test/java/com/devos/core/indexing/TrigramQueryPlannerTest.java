@@ -0,0 +1,79 @@
+package com.devos.core.indexing;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+import org.apache.lucene.search.Query;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TrigramQueryPlannerTest {
+
+    @Test
+    void literalRequiresAllOfItsTrigrams() {
+        Query query = TrigramQueryPlanner.plan("getUser", false);
+
+        assertEquals("ConstantScore(+trigram:get +trigram:etu +trigram:tus +trigram:use +trigram:ser)", query.toString());
+    }
+
+    @Test
+    void literalIsFoldedLikeTheIndexedTrigrams() throws IOException {
+        String text = "İstanbul";
+        List<String> indexed = new ArrayList<>();
+        try (Analyzer analyzer = TrigramQueryPlanner.analyzer();
+             TokenStream stream = analyzer.tokenStream(IndexFields.TRIGRAM, text)) {
+            CharTermAttribute term = stream.addAttribute(CharTermAttribute.class);
+            stream.reset();
+            while (stream.incrementToken()) {
+                indexed.add("+trigram:" + term);
+            }
+            stream.end();
+        }
+
+        assertEquals("ConstantScore(" + String.join(" ", indexed) + ")", TrigramQueryPlanner.plan(text, false).toString());
+    }
+
+    @Test
+    void literalIsNotInterpretedAsRegex() {
+        Query query = TrigramQueryPlanner.plan("a.b*c", false);
+
+        assertEquals("ConstantScore(+trigram:a.b +trigram:.b* +trigram:b*c)", query.toString());
+    }
+
+    @Test
+    void shortPatternsFallBackToFullScan() {
+        assertNull(TrigramQueryPlanner.plan("ab", false));
+        assertNull(TrigramQueryPlanner.plan(".*", true));
+        assertNull(TrigramQueryPlanner.plan("foo|x", true));
+    }
+
+    @Test
+    void alternationBecomesDisjunction() {
+        Query query = TrigramQueryPlanner.plan("(?:read|write)File", true);
+
+        assertEquals("ConstantScore((+trigram:rea +trigram:ead +trigram:adf +trigram:dfi +trigram:fil +trigram:ile)"
+                + " (+trigram:wri +trigram:rit +trigram:ite +trigram:tef +trigram:efi +trigram:fil +trigram:ile))",
+                query.toString());
+    }
+
+    @Test
+    void optionalPartsExpandIntoAlternatives() {
+        Query query = TrigramQueryPlanner.plan("colou?r", true);
+
+        assertEquals("ConstantScore((+trigram:col +trigram:olo +trigram:lou +trigram:our)"
+                + " (+trigram:col +trigram:olo +trigram:lor))", query.toString());
+    }
+
+    @Test
+    void wildcardsSplitRequiredLiterals() {
+        Query query = TrigramQueryPlanner.plan("\\bnew\\s+HashMap<.*>\\(", true);
+
+        assertEquals("ConstantScore(+trigram:new +(+trigram:has +trigram:ash +trigram:shm +trigram:hma +trigram:map +trigram:ap<))",
+                query.toString());
+    }
+}
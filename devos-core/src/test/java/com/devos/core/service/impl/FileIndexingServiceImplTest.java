@@ -0,0 +1,384 @@
+package com.devos.core.service.impl;
+
+import com.devos.core.domain.entity.Project;
+import com.devos.core.filesystem.ProjectFileWalker;
+import com.devos.core.filesystem.ProjectFileWatcher;
+import com.devos.core.indexing.IndexFields;
+import com.devos.core.indexing.IndexKind;
+import com.devos.core.indexing.IndexingJob;
+import com.devos.core.indexing.ProjectIndexRegistry;
+import com.devos.core.indexing.QuerySuggester;
+import com.devos.core.indexing.SearchResultCache;
+import com.devos.core.indexing.SemanticIndexer;
+import com.devos.core.indexing.TestIndexRegistries;
+import com.devos.core.repository.ProjectRepository;
+import com.devos.core.service.GitService;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.NumericDocValuesField;
+import org.apache.lucene.document.SortedDocValuesField;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.index.DocValues;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.NumericDocValues;
+import org.apache.lucene.index.ReaderUtil;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.util.BytesRef;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class FileIndexingServiceImplTest {
+
+    @TempDir
+    Path tmp;
+
+    @Mock
+    private ProjectRepository projectRepository;
+    @Mock
+    private ProjectFileWatcher projectFileWatcher;
+    @Mock
+    private SemanticIndexer semanticIndexer;
+    @Mock
+    private QuerySuggester querySuggester;
+    @Mock
+    private GitService gitService;
+
+    private ProjectIndexRegistry registry;
+    private FileIndexingServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        registry = TestIndexRegistries.create(tmp.resolve("index"));
+        SearchResultCache searchCache = new SearchResultCache(registry);
+        ReflectionTestUtils.invokeMethod(searchCache, "init");
+        service = new FileIndexingServiceImpl(projectRepository, registry, projectFileWatcher, searchCache,
+                new ProjectFileWalker(), semanticIndexer, querySuggester, gitService);
+        ReflectionTestUtils.setField(service, "indexingEnabled", true);
+        ReflectionTestUtils.setField(service, "maxFileSize", 1048576L);
+        ReflectionTestUtils.setField(service, "readerThreads", 2);
+        ReflectionTestUtils.setField(service, "indexerThreads", 2);
+        ReflectionTestUtils.setField(service, "queueCapacity", 16);
+        ReflectionTestUtils.setField(service, "maxCrossProjects", 50);
+        ReflectionTestUtils.setField(service, "crossProjectBudgetMs", 10000L);
+        service.startSearchExecutor();
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.stopSearchExecutor();
+        registry.closeAll();
+    }
+
+    @Test
+    void mergesProjectShardsAndAttributesEachHit() throws IOException {
+        Project first = project(1L, "first");
+        Project second = project(2L, "second");
+        write(first, "src/Needle.java", "class Needle { String needle = \"needle needle\"; }");
+        write(first, "src/Other.java", "class Other { }");
+        write(second, "docs/notes.md", "a needle in the notes");
+        index(first);
+        index(second);
+        // Closed indexes are read from disk, without reopening a writer
+        registry.close(1L);
+        when(projectRepository.findAllById(List.of(1L, 2L, 3L))).thenReturn(List.of(first, second));
+
+        Map<String, Object> response = service.searchAcrossProjects(List.of(1L, 2L, 3L, 2L), "needle", 10);
+
+        List<Map<String, Object>> results = results(response);
+        assertEquals(2, results.size());
+        assertEquals(List.of(1L, 2L), results.stream().map(result -> result.get("projectId")).sorted().toList());
+        for (Map<String, Object> result : results) {
+            boolean fromFirst = result.get("projectId").equals(1L);
+            assertEquals(fromFirst ? "first" : "second", result.get("projectName"));
+            assertEquals(fromFirst ? "src/Needle.java" : "docs/notes.md", result.get("path"));
+            assertFalse(((List<?>) result.get("snippets")).isEmpty());
+        }
+        assertTrue((float) results.get(0).get("score") >= (float) results.get(1).get("score"));
+        assertEquals(2, response.get("projectsSearched"));
+        assertEquals(2L, response.get("totalHits"));
+
+        // Project 3 has no index, and searching it must not create one
+        assertFalse(Files.exists(registry.indexDirectory(3L, IndexKind.FILES)));
+        assertEquals(List.of(), registry.withReadOnlySearcher(1L, IndexKind.FILES, searcher -> List.of()));
+    }
+
+    @Test
+    void referencesCountEveryFileMentioningTheSymbol() throws IOException {
+        Project project = project(1L, "app");
+        for (int i = 0; i < 205; i++) {
+            write(project, "src/User" + i + ".java", "class User" + i + " { Widget widget; }");
+        }
+        index(project);
+
+        Map<String, Object> response = service.findReferences(1L, "Widget");
+
+        assertEquals(205L, response.get("totalFiles"));
+        assertEquals(200, ((List<?>) response.get("references")).size());
+        assertEquals(true, response.get("truncated"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void indexesGoAndTsxSymbols() throws IOException {
+        Project project = project(1L, "app");
+        write(project, "server/server.go", """
+                package server
+
+                type Server struct {
+                	port int
+                }
+
+                func NewServer(port int) *Server {
+                	return &Server{port: port}
+                }
+
+                func (s *Server) Start() error {
+                	return nil
+                }
+                """);
+        write(project, "cmd/main.go", """
+                package main
+
+                func main() {
+                	srv := server.NewServer(8080)
+                	srv.Start()
+                }
+                """);
+        write(project, "web/Button.tsx", "export function Button() {\n  return <button>ok</button>;\n}\n");
+        index(project);
+
+        List<Map<String, Object>> definitions =
+                (List<Map<String, Object>>) service.findDefinition(1L, "NewServer").get("definitions");
+        assertEquals(1, definitions.size());
+        assertEquals("server/server.go", definitions.get(0).get("path"));
+        assertEquals("FUNCTION", definitions.get(0).get("kind"));
+        assertEquals(7, definitions.get(0).get("line"));
+
+        List<Map<String, Object>> methods = (List<Map<String, Object>>) service.findDefinition(1L, "Start").get("definitions");
+        assertEquals("Server", single(methods).get("container"));
+
+        Map<String, Object> references = service.findReferences(1L, "NewServer");
+        assertEquals(2L, references.get("totalFiles"));
+        assertEquals(List.of("cmd/main.go", "server/server.go"), ((List<Map<String, Object>>) references.get("references"))
+                .stream().map(reference -> (String) reference.get("path")).sorted().toList());
+
+        List<Map<String, Object>> components =
+                (List<Map<String, Object>>) service.findDefinition(1L, "Button").get("definitions");
+        assertEquals("web/Button.tsx", single(components).get("path"));
+    }
+
+    @Test
+    void grepStopsOnceTheLimitIsReached() throws IOException {
+        Project project = project(1L, "app");
+        for (int i = 0; i < 50; i++) {
+            write(project, "src/File" + i + ".java", "// TODO first\n// TODO second\n");
+        }
+        write(project, "README.md", "no match here");
+        index(project);
+
+        Map<String, Object> response = service.grep(1L, "TODO", false, true, "*.java", 5);
+
+        List<Map<String, Object>> results = results(response);
+        assertEquals(5, results.size());
+        assertEquals(true, response.get("truncated"));
+        assertEquals(3, response.get("candidateFiles"));
+        // Ordered by path, then line
+        for (int i = 1; i < results.size(); i++) {
+            Map<String, Object> previous = results.get(i - 1);
+            Map<String, Object> current = results.get(i);
+            int byPath = ((String) previous.get("path")).compareTo((String) current.get("path"));
+            assertTrue(byPath < 0 || byPath == 0 && (int) previous.get("line") < (int) current.get("line"));
+        }
+    }
+
+    @Test
+    void reindexesOnlyWhatChangedSinceTheLastRun() throws IOException {
+        Project project = project(1L, "app");
+        write(project, "modified.txt", "before");
+        write(project, "touched.txt", "same content");
+        write(project, "deleted.txt", "going away");
+        write(project, "unchanged.txt", "left alone");
+        assertEquals(4, index(project).getStats().getRead());
+
+        // Swap the stored text so a rewrite of the touched file's document would show
+        Path touched = Path.of(project.getLocalPath(), "touched.txt");
+        long mtime = Files.getLastModifiedTime(touched).toMillis();
+        byte[] bytes = Files.readAllBytes(touched);
+        Document doc = new Document();
+        doc.add(new StringField(IndexFields.PATH, "touched.txt", Field.Store.YES));
+        doc.add(new SortedDocValuesField(IndexFields.PATH_DV, new BytesRef("touched.txt")));
+        doc.add(new SortedDocValuesField(IndexFields.HASH, new BytesRef(IndexFields.contentHash(bytes))));
+        doc.add(new NumericDocValuesField(IndexFields.SIZE, bytes.length));
+        doc.add(new NumericDocValuesField(IndexFields.MTIME, mtime));
+        doc.add(new StoredField(IndexFields.SOURCE, "indexed before the touch"));
+        registry.withWriter(1L, writer -> writer.updateDocument(new Term(IndexFields.PATH, "touched.txt"), doc));
+        registry.commitNow(1L);
+
+        write(project, "modified.txt", "after the edit");
+        Files.setLastModifiedTime(touched, FileTime.fromMillis(mtime + 60_000));
+        Files.delete(Path.of(project.getLocalPath(), "deleted.txt"));
+
+        IndexingJob job = index(project);
+
+        // The unchanged file is skipped on its mtime and size; the touched one is read to compare hashes
+        assertEquals(3, job.getStats().getWalked());
+        assertEquals(2, job.getStats().getRead());
+        assertEquals(2, job.getStats().getIndexed());
+        assertEquals("after the edit", storedSource("modified.txt"));
+        assertEquals("indexed before the touch", storedSource("touched.txt"));
+        assertEquals(mtime + 60_000, indexedMtime("touched.txt"));
+        assertEquals("left alone", storedSource("unchanged.txt"));
+        assertNull(storedSource("deleted.txt"));
+        assertEquals(3, (int) registry.withSearcher(1L, searcher -> searcher.getIndexReader().numDocs()));
+    }
+
+    @Test
+    void gitSyncReindexesOnlyTheChangedPaths() throws IOException {
+        Project project = gitProject();
+        write(project, "a.txt", "first");
+        write(project, "b.txt", "second");
+        when(gitService.getCurrentCommitHash(project.getLocalPath())).thenReturn("c1");
+        index(project);
+        assertEquals("c1", project.getGitCommitHash());
+
+        write(project, "a.txt", "first, edited");
+        write(project, "b.txt", "second, edited but not committed");
+        when(gitService.getCurrentCommitHash(project.getLocalPath())).thenReturn("c2");
+        when(gitService.getChangedPaths(project.getLocalPath(), "c1", "c2")).thenReturn(List.of("a.txt"));
+
+        IndexingJob job = run(project, IndexingJob.Type.GIT_SYNC);
+
+        assertEquals(0, job.getStats().getWalked());
+        assertEquals("first, edited", storedSource("a.txt"));
+        assertEquals("second", storedSource("b.txt"));
+        assertEquals("c2", project.getGitCommitHash());
+    }
+
+    @Test
+    void gitSyncWalksTheTreeOutsideARepository() throws IOException {
+        Project project = project(1L, "app");
+        write(project, "a.txt", "first");
+
+        IndexingJob job = run(project, IndexingJob.Type.GIT_SYNC);
+
+        assertEquals(1, job.getStats().getWalked());
+        assertEquals("first", storedSource("a.txt"));
+        verifyNoInteractions(gitService);
+    }
+
+    @Test
+    void gitSyncWalksTheTreeWithoutARecordedCommit() throws IOException {
+        Project project = gitProject();
+        write(project, "a.txt", "first");
+        when(gitService.getCurrentCommitHash(project.getLocalPath())).thenReturn("c1");
+
+        IndexingJob job = run(project, IndexingJob.Type.GIT_SYNC);
+
+        assertEquals(1, job.getStats().getWalked());
+        assertEquals("first", storedSource("a.txt"));
+        assertEquals("c1", project.getGitCommitHash());
+        verify(gitService, never()).getChangedPaths(any(), any(), any());
+    }
+
+    @Test
+    void gitSyncWalksTheTreeWhenTheDiffFails() throws IOException {
+        Project project = gitProject();
+        write(project, "a.txt", "first");
+        write(project, "b.txt", "second");
+        when(gitService.getCurrentCommitHash(project.getLocalPath())).thenReturn("c1");
+        index(project);
+
+        write(project, "b.txt", "second, edited");
+        when(gitService.getCurrentCommitHash(project.getLocalPath())).thenReturn("c2");
+        // e.g. c1 was garbage collected after a force push
+        when(gitService.getChangedPaths(project.getLocalPath(), "c1", "c2"))
+                .thenThrow(new RuntimeException("Unknown commit: c1"));
+
+        IndexingJob job = run(project, IndexingJob.Type.GIT_SYNC);
+
+        assertEquals(2, job.getStats().getWalked());
+        assertEquals(1, job.getStats().getRead());
+        assertEquals("second, edited", storedSource("b.txt"));
+        assertEquals("c2", project.getGitCommitHash());
+    }
+
+    private Project project(Long id, String name) throws IOException {
+        Path root = Files.createDirectories(tmp.resolve(name));
+        return Project.builder().id(id).name(name).localPath(root.toString()).build();
+    }
+
+    // The head commit is read from the mocked GitService once a .git directory exists
+    private Project gitProject() throws IOException {
+        Project project = project(1L, "app");
+        Files.createDirectories(Path.of(project.getLocalPath(), ".git"));
+        return project;
+    }
+
+    private IndexingJob index(Project project) throws IOException {
+        return run(project, IndexingJob.Type.INCREMENTAL);
+    }
+
+    private IndexingJob run(Project project, IndexingJob.Type type) throws IOException {
+        when(projectRepository.findById(project.getId())).thenReturn(Optional.of(project));
+        IndexingJob job = new IndexingJob(project.getId(), type, IndexingJob.Priority.NORMAL);
+        job.markRunning();
+        service.runIndexingJob(job);
+        return job;
+    }
+
+    private String storedSource(String path) throws IOException {
+        return registry.withSearcher(1L, searcher -> {
+            ScoreDoc[] hits = searcher.search(new TermQuery(new Term(IndexFields.PATH, path)), 1).scoreDocs;
+            return hits.length == 0 ? null : searcher.storedFields().document(hits[0].doc).get(IndexFields.SOURCE);
+        });
+    }
+
+    private long indexedMtime(String path) throws IOException {
+        return registry.withSearcher(1L, searcher -> {
+            int doc = searcher.search(new TermQuery(new Term(IndexFields.PATH, path)), 1).scoreDocs[0].doc;
+            List<LeafReaderContext> leaves = searcher.getIndexReader().leaves();
+            LeafReaderContext leaf = leaves.get(ReaderUtil.subIndex(doc, leaves));
+            NumericDocValues mtimes = DocValues.getNumeric(leaf.reader(), IndexFields.MTIME);
+            assertTrue(mtimes.advanceExact(doc - leaf.docBase));
+            return mtimes.longValue();
+        });
+    }
+
+    private static void write(Project project, String relativePath, String content) throws IOException {
+        Path file = Path.of(project.getLocalPath()).resolve(relativePath);
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, content);
+    }
+
+    private static Map<String, Object> single(List<Map<String, Object>> entries) {
+        assertEquals(1, entries.size());
+        return entries.get(0);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<Map<String, Object>> results(Map<String, Object> response) {
+        assertNull(response.get("error"), () -> String.valueOf(response.get("error")));
+        return (List<Map<String, Object>>) response.get("results");
+    }
+}
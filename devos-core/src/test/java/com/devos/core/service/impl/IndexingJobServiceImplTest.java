@@ -0,0 +1,90 @@
+package com.devos.core.service.impl;
+
+import com.devos.core.indexing.IndexingJob;
+import com.devos.core.service.FileIndexingService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+
+@ExtendWith(MockitoExtension.class)
+class IndexingJobServiceImplTest {
+
+    @Mock
+    private FileIndexingService fileIndexingService;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @InjectMocks
+    private IndexingJobServiceImpl jobService;
+
+    @AfterEach
+    void tearDown() {
+        jobService.stop();
+    }
+
+    @Test
+    void runsHighestPriorityFirstAndMergesRequestsForAQueuedProject() throws Exception {
+        List<Long> order = new CopyOnWriteArrayList<>();
+        CountDownLatch done = new CountDownLatch(3);
+        doAnswer(invocation -> {
+            order.add(invocation.<IndexingJob>getArgument(0).getProjectId());
+            done.countDown();
+            return null;
+        }).when(fileIndexingService).runIndexingJob(any());
+
+        IndexingJob low = jobService.submit(1L, IndexingJob.Type.INCREMENTAL, IndexingJob.Priority.LOW);
+        jobService.submit(2L, IndexingJob.Type.FULL, IndexingJob.Priority.NORMAL);
+        IndexingJob high = jobService.submit(3L, IndexingJob.Type.FULL, IndexingJob.Priority.HIGH);
+        assertSame(high, jobService.submit(3L, IndexingJob.Type.INCREMENTAL, IndexingJob.Priority.LOW));
+
+        IndexingJob full = jobService.submit(1L, IndexingJob.Type.FULL, IndexingJob.Priority.LOW);
+        assertNotSame(low, full);
+        assertEquals(IndexingJob.State.CANCELLED, low.getState());
+
+        ReflectionTestUtils.setField(jobService, "workers", 1);
+        jobService.start();
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of(3L, 2L, 1L), order);
+    }
+
+    @Test
+    void cancelStopsARunningJob() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            IndexingJob job = invocation.getArgument(0);
+            started.countDown();
+            while (!job.isCancelRequested()) {
+                Thread.sleep(5);
+            }
+            throw new CancellationException();
+        }).when(fileIndexingService).runIndexingJob(any());
+
+        jobService.start();
+        IndexingJob job = jobService.submit(1L, IndexingJob.Type.FULL, IndexingJob.Priority.NORMAL);
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        assertEquals(IndexingJob.State.RUNNING, job.getState());
+
+        assertTrue(jobService.cancel(job.getId()));
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!job.getState().isFinished() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(IndexingJob.State.CANCELLED, job.getState());
+        assertFalse(jobService.cancel(job.getId()));
+    }
+}
@@ -1,10 +1,11 @@
 package com.devos.file.service.impl;
 
-import com.devos.core.domain.entity.Project;
-import com.devos.core.repository.ProjectRepository;
+import com.devos.core.cache.ProjectAccessCache;
+import com.devos.core.filesystem.FileContentCache;
+import com.devos.core.filesystem.FileTreeRegistry;
+import com.devos.core.indexing.PathIndexRegistry;
 import com.devos.core.service.FileService;
 import com.devos.core.service.FileIndexingService;
-import com.devos.core.service.AuthService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -15,6 +16,7 @@ import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.*;
 import java.util.Comparator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Stream;
@@ -24,9 +26,11 @@ import java.util.stream.Stream;
 @Slf4j
 public class FileServiceImpl implements FileService {
 
-    private final ProjectRepository projectRepository;
-    private final AuthService authService;
     private final FileIndexingService fileIndexingService;
+    private final PathIndexRegistry pathIndexRegistry;
+    private final FileTreeRegistry fileTreeRegistry;
+    private final FileContentCache fileContentCache;
+    private final ProjectAccessCache projectAccessCache;
 
     @Override
     @Transactional(readOnly = true)
@@ -46,13 +50,22 @@ public class FileServiceImpl implements FileService {
             if (!Files.exists(fullPath)) {
                 throw new RuntimeException("File not found: " + filePath);
             }
-            return Files.readString(fullPath, StandardCharsets.UTF_8);
+            return fileContentCache.read(projectId, fullPath);
         } catch (IOException e) {
             log.error("Error reading file: {}", fullPath, e);
             throw new RuntimeException("Failed to read file content", e);
         }
     }
 
+    @Override
+    public Path resolveFilePath(Long projectId, String filePath) {
+        Path fullPath = validateAndResolvePath(projectId, filePath);
+        if (!Files.isRegularFile(fullPath)) {
+            throw new RuntimeException("File not found: " + filePath);
+        }
+        return fullPath;
+    }
+
     @Override
     @Transactional
     public void setFileContent(Long projectId, String filePath, String content) {
@@ -63,7 +76,9 @@ public class FileServiceImpl implements FileService {
         try {
             Files.createDirectories(fullPath.getParent());
             Files.writeString(fullPath, content, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+            fileContentCache.invalidate(projectId, fullPath);
             fileIndexingService.updateIndex(projectId, filePath, content);
+            fileTreeRegistry.applyChanges(projectId, List.of(filePath), List.of());
             log.info("File content updated: {}", fullPath);
         } catch (IOException e) {
             log.error("Error writing file: {}", fullPath, e);
@@ -84,9 +99,11 @@ public class FileServiceImpl implements FileService {
         try {
             Files.createDirectories(fullPath.getParent());
             file.transferTo(fullPath.toFile());
+            fileContentCache.invalidate(projectId, fullPath);
             
             String content = Files.readString(fullPath, StandardCharsets.UTF_8);
             fileIndexingService.updateIndex(projectId, finalPath, content);
+            fileTreeRegistry.applyChanges(projectId, List.of(finalPath), List.of());
             
             return Map.of(
                     "success", true,
@@ -191,6 +208,8 @@ public class FileServiceImpl implements FileService {
                 Files.deleteIfExists(fullPath);
                 fileIndexingService.removeFromIndex(projectId, filePath);
             }
+            fileContentCache.invalidate(projectId, fullPath);
+            fileTreeRegistry.applyChanges(projectId, List.of(), List.of(filePath));
             log.info("File/Directory deleted: {}", fullPath);
         } catch (IOException e) {
             log.error("Error deleting file: {}", fullPath, e);
@@ -224,6 +243,9 @@ public class FileServiceImpl implements FileService {
         try {
             Files.createDirectories(target.getParent());
             Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+            fileContentCache.invalidate(projectId, source);
+            fileContentCache.invalidate(projectId, target);
+            fileTreeRegistry.applyChanges(projectId, List.of(targetPath), List.of(sourcePath));
             log.info("File moved from {} to {}", source, target);
             
             // Update index
@@ -237,6 +259,18 @@ public class FileServiceImpl implements FileService {
         }
     }
 
+    @Override
+    public Map<String, Object> findFiles(Long projectId, String query, int limit) {
+        List<Map<String, Object>> results = pathIndexRegistry.find(projectId, query == null ? "" : query,
+                Math.min(Math.max(1, limit), 200));
+
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("projectId", projectId);
+        response.put("query", query);
+        response.put("results", results);
+        return response;
+    }
+
     @Override
     public Object searchInFiles(Long projectId, String query, String filePattern, Boolean caseSensitive) {
         log.info("Initiating search in project: {} for query: {}", projectId, query);
@@ -244,15 +278,8 @@ public class FileServiceImpl implements FileService {
     }
 
     private Path validateAndResolvePath(Long projectId, String relativePath) {
-        Project project = projectRepository.findById(projectId)
-                .orElseThrow(() -> new RuntimeException("Project not found: " + projectId));
-        
-        com.devos.core.domain.entity.User currentUser = authService.getCurrentUser();
-        if (!project.getUser().getId().equals(currentUser.getId())) {
-             throw new SecurityException("Access denied: You do not own this project");
-        }
-        
-        Path projectRoot = Paths.get(project.getLocalPath()).toAbsolutePath().normalize();
+        // Queries only on the first call of a request, so batches are not one lookup per operation
+        Path projectRoot = projectAccessCache.ownedProjectRoot(projectId);
         Path resolvedPath = projectRoot.resolve(relativePath).normalize();
         
         if (!resolvedPath.startsWith(projectRoot)) {
@@ -1,15 +1,21 @@
 package com.devos.file.service.impl;
 
+import com.devos.core.event.GitHeadChangedEvent;
 import com.devos.core.service.GitService;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.eclipse.jgit.api.Git;
 import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.diff.DiffEntry;
+import org.eclipse.jgit.diff.DiffFormatter;
 import org.eclipse.jgit.lib.ObjectId;
 import org.eclipse.jgit.lib.Ref;
 import org.eclipse.jgit.lib.Repository;
 import org.eclipse.jgit.revwalk.RevCommit;
 import org.eclipse.jgit.revwalk.RevWalk;
 import org.eclipse.jgit.storage.file.FileRepositoryBuilder;
+import org.eclipse.jgit.util.io.DisabledOutputStream;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.io.File;
@@ -18,9 +24,12 @@ import java.util.*;
 import java.util.stream.Collectors;
 
 @Service
+@RequiredArgsConstructor
 @Slf4j
 public class GitServiceImpl implements GitService {
 
+    private final ApplicationEventPublisher eventPublisher;
+
     @Override
     public String getCurrentCommitHash(String projectPath) {
         try (Git git = openGitRepository(projectPath)) {
@@ -93,6 +102,7 @@ public class GitServiceImpl implements GitService {
         try (Git git = openGitRepository(projectPath)) {
             git.checkout().setName(branchName).call();
             log.info("Checked out branch: {} in project: {}", branchName, projectPath);
+            eventPublisher.publishEvent(new GitHeadChangedEvent(projectPath));
         } catch (GitAPIException e) {
             log.error("Error checking out branch", e);
             throw new RuntimeException("Failed to checkout branch", e);
@@ -122,6 +132,7 @@ public class GitServiceImpl implements GitService {
             git.merge().include(git.getRepository().findRef(sourceBranch)).call();
             
             log.info("Merged branch {} into {} in project: {}", sourceBranch, targetBranch, projectPath);
+            eventPublisher.publishEvent(new GitHeadChangedEvent(projectPath));
             return getCurrentCommitHash(projectPath);
         } catch (Exception e) {
             log.error("Error merging branches", e);
@@ -134,6 +145,7 @@ public class GitServiceImpl implements GitService {
         try (Git git = openGitRepository(projectPath)) {
             git.revert().setOurCommitName(commitHash).call();
             log.info("Reverted commit: {} in project: {}", commitHash, projectPath);
+            eventPublisher.publishEvent(new GitHeadChangedEvent(projectPath));
         } catch (GitAPIException e) {
             log.error("Error reverting commit", e);
             throw new RuntimeException("Failed to revert commit", e);
@@ -176,6 +188,34 @@ public class GitServiceImpl implements GitService {
         }
     }
 
+    @Override
+    public List<String> getChangedPaths(String projectPath, String fromCommit, String toCommit) {
+        try (Git git = openGitRepository(projectPath);
+             RevWalk walk = new RevWalk(git.getRepository());
+             DiffFormatter diff = new DiffFormatter(DisabledOutputStream.INSTANCE)) {
+            Repository repository = git.getRepository();
+            ObjectId from = repository.resolve(fromCommit);
+            ObjectId to = repository.resolve(toCommit);
+            if (from == null || to == null) {
+                throw new RuntimeException("Unknown commit: " + (from == null ? fromCommit : toCommit));
+            }
+
+            // Only trees are compared, so unchanged subtrees are skipped without reading any file
+            diff.setRepository(repository);
+            List<DiffEntry> entries = diff.scan(walk.parseCommit(from).getTree(), walk.parseCommit(to).getTree());
+
+            Set<String> paths = new LinkedHashSet<>();
+            for (DiffEntry entry : entries) {
+                if (!DiffEntry.DEV_NULL.equals(entry.getOldPath())) paths.add(entry.getOldPath());
+                if (!DiffEntry.DEV_NULL.equals(entry.getNewPath())) paths.add(entry.getNewPath());
+            }
+            return new ArrayList<>(paths);
+        } catch (IOException e) {
+            log.error("Error diffing {}..{} in project: {}", fromCommit, toCommit, projectPath, e);
+            throw new RuntimeException("Failed to diff commits", e);
+        }
+    }
+
     @Override
     public String stashChanges(String projectPath, String message) {
         try (Git git = openGitRepository(projectPath)) {
@@ -257,6 +297,7 @@ public class GitServiceImpl implements GitService {
         try (Git git = openGitRepository(projectPath)) {
             git.pull().call();
             log.info("Pulled changes in project: {}", projectPath);
+            eventPublisher.publishEvent(new GitHeadChangedEvent(projectPath));
         } catch (GitAPIException e) {
             log.error("Error pulling changes", e);
             throw new RuntimeException("Failed to pull changes", e);
@@ -0,0 +1,80 @@
+package com.devos.file.service.impl;
+
+import org.eclipse.jgit.api.Git;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class GitServiceImplTest {
+
+    @TempDir
+    Path repo;
+
+    private final GitServiceImpl gitService = new GitServiceImpl(mock(ApplicationEventPublisher.class));
+
+    @Test
+    void listsThePathsChangedBetweenTwoCommits() throws Exception {
+        String first;
+        String second;
+        try (Git git = Git.init().setDirectory(repo.toFile()).call()) {
+            write("README.md", "readme");
+            write("src/App.java", "class App { }");
+            write("src/Old.java", "class Old { }");
+            write("docs/guide.md", "guide");
+            first = commit(git, "first");
+
+            write("src/App.java", "class App { int changed; }");
+            Files.delete(repo.resolve("src/Old.java"));
+            Files.move(repo.resolve("docs/guide.md"), repo.resolve("docs/manual.md"));
+            write("src/New.java", "class New { }");
+            second = commit(git, "second");
+        }
+
+        List<String> changed = gitService.getChangedPaths(repo.toString(), first, second);
+
+        // Renames count as both the old and the new path; untouched files are left out
+        assertEquals(Set.of("src/App.java", "src/Old.java", "docs/guide.md", "docs/manual.md", "src/New.java"),
+                Set.copyOf(changed));
+        assertEquals(changed.size(), Set.copyOf(changed).size());
+        assertEquals(List.of(), gitService.getChangedPaths(repo.toString(), second, second));
+        assertEquals(second, gitService.getCurrentCommitHash(repo.toString()));
+    }
+
+    @Test
+    void rejectsUnknownCommits() throws Exception {
+        String head;
+        try (Git git = Git.init().setDirectory(repo.toFile()).call()) {
+            write("README.md", "readme");
+            head = commit(git, "first");
+        }
+
+        assertThrows(RuntimeException.class,
+                () -> gitService.getChangedPaths(repo.toString(), "0123456789abcdef0123456789abcdef01234567", head));
+    }
+
+    private void write(String relativePath, String content) throws Exception {
+        Path file = repo.resolve(relativePath);
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, content);
+    }
+
+    private static String commit(Git git, String message) throws Exception {
+        git.add().addFilepattern(".").call();
+        git.add().addFilepattern(".").setUpdate(true).call();
+        return git.commit()
+                .setMessage(message)
+                .setAuthor("Dev", "dev@example.com")
+                .setCommitter("Dev", "dev@example.com")
+                .setSign(false)
+                .call()
+                .getName();
+    }
+}